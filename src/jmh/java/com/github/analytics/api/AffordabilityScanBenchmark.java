@@ -0,0 +1,88 @@
+package com.github.analytics.api;
+
+import com.github.projects.api.ProjectCatalogIndex;
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways of finding newly affordable projects, in isolation on a primitive column ({@code boundary*}) and
+ * within a whole greedy run, including scaling the column ({@code selection*}). The catalog is sorted by required
+ * capital, as served by the catalog index, and the initial capital covers most of it, so the scans advance by large
+ * jumps. The vector variants fall back to the scalar scan, and measure the same, if the forked JVM
+ * lacks {@code --add-modules jdk.incubator.vector}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class AffordabilityScanBenchmark {
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    private CapitalMaximizationQuery query;
+    private long[] scaledRequiredCapital;
+    private AffordabilityScanner vectorScanner;
+
+    @Setup
+    public void setUp() {
+        var random = ThreadLocalRandom.current();
+        List<ProjectDTO> projects = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            projects.add(new ProjectDTO(UUID.randomUUID(), "Project %d".formatted(i),
+                    BigDecimal.valueOf(random.nextLong(100_000_000L), 2),
+                    BigDecimal.valueOf(random.nextLong(10_000_000L), 2), AuditMetadata.empty(), 0L));
+        }
+        projects.sort(ProjectCatalogIndex.BY_REQUIRED_CAPITAL);
+        query = new CapitalMaximizationQuery(projects, catalogSize, new BigDecimal("1000000.00"));
+
+        scaledRequiredCapital = projects.stream()
+                .mapToLong(project -> project.requiredCapital().movePointRight(2).longValueExact())
+                .toArray();
+        vectorScanner = AffordabilityScanner.vectorIfAvailable();
+    }
+
+    @Benchmark
+    public int boundaryScalar() {
+        return AffordabilityScanner.SCALAR.nextUnaffordable(
+                scaledRequiredCapital, 0, scaledRequiredCapital.length, Long.MAX_VALUE - 1);
+    }
+
+    @Benchmark
+    public int boundaryVector() {
+        return vectorScanner.nextUnaffordable(
+                scaledRequiredCapital, 0, scaledRequiredCapital.length, Long.MAX_VALUE - 1);
+    }
+
+    @Benchmark
+    public void selectionBigDecimal(Blackhole blackhole) {
+        drain(new GreedyCapitalSelection(query), blackhole);
+    }
+
+    @Benchmark
+    public void selectionScalar(Blackhole blackhole) {
+        drain(new GreedyCapitalSelection(query, AffordabilityScanner.SCALAR), blackhole);
+    }
+
+    @Benchmark
+    public void selectionVector(Blackhole blackhole) {
+        drain(new GreedyCapitalSelection(query, vectorScanner), blackhole);
+    }
+
+    private static void drain(GreedyCapitalSelection selection, Blackhole blackhole) {
+        for (CapitalSelection next = selection.next(); next != null; next = selection.next()) {
+            blackhole.consume(next);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time to the first selection of a catalog prepared sequentially and in parallel. The catalog arrives
+ * in random order, as from a full table scan, so the sequential preparation pays for a complete sort; the parallel
+ * one only waits for the cheapest range. Gains scale with the cores available to the common pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogPreparationBenchmark {
+
+    @Param({"200000", "1000000"})
+    private int catalogSize;
+
+    private CapitalMaximizationQuery query;
+
+    @Setup
+    public void setUp() {
+        var random = ThreadLocalRandom.current();
+        List<ProjectDTO> projects = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            projects.add(new ProjectDTO(UUID.randomUUID(), "Project %d".formatted(i),
+                    BigDecimal.valueOf(random.nextLong(100_000_000L), 2),
+                    BigDecimal.valueOf(random.nextLong(10_000_000L), 2), AuditMetadata.empty(), 0L));
+        }
+        Collections.shuffle(projects);
+        query = new CapitalMaximizationQuery(projects, 1, new BigDecimal("1000.00"));
+    }
+
+    @Benchmark
+    public CapitalSelection firstSelectionSequential() {
+        try (var selection = new GreedyCapitalSelection(query, AffordabilityScanner.SCALAR)) {
+            return selection.next();
+        }
+    }
+
+    @Benchmark
+    public CapitalSelection firstSelectionParallel() {
+        try (var selection = new GreedyCapitalSelection(query, AffordabilityScanner.SCALAR, 0)) {
+            return selection.next();
+        }
+    }
+}
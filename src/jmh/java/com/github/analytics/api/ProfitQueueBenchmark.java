@@ -0,0 +1,59 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link BigDecimal} heap against the bucketed profit queue for a full drain of the catalog, as when
+ * {@code maxProjects} covers every affordable project. Profits are money values with a scale of 2 in a narrow range,
+ * the case in which {@link ProfitQueue#forCatalog} picks buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfitQueueBenchmark {
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    private List<ProjectDTO> projects;
+
+    @Setup
+    public void setUp() {
+        var random = ThreadLocalRandom.current();
+        projects = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            projects.add(new ProjectDTO(UUID.randomUUID(), "Project %d".formatted(i), BigDecimal.ZERO,
+                    BigDecimal.valueOf(random.nextInt(50_000), 2), AuditMetadata.empty(), 0L));
+        }
+    }
+
+    @Benchmark
+    public void heap(Blackhole blackhole) {
+        drain(new ProfitQueue.HeapProfitQueue(), blackhole);
+    }
+
+    @Benchmark
+    public void buckets(Blackhole blackhole) {
+        drain(ProfitQueue.forCatalog(projects), blackhole);
+    }
+
+    private void drain(ProfitQueue queue, Blackhole blackhole) {
+        projects.forEach(queue::offer);
+        while (!queue.isEmpty()) {
+            blackhole.consume(queue.poll());
+        }
+    }
+}
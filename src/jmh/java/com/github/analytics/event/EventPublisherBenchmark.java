@@ -0,0 +1,94 @@
+package com.github.analytics.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
+
+/**
+ * Measures {@link ProjectCapitalOptimizerEventPublisher} against an in-process KRaft broker: a burst of concurrently
+ * published events (as produced by concurrent API requests) versus the same events published one acknowledgement at a
+ * time, across producer linger and compression settings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventPublisherBenchmark {
+
+    @Param({"256"})
+    private int burstSize;
+
+    @Param({"0", "5"})
+    private int lingerMs;
+
+    @Param({"none", "lz4"})
+    private String compressionType;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private DefaultKafkaProducerFactory<String, CapitalMaximizationQueryEvent> producerFactory;
+    private ProjectCapitalOptimizerEventPublisher publisher;
+    private List<CapitalMaximizationQueryEvent> events;
+
+    @Setup
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 2, CAPITAL_MAXIMIZATION_QUERY_TOPIC);
+        broker.afterPropertiesSet();
+
+        Map<String, Object> producerProperties = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType,
+                JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        producerFactory = new DefaultKafkaProducerFactory<>(
+                producerProperties, new StringSerializer(), new JsonSerializer<>());
+        publisher = new ProjectCapitalOptimizerEventPublisher(new KafkaTemplate<>(producerFactory), new SimpleMeterRegistry());
+
+        events = IntStream.range(0, burstSize)
+                .mapToObj(i -> new CapitalMaximizationQueryEvent(1 + i % 10, BigDecimal.valueOf(1_000L + i)))
+                .toList();
+
+        // Fetch topic metadata before measuring
+        publisher.publishEvent(events.getFirst()).block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public Boolean publishConcurrentBurst() {
+        return Flux.fromIterable(events)
+                .flatMap(publisher::publishEvent, burstSize)
+                .blockLast();
+    }
+
+    @Benchmark
+    public Boolean publishOneAtATime() {
+        Boolean acknowledged = null;
+        for (CapitalMaximizationQueryEvent event : events) {
+            acknowledged = publisher.publishEvent(event).block();
+        }
+        return acknowledged;
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.analytics.event;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
+
+/**
+ * Compares the encode and decode cost of a {@link CapitalMaximizationQueryEvent} in the JSON and binary wire formats,
+ * through the same serializer and deserializer pair the producer and consumer use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    @Param({"json", "binary"})
+    private String wireFormat;
+
+    private ContentTypeEventSerializer serializer;
+    private ContentTypeEventDeserializer deserializer;
+    private CapitalMaximizationQueryEvent event;
+    private RecordHeaders encodedHeaders;
+    private byte[] encodedPayload;
+
+    @Setup
+    public void setUp() {
+        serializer = new ContentTypeEventSerializer();
+        serializer.configure(Map.of(
+                JsonSerializer.ADD_TYPE_INFO_HEADERS, false,
+                ContentTypeEventSerializer.WIRE_FORMAT_CONFIG, wireFormat), false);
+        deserializer = new ContentTypeEventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.VALUE_DEFAULT_TYPE, CapitalMaximizationQueryEvent.class.getName()), false);
+
+        event = new CapitalMaximizationQueryEvent(25, new BigDecimal("250000.00"));
+        encodedHeaders = new RecordHeaders();
+        encodedPayload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, encodedHeaders, event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, encodedHeaders, encodedPayload);
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.projects.model;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinition;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
+import com.datastax.oss.driver.internal.core.cql.DefaultRow;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.cassandra.core.convert.MappingCassandraConverter;
+import org.springframework.data.cassandra.core.mapping.CassandraMappingContext;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Spring Data entity conversion path ({@code Row -> ProjectEntity -> ProjectDTO}) against the direct
+ * {@link ProjectRowMapper} path for a full catalog scan. Rows are pre-encoded driver rows, so only decoding, mapping
+ * and validation are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectRowMappingBenchmark {
+    private static final String KEYSPACE = "roi_project_planner";
+    private static final String TABLE = "projects";
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    private List<Row> rows;
+    private MappingCassandraConverter converter;
+
+    @Setup
+    public void setUp() {
+        ColumnDefinitions columnDefinitions = projectColumnDefinitions();
+        UserDefinedType auditMetadataType = (UserDefinedType) columnDefinitions.get(4).getType();
+
+        rows = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            rows.add(encodeRow(columnDefinitions, auditMetadataType, i));
+        }
+
+        CassandraMappingContext mappingContext = new CassandraMappingContext();
+        mappingContext.setUserTypeResolver(typeName -> auditMetadataType);
+        converter = new MappingCassandraConverter(mappingContext);
+        converter.setUserTypeResolver(typeName -> auditMetadataType);
+        converter.afterPropertiesSet();
+    }
+
+    @Benchmark
+    public void entityConversion(Blackhole blackhole) {
+        for (Row row : rows) {
+            blackhole.consume(ProjectDTO.fromEntity(converter.read(ProjectEntity.class, row)));
+        }
+    }
+
+    @Benchmark
+    public void directRowMapping(Blackhole blackhole) {
+        int rowNum = 0;
+        for (Row row : rows) {
+            blackhole.consume(ProjectRowMapper.INSTANCE.mapRow(row, rowNum++));
+        }
+    }
+
+    private static ColumnDefinitions projectColumnDefinitions() {
+        Map<String, RawType> auditFields = new LinkedHashMap<>();
+        auditFields.put("created_at", primitive(ProtocolConstants.DataType.TIMESTAMP));
+        auditFields.put("updated_at", primitive(ProtocolConstants.DataType.TIMESTAMP));
+
+        List<ColumnDefinition> definitions = List.of(
+                column("id", 0, primitive(ProtocolConstants.DataType.UUID)),
+                column("name", 1, primitive(ProtocolConstants.DataType.VARCHAR)),
+                column("required_capital", 2, primitive(ProtocolConstants.DataType.DECIMAL)),
+                column("profit", 3, primitive(ProtocolConstants.DataType.DECIMAL)),
+                column("auditmetadata", 4, new RawType.RawUdt(KEYSPACE, "audit_metadata", auditFields)),
+                column("version", 5, primitive(ProtocolConstants.DataType.BIGINT)));
+        return DefaultColumnDefinitions.valueOf(definitions);
+    }
+
+    private static ColumnDefinition column(String name, int index, RawType type) {
+        return new DefaultColumnDefinition(new ColumnSpec(KEYSPACE, TABLE, name, index, type), AttachmentPoint.NONE);
+    }
+
+    private static RawType primitive(int protocolTypeId) {
+        return RawType.PRIMITIVES.get(protocolTypeId);
+    }
+
+    private static Row encodeRow(ColumnDefinitions columnDefinitions, UserDefinedType auditMetadataType, int i) {
+        ProtocolVersion protocol = ProtocolVersion.DEFAULT;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Instant now = Instant.now();
+
+        List<ByteBuffer> values = List.of(
+                TypeCodecs.UUID.encode(UUID.randomUUID(), protocol),
+                TypeCodecs.TEXT.encode("Project %d".formatted(i), protocol),
+                TypeCodecs.DECIMAL.encode(BigDecimal.valueOf(random.nextLong(1_000_000), 2), protocol),
+                TypeCodecs.DECIMAL.encode(BigDecimal.valueOf(random.nextLong(1_000_000), 2), protocol),
+                TypeCodecs.udtOf(auditMetadataType).encode(auditMetadataType.newValue(now, now), protocol),
+                TypeCodecs.BIGINT.encode(0L, protocol));
+        return new DefaultRow(columnDefinitions, values, AttachmentPoint.NONE);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.analytics.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds where the affordable prefix of a capital-sorted catalog ends, over required capitals scaled to integers.
+ *
+ * <p> The {@code VectorAffordabilityScanner} compares a whole SIMD register of required capitals at a time using the
+ * incubating Vector API. It lives in the {@code vector} source set, the only one compiled against
+ * {@code jdk.incubator.vector}, and is only loaded when the JVM resolved that module, that is when it was started with
+ * {@code --add-modules jdk.incubator.vector}; otherwise the {@link ScalarAffordabilityScanner} is used. </p>
+ */
+abstract class AffordabilityScanner {
+    private static final Logger logger = LoggerFactory.getLogger(AffordabilityScanner.class);
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_SCANNER = "com.github.analytics.api.VectorAffordabilityScanner";
+
+    static final AffordabilityScanner SCALAR = new ScalarAffordabilityScanner();
+
+    /**
+     * Returns the index of the first project in {@code [from, to)} whose required capital exceeds
+     * {@code scaledCapital}, or {@code to} if all of them are affordable.
+     *
+     * @param scaledRequiredCapital Required capitals in ascending order.
+     */
+    abstract int nextUnaffordable(long[] scaledRequiredCapital, int from, int to, long scaledCapital);
+
+    abstract String name();
+
+    /**
+     * Returns the Vector API scanner if the JVM supports it, and the scalar scanner otherwise.
+     */
+    static AffordabilityScanner vectorIfAvailable() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            logger.warn("Vector scan requested but {} is not resolved; start the JVM with --add-modules {}. "
+                    + "Using the scalar scan.", VECTOR_MODULE, VECTOR_MODULE);
+            return SCALAR;
+        }
+
+        // Loaded reflectively so that no class referring to the incubator module is linked without it
+        try {
+            return (AffordabilityScanner) Class.forName(VECTOR_SCANNER).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("Vector scan unavailable; using the scalar scan.", e);
+            return SCALAR;
+        }
+    }
+
+    static final class ScalarAffordabilityScanner extends AffordabilityScanner {
+
+        @Override
+        int nextUnaffordable(long[] scaledRequiredCapital, int from, int to, long scaledCapital) {
+            int index = from;
+            while (index < to && scaledRequiredCapital[index] <= scaledCapital) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        String name() {
+            return "scalar";
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.analytics.api;
+
+/**
+ * Response payload for a capital maximization query accepted for asynchronous processing.
+ *
+ * @param jobId   The job ID under which the result can be retrieved or streamed.
+ * @param message A human-readable acknowledgement.
+ */
+public record CapitalMaximizationJobAccepted(String jobId, String message) {
+}
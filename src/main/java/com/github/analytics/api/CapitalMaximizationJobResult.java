@@ -0,0 +1,43 @@
+package com.github.analytics.api;
+
+import java.time.Instant;
+
+import static com.github.projects.model.Validators.requireNonNull;
+import static com.github.projects.model.Validators.requireNonNullOrBlank;
+
+/**
+ * Immutable record representing the stored outcome of an asynchronous capital maximization job.
+ *
+ * @param jobId       The job ID returned when the query was accepted.
+ * @param status      Whether the job completed or failed.
+ * @param result      The optimization result; {@code null} when the job failed.
+ * @param error       A description of the failure; {@code null} when the job completed.
+ * @param completedAt When the job finished processing.
+ */
+public record CapitalMaximizationJobResult(
+        String jobId,
+        Status status,
+        ProjectCapitalOptimized result,
+        String error,
+        Instant completedAt) {
+
+    public enum Status {
+        COMPLETED,
+        FAILED
+    }
+
+    public CapitalMaximizationJobResult {
+        requireNonNullOrBlank(jobId, "Job ID cannot be null or blank.");
+        requireNonNull(status, () -> "Job status cannot be null.");
+        requireNonNull(completedAt, () -> "Job completion time cannot be null.");
+    }
+
+    public static CapitalMaximizationJobResult completed(String jobId, ProjectCapitalOptimized result) {
+        requireNonNull(result, () -> "Result of a completed job cannot be null.");
+        return new CapitalMaximizationJobResult(jobId, Status.COMPLETED, result, null, Instant.now());
+    }
+
+    public static CapitalMaximizationJobResult failed(String jobId, String error) {
+        return new CapitalMaximizationJobResult(jobId, Status.FAILED, null, error, Instant.now());
+    }
+}
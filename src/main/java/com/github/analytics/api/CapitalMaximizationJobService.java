@@ -0,0 +1,141 @@
+package com.github.analytics.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.analytics.model.CapitalMaximizationResultEntity;
+import com.github.projects.model.Validators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.cassandra.core.InsertOptions;
+import org.springframework.data.cassandra.core.ReactiveCassandraOperations;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+import static com.github.configuration.CacheConfiguration.JOB_RESULT_CACHE_KEY;
+import static com.github.configuration.CacheConfiguration.JOB_RESULT_CHANNEL;
+
+/**
+ * Stores and serves the results of asynchronous capital maximization jobs.
+ *
+ * <p> Results are written to Cassandra with a TTL as the system of record and to Redis as a short-lived hot tier for
+ * polling clients. Each stored result is also published on a Redis channel, so streaming clients connected to any
+ * instance receive it as soon as it lands. </p>
+ */
+@Service
+public class CapitalMaximizationJobService {
+    private static final Logger logger = LoggerFactory.getLogger(CapitalMaximizationJobService.class);
+    private static final Duration RESUBSCRIBE_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration SUBSCRIPTION_RECHECK_DELAY = Duration.ofSeconds(1);
+
+    private final ReactiveCassandraOperations cassandraOperations;
+    private final ReactiveRedisTemplate<String, CapitalMaximizationJobResult> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final InsertOptions resultInsertOptions;
+    private final Duration cacheTtl;
+    private final Flux<CapitalMaximizationJobResult> publishedResults;
+
+    public CapitalMaximizationJobService(
+            ReactiveCassandraOperations cassandraOperations,
+            ReactiveRedisTemplate<String, CapitalMaximizationJobResult> redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${roi.optimizer.jobs.result-ttl}") Duration resultTtl,
+            @Value("${roi.optimizer.jobs.cache-ttl}") Duration cacheTtl) {
+        this.cassandraOperations = cassandraOperations;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.resultInsertOptions = InsertOptions.builder().ttl(resultTtl).build();
+        this.cacheTtl = cacheTtl;
+
+        // A single channel subscription per instance, shared by every streaming client and re-established on failure.
+        this.publishedResults = Flux.defer(() -> redisTemplate.listenToChannel(JOB_RESULT_CHANNEL))
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnError(error -> logger.warn("Job result subscription failed; resubscribing", error))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, RESUBSCRIBE_BACKOFF))
+                .share();
+    }
+
+    /**
+     * Persists a job result, then caches and publishes it. Only the Cassandra write is required to succeed; the hot
+     * tier and the notification are best effort, since readers fall back to Cassandra.
+     */
+    public Mono<Void> saveResult(CapitalMaximizationJobResult jobResult) {
+        Validators.requireNonNull(jobResult, () -> "Job result should not be null");
+
+        return Mono.fromCallable(() -> toEntity(jobResult))
+                .flatMap(entity -> cassandraOperations.insert(entity, resultInsertOptions))
+                .doOnSuccess(written -> logger.info("Stored {} result for job '{}'", jobResult.status(), jobResult.jobId()))
+                .then(cacheResult(jobResult))
+                .then(redisTemplate.convertAndSend(JOB_RESULT_CHANNEL, jobResult)
+                        .doOnError(error -> logger.error("Error publishing result for job '{}'", jobResult.jobId(), error))
+                        .onErrorResume(error -> Mono.empty()))
+                .then();
+    }
+
+    /**
+     * Retrieves a job result from the hot tier, falling back to Cassandra and re-warming the hot tier on a miss.
+     */
+    public Mono<CapitalMaximizationJobResult> findResult(String jobId) {
+        Validators.requireNonNullOrBlank(jobId, () -> "job ID should not be null or empty");
+
+        return redisTemplate.opsForValue().get(createCacheKey(jobId))
+                .onErrorResume(error -> {
+                    logger.error("Error fetching result for job '{}' from cache", jobId, error);
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> cassandraOperations.selectOneById(jobId, CapitalMaximizationResultEntity.class)
+                        .map(this::fromEntity)
+                        .flatMap(jobResult -> cacheResult(jobResult).thenReturn(jobResult))));
+    }
+
+    /**
+     * Emits the job result as soon as it is available: immediately if it is already stored, otherwise when it is
+     * published. The store is read once more after a short delay, covering a result stored while the shared channel
+     * subscription was still being established.
+     */
+    public Mono<CapitalMaximizationJobResult> awaitResult(String jobId) {
+        Validators.requireNonNullOrBlank(jobId, () -> "job ID should not be null or empty");
+
+        Mono<CapitalMaximizationJobResult> published = publishedResults
+                .filter(jobResult -> jobId.equals(jobResult.jobId()))
+                .next();
+
+        return Mono.firstWithValue(published, findResult(jobId),
+                Mono.delay(SUBSCRIPTION_RECHECK_DELAY).then(findResult(jobId)));
+    }
+
+    private Mono<Void> cacheResult(CapitalMaximizationJobResult jobResult) {
+        return redisTemplate.opsForValue().set(createCacheKey(jobResult.jobId()), jobResult, cacheTtl)
+                .doOnError(error -> logger.error("Error caching result for job '{}'", jobResult.jobId(), error))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private CapitalMaximizationResultEntity toEntity(CapitalMaximizationJobResult jobResult) {
+        try {
+            return new CapitalMaximizationResultEntity(jobResult.jobId(), jobResult.status().name(),
+                    objectMapper.writeValueAsString(jobResult), jobResult.completedAt());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize result for job " + jobResult.jobId(), e);
+        }
+    }
+
+    private CapitalMaximizationJobResult fromEntity(CapitalMaximizationResultEntity entity) {
+        try {
+            return objectMapper.readValue(entity.payload(), CapitalMaximizationJobResult.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to deserialize result for job " + entity.jobId(), e);
+        }
+    }
+
+    private String createCacheKey(final String jobId) {
+        return "%s:%s".formatted(JOB_RESULT_CACHE_KEY, jobId);
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.analytics.api;
+
+import com.github.analytics.exception.CapitalMaximizationJobNotFoundException;
+import com.github.projects.api.ApiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping(value = "/api/v1/capital/maximization/jobs")
+public class CapitalMaximizationJobsApiController {
+    private static final Logger logger = LoggerFactory.getLogger(CapitalMaximizationJobsApiController.class);
+    private static final String RESULT_EVENT = "result";
+
+    private final CapitalMaximizationJobService capitalMaximizationJobService;
+    private final Duration streamTimeout;
+    private final Duration heartbeatInterval;
+
+    public CapitalMaximizationJobsApiController(
+            CapitalMaximizationJobService capitalMaximizationJobService,
+            @Value("${roi.optimizer.jobs.stream-timeout}") Duration streamTimeout,
+            @Value("${roi.optimizer.jobs.heartbeat-interval}") Duration heartbeatInterval) {
+        this.capitalMaximizationJobService = capitalMaximizationJobService;
+        this.streamTimeout = streamTimeout;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    @GetMapping(value = "/{jobId}")
+    public Mono<ApiResponse<CapitalMaximizationJobResult>> getJobResult(@PathVariable String jobId) {
+        logger.info("Received request to get result for job '{}'", jobId);
+
+        return capitalMaximizationJobService.findResult(jobId)
+                .switchIfEmpty(Mono.error(new CapitalMaximizationJobNotFoundException(
+                        "No result available for job ID: " + jobId)))
+                .map(jobResult -> ApiResponse.success(HttpStatus.OK.value(), jobResult))
+                .doOnError(error -> logger.error("Error retrieving result for job '{}'", jobId, error));
+    }
+
+    /**
+     * Streams the job result as a single server-sent event as soon as it lands, then completes. Comment heartbeats keep
+     * idle connections open through proxies; the stream completes without a result after the configured timeout.
+     */
+    @GetMapping(value = "/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CapitalMaximizationJobResult>> streamJobResult(@PathVariable String jobId) {
+        logger.info("Received request to stream result for job '{}'", jobId);
+
+        Flux<ServerSentEvent<CapitalMaximizationJobResult>> result = capitalMaximizationJobService.awaitResult(jobId)
+                .map(jobResult -> ServerSentEvent.builder(jobResult).id(jobId).event(RESULT_EVENT).build())
+                .flux();
+
+        Flux<ServerSentEvent<CapitalMaximizationJobResult>> heartbeats = Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<CapitalMaximizationJobResult>builder().comment("keep-alive").build());
+
+        return Flux.merge(result, heartbeats)
+                .takeUntil(event -> event.data() != null)
+                .take(streamTimeout)
+                .doOnError(error -> logger.error("Error streaming result for job '{}'", jobId, error));
+    }
+}
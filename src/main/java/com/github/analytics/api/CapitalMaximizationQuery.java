@@ -3,6 +3,7 @@ package com.github.analytics.api;
 import com.github.projects.model.ProjectDTO;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 import static com.github.projects.model.Validators.*;
@@ -10,15 +11,21 @@ import static com.github.projects.model.Validators.*;
 /**
  * Immutable record representing a query to maximize capital.
  * Encapsulates available projects, the maximum number of selections, and initial capital for optimization.
+ * An optional deadline bounds how long the optimization may run; {@code null} means no deadline.
  */
 public record CapitalMaximizationQuery(
         List<ProjectDTO> availableProjects,
         int maxProjects,
-        BigDecimal initialCapital) {
+        BigDecimal initialCapital,
+        Instant deadline) {
 
     public CapitalMaximizationQuery {
         requireNonNullAndNoNullElements(availableProjects, () -> "Available projects list cannot be null or contain null elements.");
         requireNonNegative(maxProjects, () -> "Maximum projects must be zero or greater.");
         requireNonNullAndNonNegative(initialCapital, () -> "Initial capital cannot be null or negative.");
     }
+
+    public CapitalMaximizationQuery(List<ProjectDTO> availableProjects, int maxProjects, BigDecimal initialCapital) {
+        this(availableProjects, maxProjects, initialCapital, null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.ProjectDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-registered, low-cardinality meters for capital maximization results.
+ *
+ * <p> Every meter is registered once at startup and tagged only by {@link Mode}, so the number of time series does not
+ * grow with the results. Per-result details, such as the number of selected projects and the first of their names, are
+ * kept instead in a ring buffer of the last {@code recentResults} optimizations, exposed through the
+ * {@code recentoptimizations} actuator endpoint. </p>
+ */
+@Component
+public class CapitalOptimizationMetrics {
+    /**
+     * Selected project names kept per recent optimization, so that an entry stays small whatever the selection size.
+     */
+    static final int RECENT_SELECTED_NAMES = 10;
+
+    public enum Mode {
+        SYNC,
+        ASYNC,
+        /**
+         * Selections streamed to the caller as they are made.
+         */
+        STREAM;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * How a query whose deadline passed was abandoned.
+     */
+    public enum DeadlineOutcome {
+        /**
+         * Dropped before the catalog was loaded.
+         */
+        SHED,
+        /**
+         * Stopped while the catalog was loaded or the projects were selected.
+         */
+        CANCELLED;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final DistributionSummary finalCapital;
+    private final DistributionSummary selectedProjects;
+    private final Map<Mode, Timer> latency = new EnumMap<>(Mode.class);
+    private final Map<DeadlineOutcome, Counter> deadlineExceeded = new EnumMap<>(DeadlineOutcome.class);
+    private final RecentOptimization[] recent;
+    private int nextSlot;
+    private int size;
+
+    public CapitalOptimizationMetrics(
+            MeterRegistry meterRegistry,
+            OptimizationCostEstimator costEstimator,
+            @Value("${roi.optimizer.metrics.recent-results}") int recentResults) {
+        this.recent = new RecentOptimization[recentResults];
+
+        this.finalCapital = DistributionSummary.builder("roi.optimizer.final_capital")
+                .description("Final capital reached by capital maximizations")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        this.selectedProjects = DistributionSummary.builder("roi.optimizer.selected_projects")
+                .description("Number of projects selected by capital maximizations")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        for (Mode mode : Mode.values()) {
+            latency.put(mode, Timer.builder("roi.optimizer.latency")
+                    .description("Time taken by the catalog load and the capital maximization")
+                    .tag("mode", mode.tag())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (DeadlineOutcome outcome : DeadlineOutcome.values()) {
+            deadlineExceeded.put(outcome, Counter.builder("roi.optimizer.deadline_exceeded")
+                    .description("Capital maximization queries abandoned because their deadline passed")
+                    .tag("outcome", outcome.tag())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("roi.optimizer.catalog_size", costEstimator,
+                        estimator -> estimator.knownCatalogSize() < 0 ? Double.NaN : estimator.knownCatalogSize())
+                .description("Number of projects in the catalog as of the latest full load")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a completed optimization.
+     *
+     * @param jobId the job ID of an asynchronous optimization, or {@code null} for a synchronous or streamed one.
+     */
+    public void record(Mode mode, String jobId, int maxProjects, BigDecimal initialCapital,
+                       ProjectCapitalOptimized result, Duration elapsed) {
+        finalCapital.record(result.finalCapital().doubleValue());
+        selectedProjects.record(result.selectedProjects().size());
+        latency.get(mode).record(elapsed);
+
+        var optimization = new RecentOptimization(jobId, mode, Instant.now(), maxProjects, initialCapital,
+                result.finalCapital(), result.selectedProjects().size(),
+                result.selectedProjects().stream().limit(RECENT_SELECTED_NAMES).map(ProjectDTO::name).toList(),
+                elapsed.toMillis());
+        remember(optimization);
+    }
+
+    /**
+     * Records a query abandoned because its deadline passed.
+     */
+    public void recordDeadlineExceeded(DeadlineOutcome outcome) {
+        deadlineExceeded.get(outcome).increment();
+    }
+
+    /**
+     * Returns the most recent optimizations, newest first.
+     */
+    public synchronized List<RecentOptimization> recentOptimizations() {
+        List<RecentOptimization> optimizations = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            optimizations.add(recent[(nextSlot - i + recent.length) % recent.length]);
+        }
+        return optimizations;
+    }
+
+    private synchronized void remember(RecentOptimization optimization) {
+        if (recent.length == 0) {
+            return;
+        }
+        recent[nextSlot] = optimization;
+        nextSlot = (nextSlot + 1) % recent.length;
+        size = Math.min(size + 1, recent.length);
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.ProjectDTO;
+
+import java.math.BigDecimal;
+
+import static com.github.projects.model.Validators.requireNonNull;
+import static com.github.projects.model.Validators.requireNonNullAndNonNegative;
+
+/**
+ * A single step of a capital maximization: the project selected and the capital available after completing it.
+ * Streamed one step at a time, the last selection carries the final capital.
+ *
+ * @param step         The 1-based position of the selection.
+ * @param project      The selected project.
+ * @param capitalAfter The capital after the project's profit is added.
+ */
+public record CapitalSelection(int step, ProjectDTO project, BigDecimal capitalAfter) {
+
+    public CapitalSelection {
+        requireNonNull(project, () -> "Selected project cannot be null.");
+        requireNonNullAndNonNegative(capitalAfter, () -> "Capital cannot be null or negative.");
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.ProjectDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.stream.Stream;
+
+/**
+ * State of the greedy capital maximization, advanced one selection at a time.
+ *
+ * <p> Projects are sorted by required capital once; each step moves the newly affordable projects into a
+ * {@link ProfitQueue} and takes the most profitable one, the earliest offered among equals. Stepping lets the same
+ * algorithm back both the batch result and the streamed selections. Not thread-safe. </p>
+ *
+ * <p> Given an {@link AffordabilityScanner}, required capitals are scaled to a {@code long} column up front, so that
+ * finding the newly affordable projects compares primitives instead of {@link BigDecimal}s. </p>
+ *
+ * <p> Catalogs of at least {@code parallelThreshold} projects are prepared on the fork-join pool by a
+ * {@link ParallelSortedCatalog}; selection then starts as soon as the cheapest range is sorted, which it usually
+ * never leaves since the greedy loop stops at the first unaffordable project. Close the selection to abandon the
+ * preparation still pending. </p>
+ *
+ * <p> Selections over a {@link SpilledCatalog} read a lazy merge of its runs, and selections over a stream already in
+ * order read it only as far as they get; both hold only the affordable candidates on the heap. </p>
+ */
+final class GreedyCapitalSelection implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GreedyCapitalSelection.class);
+
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final SortedCatalog catalog;
+    private final int maxProjects;
+    private final ProfitQueue profitQueue;
+    private final AffordabilityScanner scanner;
+    /**
+     * Required capitals scaled by {@code 10^requiredCapitalScale}, or {@code null} to compare {@link BigDecimal}s.
+     */
+    private final long[] scaledRequiredCapital;
+    private final int requiredCapitalScale;
+
+    private BigDecimal capital;
+    private int projectIndex;
+    private int selected;
+
+    GreedyCapitalSelection(CapitalMaximizationQuery query) {
+        this(query, null);
+    }
+
+    /**
+     * @param scanner Scanner for the affordable prefix, or {@code null} to compare {@link BigDecimal}s one at a time.
+     */
+    GreedyCapitalSelection(CapitalMaximizationQuery query, AffordabilityScanner scanner) {
+        this(query, scanner, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param scanner           Scanner for the affordable prefix, or {@code null} to compare {@link BigDecimal}s.
+     * @param parallelThreshold Catalog size from which the catalog is prepared in parallel.
+     */
+    GreedyCapitalSelection(CapitalMaximizationQuery query, AffordabilityScanner scanner, int parallelThreshold) {
+        this(SortedCatalog.prepare(query.availableProjects(), scanner != null, parallelThreshold),
+                ProfitQueue.forCatalog(query.availableProjects(),
+                        SortedCatalog.isParallel(query.availableProjects(), parallelThreshold)),
+                scanner, query.maxProjects(), query.initialCapital());
+    }
+
+    /**
+     * Selects from a lazy merge of the spilled catalog.
+     */
+    GreedyCapitalSelection(SpilledCatalog spilled, int maxProjects, BigDecimal initialCapital) {
+        this(spilled.merge(), spilled.profitQueue(), null, maxProjects, initialCapital);
+    }
+
+    /**
+     * Selects from a stream in ascending order of required capital, whose profits are not known up front.
+     */
+    GreedyCapitalSelection(Stream<ProjectDTO> sortedProjects, int maxProjects, BigDecimal initialCapital) {
+        this(new SortedCatalog.StreamedSortedCatalog(sortedProjects), new ProfitQueue.HeapProfitQueue(), null,
+                maxProjects, initialCapital);
+    }
+
+    private GreedyCapitalSelection(SortedCatalog catalog, ProfitQueue profitQueue, AffordabilityScanner scanner,
+                                   int maxProjects, BigDecimal initialCapital) {
+        this.catalog = catalog;
+        this.profitQueue = profitQueue;
+        this.maxProjects = maxProjects;
+        this.capital = initialCapital;
+
+        this.scaledRequiredCapital = catalog.scaledRequiredCapital();
+        this.requiredCapitalScale = Math.max(0, catalog.requiredCapitalScale());
+        this.scanner = scaledRequiredCapital == null ? null : scanner;
+    }
+
+    /**
+     * Selects the most profitable affordable project.
+     *
+     * @return the selection, or {@code null} once {@code maxProjects} are selected or no affordable project remains.
+     */
+    CapitalSelection next() {
+        if (selected >= maxProjects) {
+            return null;
+        }
+
+        // Add all affordable projects to the profit queue.
+        int affordable = nextUnaffordable();
+        while (projectIndex < affordable) {
+            ProjectDTO project = catalog.get(projectIndex);
+            profitQueue.offer(project);
+            logger.debug("Added project {} to profit queue (Required: {}, Profit: {}).",
+                    project.name(), project.requiredCapital(), project.profit());
+            projectIndex++;
+        }
+        catalog.release(projectIndex);
+
+        if (profitQueue.isEmpty()) {
+            logger.debug("No further projects can be selected with current capital: {}", capital);
+            return null;
+        }
+
+        ProjectDTO chosenProject = profitQueue.poll();
+        capital = capital.add(chosenProject.profit());
+        selected++;
+        return new CapitalSelection(selected, chosenProject, capital);
+    }
+
+    /**
+     * Scans the sorted ranges from the current position, waiting for each one to be sorted before entering it.
+     */
+    private int nextUnaffordable() {
+        long scaledCapital = scanner != null ? scaledCapital() : 0L;
+        int index = projectIndex;
+        while (index < catalog.size()) {
+            int sortedEnd = catalog.awaitSorted(index);
+            if (scanner != null) {
+                index = scanner.nextUnaffordable(scaledRequiredCapital, index, sortedEnd, scaledCapital);
+            } else {
+                while (index < sortedEnd && catalog.get(index).requiredCapital().compareTo(capital) <= 0) {
+                    index++;
+                }
+            }
+            if (index < sortedEnd) {
+                break;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * The capital at the scale of the required capitals, rounded down: an integral required capital is affordable
+     * exactly when it does not exceed the rounded-down capital.
+     */
+    private long scaledCapital() {
+        BigDecimal scaled = capital.movePointRight(requiredCapitalScale).setScale(0, RoundingMode.FLOOR);
+        return scaled.compareTo(LONG_MAX) > 0 ? Long.MAX_VALUE : scaled.longValueExact();
+    }
+
+    /**
+     * Waits until the whole catalog is sorted, so that no later step waits for the preparation.
+     *
+     * @return this selection.
+     */
+    GreedyCapitalSelection awaitPrepared() {
+        catalog.awaitPrepared();
+        return this;
+    }
+
+    BigDecimal capital() {
+        return capital;
+    }
+
+    int selected() {
+        return selected;
+    }
+
+    int availableProjects() {
+        return catalog.size();
+    }
+
+    @Override
+    public void close() {
+        catalog.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.analytics.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estimates the wall-clock cost of an in-process capital maximization and decides whether it fits the configured
+ * synchronous latency budget.
+ *
+ * <p> The model charges a per-project cost for loading the catalog, plus a comparison cost for sorting it and for the
+ * heap operations of each selection: {@code n * load + (n + k) * log2(n) * compare}. The catalog size is learned from
+ * every full catalog load, since counting a Cassandra table is itself a full scan. </p>
+ */
+@Component
+public class OptimizationCostEstimator {
+    private static final int UNKNOWN_CATALOG_SIZE = -1;
+
+    private final long latencyBudgetNanos;
+    private final long loadCostPerProjectNanos;
+    private final long comparisonCostNanos;
+    private final AtomicInteger knownCatalogSize = new AtomicInteger(UNKNOWN_CATALOG_SIZE);
+
+    public OptimizationCostEstimator(
+            @Value("${roi.optimizer.sync.latency-budget}") Duration latencyBudget,
+            @Value("${roi.optimizer.sync.load-cost-per-project}") Duration loadCostPerProject,
+            @Value("${roi.optimizer.sync.comparison-cost}") Duration comparisonCost) {
+        this.latencyBudgetNanos = latencyBudget.toNanos();
+        this.loadCostPerProjectNanos = loadCostPerProject.toNanos();
+        this.comparisonCostNanos = comparisonCost.toNanos();
+    }
+
+    /**
+     * Records the size of the catalog observed by the latest full load.
+     */
+    public void recordCatalogSize(int catalogSize) {
+        knownCatalogSize.set(catalogSize);
+    }
+
+    /**
+     * Returns the last observed catalog size, or {@code -1} if no catalog has been loaded yet.
+     */
+    public int knownCatalogSize() {
+        return knownCatalogSize.get();
+    }
+
+    /**
+     * Whether a query over the last observed catalog is expected to complete within the latency budget.
+     * An unknown catalog size is optimistic; {@link #maxCatalogSize(int)} bounds the first load instead.
+     */
+    public boolean fitsLatencyBudget(int maxProjects) {
+        int catalogSize = knownCatalogSize.get();
+        return catalogSize == UNKNOWN_CATALOG_SIZE || estimateNanos(catalogSize, maxProjects) <= latencyBudgetNanos;
+    }
+
+    /**
+     * Largest catalog size for which a query selecting up to {@code maxProjects} still fits the latency budget.
+     */
+    public int maxCatalogSize(int maxProjects) {
+        int low = 0;
+        int high = Integer.MAX_VALUE - 1;
+        while (low < high) {
+            int mid = low + (high - low + 1) / 2;
+            if (estimateNanos(mid, maxProjects) <= latencyBudgetNanos) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    long estimateNanos(int catalogSize, int maxProjects) {
+        double log2 = catalogSize > 1 ? Math.log(catalogSize) / Math.log(2) : 1.0;
+        double selections = Math.min(maxProjects, catalogSize);
+        return (long) (catalogSize * (double) loadCostPerProjectNanos
+                + (catalogSize + selections) * log2 * comparisonCostNanos);
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.ProjectDTO;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Prepares a large catalog on the fork-join common pool so that selections can start before it is fully sorted.
+ *
+ * <p> Sampled splitters divide the catalog into segments of ascending required capital. A parallel pass over chunks of
+ * the catalog assigns every project to its segment and scatters it into place, keeping the catalog's order within
+ * each segment. The segments are then sorted, and their scaled column filled, as separate tasks submitted cheapest
+ * first; {@link #awaitSorted} waits only for the segment holding the requested position. Since equal required
+ * capitals always fall in the same segment and the sort is stable, the result matches the sequential sort. </p>
+ */
+final class ParallelSortedCatalog extends SortedCatalog {
+    private static final int SEGMENTS_PER_THREAD = 4;
+    private static final int SAMPLES_PER_SEGMENT = 32;
+
+    private final ProjectDTO[] sorted;
+    private final long[] column;
+    /**
+     * Start of each segment, followed by the catalog size.
+     */
+    private final int[] segmentStarts;
+    private final CompletableFuture<?>[] segments;
+    private volatile boolean closed;
+
+    ParallelSortedCatalog(List<ProjectDTO> projects, int scale) {
+        super(scale);
+        int size = projects.size();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int targetSegments = Math.max(2, parallelism * SEGMENTS_PER_THREAD);
+        BigDecimal[] splitters = splitters(projects, Math.max(1, Math.min(size, targetSegments)));
+        int segmentCount = splitters.length + 1;
+
+        // Count the projects of each chunk per segment, then scatter each chunk into its slice of every segment.
+        int chunkCount = Math.max(1, Math.min(size, targetSegments));
+        int[] segmentOf = new int[size];
+        int[][] counts = new int[chunkCount][segmentCount];
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            for (int i = chunkStart(chunk, chunkCount, size); i < chunkStart(chunk + 1, chunkCount, size); i++) {
+                int segment = segmentOf(splitters, projects.get(i).requiredCapital());
+                segmentOf[i] = segment;
+                counts[chunk][segment]++;
+            }
+        });
+
+        this.segmentStarts = new int[segmentCount + 1];
+        int[][] offsets = new int[chunkCount][segmentCount];
+        int position = 0;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            segmentStarts[segment] = position;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                offsets[chunk][segment] = position;
+                position += counts[chunk][segment];
+            }
+        }
+        segmentStarts[segmentCount] = size;
+
+        this.sorted = new ProjectDTO[size];
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int[] next = offsets[chunk];
+            for (int i = chunkStart(chunk, chunkCount, size); i < chunkStart(chunk + 1, chunkCount, size); i++) {
+                sorted[next[segmentOf[i]]++] = projects.get(i);
+            }
+        });
+
+        this.column = scale == NO_COLUMN ? null : new long[size];
+        this.segments = new CompletableFuture<?>[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            int from = segmentStarts[segment];
+            int to = segmentStarts[segment + 1];
+            segments[segment] = CompletableFuture.runAsync(() -> sortSegment(from, to), ForkJoinPool.commonPool());
+        }
+    }
+
+    private void sortSegment(int from, int to) {
+        if (closed) {
+            return;
+        }
+        Arrays.sort(sorted, from, to, BY_REQUIRED_CAPITAL);
+        if (column != null) {
+            fillColumn(sorted, column, requiredCapitalScale(), from, to);
+        }
+    }
+
+    @Override
+    int size() {
+        return sorted.length;
+    }
+
+    @Override
+    ProjectDTO get(int index) {
+        return sorted[index];
+    }
+
+    @Override
+    int awaitSorted(int index) {
+        // The last segment starting at or before the index; empty segments share the start of the next one
+        int segment = Arrays.binarySearch(segmentStarts, 0, segments.length, index);
+        segment = segment >= 0 ? lastStartingAt(segment) : -segment - 2;
+        try {
+            segments[segment].join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return segmentStarts[segment + 1];
+    }
+
+    private int lastStartingAt(int segment) {
+        while (segment + 1 < segments.length && segmentStarts[segment + 1] == segmentStarts[segment]) {
+            segment++;
+        }
+        return segment;
+    }
+
+    @Override
+    long[] scaledRequiredCapital() {
+        return column;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Picks {@code segmentCount - 1} required capitals, evenly spaced among an evenly spaced sample of the catalog.
+     */
+    private static BigDecimal[] splitters(List<ProjectDTO> projects, int segmentCount) {
+        int sampleCount = Math.min(projects.size(), segmentCount * SAMPLES_PER_SEGMENT);
+        BigDecimal[] samples = new BigDecimal[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            samples[i] = projects.get((int) ((long) i * projects.size() / sampleCount)).requiredCapital();
+        }
+        Arrays.sort(samples);
+
+        BigDecimal[] splitters = new BigDecimal[segmentCount - 1];
+        for (int i = 1; i < segmentCount; i++) {
+            splitters[i - 1] = samples[(int) ((long) i * sampleCount / segmentCount)];
+        }
+        return splitters;
+    }
+
+    /**
+     * The number of splitters not above the required capital, so equal required capitals share a segment.
+     */
+    private static int segmentOf(BigDecimal[] splitters, BigDecimal requiredCapital) {
+        int low = 0;
+        int high = splitters.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (splitters[middle].compareTo(requiredCapital) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int chunkStart(int chunk, int chunkCount, int size) {
+        return (int) ((long) chunk * size / chunkCount);
+    }
+}
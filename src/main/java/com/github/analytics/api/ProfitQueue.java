@@ -0,0 +1,191 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.ProjectDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Max-priority queue of affordable projects by profit, from which the greedy capital maximization takes its next
+ * selection.
+ *
+ * <p> Projects of equal profit are polled in the order they were offered, so every implementation yields the same
+ * selections. Not thread-safe. </p>
+ */
+abstract sealed class ProfitQueue {
+    private static final Logger logger = LoggerFactory.getLogger(ProfitQueue.class);
+
+    /**
+     * Buckets allowed regardless of catalog size, enough for a profit range of 655.36 at a scale of 2.
+     */
+    static final int MIN_BUCKET_LIMIT = 1 << 16;
+    /**
+     * Buckets allowed per project in larger catalogs, keeping the bucket array linear in the catalog size.
+     */
+    static final int BUCKETS_PER_PROJECT = 8;
+
+    abstract void offer(ProjectDTO project);
+
+    /**
+     * Removes and returns the most profitable project, or {@code null} if the queue is empty.
+     */
+    abstract ProjectDTO poll();
+
+    abstract boolean isEmpty();
+
+    /**
+     * Chooses a queue for the catalog: a {@link BucketProfitQueue} when every profit, scaled to an integer, falls in a
+     * range of fewer than {@code max(MIN_BUCKET_LIMIT, BUCKETS_PER_PROJECT * catalog size)} values, and a
+     * {@link HeapProfitQueue} otherwise.
+     */
+    static ProfitQueue forCatalog(List<ProjectDTO> projects) {
+        return forCatalog(projects, false);
+    }
+
+    /**
+     * Chooses a queue as {@link #forCatalog(List)} does, optionally gathering the profit statistics in parallel.
+     */
+    static ProfitQueue forCatalog(List<ProjectDTO> projects, boolean parallel) {
+        if (projects.isEmpty()) {
+            return new HeapProfitQueue();
+        }
+
+        int scale = Math.max(0, SortedCatalog.stream(projects, parallel)
+                .mapToInt(project -> project.profit().stripTrailingZeros().scale())
+                .max()
+                .orElse(0));
+        BigDecimal min = SortedCatalog.stream(projects, parallel).map(ProjectDTO::profit)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        BigDecimal max = SortedCatalog.stream(projects, parallel).map(ProjectDTO::profit)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        return forProfits(min, max, scale, projects.size());
+    }
+
+    /**
+     * Chooses a queue as {@link #forCatalog(List)} does, from profit statistics gathered beforehand.
+     *
+     * @param scale The largest scale of a profit without trailing zeros, at least zero.
+     */
+    static ProfitQueue forProfits(BigDecimal min, BigDecimal max, int scale, int catalogSize) {
+        if (catalogSize == 0) {
+            return new HeapProfitQueue();
+        }
+
+        long bucketLimit = Math.max(MIN_BUCKET_LIMIT, (long) BUCKETS_PER_PROJECT * catalogSize);
+        BigDecimal range = max.subtract(min).movePointRight(scale);
+        if (range.compareTo(BigDecimal.valueOf(bucketLimit)) >= 0
+                || max.movePointRight(scale).compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            logger.debug("Profit range {} at scale {} exceeds {} buckets; using a heap.", range, scale, bucketLimit);
+            return new HeapProfitQueue();
+        }
+
+        logger.debug("Using {} profit buckets at scale {}.", range.intValue() + 1, scale);
+        return new BucketProfitQueue(min.movePointRight(scale).longValueExact(), range.intValue() + 1, scale);
+    }
+
+    /**
+     * Binary heap comparing {@link BigDecimal} profits, for catalogs whose profits are too spread out to bucket.
+     * {@code O(log n)} comparisons per offer and poll.
+     */
+    static final class HeapProfitQueue extends ProfitQueue {
+        private static final Comparator<Entry> BY_PROFIT_THEN_OFFER_ORDER =
+                Comparator.comparing((Entry entry) -> entry.project().profit()).reversed()
+                        .thenComparingLong(Entry::sequence);
+
+        private final PriorityQueue<Entry> heap = new PriorityQueue<>(BY_PROFIT_THEN_OFFER_ORDER);
+        private long sequence;
+
+        @Override
+        void offer(ProjectDTO project) {
+            heap.offer(new Entry(project, sequence++));
+        }
+
+        @Override
+        ProjectDTO poll() {
+            Entry entry = heap.poll();
+            return entry == null ? null : entry.project();
+        }
+
+        @Override
+        boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        private record Entry(ProjectDTO project, long sequence) {
+        }
+    }
+
+    /**
+     * One FIFO bucket per integer profit at a fixed scale, with a bitmap of non-empty buckets. An offer is
+     * {@code O(1)}; a poll finds the highest non-empty bucket a 64-bucket word at a time, starting from the last
+     * highest, so a run of polls costs {@code O(1)} each plus the words it skips.
+     */
+    static final class BucketProfitQueue extends ProfitQueue {
+        private final long minScaledProfit;
+        private final int scale;
+        private final List<ArrayDeque<ProjectDTO>> buckets;
+        private final long[] nonEmpty;
+        private int size;
+        /**
+         * No bucket above this index is non-empty.
+         */
+        private int highest = -1;
+
+        BucketProfitQueue(long minScaledProfit, int bucketCount, int scale) {
+            this.minScaledProfit = minScaledProfit;
+            this.scale = scale;
+            // Buckets are created on first offer
+            this.buckets = new ArrayList<>(Collections.nCopies(bucketCount, null));
+            this.nonEmpty = new long[(bucketCount + 63) >>> 6];
+        }
+
+        @Override
+        void offer(ProjectDTO project) {
+            int index = (int) (project.profit().movePointRight(scale).longValueExact() - minScaledProfit);
+            ArrayDeque<ProjectDTO> bucket = buckets.get(index);
+            if (bucket == null) {
+                bucket = new ArrayDeque<>(2);
+                buckets.set(index, bucket);
+            }
+            bucket.addLast(project);
+            nonEmpty[index >>> 6] |= 1L << index;
+            highest = Math.max(highest, index);
+            size++;
+        }
+
+        @Override
+        ProjectDTO poll() {
+            if (size == 0) {
+                return null;
+            }
+
+            int word = highest >>> 6;
+            long bits = nonEmpty[word] & (-1L >>> (63 - (highest & 63)));
+            while (bits == 0) {
+                bits = nonEmpty[--word];
+            }
+            int index = (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+
+            ArrayDeque<ProjectDTO> bucket = buckets.get(index);
+            ProjectDTO project = bucket.pollFirst();
+            if (bucket.isEmpty()) {
+                nonEmpty[word] &= ~(1L << index);
+            }
+            highest = index;
+            size--;
+            return project;
+        }
+
+        @Override
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.analytics.api;
+
+import com.github.analytics.exception.CapitalMaximizationDeadlineExceededException;
+import com.github.projects.api.ProjectService;
+import com.github.projects.exception.ProjectNotFoundException;
+import com.github.projects.model.ProjectDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs capital maximization in-process for interactive callers when the estimated cost fits the latency budget.
+ */
+@Service
+public class ProjectCapitalOptimizationService {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectCapitalOptimizationService.class);
+
+    private final ProjectService projectService;
+    private final ProjectCapitalOptimizer projectCapitalOptimizer;
+    private final OptimizationCostEstimator costEstimator;
+    private final CapitalOptimizationMetrics capitalOptimizationMetrics;
+    private final MeterRegistry meterRegistry;
+    private final Map<SyncOutcome, Timer> syncLatency = new EnumMap<>(SyncOutcome.class);
+    private final Counter budgetExceeded;
+
+    public ProjectCapitalOptimizationService(
+            ProjectService projectService,
+            ProjectCapitalOptimizer projectCapitalOptimizer,
+            OptimizationCostEstimator costEstimator,
+            CapitalOptimizationMetrics capitalOptimizationMetrics,
+            MeterRegistry meterRegistry) {
+        this.projectService = projectService;
+        this.projectCapitalOptimizer = projectCapitalOptimizer;
+        this.costEstimator = costEstimator;
+        this.capitalOptimizationMetrics = capitalOptimizationMetrics;
+        this.meterRegistry = meterRegistry;
+        for (SyncOutcome outcome : SyncOutcome.values()) {
+            syncLatency.put(outcome, Timer.builder("roi.optimizer.sync.latency")
+                    .description("End-to-end latency of synchronous capital maximizations, including the catalog load")
+                    .tag("outcome", outcome.tag())
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.budgetExceeded = Counter.builder("roi.optimizer.sync.budget_exceeded")
+                .description("Synchronous requests handed to the asynchronous path because they exceed the latency budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the current catalog and maximizes capital in-process.
+     *
+     * @return the optimization result, or an empty {@code Mono} when the query is not expected to fit the latency
+     * budget, in which case callers should fall back to the asynchronous path.
+     */
+    public Mono<ProjectCapitalOptimized> optimizeWithinBudget(int maxProjects, BigDecimal initialCapital) {
+        if (!costEstimator.fitsLatencyBudget(maxProjects)) {
+            logger.info("Catalog of {} projects exceeds the synchronous latency budget for maxProjects={}",
+                    costEstimator.knownCatalogSize(), maxProjects);
+            budgetExceeded.increment();
+            return Mono.empty();
+        }
+
+        final int catalogLimit = costEstimator.maxCatalogSize(maxProjects);
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            var optimized = new AtomicReference<ProjectCapitalOptimized>();
+            var failure = new AtomicReference<Throwable>();
+
+            // Load at most one project past the limit, so an oversized catalog is detected without reading all of it.
+            return projectService.findAll()
+                    .take(catalogLimit + 1L)
+                    .collectList()
+                    .flatMap(projects -> {
+                        costEstimator.recordCatalogSize(projects.size());
+
+                        if (projects.size() > catalogLimit) {
+                            logger.info("Catalog exceeds {} projects; falling back to asynchronous optimization.", catalogLimit);
+                            budgetExceeded.increment();
+                            return Mono.empty();
+                        }
+
+                        if (projects.isEmpty()) {
+                            return Mono.error(new ProjectNotFoundException("No projects available for capital maximization."));
+                        }
+
+                        var query = new CapitalMaximizationQuery(projects, maxProjects, initialCapital);
+                        return projectCapitalOptimizer.maximizeCapital(query);
+                    })
+                    .doOnSuccess(optimized::set)
+                    .doOnError(failure::set)
+                    // Every request is timed, including those that fail, time out or fall back to the asynchronous path
+                    .doFinally(signal -> {
+                        SyncOutcome outcome = SyncOutcome.of(signal, optimized.get(), failure.get());
+                        long elapsedNanos = sample.stop(syncLatency.get(outcome));
+                        if (outcome == SyncOutcome.SUCCESS) {
+                            capitalOptimizationMetrics.record(CapitalOptimizationMetrics.Mode.SYNC, null, maxProjects,
+                                    initialCapital, optimized.get(), Duration.ofNanos(elapsedNanos));
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Streams the selections of a capital maximization over the current catalog as they are made, without
+     * materializing the catalog or the result. The catalog is read in order of required capital only as far as the
+     * selections get. Not bound by the latency budget, since the first selections arrive as soon as the cheapest
+     * projects are read. Completed streams are recorded as {@link CapitalOptimizationMetrics.Mode#STREAM} runs.
+     *
+     * @param deadline When the caller stops waiting, or {@code null} if it waits indefinitely.
+     */
+    public Flux<CapitalSelection> streamSelections(int maxProjects, BigDecimal initialCapital, Instant deadline) {
+        return Flux.defer(() -> {
+            final long startedAt = System.nanoTime();
+            List<CapitalSelection> selections = new ArrayList<>();
+            Flux<ProjectDTO> catalog = projectService.findAll()
+                    .switchIfEmpty(Flux.error(() ->
+                            new ProjectNotFoundException("No projects available for capital maximization.")));
+
+            return projectCapitalOptimizer.streamSelections(catalog, maxProjects, initialCapital, deadline)
+                    .doOnNext(selections::add)
+                    .doOnComplete(() -> {
+                        BigDecimal finalCapital = selections.isEmpty()
+                                ? initialCapital : selections.get(selections.size() - 1).capitalAfter();
+                        var result = new ProjectCapitalOptimized(
+                                selections.stream().map(CapitalSelection::project).toList(), finalCapital);
+                        capitalOptimizationMetrics.record(CapitalOptimizationMetrics.Mode.STREAM, null, maxProjects,
+                                initialCapital, result, Duration.ofNanos(System.nanoTime() - startedAt));
+                    });
+        });
+    }
+
+    /**
+     * How a synchronous request ended, tagging its latency.
+     */
+    private enum SyncOutcome {
+        SUCCESS,
+        /**
+         * Handed to the asynchronous path because the catalog exceeds the latency budget.
+         */
+        FALLBACK,
+        TIMEOUT,
+        ERROR,
+        CANCELLED;
+
+        static SyncOutcome of(SignalType signal, ProjectCapitalOptimized result, Throwable error) {
+            return switch (signal) {
+                case ON_COMPLETE -> result != null ? SUCCESS : FALLBACK;
+                case ON_ERROR -> error instanceof TimeoutException
+                        || error instanceof CapitalMaximizationDeadlineExceededException ? TIMEOUT : ERROR;
+                default -> CANCELLED;
+            };
+        }
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+}
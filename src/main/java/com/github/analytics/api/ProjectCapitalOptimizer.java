@@ -1,26 +1,77 @@
 package com.github.analytics.api;
 
+import com.github.analytics.exception.CapitalMaximizationDeadlineExceededException;
 import com.github.analytics.exception.InvalidCapitalMaximizationQueryException;
+import com.github.analytics.exception.OptimizationCapacityExceededException;
 import com.github.projects.model.ProjectDTO;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 /**
  * Optimizes project selection to maximize final capital.
  * Uses a greedy algorithm to iteratively select the most profitable, affordable project.
+ *
+ * <p> Selections, batch or streamed, run on the dedicated, bounded thread pool of the {@code optimizer} resilience4j
+ * thread-pool bulkhead, so bursts of large optimizations cannot starve the Reactor and Netty threads serving HTTP
+ * requests. When its threads and queue are full, optimizations are rejected with
+ * {@link OptimizationCapacityExceededException}. </p>
+ *
+ * <p> Long runs are cancelled cooperatively: the selection loop stops when the subscriber cancels, and fails with
+ * {@link CapitalMaximizationDeadlineExceededException} once the remaining budget of the query's deadline is spent. </p>
+ *
+ * <p> With {@code roi.optimizer.vector-scan.enabled}, newly affordable projects are found with the Vector API when the
+ * JVM provides it, and with a scalar scan over primitive required capitals otherwise. </p>
+ *
+ * <p> Catalogs of at least {@code roi.optimizer.parallel-preparation.threshold} projects are sorted and scaled on the
+ * fork-join common pool, and batch selections start on the cheapest sorted range while the rest is still sorting.
+ * Catalogs are always prepared sequentially when the common pool has a single worker. </p>
+ *
+ * <p> Catalogs spilled to disk as a {@link SpilledCatalog} are optimized from a lazy merge of their sorted runs. </p>
  */
 @Component
 public class ProjectCapitalOptimizer {
     private static final Logger logger = LoggerFactory.getLogger(ProjectCapitalOptimizer.class);
+    public static final String OPTIMIZER_BULKHEAD_NAME = "optimizer";
+
+    private final ThreadPoolBulkhead bulkhead;
+    private final AffordabilityScanner affordabilityScanner;
+    private final int parallelPreparationThreshold;
+
+    public ProjectCapitalOptimizer(
+            ThreadPoolBulkheadRegistry bulkheadRegistry,
+            @Value("${roi.optimizer.vector-scan.enabled}") boolean vectorScan,
+            @Value("${roi.optimizer.parallel-preparation.threshold}") int parallelPreparationThreshold) {
+        this.bulkhead = bulkheadRegistry.bulkhead(OPTIMIZER_BULKHEAD_NAME);
+        // With a single worker the parallel preparation only adds partitioning to the sort
+        this.parallelPreparationThreshold = ForkJoinPool.getCommonPoolParallelism() > 1
+                ? parallelPreparationThreshold : Integer.MAX_VALUE;
+        this.affordabilityScanner = vectorScan ? AffordabilityScanner.vectorIfAvailable() : null;
+        if (affordabilityScanner != null) {
+            logger.info("Scanning for affordable projects with the {} scan.", affordabilityScanner.name());
+        }
+    }
 
     /**
      * Optimizes project selection to maximize final capital.
@@ -28,6 +79,8 @@ public class ProjectCapitalOptimizer {
      * @param query The capital maximization query specifying available projects, maximum selections, and initial capital.
      * @return a {@code Mono} emitting a {@link ProjectCapitalOptimized} containing the selected projects and final capital.
      * @throws InvalidCapitalMaximizationQueryException if the query is null.
+     * @throws CapitalMaximizationDeadlineExceededException if the query's deadline passes before the selection completes.
+     * @throws OptimizationCapacityExceededException if the optimization executor cannot accept more work.
      */
     public Mono<ProjectCapitalOptimized> maximizeCapital(CapitalMaximizationQuery query) {
         if (query == null) {
@@ -37,66 +90,194 @@ public class ProjectCapitalOptimizer {
 
         logger.info("Starting capital maximization with initial capital: {} and {} available projects.",
                 query.initialCapital(), query.availableProjects().size());
+        return maximizeCapital(query.maxProjects(), query.deadline(), () -> prepareSelection(query));
+    }
+
+    /**
+     * Optimizes project selection over a catalog spilled to disk, merging its runs as the selection advances.
+     *
+     * @param catalog        The spilled catalog, which must stay open until the returned {@code Mono} terminates.
+     * @param maxProjects    Maximum number of projects to select.
+     * @param initialCapital Capital available before the first selection.
+     * @param deadline       Deadline of the optimization, or {@code null} if unbounded.
+     * @throws CapitalMaximizationDeadlineExceededException if the deadline passes before the selection completes.
+     * @throws OptimizationCapacityExceededException if the optimization executor cannot accept more work.
+     */
+    public Mono<ProjectCapitalOptimized> maximizeCapital(
+            SpilledCatalog catalog, int maxProjects, BigDecimal initialCapital, Instant deadline) {
+        logger.info("Starting capital maximization with initial capital: {} and {} spilled projects.",
+                initialCapital, catalog.size());
+        return maximizeCapital(maxProjects, deadline,
+                () -> new GreedyCapitalSelection(catalog, maxProjects, initialCapital));
+    }
 
-        // Offload the CPU-bound computation to a parallel scheduler.
-        return Mono.fromCallable(() -> computeMaximizedCapital(query))
-                .subscribeOn(Schedulers.parallel())
+    private Mono<ProjectCapitalOptimized> maximizeCapital(
+            int maxProjects, Instant deadline, Supplier<GreedyCapitalSelection> prepare) {
+        // Offload the CPU-bound computation to the optimizer bulkhead, which rejects it synchronously when full.
+        var cancelled = new AtomicBoolean();
+        return Mono.defer(() -> Mono.fromCompletionStage(bulkhead.submit(() ->
+                        computeMaximizedCapital(maxProjects, prepare, remainingBudget(deadline), cancelled::get))))
+                .onErrorMap(BulkheadFullException.class, e -> new OptimizationCapacityExceededException(
+                        "Optimization capacity exceeded; retry later.", e))
+                .doOnCancel(() -> cancelled.set(true))
                 .doOnSuccess(result -> logger.info("Capital maximization complete. Final capital: {}", result.finalCapital()))
                 .doOnError(error -> logger.error("Error during capital maximization", error));
     }
 
+    /**
+     * Streams the selections of a capital maximization as the greedy algorithm makes them.
+     *
+     * <p> Each stream holds one optimizer bulkhead thread from subscription until it terminates, so that streams count
+     * against the same capacity as batch optimizations. Sorting the catalog and computing each selection run on that
+     * thread, never on the subscriber's; a selection is computed only when the subscriber requests it, so a slow client
+     * holds no more than the selection state and the query's deadline and cancellation apply between selections. </p>
+     *
+     * @throws InvalidCapitalMaximizationQueryException if the query is null.
+     * @throws CapitalMaximizationDeadlineExceededException if the query's deadline passes before the selection completes.
+     * @throws OptimizationCapacityExceededException if the optimization executor cannot accept more work.
+     */
+    public Flux<CapitalSelection> streamSelections(CapitalMaximizationQuery query) {
+        if (query == null) {
+            logger.error("Received null capital maximization query.");
+            return Flux.error(new InvalidCapitalMaximizationQueryException("Query must not be null."));
+        }
+
+        return streamSelections(query.maxProjects(), query.deadline(), () -> prepareSelection(query).awaitPrepared());
+    }
+
+    /**
+     * Streams the selections of a capital maximization over a catalog already in ascending order of required capital,
+     * such as the one of the catalog index, as {@link #streamSelections(CapitalMaximizationQuery)} does. The catalog
+     * is read on the optimizer bulkhead thread, only as far as the selections get, and never collected.
+     *
+     * @param deadline Deadline of the optimization, or {@code null} if unbounded.
+     * @throws CapitalMaximizationDeadlineExceededException if the deadline passes before the selection completes.
+     * @throws OptimizationCapacityExceededException if the optimization executor cannot accept more work.
+     */
+    public Flux<CapitalSelection> streamSelections(
+            Flux<ProjectDTO> sortedCatalog, int maxProjects, BigDecimal initialCapital, Instant deadline) {
+        return streamSelections(maxProjects, deadline,
+                () -> new GreedyCapitalSelection(sortedCatalog.toStream(), maxProjects, initialCapital));
+    }
+
+    private Flux<CapitalSelection> streamSelections(
+            int maxProjects, Instant deadline, Supplier<GreedyCapitalSelection> prepare) {
+        return Flux.defer(() -> {
+                    // Lease a bulkhead thread for the whole stream; the bulkhead rejects the lease synchronously when full.
+                    var lease = new BulkheadLease();
+                    bulkhead.submit(lease::run);
+                    return Mono.fromSupplier(prepare)
+                            .flatMapMany(selection -> Flux.<CapitalSelection>generate(sink -> {
+                                if (deadline != null && !Instant.now().isBefore(deadline)) {
+                                    sink.error(new CapitalMaximizationDeadlineExceededException("Deadline exceeded after "
+                                            + selection.selected() + " of " + maxProjects + " selections."));
+                                    return;
+                                }
+
+                                CapitalSelection next = selection.next();
+                                if (next == null) {
+                                    sink.complete();
+                                } else {
+                                    sink.next(next);
+                                }
+                            }).doFinally(signal -> {
+                                // A cancellation may arrive during a selection, which completions and errors follow
+                                if (signal == SignalType.CANCEL) {
+                                    lease.execute(selection::close);
+                                } else {
+                                    selection.close();
+                                }
+                            }))
+                            .subscribeOn(Schedulers.fromExecutor(lease))
+                            .doFinally(signal -> lease.release());
+                })
+                .onErrorMap(BulkheadFullException.class, e -> new OptimizationCapacityExceededException(
+                        "Optimization capacity exceeded; retry later.", e))
+                .doOnComplete(() -> logger.info("Streamed capital maximization complete."))
+                .doOnError(error -> logger.error("Error during streamed capital maximization", error));
+    }
+
     /**
      * Executes a greedy algorithm to maximize capital by iteratively selecting the most profitable affordable projects.
      *
-     * @param query Query containing available projects, initial capital, and selection constraints.
+     * @param maxProjects Maximum number of projects to select.
+     * @param prepare     Prepares the selection over the catalog and initial capital.
+     * @param budget      Time the selection may take, or {@code null} if unbounded.
+     * @param cancelled   Whether the subscriber has gone away, in which case the partial selection is returned unseen.
      * @return a {@link ProjectCapitalOptimized} with the selected projects and final capital.
      */
-    private ProjectCapitalOptimized computeMaximizedCapital(CapitalMaximizationQuery query) {
-        List<ProjectDTO> projects = new ArrayList<>(query.availableProjects());
-
-        // Log total projects available.
-        int totalProjects = projects.size();
-        logger.info("Starting capital maximization with {} available projects and initial capital: {}",
-                totalProjects, query.initialCapital());
-
-        // Sort projects by required capital in ascending order.
-        projects.sort(Comparator.comparing(ProjectDTO::requiredCapital));
-        logger.info("Projects sorted by required capital.");
-
-        // Max-heap (priority queue) to track the most profitable affordable projects.
-        PriorityQueue<ProjectDTO> profitMaxHeap = new PriorityQueue<>(Comparator.comparing(ProjectDTO::profit).reversed());
-
-        List<ProjectDTO> selectedProjects = new ArrayList<>();
-        BigDecimal currentCapital = query.initialCapital();
-        int projectIndex = 0;
-
-        // Iteratively select up to maxProjects.
-        for (int i = 0; i < query.maxProjects(); i++) {
-            logger.info("Iteration {}: Current capital: {}", i + 1, currentCapital);
-
-            // Add all affordable projects to the max-heap.
-            while (projectIndex < totalProjects && projects.get(projectIndex).requiredCapital().compareTo(currentCapital) <= 0) {
-                ProjectDTO project = projects.get(projectIndex);
-                profitMaxHeap.offer(project);
-                logger.info("Added project {} to heap (Required: {}, Profit: {}).",
-                        project.name(), project.requiredCapital(), project.profit());
-                projectIndex++;
-            }
+    private ProjectCapitalOptimized computeMaximizedCapital(
+            int maxProjects, Supplier<GreedyCapitalSelection> prepare, Duration budget, BooleanSupplier cancelled) {
+        final long startedAt = System.nanoTime();
+        try (var selection = prepare.get()) {
+            logger.info("Starting capital maximization with {} available projects and initial capital: {}",
+                    selection.availableProjects(), selection.capital());
 
-            // If no affordable projects remain, exit early.
-            if (profitMaxHeap.isEmpty()) {
-                logger.info("No further projects can be selected with current capital: {}", currentCapital);
-                break;
+            List<ProjectDTO> selectedProjects = new ArrayList<>();
+
+            // Iteratively select up to maxProjects.
+            while (selectedProjects.size() < maxProjects) {
+                if (cancelled.getAsBoolean()) {
+                    logger.info("Capital maximization cancelled after {} selections.", selectedProjects.size());
+                    break;
+                }
+                if (budget != null && System.nanoTime() - startedAt >= budget.toNanos()) {
+                    throw new CapitalMaximizationDeadlineExceededException(
+                            "Deadline exceeded after " + selectedProjects.size() + " of " + maxProjects + " selections.");
+                }
+                logger.info("Iteration {}: Current capital: {}", selectedProjects.size() + 1, selection.capital());
+
+                // Select the most profitable affordable project, exiting early if none remains.
+                CapitalSelection next = selection.next();
+                if (next == null) {
+                    logger.info("No further projects can be selected with current capital: {}", selection.capital());
+                    break;
+                }
+
+                selectedProjects.add(next.project());
+                logger.info("Selected project {} (Profit: {}). Updated capital: {}",
+                        next.project().name(), next.project().profit(), next.capitalAfter());
             }
 
-            // Select the most profitable project.
-            ProjectDTO chosenProject = profitMaxHeap.poll();
-            selectedProjects.add(chosenProject);
-            currentCapital = currentCapital.add(chosenProject.profit());
-            logger.info("Selected project {} (Profit: {}). Updated capital: {}",
-                    chosenProject.name(), chosenProject.profit(), currentCapital);
+            return new ProjectCapitalOptimized(selectedProjects, selection.capital());
+        }
+    }
+
+    private GreedyCapitalSelection prepareSelection(CapitalMaximizationQuery query) {
+        return new GreedyCapitalSelection(query, affordabilityScanner, parallelPreparationThreshold);
+    }
+
+    private static Duration remainingBudget(Instant deadline) {
+        return deadline == null ? null : Duration.between(Instant.now(), deadline);
+    }
+
+    /**
+     * An optimizer bulkhead thread lent to one stream, running the tasks of the stream in order until released. Closing
+     * a cancelled selection is queued behind the selection in progress, so that it never runs concurrently with it.
+     */
+    private static final class BulkheadLease implements Executor {
+        private static final Runnable RELEASE = () -> {
+        };
+
+        private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void release() {
+            tasks.add(RELEASE);
         }
 
-        return new ProjectCapitalOptimized(selectedProjects, currentCapital);
+        private void run() {
+            try {
+                for (Runnable task = tasks.take(); task != RELEASE; task = tasks.take()) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
-}
\ No newline at end of file
+}
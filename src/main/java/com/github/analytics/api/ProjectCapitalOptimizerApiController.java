@@ -2,40 +2,138 @@ package com.github.analytics.api;
 
 import com.github.analytics.event.CapitalMaximizationQueryEvent;
 import com.github.analytics.event.ProjectCapitalOptimizerEventPublisher;
+import com.github.analytics.exception.InvalidCapitalMaximizationQueryException;
 import com.github.projects.api.ApiResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+
 @RestController
 @RequestMapping(value = "/api/v1/capital/maximization")
 public class ProjectCapitalOptimizerApiController {
     private static final Logger logger = LoggerFactory.getLogger(ProjectCapitalOptimizerApiController.class);
+    private static final String ACCEPTED_MESSAGE = "Capital maximization query event accepted for processing";
+
+    /**
+     * Optional request header with how long the client waits for the result, e.g. {@code 30s} or {@code PT2M}; queries
+     * still queued when it elapses are shed by the consumer.
+     */
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
 
     private final ProjectCapitalOptimizerEventPublisher projectCapitalOptimizerEventPublisher;
+    private final ProjectCapitalOptimizationService projectCapitalOptimizationService;
 
-    public ProjectCapitalOptimizerApiController(ProjectCapitalOptimizerEventPublisher projectCapitalOptimizerEventPublisher) {
+    public ProjectCapitalOptimizerApiController(
+            ProjectCapitalOptimizerEventPublisher projectCapitalOptimizerEventPublisher,
+            ProjectCapitalOptimizationService projectCapitalOptimizationService) {
         this.projectCapitalOptimizerEventPublisher = projectCapitalOptimizerEventPublisher;
+        this.projectCapitalOptimizationService = projectCapitalOptimizationService;
     }
 
     @ResponseStatus(HttpStatus.ACCEPTED)
     @PostMapping
-    public Mono<ApiResponse<String>> publishCapitalMaximizationQueryEvent(
-            @Valid @RequestBody Mono<ProjectCapitalOptimizerRequest> requestMono) {
+    public Mono<ApiResponse<CapitalMaximizationJobAccepted>> publishCapitalMaximizationQueryEvent(
+            @Valid @RequestBody Mono<ProjectCapitalOptimizerRequest> requestMono,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout) {
         logger.info("Received request to publish capital maximization query event");
 
+        final Instant deadline = deadline(requestTimeout);
         return requestMono
                 .flatMap(request -> {
                     logger.info("Project capital optimizer request: {}", request);
-
-                    var event = new CapitalMaximizationQueryEvent(request.maxProjects(), request.initialCapital());
-                    return projectCapitalOptimizerEventPublisher.publishEvent(event);
+                    return publish(request, deadline);
                 })
-                .thenReturn(ApiResponse.success(HttpStatus.ACCEPTED.value(), "Capital maximization query event accepted for processing"))
+                .map(accepted -> ApiResponse.success(HttpStatus.ACCEPTED.value(), accepted))
                 .doOnNext(response -> logger.info("Successfully published capital maximization query event {}", response))
                 .doOnError(error -> logger.error("Error publishing Capital Maximization Query event", error));
     }
-}
\ No newline at end of file
+
+    /**
+     * Maximizes capital in-process and returns the result directly (200) when the estimated cost fits the latency
+     * budget; otherwise publishes the query for asynchronous processing (202), like the default endpoint.
+     */
+    @PostMapping(value = "/sync")
+    public Mono<ResponseEntity<ApiResponse<?>>> maximizeCapitalSynchronously(
+            @Valid @RequestBody Mono<ProjectCapitalOptimizerRequest> requestMono,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout) {
+        logger.info("Received synchronous capital maximization request");
+
+        final Instant deadline = deadline(requestTimeout);
+        return requestMono
+                .flatMap(request -> {
+                    logger.info("Synchronous project capital optimizer request: {}", request);
+
+                    return projectCapitalOptimizationService.optimizeWithinBudget(request.maxProjects(), request.initialCapital())
+                            .<ResponseEntity<ApiResponse<?>>>map(result ->
+                                    ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), result)))
+                            .switchIfEmpty(Mono.defer(() -> publish(request, deadline)
+                                    .map(accepted -> ResponseEntity.accepted()
+                                            .body(ApiResponse.success(HttpStatus.ACCEPTED.value(), accepted)))));
+                })
+                .doOnNext(response -> logger.info("Completed synchronous capital maximization request with status {}",
+                        response.getStatusCode()))
+                .doOnError(error -> logger.error("Error during synchronous capital maximization", error));
+    }
+
+    /**
+     * Maximizes capital in-process and streams each selection as soon as it is made, as NDJSON or as server-sent
+     * events depending on the {@code Accept} header. The last selection carries the final capital.
+     */
+    @PostMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<CapitalSelection> streamCapitalMaximization(
+            @Valid @RequestBody Mono<ProjectCapitalOptimizerRequest> requestMono,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout) {
+        logger.info("Received streaming capital maximization request");
+
+        final Instant deadline = deadline(requestTimeout);
+        return requestMono
+                .flatMapMany(request -> {
+                    logger.info("Streaming project capital optimizer request: {}", request);
+                    return projectCapitalOptimizationService.streamSelections(
+                            request.maxProjects(), request.initialCapital(), deadline);
+                })
+                .doOnComplete(() -> logger.info("Completed streaming capital maximization request"))
+                .doOnError(error -> logger.error("Error during streaming capital maximization", error));
+    }
+
+    /**
+     * Publishes the query under a new job ID, which the caller uses to retrieve or stream the result.
+     */
+    private Mono<CapitalMaximizationJobAccepted> publish(ProjectCapitalOptimizerRequest request, Instant deadline) {
+        var event = new CapitalMaximizationQueryEvent(
+                null, request.maxProjects(), request.initialCapital(), request.priority());
+        return projectCapitalOptimizerEventPublisher.publishEvent(event, deadline)
+                .thenReturn(new CapitalMaximizationJobAccepted(event.jobId(), ACCEPTED_MESSAGE));
+    }
+
+    /**
+     * Resolves the client deadline from the request timeout header, measured from the arrival of the request.
+     *
+     * @return the deadline, or {@code null} if the request has no timeout.
+     */
+    private static Instant deadline(String requestTimeout) {
+        if (requestTimeout == null || requestTimeout.isBlank()) {
+            return null;
+        }
+        try {
+            Duration timeout = DurationStyle.detectAndParse(requestTimeout.trim());
+            if (timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Timeout must be positive");
+            }
+            return Instant.now().plus(timeout);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCapitalMaximizationQueryException(
+                    "Invalid " + REQUEST_TIMEOUT_HEADER + " header: " + requestTimeout, e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.analytics.api;
 
+import com.github.analytics.event.JobPriority;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -9,6 +10,7 @@ import java.math.BigDecimal;
 /**
  * Data Transfer Object (DTO) for requesting capital optimization among a pool of projects.
  * Specifies the maximum number of projects that can be selected and the available initial capital.
+ * The optional priority schedules the job in the high-priority lane for interactive queries; it defaults to normal.
  *
  * <p> Future enhancements will introduce advanced project selection based on additional criteria. </p>
  */
@@ -19,7 +21,12 @@ public record ProjectCapitalOptimizerRequest(
 
         @NotNull(message = "Initial capital cannot be null")
         @DecimalMin(value = "0.00", message = "Initial capital cannot be negative")
-        BigDecimal initialCapital
+        BigDecimal initialCapital,
+
+        JobPriority priority
 ) {
 
+    public ProjectCapitalOptimizerRequest(Integer maxProjects, BigDecimal initialCapital) {
+        this(maxProjects, initialCapital, null);
+    }
 }
\ No newline at end of file
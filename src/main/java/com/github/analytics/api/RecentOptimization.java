@@ -0,0 +1,31 @@
+package com.github.analytics.api;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Summary of a completed capital maximization, kept in memory for operational inspection.
+ *
+ * @param jobId            The job ID for asynchronous optimizations; {@code null} for synchronous ones.
+ * @param mode             Whether the optimization ran synchronously or from a consumed event.
+ * @param completedAt      When the optimization completed.
+ * @param maxProjects      The maximum number of projects requested.
+ * @param initialCapital   The initial capital requested.
+ * @param finalCapital     The maximized capital.
+ * @param selectedCount    The number of selected projects.
+ * @param firstSelected    Names of the first selected projects, in selection order, at most
+ *                         {@link CapitalOptimizationMetrics#RECENT_SELECTED_NAMES} of them.
+ * @param latencyMillis    Time taken by the catalog load and the optimization.
+ */
+public record RecentOptimization(
+        String jobId,
+        CapitalOptimizationMetrics.Mode mode,
+        Instant completedAt,
+        int maxProjects,
+        BigDecimal initialCapital,
+        BigDecimal finalCapital,
+        int selectedCount,
+        List<String> firstSelected,
+        long latencyMillis) {
+}
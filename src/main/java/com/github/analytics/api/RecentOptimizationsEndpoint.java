@@ -0,0 +1,26 @@
+package com.github.analytics.api;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint listing the last {@code roi.optimizer.metrics.recent-results} capital maximization results, newest
+ * first. They are the most recent results, not the best ones.
+ */
+@Component
+@Endpoint(id = "recentoptimizations")
+public class RecentOptimizationsEndpoint {
+    private final CapitalOptimizationMetrics capitalOptimizationMetrics;
+
+    public RecentOptimizationsEndpoint(CapitalOptimizationMetrics capitalOptimizationMetrics) {
+        this.capitalOptimizationMetrics = capitalOptimizationMetrics;
+    }
+
+    @ReadOperation
+    public List<RecentOptimization> recentOptimizations() {
+        return capitalOptimizationMetrics.recentOptimizations();
+    }
+}
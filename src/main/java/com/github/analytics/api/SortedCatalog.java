@@ -0,0 +1,242 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.ProjectDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The catalog of a capital maximization in ascending order of required capital, optionally with the required capitals
+ * scaled to a {@code long} column for an {@link AffordabilityScanner}. Projects of equal required capital keep their
+ * order in the catalog.
+ *
+ * <p> Catalogs of at least {@code parallel-threshold} projects are prepared by a {@link ParallelSortedCatalog}, whose
+ * cheapest projects can be read before the rest are sorted; callers therefore call {@link #awaitSorted} before reading
+ * a position. A catalog merged from a {@link SpilledCatalog} or streamed from a source already in order is read forward
+ * only, and holds only the positions not yet {@link #release released}. </p>
+ */
+abstract sealed class SortedCatalog implements AutoCloseable
+        permits SortedCatalog.SequentialSortedCatalog, SortedCatalog.StreamedSortedCatalog, ParallelSortedCatalog,
+        SpilledCatalog.MergedSortedCatalog {
+    static final Comparator<ProjectDTO> BY_REQUIRED_CAPITAL = Comparator.comparing(ProjectDTO::requiredCapital);
+    /**
+     * Scale of a catalog prepared without a scaled column.
+     */
+    static final int NO_COLUMN = -1;
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final int requiredCapitalScale;
+
+    SortedCatalog(int requiredCapitalScale) {
+        this.requiredCapitalScale = requiredCapitalScale;
+    }
+
+    /**
+     * Prepares the catalog, in parallel if it holds at least {@code parallelThreshold} projects.
+     *
+     * @param scaleRequiredCapital Whether to also build the scaled column; it is omitted if a required capital does
+     *                             not fit a {@code long} at the catalog's scale.
+     */
+    static SortedCatalog prepare(List<ProjectDTO> projects, boolean scaleRequiredCapital, int parallelThreshold) {
+        boolean parallel = isParallel(projects, parallelThreshold);
+        int scale = scaleRequiredCapital ? columnScale(projects, parallel) : NO_COLUMN;
+        return parallel ? new ParallelSortedCatalog(projects, scale) : new SequentialSortedCatalog(projects, scale);
+    }
+
+    abstract int size();
+
+    /**
+     * Returns the project at {@code index}, which must be below a bound returned by {@link #awaitSorted}.
+     */
+    abstract ProjectDTO get(int index);
+
+    /**
+     * Waits until the position {@code index} is sorted, and returns the end of the sorted range holding it.
+     */
+    abstract int awaitSorted(int index);
+
+    /**
+     * The required capitals scaled by {@code 10^requiredCapitalScale()}, valid below the bounds returned by
+     * {@link #awaitSorted}, or {@code null} if the catalog was prepared without them.
+     */
+    abstract long[] scaledRequiredCapital();
+
+    int requiredCapitalScale() {
+        return requiredCapitalScale;
+    }
+
+    /**
+     * Declares that positions below {@code index} will not be read again.
+     */
+    void release(int index) {
+    }
+
+    /**
+     * Waits until the whole catalog is sorted.
+     */
+    void awaitPrepared() {
+        for (int index = 0; index < size(); ) {
+            index = awaitSorted(index);
+        }
+    }
+
+    /**
+     * Abandons any preparation still pending once no more projects will be read.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Scales the required capitals in {@code [from, to)} of {@code sorted} into the same positions of {@code column}.
+     */
+    static void fillColumn(ProjectDTO[] sorted, long[] column, int scale, int from, int to) {
+        for (int i = from; i < to; i++) {
+            column[i] = sorted[i].requiredCapital().movePointRight(scale).longValueExact();
+        }
+    }
+
+    /**
+     * The smallest scale at which every required capital is an integer, or {@link #NO_COLUMN} if the largest one
+     * would then not fit a {@code long}.
+     */
+    private static int columnScale(List<ProjectDTO> projects, boolean parallel) {
+        int scale = Math.max(0, stream(projects, parallel)
+                .mapToInt(project -> project.requiredCapital().stripTrailingZeros().scale())
+                .max()
+                .orElse(0));
+        BigDecimal maxRequiredCapital = stream(projects, parallel)
+                .map(ProjectDTO::requiredCapital)
+                .max(Comparator.naturalOrder())
+                .orElse(BigDecimal.ZERO);
+        return maxRequiredCapital.movePointRight(scale).compareTo(LONG_MAX) > 0 ? NO_COLUMN : scale;
+    }
+
+    static boolean isParallel(List<ProjectDTO> projects, int parallelThreshold) {
+        return projects.size() >= parallelThreshold;
+    }
+
+    static Stream<ProjectDTO> stream(List<ProjectDTO> projects, boolean parallel) {
+        return parallel ? projects.parallelStream() : projects.stream();
+    }
+
+    /**
+     * Sorts the whole catalog up front on the calling thread. The catalog index already yields this order, in which
+     * case the sort is a single linear pass.
+     */
+    static final class SequentialSortedCatalog extends SortedCatalog {
+        private final ProjectDTO[] sorted;
+        private final long[] column;
+
+        SequentialSortedCatalog(List<ProjectDTO> projects, int scale) {
+            super(scale);
+            List<ProjectDTO> copy = new ArrayList<>(projects);
+            copy.sort(BY_REQUIRED_CAPITAL);
+            this.sorted = copy.toArray(ProjectDTO[]::new);
+            this.column = scale == NO_COLUMN ? null : new long[sorted.length];
+            if (column != null) {
+                fillColumn(sorted, column, scale, 0, sorted.length);
+            }
+        }
+
+        @Override
+        int size() {
+            return sorted.length;
+        }
+
+        @Override
+        ProjectDTO get(int index) {
+            return sorted[index];
+        }
+
+        @Override
+        int awaitSorted(int index) {
+            return sorted.length;
+        }
+
+        @Override
+        long[] scaledRequiredCapital() {
+            return column;
+        }
+    }
+
+    /**
+     * Forward-only catalog over a stream already in ascending order of required capital, such as the catalog index,
+     * read only as far as positions are awaited. Its size is unknown until the stream is exhausted; closing it cancels
+     * the rest of the stream.
+     */
+    static final class StreamedSortedCatalog extends SortedCatalog {
+        private final Stream<ProjectDTO> projects;
+        private final Iterator<ProjectDTO> remaining;
+        /**
+         * Projects read from position {@code windowStart} on.
+         */
+        private final List<ProjectDTO> window = new ArrayList<>();
+        private int windowStart;
+        private boolean exhausted;
+
+        StreamedSortedCatalog(Stream<ProjectDTO> projects) {
+            super(NO_COLUMN);
+            this.projects = projects;
+            this.remaining = projects.iterator();
+        }
+
+        @Override
+        int size() {
+            return exhausted ? windowStart + window.size() : Integer.MAX_VALUE;
+        }
+
+        @Override
+        ProjectDTO get(int index) {
+            if (index < windowStart || index >= windowStart + window.size()) {
+                throw new IllegalStateException("Position " + index + " is not between the released and awaited ones.");
+            }
+            return window.get(index - windowStart);
+        }
+
+        /**
+         * Reads up to {@code index}, returning the number of projects read if the stream ends before it.
+         */
+        @Override
+        int awaitSorted(int index) {
+            while (windowStart + window.size() <= index) {
+                if (!remaining.hasNext()) {
+                    exhausted = true;
+                    return windowStart + window.size();
+                }
+                window.add(remaining.next());
+            }
+            return index + 1;
+        }
+
+        @Override
+        void release(int index) {
+            int released = Math.min(index - windowStart, window.size());
+            if (released > 0) {
+                window.subList(0, released).clear();
+                windowStart += released;
+            }
+        }
+
+        /**
+         * Nothing is prepared in the background; the stream is read as positions are awaited.
+         */
+        @Override
+        void awaitPrepared() {
+        }
+
+        @Override
+        long[] scaledRequiredCapital() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+            projects.close();
+        }
+    }
+}
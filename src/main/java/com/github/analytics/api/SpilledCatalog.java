@@ -0,0 +1,355 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * A catalog spilled to memory-mapped temporary files as runs sorted by required capital, for catalogs too large to
+ * hold on the heap.
+ *
+ * <p> Projects are read in runs of {@code runSize}; each run is sorted and written to its own file before the next one
+ * is requested, so at most one run is held on the heap while spilling. {@link #merge()} reads the runs back through
+ * their mappings and merges them lazily, one project at a time: a selection holds only the head of each run and its
+ * affordable candidates. Equal required capitals keep the catalog's order, so selections match those over the
+ * in-memory catalog. </p>
+ *
+ * <p> Run file layout, big-endian, one record per project:
+ * <ul>
+ *     <li>ID: the 16 bytes of the UUID;</li>
+ *     <li>required capital, then profit: the scale as an int, followed by an int length and the two's-complement
+ *     bytes of the unscaled value;</li>
+ *     <li>name: an int length and the UTF-8 bytes;</li>
+ *     <li>created, then updated timestamp: a presence byte, followed by the epoch second as a long and the nanosecond
+ *     as an int if present;</li>
+ *     <li>version: a long.</li>
+ * </ul></p>
+ */
+public final class SpilledCatalog implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SpilledCatalog.class);
+    private static final String RUN_FILE_PREFIX = "roi-catalog-run-";
+    private static final String RUN_FILE_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final List<Run> runs = new ArrayList<>();
+    private int size;
+    private BigDecimal minProfit;
+    private BigDecimal maxProfit;
+    private int profitScale;
+    private boolean closed;
+
+    private SpilledCatalog(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Spills {@code projects} into runs under {@code directory} and applies {@code use} to the spilled catalog, whose
+     * run files are deleted once the result completes, fails or is cancelled.
+     */
+    public static <T> Mono<T> spill(Flux<ProjectDTO> projects, Path directory, int runSize,
+                                    Function<SpilledCatalog, Mono<T>> use) {
+        return Mono.usingWhen(
+                Mono.fromCallable(() -> new SpilledCatalog(directory)),
+                catalog -> projects.buffer(runSize)
+                        // Without prefetch, the next run is only requested once this one is written
+                        .concatMap(run -> Mono.fromRunnable(() -> catalog.writeRun(run))
+                                .subscribeOn(Schedulers.boundedElastic()), 0)
+                        .then(Mono.defer(() -> {
+                            logger.info("Spilled {} projects into {} runs under {}.",
+                                    catalog.size(), catalog.runCount(), directory);
+                            return use.apply(catalog);
+                        })),
+                catalog -> Mono.fromRunnable(catalog::close),
+                (catalog, error) -> Mono.fromRunnable(catalog::close),
+                catalog -> Mono.fromRunnable(catalog::close));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    synchronized int runCount() {
+        return runs.size();
+    }
+
+    /**
+     * Chooses the profit queue for the catalog from the profit statistics gathered while spilling.
+     */
+    synchronized ProfitQueue profitQueue() {
+        return ProfitQueue.forProfits(minProfit, maxProfit, profitScale, size);
+    }
+
+    /**
+     * Opens a lazy merge of the runs, in ascending order of required capital.
+     */
+    synchronized SortedCatalog merge() {
+        if (closed) {
+            throw new IllegalStateException("Spilled catalog is closed.");
+        }
+        return new MergedSortedCatalog(runs.stream().map(Run::records).toList(), size);
+    }
+
+    /**
+     * Deletes the run files. Mappings still being read stay valid until they are garbage collected.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Run run : runs) {
+            try {
+                Files.deleteIfExists(run.file());
+            } catch (IOException e) {
+                logger.warn("Failed to delete catalog run {}", run.file(), e);
+            }
+        }
+    }
+
+    private void writeRun(List<ProjectDTO> projects) {
+        projects.sort(SortedCatalog.BY_REQUIRED_CAPITAL);
+        byte[][] names = new byte[projects.size()][];
+        long length = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = projects.get(i).name().getBytes(StandardCharsets.UTF_8);
+            length += recordLength(projects.get(i), names[i]);
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("A run of " + projects.size()
+                    + " projects exceeds the size of a mapping; lower the run size.");
+        }
+
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, RUN_FILE_PREFIX, RUN_FILE_SUFFIX);
+            MappedByteBuffer mapping;
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            }
+            for (int i = 0; i < names.length; i++) {
+                write(mapping, projects.get(i), names[i]);
+            }
+            addRun(new Run(file, mapping), projects);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Failed to spill a catalog run to " + directory, e);
+        }
+    }
+
+    private synchronized void addRun(Run run, List<ProjectDTO> projects) {
+        if (closed) {
+            deleteQuietly(run.file());
+            return;
+        }
+        runs.add(run);
+        size += projects.size();
+        for (ProjectDTO project : projects) {
+            BigDecimal profit = project.profit();
+            minProfit = minProfit == null || profit.compareTo(minProfit) < 0 ? profit : minProfit;
+            maxProfit = maxProfit == null || profit.compareTo(maxProfit) > 0 ? profit : maxProfit;
+            profitScale = Math.max(profitScale, profit.stripTrailingZeros().scale());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete catalog run {}", file, e);
+        }
+    }
+
+    private static long recordLength(ProjectDTO project, byte[] name) {
+        return 2 * Long.BYTES
+                + decimalLength(project.requiredCapital()) + decimalLength(project.profit())
+                + Integer.BYTES + name.length
+                + instantLength(project.auditMetadata().createdAt()) + instantLength(project.auditMetadata().updatedAt())
+                + Long.BYTES;
+    }
+
+    private static int decimalLength(BigDecimal value) {
+        // The length of BigInteger#toByteArray
+        return 2 * Integer.BYTES + value.unscaledValue().bitLength() / 8 + 1;
+    }
+
+    private static int instantLength(Instant instant) {
+        return instant == null ? 1 : 1 + Long.BYTES + Integer.BYTES;
+    }
+
+    private static void write(ByteBuffer buffer, ProjectDTO project, byte[] name) {
+        buffer.putLong(project.id().getMostSignificantBits()).putLong(project.id().getLeastSignificantBits());
+        writeDecimal(buffer, project.requiredCapital());
+        writeDecimal(buffer, project.profit());
+        buffer.putInt(name.length).put(name);
+        writeInstant(buffer, project.auditMetadata().createdAt());
+        writeInstant(buffer, project.auditMetadata().updatedAt());
+        buffer.putLong(project.version());
+    }
+
+    private static void writeDecimal(ByteBuffer buffer, BigDecimal value) {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        buffer.putInt(value.scale()).putInt(unscaled.length).put(unscaled);
+    }
+
+    private static void writeInstant(ByteBuffer buffer, Instant instant) {
+        if (instant == null) {
+            buffer.put((byte) 0);
+        } else {
+            buffer.put((byte) 1).putLong(instant.getEpochSecond()).putInt(instant.getNano());
+        }
+    }
+
+    private static ProjectDTO read(ByteBuffer buffer) {
+        var id = new UUID(buffer.getLong(), buffer.getLong());
+        BigDecimal requiredCapital = readDecimal(buffer);
+        BigDecimal profit = readDecimal(buffer);
+        byte[] name = new byte[buffer.getInt()];
+        buffer.get(name);
+        var auditMetadata = new AuditMetadata(readInstant(buffer), readInstant(buffer));
+        return new ProjectDTO(id, new String(name, StandardCharsets.UTF_8), requiredCapital, profit, auditMetadata,
+                buffer.getLong());
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer buffer) {
+        int scale = buffer.getInt();
+        byte[] unscaled = new byte[buffer.getInt()];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static Instant readInstant(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+    }
+
+    private record Run(Path file, MappedByteBuffer mapping) {
+
+        /**
+         * A view of the run's records with its own position.
+         */
+        ByteBuffer records() {
+            return mapping.slice(0, mapping.capacity());
+        }
+    }
+
+    /**
+     * Forward-only catalog merging the runs through a heap of their heads, ordered by required capital and then by run,
+     * so that equal required capitals keep the catalog's order. Projects are decoded when first awaited, and dropped
+     * once released.
+     */
+    static final class MergedSortedCatalog extends SortedCatalog {
+        private static final Comparator<RunCursor> BY_HEAD = Comparator
+                .comparing((RunCursor cursor) -> cursor.head.requiredCapital())
+                .thenComparingInt(cursor -> cursor.run);
+
+        private final PriorityQueue<RunCursor> heads = new PriorityQueue<>(BY_HEAD);
+        private final int size;
+        /**
+         * Decoded projects from position {@code windowStart} on.
+         */
+        private final List<ProjectDTO> window = new ArrayList<>();
+        private int windowStart;
+
+        MergedSortedCatalog(List<ByteBuffer> runs, int size) {
+            super(NO_COLUMN);
+            this.size = size;
+            for (int run = 0; run < runs.size(); run++) {
+                var cursor = new RunCursor(run, runs.get(run));
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        ProjectDTO get(int index) {
+            if (index < windowStart || index >= windowStart + window.size()) {
+                throw new IllegalStateException("Position " + index + " is not between the released and awaited ones.");
+            }
+            return window.get(index - windowStart);
+        }
+
+        @Override
+        int awaitSorted(int index) {
+            while (windowStart + window.size() <= index) {
+                RunCursor cursor = heads.remove();
+                window.add(cursor.head);
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+            return index + 1;
+        }
+
+        @Override
+        void release(int index) {
+            int released = Math.min(index - windowStart, window.size());
+            if (released > 0) {
+                window.subList(0, released).clear();
+                windowStart += released;
+            }
+        }
+
+        /**
+         * Nothing is prepared in the background; the merge advances as positions are awaited.
+         */
+        @Override
+        void awaitPrepared() {
+        }
+
+        @Override
+        long[] scaledRequiredCapital() {
+            return null;
+        }
+    }
+
+    private static final class RunCursor {
+        private final int run;
+        private final ByteBuffer records;
+        private ProjectDTO head;
+
+        private RunCursor(int run, ByteBuffer records) {
+            this.run = run;
+            this.records = records;
+        }
+
+        /**
+         * Decodes the next record into {@code head}, returning {@code false} at the end of the run.
+         */
+        private boolean advance() {
+            head = records.hasRemaining() ? read(records) : null;
+            return head != null;
+        }
+    }
+}
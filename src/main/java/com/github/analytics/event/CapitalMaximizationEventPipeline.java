@@ -0,0 +1,341 @@
+package com.github.analytics.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID;
+
+/**
+ * Bounded, order-preserving, priority-aware execution pipeline for consumed capital maximization events.
+ *
+ * <p> Work submitted for a partition runs strictly after the previous work for that partition has completed, while
+ * work for different partitions runs concurrently up to {@code max-in-flight}. Each {@link JobPriority} has its own
+ * lane: {@code reserved-high-priority} of the processing slots are only used by high-priority work, and when both lanes
+ * have work waiting, up to {@code high-priority-weight} high-priority items are dispatched for each normal one. </p>
+ *
+ * <p> When more than {@code max-pending} events of a lane are queued the partitions of that lane's topic are paused, and
+ * they are resumed once the lane has drained to half, so a backlog of sweep jobs does not stop interactive queries from
+ * being consumed. </p>
+ *
+ * <p> On shutdown the pipeline stops before the listener container: it pauses consumption and waits up to
+ * {@code drain-timeout} for queued and in-flight work to complete, so their offsets are committed before the
+ * consumer closes. </p>
+ */
+@Component
+public class CapitalMaximizationEventPipeline implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(CapitalMaximizationEventPipeline.class);
+    private static final Duration EMIT_RETRY_DURATION = Duration.ofMillis(100);
+    private static final long DRAIN_POLL_INTERVAL_MILLIS = 50;
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final int maxInFlight;
+    private final int maxNormalInFlight;
+    private final int highPriorityWeight;
+    private final int maxPending;
+    private final Duration drainTimeout;
+    private final Map<JobPriority, Lane> lanes = new EnumMap<>(JobPriority.class);
+    private final Map<TopicPartition, Sinks.Many<PendingWork>> partitionLanes = new ConcurrentHashMap<>();
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final Sinks.One<Boolean> stopped = Sinks.one();
+    private int consecutiveHighPriority; // Only accessed by the thread draining the dispatch requests
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    public CapitalMaximizationEventPipeline(
+            KafkaListenerEndpointRegistry listenerRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${roi.optimizer.consumer.max-in-flight}") int maxInFlight,
+            @Value("${roi.optimizer.consumer.reserved-high-priority}") int reservedHighPriority,
+            @Value("${roi.optimizer.consumer.high-priority-weight}") int highPriorityWeight,
+            @Value("${roi.optimizer.consumer.max-pending}") int maxPending,
+            @Value("${roi.optimizer.consumer.drain-timeout}") Duration drainTimeout) {
+        if (reservedHighPriority < 0 || reservedHighPriority >= maxInFlight) {
+            throw new IllegalArgumentException("Reserved high-priority slots must be between 0 and max-in-flight - 1.");
+        }
+        if (highPriorityWeight < 1) {
+            throw new IllegalArgumentException("High-priority weight must be at least 1.");
+        }
+        this.listenerRegistry = listenerRegistry;
+        this.maxInFlight = maxInFlight;
+        this.maxNormalInFlight = maxInFlight - reservedHighPriority;
+        this.highPriorityWeight = highPriorityWeight;
+        this.maxPending = maxPending;
+        this.drainTimeout = drainTimeout;
+
+        for (JobPriority priority : JobPriority.values()) {
+            lanes.put(priority, new Lane(priority, meterRegistry));
+        }
+    }
+
+    /**
+     * Queues work for a partition of the given priority's topic, completing when the work itself completes.
+     */
+    public Mono<Void> submit(JobPriority priority, int partition, Mono<Void> work) {
+        return Mono.defer(() -> {
+            Lane lane = lanes.get(priority);
+            var pendingWork = new PendingWork(lane, work, Sinks.empty(), System.nanoTime());
+
+            if (lane.pending.incrementAndGet() >= maxPending) {
+                pauseLane(lane);
+            }
+            partitionLanes.computeIfAbsent(new TopicPartition(lane.topic, partition), this::openPartitionLane)
+                    .emitNext(pendingWork, Sinks.EmitFailureHandler.busyLooping(EMIT_RETRY_DURATION));
+
+            return pendingWork.done().asMono();
+        });
+    }
+
+    /**
+     * Each partition lane releases its next work item only once the previous one has completed.
+     */
+    private Sinks.Many<PendingWork> openPartitionLane(TopicPartition partition) {
+        logger.info("Opening processing lane for partition {}", partition);
+
+        Sinks.Many<PendingWork> partitionLane = Sinks.many().unicast().onBackpressureBuffer();
+        partitionLane.asFlux()
+                .concatMap(pendingWork -> {
+                    pendingWork.lane().ready.offer(pendingWork);
+                    dispatch();
+                    return pendingWork.done().asMono().onErrorResume(error -> Mono.empty());
+                })
+                .subscribe();
+        return partitionLane;
+    }
+
+    /**
+     * Starts ready work while processing slots are free. Concurrent calls are coalesced, so that only one thread
+     * dispatches at a time and work completing synchronously does not recurse.
+     */
+    private void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            PendingWork next;
+            while ((next = nextReady()) != null) {
+                execute(next);
+            }
+        } while (dispatchRequests.decrementAndGet() != 0);
+    }
+
+    private PendingWork nextReady() {
+        Lane high = lanes.get(JobPriority.HIGH);
+        Lane normal = lanes.get(JobPriority.NORMAL);
+        int inFlight = high.inFlight.get() + normal.inFlight.get();
+        if (inFlight >= maxInFlight) {
+            return null;
+        }
+
+        boolean highReady = !high.ready.isEmpty();
+        boolean normalReady = !normal.ready.isEmpty() && inFlight < maxNormalInFlight;
+        if (highReady && (!normalReady || consecutiveHighPriority < highPriorityWeight)) {
+            consecutiveHighPriority = normalReady ? consecutiveHighPriority + 1 : 0;
+            return high.ready.poll();
+        }
+        if (normalReady) {
+            consecutiveHighPriority = 0;
+            return normal.ready.poll();
+        }
+        return null;
+    }
+
+    private void execute(PendingWork pendingWork) {
+        Lane lane = pendingWork.lane();
+        lane.queueTime.record(System.nanoTime() - pendingWork.enqueuedAt(), TimeUnit.NANOSECONDS);
+        lane.pending.decrementAndGet();
+        lane.inFlight.incrementAndGet();
+
+        pendingWork.work()
+                .doOnSuccess(done -> pendingWork.done().tryEmitEmpty())
+                .doOnError(error -> pendingWork.done().tryEmitError(error))
+                .onErrorResume(error -> Mono.empty())
+                .doOnSuccess(done -> lane.completed.increment())
+                .takeUntilOther(stopped.asMono())
+                .doFinally(signal -> {
+                    lane.inFlight.decrementAndGet();
+                    if (!draining && lane.pending.get() <= maxPending / 2) {
+                        resumeLane(lane);
+                    }
+                    dispatch();
+                })
+                .subscribe();
+    }
+
+    /**
+     * Pauses the assigned partitions of the lane's topic. Repeated while the lane is over its limit, so partitions
+     * assigned by a rebalance in the meantime are paused as well.
+     */
+    private void pauseLane(Lane lane) {
+        if (lane.paused.compareAndSet(false, true)) {
+            logger.warn("{} {} priority events pending; pausing their partitions", lane.pending.get(), lane.priority);
+        }
+        listenerContainer().ifPresent(container -> lane.assignedPartitions(container).forEach(container::pausePartition));
+    }
+
+    private void resumeLane(Lane lane) {
+        if (lane.paused.compareAndSet(true, false)) {
+            logger.info("Pending {} priority events drained to {}; resuming their partitions",
+                    lane.priority, lane.pending.get());
+            listenerContainer().ifPresent(container ->
+                    lane.assignedPartitions(container).forEach(container::resumePartition));
+        }
+    }
+
+    private void pauseConsumption() {
+        if (paused.compareAndSet(false, true)) {
+            logger.warn("{} events pending; pausing consumption", pending());
+            listenerContainer().ifPresent(MessageListenerContainer::pause);
+        }
+    }
+
+    private void resumeConsumption() {
+        if (paused.compareAndSet(true, false)) {
+            logger.info("Pending events drained to {}; resuming consumption", pending());
+            listenerContainer().ifPresent(MessageListenerContainer::resume);
+        }
+    }
+
+    private Optional<MessageListenerContainer> listenerContainer() {
+        return Optional.ofNullable(listenerRegistry.getListenerContainer(CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID));
+    }
+
+    int inFlight() {
+        return lanes.values().stream().mapToInt(lane -> lane.inFlight.get()).sum();
+    }
+
+    int pending() {
+        return lanes.values().stream().mapToInt(lane -> lane.pending.get()).sum();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Pauses consumption and waits up to {@code timeout} for queued and in-flight work to complete. Consumption stays
+     * paused until {@link #endDrain()} is called.
+     *
+     * @return whether the pipeline drained completely within the timeout.
+     */
+    public boolean drain(Duration timeout) {
+        draining = true;
+        pauseConsumption();
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending() + inFlight() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(DRAIN_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return pending() + inFlight() == 0;
+    }
+
+    /**
+     * Ends a drain started with {@link #drain(Duration)} and resumes consumption.
+     */
+    public void endDrain() {
+        draining = false;
+        resumeConsumption();
+    }
+
+    @Override
+    public void stop() {
+        if (drain(drainTimeout)) {
+            logger.info("Drained capital maximization event pipeline");
+        } else {
+            logger.warn("Shutting down with {} pending and {} in-flight events; they will be redelivered",
+                    pending(), inFlight());
+        }
+
+        partitionLanes.values().forEach(Sinks.Many::tryEmitComplete);
+        stopped.tryEmitValue(Boolean.TRUE); // Cancels work still in flight
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops before the listener containers, so drained work is still acknowledged by an open consumer.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE + 1;
+    }
+
+    private static final class Lane {
+        private final JobPriority priority;
+        private final String topic;
+        private final Queue<PendingWork> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean paused = new AtomicBoolean();
+        private final Timer queueTime;
+        private final Counter completed;
+
+        private Lane(JobPriority priority, MeterRegistry meterRegistry) {
+            this.priority = priority;
+            this.topic = ProjectCapitalOptimizerEventPublisher.topicFor(priority);
+            String laneTag = priority.name().toLowerCase();
+
+            Gauge.builder("roi.optimizer.consumer.in_flight", inFlight, AtomicInteger::get)
+                    .description("Capital maximization events currently being processed, per priority lane")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+            Gauge.builder("roi.optimizer.consumer.pending", pending, AtomicInteger::get)
+                    .description("Consumed capital maximization events waiting for a processing slot, per priority lane")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+            this.queueTime = Timer.builder("roi.optimizer.consumer.queue_time")
+                    .description("Time a consumed event waits for its partition and a processing slot")
+                    .tag("lane", laneTag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.completed = Counter.builder("roi.optimizer.consumer.completed")
+                    .description("Capital maximization events processed, per priority lane")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+        }
+
+        private List<TopicPartition> assignedPartitions(MessageListenerContainer container) {
+            var assigned = container.getAssignedPartitions();
+            return assigned == null ? List.of()
+                    : assigned.stream().filter(partition -> partition.topic().equals(topic)).toList();
+        }
+    }
+
+    private record PendingWork(Lane lane, Mono<Void> work, Sinks.Empty<Void> done, long enqueuedAt) {
+    }
+}
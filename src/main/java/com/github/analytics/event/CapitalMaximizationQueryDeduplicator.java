@@ -0,0 +1,136 @@
+package com.github.analytics.event;
+
+import com.github.analytics.api.ProjectCapitalOptimized;
+import com.github.projects.api.ProjectCatalogVersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical capital maximization queries over the same catalog version into a single computation.
+ *
+ * <p> An event attaches to the computation of an identical query that is still running, or that completed within the
+ * last {@code window}, and reuses its result; failed computations are forgotten immediately so that retries recompute.
+ * Coalescing is per instance: identical queries share a partition key, so the consumer group routes them to the same
+ * instance. If the catalog version cannot be read, the query is computed without coalescing. </p>
+ *
+ * <p> A running computation is abandoned once its deadline passes, so a query only attaches to one whose deadline is
+ * no earlier than its own, or to a result already computed. A query with a later deadline, or none, starts its own computation, which identical queries
+ * arriving after it attach to instead. </p>
+ */
+@Component
+public class CapitalMaximizationQueryDeduplicator {
+    private final ProjectCatalogVersionService catalogVersionService;
+    private final Duration window;
+    private final Map<QueryKey, SharedComputation> computations = new ConcurrentHashMap<>();
+    private final Counter computed;
+    private final Counter coalesced;
+    private final Counter bypassed;
+
+    public CapitalMaximizationQueryDeduplicator(
+            ProjectCatalogVersionService catalogVersionService,
+            MeterRegistry meterRegistry,
+            @Value("${roi.optimizer.consumer.deduplication.window}") Duration window) {
+        this.catalogVersionService = catalogVersionService;
+        this.window = window;
+
+        this.computed = queriesCounter(meterRegistry, "computed");
+        this.coalesced = queriesCounter(meterRegistry, "coalesced");
+        this.bypassed = queriesCounter(meterRegistry, "bypassed");
+        Gauge.builder("roi.optimizer.consumer.deduplication.ratio", this, CapitalMaximizationQueryDeduplicator::ratio)
+                .description("Share of capital maximization queries answered by an identical query's computation")
+                .register(meterRegistry);
+        Gauge.builder("roi.optimizer.consumer.deduplication.entries", computations, Map::size)
+                .description("Running or recently completed computations available for coalescing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the result of the given query, computed by {@code computation} unless an identical query over the same
+     * catalog version completed within the window, or is running with a deadline no earlier than {@code deadline}.
+     *
+     * @param deadline The time by which {@code computation} gives up, or {@code null} if it never does.
+     */
+    public Mono<ProjectCapitalOptimized> deduplicate(CapitalMaximizationQueryEvent event, Instant deadline,
+                                                     Supplier<Mono<ProjectCapitalOptimized>> computation) {
+        return catalogVersionService.currentVersion()
+                .map(version -> new QueryKey(event.maxProjects(), event.initialCapital().stripTrailingZeros(), version))
+                .flatMap(key -> attachOrCompute(key, deadline, computation))
+                .switchIfEmpty(Mono.defer(() -> {
+                    bypassed.increment();
+                    return computation.get();
+                }));
+    }
+
+    private Mono<ProjectCapitalOptimized> attachOrCompute(
+            QueryKey key, Instant deadline, Supplier<Mono<ProjectCapitalOptimized>> computation) {
+        var candidate = new SharedComputation(key, deadline, computation);
+        SharedComputation existing = computations.putIfAbsent(key, candidate);
+        if (existing == null) {
+            computed.increment();
+            return candidate.result;
+        }
+        if (existing.succeeded || existing.outlasts(deadline)) {
+            coalesced.increment();
+            return existing.result;
+        }
+
+        // The running computation may give up before this query's deadline; later queries attach to this one instead
+        computations.replace(key, existing, candidate);
+        computed.increment();
+        return candidate.result;
+    }
+
+    private double ratio() {
+        double coalescedCount = coalesced.count();
+        double total = computed.count() + coalescedCount + bypassed.count();
+        return total == 0 ? 0 : coalescedCount / total;
+    }
+
+    private static Counter queriesCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("roi.optimizer.consumer.deduplication.queries")
+                .description("Capital maximization queries by deduplication outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record QueryKey(int maxProjects, BigDecimal initialCapital, long catalogVersion) {
+    }
+
+    /**
+     * A computation shared by identical queries, which removes itself once its result leaves the window.
+     */
+    private final class SharedComputation {
+        private final Instant deadline;
+        private final Mono<ProjectCapitalOptimized> result;
+        private volatile boolean succeeded;
+
+        private SharedComputation(QueryKey key, Instant deadline, Supplier<Mono<ProjectCapitalOptimized>> computation) {
+            this.deadline = deadline;
+            this.result = Mono.defer(computation)
+                    .doOnSuccess(optimized -> {
+                        succeeded = true;
+                        Mono.delay(window).subscribe(tick -> computations.remove(key, this));
+                    })
+                    .doOnError(error -> computations.remove(key, this))
+                    .cache(optimized -> window, error -> Duration.ZERO, () -> Duration.ZERO);
+        }
+
+        /**
+         * Whether this computation runs at least until {@code otherDeadline}, {@code null} meaning no deadline.
+         */
+        private boolean outlasts(Instant otherDeadline) {
+            return deadline == null || (otherDeadline != null && !otherDeadline.isAfter(deadline));
+        }
+    }
+}
@@ -2,23 +2,50 @@ package com.github.analytics.event;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.util.UUID;
 
 import static com.github.projects.model.Validators.*;
 
 /**
  * Represents a capital maximization event published to a Kafka topic.
  *
+ * @param jobId          The job ID under which the result is stored and can be retrieved.
  * @param maxProjects    The maximum number of projects to complete.
  * @param initialCapital The initial capital available for maximization.
+ * @param priority       The lane the job is scheduled in; {@link JobPriority#NORMAL} if not set.
  */
 public record CapitalMaximizationQueryEvent(
+        String jobId,
         Integer maxProjects,
-        BigDecimal initialCapital
+        BigDecimal initialCapital,
+        JobPriority priority
 ) implements Serializable {
 
     public CapitalMaximizationQueryEvent {
+        // Events published before job IDs were introduced carry none; assign one so their result is still stored.
+        if (jobId == null) {
+            jobId = UUID.randomUUID().toString();
+        }
+        if (priority == null) {
+            priority = JobPriority.NORMAL;
+        }
+        requireNonNullOrBlank(jobId, "Job ID cannot be blank.");
         requireNonNull(maxProjects, () -> "Max projects cannot be null.");
         requireNonNegative(maxProjects, () -> "Max projects must be zero or greater.");
         requireNonNullAndNonNegative(initialCapital, () -> "Initial capital cannot be null or negative.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a normal priority event for the given job.
+     */
+    public CapitalMaximizationQueryEvent(String jobId, Integer maxProjects, BigDecimal initialCapital) {
+        this(jobId, maxProjects, initialCapital, null);
+    }
+
+    /**
+     * Creates a normal priority event for a new job with a generated job ID.
+     */
+    public CapitalMaximizationQueryEvent(Integer maxProjects, BigDecimal initialCapital) {
+        this(null, maxProjects, initialCapital, null);
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.analytics.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Compact binary wire format of {@link CapitalMaximizationQueryEvent}.
+ *
+ * <p> Version 1 layout, big-endian:
+ * <ul>
+ *     <li>job ID: a tag byte, followed by the 16 bytes of the UUID for {@code 0}, or by an unsigned short length and
+ *     the UTF-8 bytes of the ID for {@code 1};</li>
+ *     <li>max projects: an int;</li>
+ *     <li>initial capital: the scale as an int, followed by an unsigned short length and the two's-complement bytes of
+ *     the unscaled value.</li>
+ * </ul>
+ * Version 2 appends the priority as a byte, {@code 0} for normal and {@code 1} for high. An event with a generated job
+ * ID encodes to about 30 bytes, against about 80 bytes of JSON. </p>
+ *
+ * <p> Normal-priority events are written as version 1, which every binary consumer reads. Only high-priority events
+ * need version 2; they are published to the priority topic, which consumers predating the priority lanes do not
+ * subscribe to. </p>
+ */
+public final class CapitalMaximizationQueryEventCodec implements EventCodec<CapitalMaximizationQueryEvent> {
+    public static final String MEDIA_TYPE = "application/x-roi-capital-maximization-query";
+
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_PRIORITY = 1;
+    private static final byte UUID_JOB_ID = 0;
+    private static final byte TEXT_JOB_ID = 1;
+    private static final byte NORMAL_PRIORITY = 0;
+    private static final byte HIGH_PRIORITY = 1;
+    private static final int MAX_FIELD_LENGTH = 0xFFFF;
+
+    @Override
+    public String mediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public int version(CapitalMaximizationQueryEvent event) {
+        return event.priority() == JobPriority.HIGH ? VERSION : VERSION_WITHOUT_PRIORITY;
+    }
+
+    @Override
+    public Class<CapitalMaximizationQueryEvent> type() {
+        return CapitalMaximizationQueryEvent.class;
+    }
+
+    @Override
+    public byte[] encode(CapitalMaximizationQueryEvent event) {
+        UUID uuidJobId = parseUuid(event.jobId());
+        byte[] textJobId = uuidJobId == null ? event.jobId().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] unscaledCapital = event.initialCapital().unscaledValue().toByteArray();
+        if ((textJobId != null && textJobId.length > MAX_FIELD_LENGTH) || unscaledCapital.length > MAX_FIELD_LENGTH) {
+            throw new SerializationException("Capital maximization query event for job " + event.jobId()
+                    + " exceeds the field lengths of the binary wire format");
+        }
+
+        boolean withPriority = version(event) == VERSION;
+        int jobIdLength = uuidJobId != null ? Long.BYTES * 2 : Short.BYTES + textJobId.length;
+        ByteBuffer buffer = ByteBuffer.allocate(1 + jobIdLength + Integer.BYTES + Integer.BYTES + Short.BYTES
+                + unscaledCapital.length + (withPriority ? 1 : 0));
+
+        if (uuidJobId != null) {
+            buffer.put(UUID_JOB_ID)
+                    .putLong(uuidJobId.getMostSignificantBits())
+                    .putLong(uuidJobId.getLeastSignificantBits());
+        } else {
+            buffer.put(TEXT_JOB_ID)
+                    .putShort((short) textJobId.length)
+                    .put(textJobId);
+        }
+
+        buffer.putInt(event.maxProjects())
+                .putInt(event.initialCapital().scale())
+                .putShort((short) unscaledCapital.length)
+                .put(unscaledCapital);
+        if (withPriority) {
+            buffer.put(HIGH_PRIORITY);
+        }
+
+        return buffer.array();
+    }
+
+    @Override
+    public CapitalMaximizationQueryEvent decode(byte[] payload, int version) {
+        if (version != VERSION && version != VERSION_WITHOUT_PRIORITY) {
+            throw new SerializationException("Unsupported " + MEDIA_TYPE + " version: " + version);
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+
+            String jobId = switch (buffer.get()) {
+                case UUID_JOB_ID -> new UUID(buffer.getLong(), buffer.getLong()).toString();
+                case TEXT_JOB_ID -> new String(readField(buffer), StandardCharsets.UTF_8);
+                default -> throw new SerializationException("Unknown job ID encoding in " + MEDIA_TYPE + " payload");
+            };
+            int maxProjects = buffer.getInt();
+            int scale = buffer.getInt();
+            BigDecimal initialCapital = new BigDecimal(new BigInteger(readField(buffer)), scale);
+            JobPriority priority = version == VERSION_WITHOUT_PRIORITY ? JobPriority.NORMAL : switch (buffer.get()) {
+                case NORMAL_PRIORITY -> JobPriority.NORMAL;
+                case HIGH_PRIORITY -> JobPriority.HIGH;
+                default -> throw new SerializationException("Unknown priority in " + MEDIA_TYPE + " payload");
+            };
+
+            if (buffer.hasRemaining()) {
+                throw new SerializationException("Trailing bytes in " + MEDIA_TYPE + " payload");
+            }
+            return new CapitalMaximizationQueryEvent(jobId, maxProjects, initialCapital, priority);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new SerializationException("Malformed " + MEDIA_TYPE + " payload", e);
+        }
+    }
+
+    private static byte[] readField(ByteBuffer buffer) {
+        byte[] field = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(field);
+        return field;
+    }
+
+    /**
+     * Returns the job ID as a UUID if it is the canonical form of one, so that it round-trips unchanged.
+     */
+    private static UUID parseUuid(String jobId) {
+        if (jobId.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(jobId);
+            return uuid.toString().equals(jobId) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
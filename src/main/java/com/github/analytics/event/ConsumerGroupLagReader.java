@@ -0,0 +1,107 @@
+package com.github.analytics.event;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
+
+/**
+ * Reads the total lag of the capital maximization consumer group, together with the partition count of its normal and
+ * high-priority query topics.
+ *
+ * <p> The admin client is created on first use and kept open; lookups are blocking and must not run on event loop
+ * threads. </p>
+ */
+@Component
+public class ConsumerGroupLagReader implements AutoCloseable {
+    private final KafkaAdmin kafkaAdmin;
+    private final String groupId;
+    private final Duration requestTimeout;
+    private volatile AdminClient adminClient;
+
+    public ConsumerGroupLagReader(
+            KafkaAdmin kafkaAdmin,
+            @Value("${spring.cloud.stream.bindings.capital-maximization-query-in-0.group}") String groupId,
+            @Value("${roi.optimizer.consumer.autoscaler.request-timeout}") Duration requestTimeout) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.groupId = groupId;
+        this.requestTimeout = requestTimeout;
+    }
+
+    private static final List<String> TOPICS = List.of(CAPITAL_MAXIMIZATION_QUERY_TOPIC, CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC);
+
+    /**
+     * Observed lag of the consumer group across all partitions of the query topics.
+     *
+     * @param lag            Messages produced but not yet committed by the group; partitions without a committed
+     *                       offset count as caught up.
+     * @param partitionCount Number of partitions of the query topics, which bounds the useful consumer count.
+     */
+    public record ConsumerGroupLag(long lag, int partitionCount) {
+    }
+
+    public ConsumerGroupLag read() throws InterruptedException, ExecutionException, TimeoutException {
+        AdminClient admin = adminClient();
+
+        Map<String, TopicDescription> topics = admin.describeTopics(TOPICS)
+                .allTopicNames()
+                .get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        Map<TopicPartition, OffsetSpec> latest = topics.values().stream()
+                .flatMap(topic -> topic.partitions().stream()
+                        .map(partition -> new TopicPartition(topic.name(), partition.partition())))
+                .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest()));
+
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets = admin.listOffsets(latest)
+                .all()
+                .get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata()
+                .get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        long lag = endOffsets.entrySet().stream()
+                .mapToLong(entry -> {
+                    OffsetAndMetadata committedOffset = committed.get(entry.getKey());
+                    return committedOffset == null ? 0 : Math.max(0, entry.getValue().offset() - committedOffset.offset());
+                })
+                .sum();
+
+        return new ConsumerGroupLag(lag, latest.size());
+    }
+
+    private AdminClient adminClient() {
+        if (adminClient == null) {
+            synchronized (this) {
+                if (adminClient == null) {
+                    adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+                }
+            }
+        }
+        return adminClient;
+    }
+
+    @Override
+    public void close() {
+        if (adminClient != null) {
+            adminClient.close(requestTimeout);
+        }
+    }
+}
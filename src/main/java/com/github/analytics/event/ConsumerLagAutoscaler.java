@@ -0,0 +1,177 @@
+package com.github.analytics.event;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID;
+
+/**
+ * Scales the number of consumer threads of the capital maximization listener from the observed consumer group lag.
+ *
+ * <p> The desired concurrency is one consumer per {@code lag-per-consumer} lagging events, bounded by
+ * {@code min-concurrency}, {@code max-concurrency}, and the topic's partition count, since consumers beyond the
+ * partition count receive no assignment. Scaling up is immediate; scaling down waits for {@code cooldown} since the
+ * last change. A change drains the event pipeline, then restarts the container with the new concurrency. </p>
+ */
+@Component
+public class ConsumerLagAutoscaler implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ConsumerLagAutoscaler.class);
+
+    private final ConsumerGroupLagReader lagReader;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final CapitalMaximizationEventPipeline eventPipeline;
+    private final boolean enabled;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long lagPerConsumer;
+    private final Duration interval;
+    private final Duration cooldown;
+    private final Duration drainTimeout;
+    private final AtomicLong observedLag = new AtomicLong();
+    private final AtomicInteger currentConcurrency = new AtomicInteger();
+    private volatile long lastScaledAt;
+    private volatile Disposable evaluations;
+
+    public ConsumerLagAutoscaler(
+            ConsumerGroupLagReader lagReader,
+            KafkaListenerEndpointRegistry listenerRegistry,
+            CapitalMaximizationEventPipeline eventPipeline,
+            MeterRegistry meterRegistry,
+            @Value("${roi.optimizer.consumer.autoscaler.enabled}") boolean enabled,
+            @Value("${roi.optimizer.consumer.autoscaler.min-concurrency}") int minConcurrency,
+            @Value("${roi.optimizer.consumer.autoscaler.max-concurrency}") int maxConcurrency,
+            @Value("${roi.optimizer.consumer.autoscaler.lag-per-consumer}") long lagPerConsumer,
+            @Value("${roi.optimizer.consumer.autoscaler.interval}") Duration interval,
+            @Value("${roi.optimizer.consumer.autoscaler.cooldown}") Duration cooldown,
+            @Value("${roi.optimizer.consumer.drain-timeout}") Duration drainTimeout) {
+        this.lagReader = lagReader;
+        this.listenerRegistry = listenerRegistry;
+        this.eventPipeline = eventPipeline;
+        this.enabled = enabled;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.lagPerConsumer = lagPerConsumer;
+        this.interval = interval;
+        this.cooldown = cooldown;
+        this.drainTimeout = drainTimeout;
+        this.lastScaledAt = System.nanoTime();
+
+        Gauge.builder("roi.optimizer.consumer.lag", observedLag, AtomicLong::get)
+                .description("Last observed lag of the capital maximization consumer group")
+                .register(meterRegistry);
+        Gauge.builder("roi.optimizer.consumer.concurrency", currentConcurrency, AtomicInteger::get)
+                .description("Consumer threads of the capital maximization listener on this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the current lag and rescales the listener container if its concurrency should change.
+     */
+    void evaluate() {
+        if (!(listenerRegistry.getListenerContainer(CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID)
+                instanceof ConcurrentMessageListenerContainer<?, ?> container) || !container.isRunning()) {
+            return;
+        }
+
+        ConsumerGroupLagReader.ConsumerGroupLag groupLag;
+        try {
+            groupLag = lagReader.read();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            logger.warn("Unable to read consumer group lag; keeping current concurrency", e);
+            return;
+        }
+
+        int current = container.getConcurrency();
+        int desired = desiredConcurrency(groupLag.lag(), groupLag.partitionCount());
+        observedLag.set(groupLag.lag());
+        currentConcurrency.set(current);
+
+        boolean cooledDown = System.nanoTime() - lastScaledAt >= cooldown.toNanos();
+        if (desired > current || (desired < current && cooledDown)) {
+            scale(container, current, desired, groupLag.lag());
+        }
+    }
+
+    int desiredConcurrency(long lag, int partitionCount) {
+        long byLag = (lag + lagPerConsumer - 1) / lagPerConsumer;
+        int upperBound = Math.max(minConcurrency, Math.min(maxConcurrency, partitionCount));
+        return (int) Math.max(minConcurrency, Math.min(upperBound, byLag));
+    }
+
+    private void scale(ConcurrentMessageListenerContainer<?, ?> container, int current, int desired, long lag) {
+        logger.info("Scaling capital maximization consumers from {} to {} for a lag of {} events", current, desired, lag);
+
+        try {
+            if (!eventPipeline.drain(drainTimeout)) {
+                logger.warn("Event pipeline did not drain within {}; postponing rescale", drainTimeout);
+                return;
+            }
+
+            container.stop();
+            container.setConcurrency(desired);
+            container.start();
+            currentConcurrency.set(desired);
+            lastScaledAt = System.nanoTime();
+        } finally {
+            eventPipeline.endDrain();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            logger.info("Consumer lag autoscaling is disabled");
+            return;
+        }
+
+        evaluations = Flux.interval(interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::evaluate)
+                        .subscribeOn(Schedulers.boundedElastic()) // Lag lookups and container restarts block
+                        .onErrorResume(error -> {
+                            logger.error("Consumer lag autoscaling evaluation failed", error);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (evaluations != null) {
+            evaluations.dispose();
+            evaluations = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return evaluations != null && !evaluations.isDisposed();
+    }
+
+    /**
+     * Starts after and stops before the event pipeline and the listener containers.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE + 2;
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.analytics.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+import static com.github.analytics.event.EventCodecs.mediaType;
+import static com.github.analytics.event.EventCodecs.readContentType;
+import static com.github.analytics.event.EventCodecs.version;
+
+/**
+ * Kafka deserializer reading events in the wire format named by their {@code contentType} header.
+ *
+ * <p> Binary payloads are decoded by the {@link EventCodec} of their media type, at the schema version of the header.
+ * Records without the header, or with a JSON content type, are read as JSON by a {@link JsonDeserializer} configured
+ * from the same consumer properties, so events from producers that predate the binary format remain readable. </p>
+ */
+public class ContentTypeEventDeserializer implements Deserializer<Object> {
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+
+        String contentType = readContentType(headers);
+        if (contentType == null || isJson(mediaType(contentType))) {
+            return jsonDeserializer.deserialize(topic, headers, data);
+        }
+
+        EventCodec<?> codec = EventCodecs.forMediaType(mediaType(contentType))
+                .orElseThrow(() -> new SerializationException("Unsupported event content type: " + contentType));
+        return codec.decode(data, version(contentType));
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+    private static boolean isJson(String mediaType) {
+        return mediaType.equalsIgnoreCase(EventCodecs.JSON_CONTENT_TYPE) || mediaType.toLowerCase().endsWith("+json");
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.analytics.event;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.github.analytics.event.EventCodecs.JSON_CONTENT_TYPE;
+import static com.github.analytics.event.EventCodecs.writeContentType;
+
+/**
+ * Kafka serializer writing events in the wire format selected by the {@value #WIRE_FORMAT_CONFIG} producer property,
+ * and recording it in the {@code contentType} header for {@link ContentTypeEventDeserializer}.
+ *
+ * <p> With {@code binary}, events are encoded by their {@link EventCodec}, and events without one fall back to JSON.
+ * With {@code json}, the default, every event is written as JSON. During a rolling upgrade, keep {@code json} until
+ * every consumer reads the binary format. </p>
+ */
+public class ContentTypeEventSerializer implements Serializer<Object> {
+    public static final String WIRE_FORMAT_CONFIG = "roi.event.wire-format";
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+
+        Object wireFormat = configs.get(WIRE_FORMAT_CONFIG);
+        binary = wireFormat != null && "binary".equalsIgnoreCase(wireFormat.toString().trim());
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+
+        Optional<EventCodec<Object>> codec = binary ? codecOf(data) : Optional.empty();
+        if (codec.isPresent()) {
+            writeContentType(headers, codec.get().contentType(data));
+            return codec.get().encode(data);
+        }
+
+        writeContentType(headers, JSON_CONTENT_TYPE);
+        return jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<EventCodec<Object>> codecOf(Object data) {
+        return EventCodecs.forType((Class<Object>) data.getClass());
+    }
+}
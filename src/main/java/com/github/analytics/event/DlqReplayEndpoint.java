@@ -0,0 +1,73 @@
+package com.github.analytics.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Actuator endpoint for operators to replay the capital maximization dead letter topic through {@link DlqReplayService}.
+ *
+ * <p> {@code GET} reports the progress of the current or last replay, {@code POST} starts a replay and {@code DELETE}
+ * cancels it. Times are ISO-8601 instants. </p>
+ */
+@Component
+@Endpoint(id = "dlqreplay")
+public class DlqReplayEndpoint {
+    private final DlqReplayService dlqReplayService;
+    private final int defaultRatePerSecond;
+
+    public DlqReplayEndpoint(
+            DlqReplayService dlqReplayService,
+            @Value("${roi.optimizer.dlq-replay.rate-per-second}") int defaultRatePerSecond) {
+        this.dlqReplayService = dlqReplayService;
+        this.defaultRatePerSecond = defaultRatePerSecond;
+    }
+
+    @ReadOperation
+    public DlqReplayStatus status() {
+        return dlqReplayService.status();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<DlqReplayStatus> start(
+            DlqReplayRequest.Mode mode,
+            @Nullable String from,
+            @Nullable String to,
+            @Nullable String errorContains,
+            @Nullable Integer ratePerSecond,
+            @Nullable Boolean fromBeginning) {
+        DlqReplayRequest request;
+        try {
+            request = new DlqReplayRequest(mode, parseInstant(from), parseInstant(to), errorContains,
+                    ratePerSecond == null ? defaultRatePerSecond : ratePerSecond, Boolean.TRUE.equals(fromBeginning));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+
+        try {
+            return new WebEndpointResponse<>(dlqReplayService.start(request), WebEndpointResponse.STATUS_OK);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(dlqReplayService.status(), 409);
+        }
+    }
+
+    @DeleteOperation
+    public DlqReplayStatus cancel() {
+        return dlqReplayService.cancel();
+    }
+
+    private static Instant parseInstant(String value) {
+        return value == null || value.isBlank() ? null : Instant.parse(value);
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.analytics.event;
+
+import java.time.Instant;
+
+import static com.github.projects.model.Validators.requireNonNull;
+
+/**
+ * Parameters of a replay of the capital maximization dead letter topic.
+ *
+ * @param mode           Whether replayed events are republished to the query topic or processed directly.
+ * @param from           Only events dead-lettered at or after this time are replayed, if set.
+ * @param to             Only events dead-lettered before this time are replayed, if set.
+ * @param errorContains  Only events whose error headers contain this text (case-insensitive) are replayed, if set.
+ * @param ratePerSecond  Maximum number of events replayed per second.
+ * @param fromBeginning  Whether to ignore the replay checkpoint and rescan the dead letter topic from its beginning.
+ */
+public record DlqReplayRequest(
+        Mode mode,
+        Instant from,
+        Instant to,
+        String errorContains,
+        int ratePerSecond,
+        boolean fromBeginning
+) {
+
+    public enum Mode {
+        /**
+         * Publishes replayed events back to the query topic, where the live consumers pick them up.
+         */
+        REPUBLISH,
+        /**
+         * Optimizes replayed events on the replaying instance and stores their results.
+         */
+        PROCESS
+    }
+
+    public DlqReplayRequest {
+        requireNonNull(mode, () -> "Replay mode cannot be null.");
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Replay rate must be greater than zero.");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Replay time range must start before it ends.");
+        }
+        if (errorContains != null && errorContains.isBlank()) {
+            errorContains = null;
+        }
+    }
+
+    /**
+     * Whether a dead-lettered event with the given timestamp and error description falls within this replay.
+     */
+    boolean matches(long timestamp, String error) {
+        if (from != null && timestamp < from.toEpochMilli()) {
+            return false;
+        }
+        if (to != null && timestamp >= to.toEpochMilli()) {
+            return false;
+        }
+        return errorContains == null || (error != null && error.toLowerCase().contains(errorContains.toLowerCase()));
+    }
+}
@@ -0,0 +1,349 @@
+package com.github.analytics.event;
+
+import com.github.analytics.api.CapitalMaximizationJobResult;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC;
+
+/**
+ * Replays the capital maximization dead letter topic, either back to the query topic or directly through the
+ * optimizer, at a bounded rate so that a replay cannot swamp the live consumers.
+ *
+ * <p> A replay reads the dead letter topic up to its end offsets at the time the replay starts, replaying the events
+ * that match the time range and error filter of the request. Progress is checkpointed by committing offsets under a
+ * dedicated consumer group after every poll, so a cancelled or failed replay resumes where it stopped. Events skipped by
+ * the filters, and events whose replay failed, are checkpointed as well; request a replay from the beginning to scan
+ * them again. An event replayed in {@code PROCESS} mode counts as failed when its job fails again. </p>
+ */
+@Service
+public class DlqReplayService {
+    private static final Logger logger = LoggerFactory.getLogger(DlqReplayService.class);
+
+    // Error headers written by the Spring Cloud Stream binder and by Spring Kafka's dead letter publishing recoverer
+    private static final List<String> ERROR_HEADERS = List.of(
+            "x-exception-message",
+            "x-exception-fqcn",
+            KafkaHeaders.DLT_EXCEPTION_MESSAGE,
+            KafkaHeaders.DLT_EXCEPTION_FQCN,
+            KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN
+    );
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final ProjectCapitalOptimizerEventPublisher eventPublisher;
+    private final ProjectCapitalOptimizerEventConsumer eventConsumer;
+    private final String groupId;
+    private final int maxRatePerSecond;
+    private final Duration pollTimeout;
+    private final Duration eventTimeout;
+    private final AtomicReference<DlqReplayStatus> status = new AtomicReference<>(DlqReplayStatus.idle());
+    private final Counter replayedEvents;
+    private final Counter skippedEvents;
+    private final Counter failedEvents;
+    private volatile boolean cancelRequested;
+
+    public DlqReplayService(
+            ConsumerFactory<String, Object> consumerFactory,
+            ProjectCapitalOptimizerEventPublisher eventPublisher,
+            ProjectCapitalOptimizerEventConsumer eventConsumer,
+            MeterRegistry meterRegistry,
+            @Value("${roi.optimizer.dlq-replay.group-id}") String groupId,
+            @Value("${roi.optimizer.dlq-replay.max-rate-per-second}") int maxRatePerSecond,
+            @Value("${roi.optimizer.dlq-replay.poll-timeout}") Duration pollTimeout,
+            @Value("${roi.optimizer.dlq-replay.event-timeout}") Duration eventTimeout) {
+        this.consumerFactory = consumerFactory;
+        this.eventPublisher = eventPublisher;
+        this.eventConsumer = eventConsumer;
+        this.groupId = groupId;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.pollTimeout = pollTimeout;
+        this.eventTimeout = eventTimeout;
+
+        this.replayedEvents = eventsCounter(meterRegistry, "replayed");
+        this.skippedEvents = eventsCounter(meterRegistry, "skipped");
+        this.failedEvents = eventsCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Starts a replay in the background.
+     *
+     * @throws IllegalStateException    If a replay is already running.
+     * @throws IllegalArgumentException If the requested rate exceeds the configured maximum.
+     */
+    public synchronized DlqReplayStatus start(DlqReplayRequest request) {
+        if (status.get().state() == DlqReplayStatus.State.RUNNING) {
+            throw new IllegalStateException("A DLQ replay is already running.");
+        }
+        if (request.ratePerSecond() > maxRatePerSecond) {
+            throw new IllegalArgumentException("Replay rate cannot exceed %d events per second.".formatted(maxRatePerSecond));
+        }
+
+        logger.info("Starting DLQ replay: {}", request);
+        cancelRequested = false;
+        DlqReplayStatus started = new Progress(request).snapshot(DlqReplayStatus.State.RUNNING, null);
+        status.set(started);
+
+        Mono.fromRunnable(() -> run(request))
+                .subscribeOn(Schedulers.boundedElastic()) // The Kafka consumer and the replay itself block
+                .subscribe();
+        return started;
+    }
+
+    /**
+     * Requests the running replay, if any, to stop after the event in progress.
+     */
+    public DlqReplayStatus cancel() {
+        if (status.get().state() == DlqReplayStatus.State.RUNNING) {
+            logger.info("Cancelling DLQ replay");
+            cancelRequested = true;
+        }
+        return status.get();
+    }
+
+    public DlqReplayStatus status() {
+        return status.get();
+    }
+
+    /**
+     * Runs a replay to completion on the calling thread.
+     */
+    void run(DlqReplayRequest request) {
+        var progress = new Progress(request);
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        try (Consumer<String, Object> consumer = consumerFactory.createConsumer(groupId, null, "-dlq-replay", overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC).stream()
+                    .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            seekToStart(consumer, partitions, endOffsets, request);
+            partitions.forEach(partition -> progress.checkpoints.put(partition, consumer.position(partition)));
+
+            RateLimiter rateLimiter = RateLimiter.of("dlq-replay", RateLimiterConfig.custom()
+                    .limitForPeriod(request.ratePerSecond())
+                    .limitRefreshPeriod(Duration.ofSeconds(1))
+                    .timeoutDuration(Duration.ofSeconds(5))
+                    .build());
+
+            while (!cancelRequested && !caughtUp(progress, endOffsets)) {
+                ConsumerRecords<String, Object> records;
+                try {
+                    records = consumer.poll(pollTimeout);
+                } catch (RecordDeserializationException e) {
+                    logger.warn("Skipping unreadable DLQ record at {}-{}", e.topicPartition(), e.offset(), e);
+                    progress.failed++;
+                    failedEvents.increment();
+                    consumer.seek(e.topicPartition(), e.offset() + 1);
+                    progress.checkpoints.put(e.topicPartition(), e.offset() + 1);
+                    continue;
+                }
+
+                for (ConsumerRecord<String, Object> record : records) {
+                    if (cancelRequested) {
+                        break;
+                    }
+
+                    var partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() < endOffsets.get(partition)) {
+                        replayRecord(record, request, rateLimiter, progress);
+                        progress.checkpoints.put(partition, record.offset() + 1);
+                    }
+                }
+                if (!cancelRequested) {
+                    // Also moves past offsets without records, such as transaction markers
+                    partitions.forEach(partition -> progress.checkpoints.put(partition,
+                            Math.min(consumer.position(partition), endOffsets.get(partition))));
+                }
+
+                consumer.commitSync(progress.checkpoints.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> new OffsetAndMetadata(entry.getValue()))));
+                status.set(progress.snapshot(DlqReplayStatus.State.RUNNING, null));
+            }
+
+            DlqReplayStatus.State finalState = cancelRequested
+                    ? DlqReplayStatus.State.CANCELLED
+                    : DlqReplayStatus.State.COMPLETED;
+            status.set(progress.snapshot(finalState, null));
+            logger.info("DLQ replay {}: {}", finalState.name().toLowerCase(), status.get());
+        } catch (Exception e) {
+            logger.error("DLQ replay failed", e);
+            status.set(progress.snapshot(DlqReplayStatus.State.FAILED, e.getMessage()));
+        }
+    }
+
+    private void replayRecord(
+            ConsumerRecord<String, Object> record, DlqReplayRequest request, RateLimiter rateLimiter, Progress progress) {
+        progress.scanned++;
+
+        if (!request.matches(record.timestamp(), errorDescription(record.headers()))) {
+            progress.skipped++;
+            skippedEvents.increment();
+            return;
+        }
+        if (!(record.value() instanceof CapitalMaximizationQueryEvent event)) {
+            logger.warn("Skipping DLQ record at {}-{}@{} without a capital maximization query event",
+                    record.topic(), record.partition(), record.offset());
+            progress.failed++;
+            failedEvents.increment();
+            return;
+        }
+
+        boolean replayed;
+        try {
+            RateLimiter.waitForPermission(rateLimiter);
+            replayed = replay(event, request.mode());
+        } catch (Exception e) {
+            logger.error("Failed to replay DLQ event for job {}", event.jobId(), e);
+            replayed = false;
+        }
+
+        if (replayed) {
+            progress.replayed++;
+            replayedEvents.increment();
+        } else {
+            progress.failed++;
+            failedEvents.increment();
+        }
+    }
+
+    /**
+     * Replays an event, returning whether it went through; an event processed directly fails if its job fails again.
+     */
+    private boolean replay(CapitalMaximizationQueryEvent event, DlqReplayRequest.Mode mode) {
+        return switch (mode) {
+            case REPUBLISH -> {
+                eventPublisher.publishEvent(event).block(eventTimeout);
+                yield true;
+            }
+            case PROCESS -> {
+                CapitalMaximizationJobResult jobResult = eventConsumer.process(event).block(eventTimeout);
+                if (jobResult == null || jobResult.status() != CapitalMaximizationJobResult.Status.COMPLETED) {
+                    logger.warn("Replayed DLQ event for job {} failed again: {}", event.jobId(),
+                            jobResult == null ? "no result" : jobResult.error());
+                    yield false;
+                }
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Positions each partition at its checkpoint (or beginning), moved forward to the start of the time range.
+     */
+    private void seekToStart(
+            Consumer<String, Object> consumer,
+            List<TopicPartition> partitions,
+            Map<TopicPartition, Long> endOffsets,
+            DlqReplayRequest request) {
+        Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+        Map<TopicPartition, OffsetAndMetadata> checkpoints = request.fromBeginning()
+                ? Map.of()
+                : consumer.committed(new HashSet<>(partitions));
+        Map<TopicPartition, OffsetAndTimestamp> rangeStarts = request.from() == null
+                ? Map.of()
+                : consumer.offsetsForTimes(partitions.stream()
+                        .collect(Collectors.toMap(partition -> partition, partition -> request.from().toEpochMilli())));
+
+        for (TopicPartition partition : partitions) {
+            long start = beginningOffsets.get(partition);
+
+            OffsetAndMetadata checkpoint = checkpoints.get(partition);
+            if (checkpoint != null) {
+                start = Math.max(start, checkpoint.offset());
+            }
+
+            if (request.from() != null) {
+                OffsetAndTimestamp rangeStart = rangeStarts.get(partition);
+                // No record at or after the start of the range: nothing to replay in this partition
+                start = rangeStart == null ? endOffsets.get(partition)
+                        : Math.max(start, rangeStart.offset());
+            }
+
+            consumer.seek(partition, start);
+        }
+    }
+
+    private static boolean caughtUp(Progress progress, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(entry -> progress.checkpoints.getOrDefault(entry.getKey(), 0L) >= entry.getValue());
+    }
+
+    private static String errorDescription(Headers headers) {
+        var description = new StringJoiner(" ");
+        for (String name : ERROR_HEADERS) {
+            Header header = headers.lastHeader(name);
+            if (header != null && header.value() != null) {
+                description.add(new String(header.value(), StandardCharsets.UTF_8));
+            }
+        }
+        return description.length() == 0 ? null : description.toString();
+    }
+
+    private static Counter eventsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("roi.optimizer.dlq_replay.events")
+                .description("Dead-lettered capital maximization query events by replay outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mutable progress of a replay, only updated by the replaying thread and published through snapshots.
+     */
+    private static final class Progress {
+        private final DlqReplayRequest request;
+        private final Instant startedAt = Instant.now();
+        private final Map<TopicPartition, Long> checkpoints = new HashMap<>();
+        private long scanned;
+        private long replayed;
+        private long skipped;
+        private long failed;
+
+        private Progress(DlqReplayRequest request) {
+            this.request = request;
+        }
+
+        private DlqReplayStatus snapshot(DlqReplayStatus.State state, String error) {
+            Map<Integer, Long> partitionCheckpoints = checkpoints.entrySet().stream()
+                    .collect(Collectors.toUnmodifiableMap(entry -> entry.getKey().partition(), Map.Entry::getValue));
+            Instant finishedAt = state == DlqReplayStatus.State.RUNNING ? null : Instant.now();
+            return new DlqReplayStatus(state, request, scanned, replayed, skipped, failed, partitionCheckpoints,
+                    startedAt, finishedAt, error);
+        }
+    }
+}
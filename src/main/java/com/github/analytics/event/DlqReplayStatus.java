@@ -0,0 +1,40 @@
+package com.github.analytics.event;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Progress of the current or last replay of the capital maximization dead letter topic.
+ *
+ * @param state       The state of the replay.
+ * @param request     The parameters of the replay, or {@code null} if no replay has run.
+ * @param scanned     Dead-lettered events read so far.
+ * @param replayed    Events republished or processed.
+ * @param skipped     Events outside the time range or error filter.
+ * @param failed      Events that could not be read or replayed.
+ * @param checkpoints The next offset to replay, per dead letter topic partition.
+ * @param startedAt   When the replay started.
+ * @param finishedAt  When the replay finished, or {@code null} while it is running.
+ * @param error       Why the replay failed, if it did.
+ */
+public record DlqReplayStatus(
+        State state,
+        DlqReplayRequest request,
+        long scanned,
+        long replayed,
+        long skipped,
+        long failed,
+        Map<Integer, Long> checkpoints,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    static DlqReplayStatus idle() {
+        return new DlqReplayStatus(State.IDLE, null, 0, 0, 0, 0, Map.of(), null, null, null);
+    }
+}
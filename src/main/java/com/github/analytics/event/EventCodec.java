@@ -0,0 +1,55 @@
+package com.github.analytics.event;
+
+/**
+ * Binary wire format of a Kafka event payload, identified on the wire by its content type.
+ *
+ * <p> A codec writes each event in the earliest schema version able to represent it, see {@link #version(Object)}, and
+ * must keep decoding every earlier version, so that events produced before an upgrade remain readable. Codecs are
+ * registered in {@link EventCodecs}. </p>
+ *
+ * @param <T> The event type handled by this codec.
+ */
+public interface EventCodec<T> {
+
+    /**
+     * The media type of the payloads, without the version parameter, e.g.
+     * {@code application/x-roi-capital-maximization-query}.
+     */
+    String mediaType();
+
+    /**
+     * The latest schema version.
+     */
+    int version();
+
+    /**
+     * The schema version {@link #encode(Object)} writes for the event. Events that need no field added by a later
+     * version keep the earlier one, so that consumers not yet upgraded can still read them.
+     */
+    default int version(T event) {
+        return version();
+    }
+
+    /**
+     * The event type handled by this codec.
+     */
+    Class<T> type();
+
+    byte[] encode(T event);
+
+    /**
+     * Decodes a payload written with the given schema version.
+     *
+     * @throws org.apache.kafka.common.errors.SerializationException If the payload is malformed or its version is
+     *                                                              not supported.
+     */
+    T decode(byte[] payload, int version);
+
+    /**
+     * The content type header value of the payload written for the event, e.g.
+     * {@code application/x-roi-capital-maximization-query;version=1}.
+     */
+    default String contentType(T event) {
+        return mediaType() + ";version=" + version(event);
+    }
+}
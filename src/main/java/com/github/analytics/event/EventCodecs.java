@@ -0,0 +1,101 @@
+package com.github.analytics.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Registry of the binary event codecs and helpers for the {@code contentType} header that selects them.
+ */
+public final class EventCodecs {
+    /**
+     * The Kafka header carrying the content type of an event payload, shared with Spring Cloud Stream.
+     */
+    public static final String CONTENT_TYPE_HEADER = "contentType";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+
+    private static final String VERSION_PARAMETER = "version=";
+
+    // Add the codec of a new event type here; JSON remains the fallback for event types without one.
+    private static final List<EventCodec<?>> CODECS = List.of(
+            new CapitalMaximizationQueryEventCodec()
+    );
+
+    private EventCodecs() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Returns the binary codec of the given event type, if one is registered.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Optional<EventCodec<T>> forType(Class<T> type) {
+        return CODECS.stream()
+                .filter(codec -> codec.type().equals(type))
+                .map(codec -> (EventCodec<T>) codec)
+                .findFirst();
+    }
+
+    /**
+     * Returns the binary codec of the given media type, if one is registered.
+     */
+    public static Optional<EventCodec<?>> forMediaType(String mediaType) {
+        return CODECS.stream()
+                .filter(codec -> codec.mediaType().equalsIgnoreCase(mediaType))
+                .findFirst();
+    }
+
+    /**
+     * Reads the content type of a record, or returns {@code null} if it has none.
+     *
+     * <p> Spring Cloud Stream writes header values as JSON strings, so surrounding quotes are removed. </p>
+     */
+    public static String readContentType(Headers headers) {
+        Header header = headers == null ? null : headers.lastHeader(CONTENT_TYPE_HEADER);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+
+        String contentType = new String(header.value(), StandardCharsets.UTF_8).trim();
+        if (contentType.length() >= 2 && contentType.startsWith("\"") && contentType.endsWith("\"")) {
+            contentType = contentType.substring(1, contentType.length() - 1);
+        }
+        return contentType.isBlank() ? null : contentType;
+    }
+
+    public static void writeContentType(Headers headers, String contentType) {
+        headers.remove(CONTENT_TYPE_HEADER);
+        headers.add(CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the media type of a content type, without its parameters.
+     */
+    public static String mediaType(String contentType) {
+        int parametersStart = contentType.indexOf(';');
+        return (parametersStart < 0 ? contentType : contentType.substring(0, parametersStart)).trim();
+    }
+
+    /**
+     * Returns the schema version of a binary content type.
+     *
+     * @throws SerializationException If the content type has no valid version parameter.
+     */
+    public static int version(String contentType) {
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith(VERSION_PARAMETER)) {
+                try {
+                    return Integer.parseInt(trimmed.substring(VERSION_PARAMETER.length()));
+                } catch (NumberFormatException e) {
+                    throw new SerializationException("Invalid version in content type: " + contentType, e);
+                }
+            }
+        }
+        throw new SerializationException("Missing version in content type: " + contentType);
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.analytics.event;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Helpers for the Kafka header carrying the client deadline of a capital maximization query.
+ *
+ * <p> The deadline is written as the epoch milliseconds in an 8-byte big-endian long, like the timestamp headers Kafka
+ * itself adds to dead-lettered records. Events without the header have no deadline. </p>
+ */
+public final class EventDeadlines {
+    public static final String DEADLINE_HEADER = "roi-deadline";
+
+    private EventDeadlines() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    public static byte[] write(Instant deadline) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(deadline.toEpochMilli()).array();
+    }
+
+    /**
+     * Reads a deadline header value, or returns {@code null} if it is absent or malformed.
+     */
+    public static Instant read(byte[] value) {
+        if (value == null || value.length != Long.BYTES) {
+            return null;
+        }
+        return Instant.ofEpochMilli(ByteBuffer.wrap(value).getLong());
+    }
+
+    public static boolean hasExpired(Instant deadline) {
+        return deadline != null && !Instant.now().isBefore(deadline);
+    }
+}
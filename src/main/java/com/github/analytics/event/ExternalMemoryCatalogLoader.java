@@ -0,0 +1,47 @@
+package com.github.analytics.event;
+
+import com.github.analytics.api.SpilledCatalog;
+import com.github.projects.model.ProjectDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.function.Function;
+
+/**
+ * Loads the catalog of queued optimizations into a {@link SpilledCatalog} when the external-memory mode is enabled,
+ * bounding the heap used per optimization by {@code roi.optimizer.external-memory.run-size} projects rather than by the
+ * catalog size.
+ */
+@Component
+public class ExternalMemoryCatalogLoader {
+    private final boolean enabled;
+    private final int runSize;
+    private final Path directory;
+
+    public ExternalMemoryCatalogLoader(
+            @Value("${roi.optimizer.external-memory.enabled}") boolean enabled,
+            @Value("${roi.optimizer.external-memory.run-size}") int runSize,
+            @Value("${roi.optimizer.external-memory.directory}") String directory) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("External-memory run size must be positive: " + runSize);
+        }
+        this.enabled = enabled;
+        this.runSize = runSize;
+        this.directory = Path.of(directory);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Spills {@code projects} and applies {@code use} to the spilled catalog, deleting its files once the result
+     * terminates.
+     */
+    public <T> Mono<T> load(Flux<ProjectDTO> projects, Function<SpilledCatalog, Mono<T>> use) {
+        return SpilledCatalog.spill(projects, directory, runSize, use);
+    }
+}
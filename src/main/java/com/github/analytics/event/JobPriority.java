@@ -0,0 +1,18 @@
+package com.github.analytics.event;
+
+/**
+ * Scheduling priority of a capital maximization job.
+ *
+ * <p> Each priority is published to its own topic and consumed through its own lane of
+ * {@link CapitalMaximizationEventPipeline}, so a backlog of large sweep jobs does not delay interactive queries. </p>
+ */
+public enum JobPriority {
+    /**
+     * Interactive queries; dispatched ahead of normal jobs and entitled to reserved processing slots.
+     */
+    HIGH,
+    /**
+     * Batch and sweep jobs; the default for events that carry no priority.
+     */
+    NORMAL
+}
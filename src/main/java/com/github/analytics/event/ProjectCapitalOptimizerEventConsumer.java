@@ -1,17 +1,20 @@
 package com.github.analytics.event;
 
+import com.github.analytics.api.CapitalMaximizationJobResult;
+import com.github.analytics.api.CapitalMaximizationJobService;
 import com.github.analytics.api.CapitalMaximizationQuery;
+import com.github.analytics.api.CapitalOptimizationMetrics;
+import com.github.analytics.api.OptimizationCostEstimator;
 import com.github.analytics.api.ProjectCapitalOptimized;
 import com.github.analytics.api.ProjectCapitalOptimizer;
+import com.github.analytics.exception.CapitalMaximizationDeadlineExceededException;
+import com.github.analytics.exception.OptimizationCapacityExceededException;
 import com.github.projects.api.ProjectService;
 import com.github.projects.exception.ProjectNotFoundException;
 import com.github.projects.model.ProjectDTO;
-import io.micrometer.core.instrument.Gauge;
-import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.annotation.TopicPartition;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -20,91 +23,192 @@ import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
-import java.util.stream.Collectors;
+import java.time.Instant;
+import java.util.function.Supplier;
 
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID;
 import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
 
 /**
- * Kafka consumer that processes Capital Maximization Query events from the specified Kafka partitions.
- * Processes capital maximization events and optimizes project selection. Currently, logs events for debugging.
+ * Kafka consumer that processes Capital Maximization Query events from its assigned Kafka partitions.
+ * Processes capital maximization events, optimizes project selection, and stores the outcome under the event's job ID.
+ * Identical queries arriving in bursts share one optimization through {@link CapitalMaximizationQueryDeduplicator}.
+ *
+ * <p> Events carrying a client deadline ({@link EventDeadlines#DEADLINE_HEADER}) that has already passed when their turn
+ * comes are shed before the catalog is loaded; otherwise the deadline is passed on to the optimizer, which abandons the
+ * selection once it passes. Either way a failed result is stored for the job. </p>
+ *
+ * <p> When the optimization executor is saturated the event is retried with backoff while holding its pipeline slot,
+ * so the pipeline's backlog grows until it pauses the partitions of the lane, instead of failing the job. </p>
+ *
+ * <p> With {@code roi.optimizer.external-memory.enabled}, the catalog is streamed into sorted runs on disk by the
+ * {@link ExternalMemoryCatalogLoader} instead of being collected on the heap, so catalogs larger than the heap can be
+ * optimized. It is scanned from Cassandra rather than read from the in-memory catalog index, which would hold it on
+ * the heap anyway. </p>
  */
 @Component
 public class ProjectCapitalOptimizerEventConsumer {
     private static final Logger logger = LoggerFactory.getLogger(ProjectCapitalOptimizerEventConsumer.class);
+    private static final Duration SATURATION_MIN_BACKOFF = Duration.ofMillis(100);
+    private static final Duration SATURATION_MAX_BACKOFF = Duration.ofSeconds(2);
+    private static final String JOB_FAILED_MESSAGE = "Capital maximization failed after retries.";
+    private static final String JOB_SHED_MESSAGE = "Deadline passed before the capital maximization started.";
+    private static final String JOB_CANCELLED_MESSAGE = "Deadline passed during the capital maximization.";
 
-    private final MeterRegistry meterRegistry;
+    private final CapitalOptimizationMetrics capitalOptimizationMetrics;
     private final ProjectService projectService;
     private final ProjectCapitalOptimizer projectCapitalOptimizer;
+    private final OptimizationCostEstimator costEstimator;
+    private final CapitalMaximizationJobService capitalMaximizationJobService;
+    private final CapitalMaximizationEventPipeline eventPipeline;
+    private final CapitalMaximizationQueryDeduplicator queryDeduplicator;
+    private final ExternalMemoryCatalogLoader externalMemoryCatalogLoader;
 
     public ProjectCapitalOptimizerEventConsumer(
-            MeterRegistry meterRegistry,
+            CapitalOptimizationMetrics capitalOptimizationMetrics,
             ProjectService projectService,
-            ProjectCapitalOptimizer projectCapitalOptimizer) {
-        this.meterRegistry = meterRegistry;
+            ProjectCapitalOptimizer projectCapitalOptimizer,
+            OptimizationCostEstimator costEstimator,
+            CapitalMaximizationJobService capitalMaximizationJobService,
+            CapitalMaximizationEventPipeline eventPipeline,
+            CapitalMaximizationQueryDeduplicator queryDeduplicator,
+            ExternalMemoryCatalogLoader externalMemoryCatalogLoader) {
+        this.capitalOptimizationMetrics = capitalOptimizationMetrics;
         this.projectService = projectService;
         this.projectCapitalOptimizer = projectCapitalOptimizer;
+        this.costEstimator = costEstimator;
+        this.capitalMaximizationJobService = capitalMaximizationJobService;
+        this.eventPipeline = eventPipeline;
+        this.queryDeduplicator = queryDeduplicator;
+        this.externalMemoryCatalogLoader = externalMemoryCatalogLoader;
     }
 
     /**
-     * Kafka listener that consumes capital maximization query events from Kafka topic partitions.
+     * Kafka listener that consumes capital maximization query events from the partitions assigned to this instance by
+     * the consumer group. {@link ConsumerLagAutoscaler} adjusts the number of consumer threads at runtime.
+     *
+     * <p> Both the normal and the high-priority topic are consumed; the topic an event arrives on selects its lane in
+     * the {@link CapitalMaximizationEventPipeline}. </p>
+     *
+     * <p> Returning the processing {@code Mono} switches the container to asynchronous acknowledgements: the offset of
+     * an event is committed only once its result has been stored. </p>
      */
     @KafkaListener(
-            topicPartitions = @TopicPartition(
-                    topic = CAPITAL_MAXIMIZATION_QUERY_TOPIC,
-                    partitions = {"0", "1"}
-            )
+            id = CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID,
+            groupId = "${spring.cloud.stream.bindings.capital-maximization-query-in-0.group}",
+            topics = {CAPITAL_MAXIMIZATION_QUERY_TOPIC, CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC},
+            concurrency = "${roi.optimizer.consumer.concurrency}"
     )
-    public void handleCapitalMaximizationEvent(
+    public Mono<Void> handleCapitalMaximizationEvent(
             @Payload CapitalMaximizationQueryEvent event,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition) {
-        logger.info("Received capital maximization event: {} from partition: {}", event, partition);
-
-        processCapitalMaximizationEvent(event)
-                .retryWhen(Retry.fixedDelay(3, Duration.ofSeconds(2))) // Retry transient failures
-                .doOnError(error -> logger.error("Final failure processing event", error))
-                .onErrorResume(error -> Mono.empty()) // Avoid infinite Kafka retries
-                .subscribe(result -> {
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(name = EventDeadlines.DEADLINE_HEADER, required = false) byte[] deadlineHeader) {
+        var deadline = EventDeadlines.read(deadlineHeader);
+        logger.info("Received capital maximization event: {} from topic: {}, partition: {}, deadline: {}",
+                event, topic, partition, deadline);
+
+        var priority = CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC.equals(topic) ? JobPriority.HIGH : JobPriority.NORMAL;
+        Mono<Void> work = processAndStoreResult(event, deadline)
+                .onErrorResume(error -> Mono.empty())
+                .then();
+        return eventPipeline.submit(priority, partition, work);
+    }
 
-                            logger.info("Processing completed. Final capital: {}, Selected projects: {}",
-                                    result.finalCapital(), result.selectedProjects().stream().map(ProjectDTO::name).toList());
+    /**
+     * Processes an event outside the listener and its event pipeline, as for events replayed by {@link DlqReplayService}.
+     *
+     * @return The stored job result, which is {@link CapitalMaximizationJobResult.Status#FAILED} if the optimization
+     * failed again; an error if the result could not be stored.
+     */
+    Mono<CapitalMaximizationJobResult> process(CapitalMaximizationQueryEvent event) {
+        return processAndStoreResult(event, null);
+    }
 
-                            recordCapitalMaximizedPrometheusMetrics(result);
-                        }
-                );
+    private Mono<CapitalMaximizationJobResult> processAndStoreResult(CapitalMaximizationQueryEvent event, Instant deadline) {
+        return Mono.defer(() -> EventDeadlines.hasExpired(deadline) ? shed(event, deadline) : optimize(event, deadline))
+                .flatMap(jobResult -> capitalMaximizationJobService.saveResult(jobResult).thenReturn(jobResult))
+                .doOnError(error -> logger.error("Failed to store result for job {}", event.jobId(), error));
     }
 
-    public Mono<ProjectCapitalOptimized> processCapitalMaximizationEvent(CapitalMaximizationQueryEvent event) {
-        return projectService.findAll().collectList()
-                .flatMap(projects -> {
-                    if (projects.isEmpty()) {
-                        logger.warn("No projects available for capital maximization.");
-                        return Mono.error(new ProjectNotFoundException("No projects available for capital maximization."));
-                    }
+    private Mono<CapitalMaximizationJobResult> shed(CapitalMaximizationQueryEvent event, Instant deadline) {
+        logger.warn("Shedding job {}; its deadline {} has passed", event.jobId(), deadline);
+        capitalOptimizationMetrics.recordDeadlineExceeded(CapitalOptimizationMetrics.DeadlineOutcome.SHED);
+        return Mono.just(CapitalMaximizationJobResult.failed(event.jobId(), JOB_SHED_MESSAGE));
+    }
 
-                    logger.info("Processing event: maxProjects={}, initialCapital={}, availableProjects={}",
-                            event.maxProjects(), event.initialCapital(), projects.size());
+    private Mono<CapitalMaximizationJobResult> optimize(CapitalMaximizationQueryEvent event, Instant deadline) {
+        return Mono.defer(() -> {
+                    final long startedAt = System.nanoTime();
+                    // Only computations running at least until this deadline are shared
+                    return queryDeduplicator.deduplicate(event, deadline,
+                                    () -> processCapitalMaximizationEvent(event, deadline))
+                            .doOnNext(result -> capitalOptimizationMetrics.record(CapitalOptimizationMetrics.Mode.ASYNC,
+                                    event.jobId(), event.maxProjects(), event.initialCapital(), result,
+                                    Duration.ofNanos(System.nanoTime() - startedAt)));
+                })
+                .retryWhen(Retry.fixedDelay(3, Duration.ofSeconds(2)) // Retry transient failures while time remains
+                        .filter(error -> !(error instanceof CapitalMaximizationDeadlineExceededException)
+                                && !(error instanceof OptimizationCapacityExceededException)
+                                && !EventDeadlines.hasExpired(deadline)))
+                .map(result -> {
+                    logger.info("Processing completed. Final capital: {}, Selected projects: {}",
+                            result.finalCapital(), result.selectedProjects().stream().map(ProjectDTO::name).toList());
+
+                    return CapitalMaximizationJobResult.completed(event.jobId(), result);
+                })
+                .onErrorResume(CapitalMaximizationDeadlineExceededException.class, error -> {
+                    logger.warn("Cancelled job {}: {}", event.jobId(), error.getMessage());
+                    capitalOptimizationMetrics.recordDeadlineExceeded(CapitalOptimizationMetrics.DeadlineOutcome.CANCELLED);
+                    return Mono.just(CapitalMaximizationJobResult.failed(event.jobId(), JOB_CANCELLED_MESSAGE));
+                })
+                .onErrorResume(error -> { // Avoid infinite Kafka retries; record the failure for the job instead
+                    logger.error("Final failure processing event", error);
+                    return Mono.just(CapitalMaximizationJobResult.failed(event.jobId(), JOB_FAILED_MESSAGE));
+                });
+    }
 
-                    var query = new CapitalMaximizationQuery(projects, event.maxProjects(), event.initialCapital());
-                    return projectCapitalOptimizer.maximizeCapital(query);
+    public Mono<ProjectCapitalOptimized> processCapitalMaximizationEvent(CapitalMaximizationQueryEvent event) {
+        return processCapitalMaximizationEvent(event, null);
+    }
 
-                })
-                .doOnError(error -> logger.error("Error during capital maximization process", error));
+    /**
+     * Loads the catalog and optimizes the event's query, abandoning it once {@code deadline} passes, if set.
+     */
+    public Mono<ProjectCapitalOptimized> processCapitalMaximizationEvent(CapitalMaximizationQueryEvent event, Instant deadline) {
+        Mono<ProjectCapitalOptimized> result = externalMemoryCatalogLoader.isEnabled()
+                ? externalMemoryCatalogLoader.load(projectService.scanAll(), catalog -> optimizeCatalog(event, deadline,
+                        catalog.size(), () -> projectCapitalOptimizer.maximizeCapital(
+                                catalog, event.maxProjects(), event.initialCapital(), deadline)))
+                : projectService.findAll().collectList()
+                        .flatMap(projects -> optimizeCatalog(event, deadline, projects.size(),
+                                () -> projectCapitalOptimizer.maximizeCapital(new CapitalMaximizationQuery(
+                                        projects, event.maxProjects(), event.initialCapital(), deadline))));
+        return result.doOnError(error -> logger.error("Error during capital maximization process", error));
     }
 
-    private void recordCapitalMaximizedPrometheusMetrics(ProjectCapitalOptimized result) {
-        if (result == null) {
-            logger.warn("ProjectCapitalOptimized is null.");
-            return;
+    private Mono<ProjectCapitalOptimized> optimizeCatalog(CapitalMaximizationQueryEvent event, Instant deadline,
+                                                          int catalogSize, Supplier<Mono<ProjectCapitalOptimized>> optimization) {
+        costEstimator.recordCatalogSize(catalogSize);
+
+        if (catalogSize == 0) {
+            logger.warn("No projects available for capital maximization.");
+            return Mono.error(new ProjectNotFoundException("No projects available for capital maximization."));
         }
 
-        String selectedProjects = result.selectedProjects().stream()
-                .map(ProjectDTO::name)
-                .collect(Collectors.joining(","));
+        logger.info("Processing event: maxProjects={}, initialCapital={}, availableProjects={}",
+                event.maxProjects(), event.initialCapital(), catalogSize);
+
+        if (EventDeadlines.hasExpired(deadline)) {
+            return Mono.error(new CapitalMaximizationDeadlineExceededException(
+                    "Deadline exceeded while loading the catalog."));
+        }
 
-        // Create a Gauge with dynamic labels
-        Gauge.builder("roi.final_capital_with_projects", result::finalCapital)
-                .description("The final maximized capital with selected projects")
-                .tag("selected_projects", selectedProjects)
-                .register(meterRegistry);
+        return optimization.get()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, SATURATION_MIN_BACKOFF) // Wait for optimizer capacity
+                        .maxBackoff(SATURATION_MAX_BACKOFF)
+                        .filter(error -> error instanceof OptimizationCapacityExceededException
+                                && !EventDeadlines.hasExpired(deadline)));
     }
-}
\ No newline at end of file
+}
@@ -1,74 +1,121 @@
 package com.github.analytics.event;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.stream.function.StreamBridge;
-import org.springframework.http.MediaType;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.Instant;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
 import static com.github.projects.model.Validators.requireNonNull;
 
 /**
  * Kafka publisher component responsible for publishing capital maximization query events
- * to a designated Kafka topic.
+ * to the topic of their priority lane.
+ *
+ * <p> Sends go through the shared Kafka producer: events published concurrently by API requests are coalesced into
+ * producer batches (see the {@code spring.kafka.producer} linger and batch settings), and the returned {@code Mono}
+ * completes only once the broker has acknowledged the write. {@code KafkaProducer#send} itself blocks while it waits
+ * for topic metadata or buffer space, up to {@code max.block.ms}, so it is called on the bounded elastic scheduler
+ * rather than on the subscribing event loop. </p>
  */
 @Component
 public class ProjectCapitalOptimizerEventPublisher {
     private static final Logger logger = LoggerFactory.getLogger(ProjectCapitalOptimizerEventPublisher.class);
-    private static final String CONTENT_TYPE_HEADER = "contentType";
-    private static final String PARTITION_KEY_HEADER = "PARTITION_KEY";
-    private static final String CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING = "capital-maximization-query-out-0";
 
-    private final StreamBridge streamBridge;
+    private final KafkaTemplate<String, CapitalMaximizationQueryEvent> kafkaTemplate;
+    private final Timer ackLatency;
+    private final Counter acknowledged;
+    private final Counter failed;
 
-    public ProjectCapitalOptimizerEventPublisher(StreamBridge streamBridge) {
-        this.streamBridge = streamBridge;
+    public ProjectCapitalOptimizerEventPublisher(
+            KafkaTemplate<String, CapitalMaximizationQueryEvent> kafkaTemplate,
+            MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.ackLatency = Timer.builder("roi.optimizer.publisher.ack_latency")
+                .description("Time from publishing a capital maximization query event to its broker acknowledgement")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.acknowledged = Counter.builder("roi.optimizer.publisher.events")
+                .description("Capital maximization query events published, by outcome")
+                .tag("outcome", "acknowledged")
+                .register(meterRegistry);
+        this.failed = Counter.builder("roi.optimizer.publisher.events")
+                .description("Capital maximization query events published, by outcome")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
     }
 
+    /**
+     * Publishes the event without a deadline, emitting {@code true} once the broker has acknowledged it.
+     */
     public Mono<Boolean> publishEvent(CapitalMaximizationQueryEvent event) {
-        requireNonNull(event, () -> "Capital maximization query event cannot be null");
-
-        logger.info("Publishing event with maxProjects: {}, initialCapital: {}",
-                event.maxProjects(), event.initialCapital());
+        return publishEvent(event, null);
+    }
 
-        return Mono.fromCallable(() -> {
-                    // Generate a partition key based on event data for better load balancing (round-robin effect)
-                    final String partitionKey = generatePartitionKey(event);
+    /**
+     * Publishes the event, emitting {@code true} once the broker has acknowledged it.
+     *
+     * @param deadline When the client stops waiting for the result, written to the {@link EventDeadlines#DEADLINE_HEADER}
+     *                 header; {@code null} for none.
+     */
+    public Mono<Boolean> publishEvent(CapitalMaximizationQueryEvent event, Instant deadline) {
+        requireNonNull(event, () -> "Capital maximization query event cannot be null");
 
-                    // Build the message with event payload and computed partition key
-                    Message<CapitalMaximizationQueryEvent> message = MessageBuilder.withPayload(event)
-                            .setHeader(PARTITION_KEY_HEADER, partitionKey)
-                            .setHeader(CONTENT_TYPE_HEADER, MediaType.APPLICATION_JSON_VALUE)
-                            .build();
+        logger.info("Publishing {} priority event for job {} with maxProjects: {}, initialCapital: {}, deadline: {}",
+                event.priority(), event.jobId(), event.maxProjects(), event.initialCapital(), deadline);
 
-                    // Send the message and check if it was successful
-                    boolean sent = streamBridge.send(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING, message);
+        return Mono.defer(() -> {
+                    final long startedAt = System.nanoTime();
 
-                    if (sent) {
-                        logger.info("Capital maximization query event successfully sent with partition key: {}", partitionKey);
-                    } else {
-                        logger.warn("Kafka event publishing failed for event: {}", event);
+                    // Key by query attributes, so identical queries are routed to the same partition
+                    final String partitionKey = generatePartitionKey(event);
+                    var record = new ProducerRecord<>(topicFor(event.priority()), partitionKey, event);
+                    if (deadline != null) {
+                        record.headers().add(EventDeadlines.DEADLINE_HEADER, EventDeadlines.write(deadline));
                     }
 
-                    return sent;
+                    return Mono.fromFuture(() -> kafkaTemplate.send(record))
+                            .subscribeOn(Schedulers.boundedElastic()) // send() blocks for metadata and buffer space
+                            .doOnNext(result -> {
+                                ackLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                                acknowledged.increment();
+                                logger.info("Capital maximization query event for job {} acknowledged at partition {}, offset {}",
+                                        event.jobId(), result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+                            });
                 })
-                .subscribeOn(Schedulers.boundedElastic()) // Offload to an elastic thread pool for blocking operations
-                .doOnError(error -> logger.error("Failed to publish capital maximization query event", error));
+                .thenReturn(Boolean.TRUE)
+                .doOnError(error -> {
+                    failed.increment();
+                    logger.error("Failed to publish capital maximization query event", error);
+                });
+    }
+
+    static String topicFor(JobPriority priority) {
+        return priority == JobPriority.HIGH ? CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC : CAPITAL_MAXIMIZATION_QUERY_TOPIC;
     }
 
     /**
      * Computes a deterministic partition key based on event attributes to ensure consistent
-     * message routing. The partition key is mapped to a range (0-9), promoting even distribution
-     * of messages across available partitions.
+     * message routing. The producer's partitioner hashes the key, spreading distinct queries
+     * across all partitions of the topic.
+     *
+     * <p> The capital is hashed without trailing zeros, as in the {@link CapitalMaximizationQueryDeduplicator}'s key, so
+     * that {@code 100} and {@code 100.00} reach the same partition and can be coalesced. </p>
      */
     private String generatePartitionKey(CapitalMaximizationQueryEvent event) {
-        final int hash = Objects.hash(event.maxProjects(), event.initialCapital());
-        return Integer.toString(Math.abs(hash) % 10);
+        final int hash = Objects.hash(event.maxProjects(), event.initialCapital().stripTrailingZeros());
+        return Integer.toHexString(hash);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.github.analytics.exception;
+
+/**
+ * Exception thrown when a capital maximization is abandoned because the deadline of its query has passed.
+ */
+public class CapitalMaximizationDeadlineExceededException extends RuntimeException {
+
+    public CapitalMaximizationDeadlineExceededException(String message) {
+        super(message);
+    }
+}
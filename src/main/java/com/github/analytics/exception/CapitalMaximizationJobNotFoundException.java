@@ -0,0 +1,16 @@
+package com.github.analytics.exception;
+
+/**
+ * Exception thrown when no result is available for a capital maximization job, either because the job is unknown,
+ * still being processed, or its result has expired.
+ */
+public class CapitalMaximizationJobNotFoundException extends RuntimeException {
+
+    public CapitalMaximizationJobNotFoundException(String message) {
+        super(message);
+    }
+
+    public CapitalMaximizationJobNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
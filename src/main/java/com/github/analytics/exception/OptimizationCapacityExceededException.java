@@ -0,0 +1,12 @@
+package com.github.analytics.exception;
+
+/**
+ * Exception thrown when a capital maximization is rejected because the optimization executor and its queue are full.
+ * Callers should retry later: HTTP clients receive {@code 429 Too Many Requests}, and the Kafka consumer backs off.
+ */
+public class OptimizationCapacityExceededException extends RuntimeException {
+
+    public OptimizationCapacityExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
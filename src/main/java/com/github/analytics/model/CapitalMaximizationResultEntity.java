@@ -0,0 +1,32 @@
+package com.github.analytics.model;
+
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.Instant;
+
+import static com.github.projects.model.Validators.requireNonNullOrBlank;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable record representing the persisted outcome of a capital maximization job.
+ *
+ * <p> Rows are written with a TTL and only ever read by job ID, so the result is kept as a JSON document rather than
+ * normalized columns. </p>
+ */
+@Table("capital_maximization_results")
+public record CapitalMaximizationResultEntity(
+        @PrimaryKey @Column("job_id") String jobId,
+        String status,
+        String payload,
+        @Column("completed_at") Instant completedAt
+) {
+
+    public CapitalMaximizationResultEntity {
+        requireNonNullOrBlank(jobId, "Job ID must not be null or blank");
+        requireNonNullOrBlank(status, "Job status must not be null or blank");
+        requireNonNull(payload, "Job payload must not be null");
+        requireNonNull(completedAt, "Job completion time must not be null");
+    }
+}
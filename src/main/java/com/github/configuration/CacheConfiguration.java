@@ -3,7 +3,10 @@ package com.github.configuration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.analytics.api.CapitalMaximizationJobResult;
+import com.github.projects.model.ProjectCatalogChange;
 import com.github.projects.model.ProjectDTO;
+import com.github.projects.model.StaleProject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -26,6 +29,11 @@ import java.time.Duration;
 @EnableCaching
 public class CacheConfiguration {
     public static final String PROJECT_ID_CACHE_KEY = "project-id-cache";
+    public static final String STALE_PROJECT_CACHE_KEY = "project-id-cache-stale";
+    public static final String PROJECT_CATALOG_VERSION_KEY = "project-catalog-version";
+    public static final String PROJECT_CATALOG_CHANNEL = "project-catalog-changes";
+    public static final String JOB_RESULT_CACHE_KEY = "capital-maximization-job-result";
+    public static final String JOB_RESULT_CHANNEL = "capital-maximization-job-results";
     public static final int CACHE_TTL_IN_MINUTES = 10;
 
     private final String redisHost;
@@ -49,20 +57,34 @@ public class CacheConfiguration {
 
     @Bean
     public ReactiveRedisTemplate<String, ProjectDTO> reactiveRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
-        ObjectMapper objectMapper = new ObjectMapper()
-                .registerModule(new JavaTimeModule())
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return jsonRedisTemplate(connectionFactory, ProjectDTO.class);
+    }
 
-        Jackson2JsonRedisSerializer<ProjectDTO> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, ProjectDTO.class);
+    /**
+     * Template for the stale tier of the project cache, read by the {@code findById} fallbacks.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, StaleProject> staleProjectRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        return jsonRedisTemplate(connectionFactory, StaleProject.class);
+    }
 
-        RedisSerializationContext<String, ProjectDTO> context = RedisSerializationContext.<String, ProjectDTO>newSerializationContext()
-                .key(RedisSerializer.string())
-                .value(serializer)
-                .hashKey(RedisSerializer.string())
-                .hashValue(serializer)
-                .build();
+    /**
+     * Template publishing project catalog writes on {@link #PROJECT_CATALOG_CHANNEL}.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, ProjectCatalogChange> projectCatalogChangeRedisTemplate(
+            ReactiveRedisConnectionFactory connectionFactory) {
+        return jsonRedisTemplate(connectionFactory, ProjectCatalogChange.class);
+    }
 
-        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    /**
+     * Template for the hot tier of capital maximization job results, also used to publish completed results on
+     * {@link #JOB_RESULT_CHANNEL}.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, CapitalMaximizationJobResult> jobResultRedisTemplate(
+            ReactiveRedisConnectionFactory connectionFactory) {
+        return jsonRedisTemplate(connectionFactory, CapitalMaximizationJobResult.class);
     }
 
     @Bean
@@ -76,4 +98,22 @@ public class CacheConfiguration {
                 .transactionAware()
                 .build();
     }
-}
\ No newline at end of file
+
+    private static <T> ReactiveRedisTemplate<String, T> jsonRedisTemplate(
+            ReactiveRedisConnectionFactory connectionFactory, Class<T> valueType) {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        Jackson2JsonRedisSerializer<T> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, valueType);
+
+        RedisSerializationContext<String, T> context = RedisSerializationContext.<String, T>newSerializationContext()
+                .key(RedisSerializer.string())
+                .value(serializer)
+                .hashKey(RedisSerializer.string())
+                .hashValue(serializer)
+                .build();
+
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.configuration;
+
+import com.github.projects.api.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adaptive concurrency limiters for the backing stores of the project catalog, one per store so that latency in one
+ * does not throttle calls to the other.
+ */
+@Configuration
+public class ConcurrencyLimiterConfiguration {
+    public static final String CASSANDRA_LIMITER = "cassandraConcurrencyLimiter";
+    public static final String REDIS_LIMITER = "redisConcurrencyLimiter";
+
+    @Bean(CASSANDRA_LIMITER)
+    public AdaptiveConcurrencyLimiter cassandraConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${roi.projects.concurrency-limiter.cassandra.initial-limit}") int initialLimit,
+            @Value("${roi.projects.concurrency-limiter.cassandra.min-limit}") int minLimit,
+            @Value("${roi.projects.concurrency-limiter.cassandra.max-limit}") int maxLimit,
+            @Value("${roi.projects.concurrency-limiter.cassandra.max-queue}") int maxQueue) {
+        return new AdaptiveConcurrencyLimiter("cassandra", meterRegistry, initialLimit, minLimit, maxLimit, maxQueue);
+    }
+
+    @Bean(REDIS_LIMITER)
+    public AdaptiveConcurrencyLimiter redisConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${roi.projects.concurrency-limiter.redis.initial-limit}") int initialLimit,
+            @Value("${roi.projects.concurrency-limiter.redis.min-limit}") int minLimit,
+            @Value("${roi.projects.concurrency-limiter.redis.max-limit}") int maxLimit,
+            @Value("${roi.projects.concurrency-limiter.redis.max-queue}") int maxQueue) {
+        return new AdaptiveConcurrencyLimiter("redis", meterRegistry, initialLimit, minLimit, maxLimit, maxQueue);
+    }
+}
@@ -9,7 +9,9 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaConfiguration {
     public static final String CAPITAL_MAXIMIZATION_QUERY_TOPIC = "capital-maximization-query-events";
+    public static final String CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC = "capital-maximization-priority-query-events";
     public static final String CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC = "capital-maximization-query-events-dlq";
+    public static final String CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID = "capital-maximization-query-listener";
 
     private final int partitionCount;
     private final int replicaCount;
@@ -31,6 +33,14 @@ public class KafkaConfiguration {
                 .build();
     }
 
+    @Bean
+    public NewTopic capitalMaximizationPriorityQueryEventsTopic() {
+        return TopicBuilder.name(CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC)
+                .partitions(partitionCount)
+                .replicas(replicaCount)
+                .build();
+    }
+
     @Bean
     public NewTopic capitalMaximizationQueryEventsDLQTopic() {
         return TopicBuilder.name(CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC)
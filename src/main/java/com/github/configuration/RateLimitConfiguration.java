@@ -0,0 +1,61 @@
+package com.github.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.projects.api.ApiRateLimitFilter;
+import com.github.projects.api.ClientRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-client rate limits for catalog writes and capital maximization queries, with separate budgets so that a client
+ * flooding one does not exhaust the other.
+ */
+@Configuration
+public class RateLimitConfiguration {
+    public static final String PROJECT_WRITES_RATE_LIMITER = "projectWritesRateLimiter";
+    public static final String OPTIMIZER_RATE_LIMITER = "optimizerRateLimiter";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration redisTimeout;
+
+    public RateLimitConfiguration(
+            ReactiveStringRedisTemplate redisTemplate,
+            @Value("${roi.rate-limit.distributed}") boolean distributed,
+            @Value("${roi.rate-limit.redis-timeout}") Duration redisTimeout) {
+        this.redisTemplate = distributed ? redisTemplate : null;
+        this.redisTimeout = redisTimeout;
+    }
+
+    @Bean(PROJECT_WRITES_RATE_LIMITER)
+    public ClientRateLimiter projectWritesRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${roi.rate-limit.project-writes.capacity}") int capacity,
+            @Value("${roi.rate-limit.project-writes.refill-per-second}") double refillPerSecond) {
+        return new ClientRateLimiter("project_writes", meterRegistry, capacity, refillPerSecond, redisTemplate, redisTimeout);
+    }
+
+    @Bean(OPTIMIZER_RATE_LIMITER)
+    public ClientRateLimiter optimizerRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${roi.rate-limit.optimizer.capacity}") int capacity,
+            @Value("${roi.rate-limit.optimizer.refill-per-second}") double refillPerSecond) {
+        return new ClientRateLimiter("optimizer", meterRegistry, capacity, refillPerSecond, redisTemplate, redisTimeout);
+    }
+
+    @Bean
+    public ApiRateLimitFilter apiRateLimitFilter(
+            @Qualifier(PROJECT_WRITES_RATE_LIMITER) ClientRateLimiter projectWritesRateLimiter,
+            @Qualifier(OPTIMIZER_RATE_LIMITER) ClientRateLimiter optimizerRateLimiter,
+            ObjectMapper objectMapper,
+            @Value("${roi.rate-limit.enabled}") boolean enabled,
+            @Value("${roi.rate-limit.trusted-proxies}") List<String> trustedProxies) {
+        return new ApiRateLimitFilter(enabled, projectWritesRateLimiter, optimizerRateLimiter, trustedProxies, objectMapper);
+    }
+}
@@ -0,0 +1,269 @@
+package com.github.projects.api;
+
+import com.github.projects.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Gradient-based adaptive concurrency limiter for calls to a backing store such as Cassandra or Redis.
+ *
+ * <p> Each call's round-trip time is compared with a slow-moving average of past round-trip times. While the two agree
+ * the limit grows by roughly its square root per sample; as latency inflates the gradient
+ * {@code longRtt / shortRtt} drops below one and the limit shrinks proportionally, before calls start timing out. The
+ * limit is smoothed and kept within {@code [min-limit, max-limit]}. </p>
+ *
+ * <p> Calls beyond the limit wait in a bounded FIFO queue and are admitted as earlier calls complete; once
+ * {@code max-queue} calls are waiting, further calls are shed with a {@link ConcurrencyLimitExceededException}. The
+ * current limit is exposed as the {@code roi.projects.concurrency_limit} gauge. </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    /**
+     * Latency inflation tolerated before the limit starts shrinking.
+     */
+    private static final double RTT_TOLERANCE = 1.5;
+    /**
+     * Weight of a new estimate in the smoothed limit.
+     */
+    private static final double SMOOTHING = 0.2;
+    /**
+     * Number of samples averaged by the long-term round-trip time.
+     */
+    private static final int LONG_WINDOW = 600;
+    /**
+     * Lower bound of the gradient, so a single outlier halves the limit at most.
+     */
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final LongSupplier nanoClock;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final Counter rejected;
+
+    private double limit;
+    private double longRttNanos;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(String name, MeterRegistry meterRegistry,
+                                      int initialLimit, int minLimit, int maxLimit, int maxQueue) {
+        this(name, meterRegistry, initialLimit, minLimit, maxLimit, maxQueue, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, MeterRegistry meterRegistry,
+                               int initialLimit, int minLimit, int maxLimit, int maxQueue, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                    "Concurrency limits for '%s' must satisfy 1 <= min-limit <= initial-limit <= max-limit".formatted(name));
+        }
+        if (maxQueue < 0) {
+            throw new IllegalArgumentException("max-queue for '%s' must not be negative".formatted(name));
+        }
+
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+
+        Gauge.builder("roi.projects.concurrency_limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Concurrent calls currently allowed to the backing store")
+                .tag("backend", name)
+                .register(meterRegistry);
+        Gauge.builder("roi.projects.concurrency_limiter.in_flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Calls to the backing store currently in flight")
+                .tag("backend", name)
+                .register(meterRegistry);
+        Gauge.builder("roi.projects.concurrency_limiter.queued", this, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Calls waiting for the concurrency limit")
+                .tag("backend", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("roi.projects.concurrency_limiter.rejected")
+                .description("Calls shed because the concurrency limit and its queue were full")
+                .tag("backend", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call once a permit is available. The round-trip time is sampled from subscription to termination;
+     * cancelled calls release their permit without a sample.
+     */
+    public <T> Mono<T> limit(Mono<T> call) {
+        return Mono.usingWhen(acquire(),
+                permit -> call,
+                permit -> Mono.fromRunnable(() -> release(permit, true)),
+                (permit, error) -> Mono.fromRunnable(() -> release(permit, true)),
+                permit -> Mono.fromRunnable(() -> release(permit, false)));
+    }
+
+    /**
+     * Runs the stream once a permit is available, holding it until the stream terminates. Only the time to the first
+     * signal is sampled, since the length of a stream says nothing about the latency of the store.
+     */
+    public <T> Flux<T> limit(Flux<T> call) {
+        return Flux.usingWhen(acquire(),
+                permit -> call.doOnEach(signal -> permit.sample(nanoClock.getAsLong())),
+                permit -> Mono.fromRunnable(() -> release(permit, true)),
+                (permit, error) -> Mono.fromRunnable(() -> release(permit, true)),
+                permit -> Mono.fromRunnable(() -> release(permit, false)));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter;
+            synchronized (this) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    sink.success(new Permit(nanoClock.getAsLong()));
+                    return;
+                }
+                if (waiters.size() >= maxQueue) {
+                    rejected.increment();
+                    sink.error(new ConcurrencyLimitExceededException(
+                            "Concurrency limit of %d reached for %s".formatted((int) limit, name)));
+                    return;
+                }
+                waiter = new Waiter(sink);
+                waiters.addLast(waiter);
+            }
+            sink.onCancel(() -> abandon(waiter));
+        });
+    }
+
+    /**
+     * A waiter cancelled after it was admitted still holds a permit that nobody else will release.
+     */
+    private void abandon(Waiter waiter) {
+        synchronized (this) {
+            if (waiters.remove(waiter) || !waiter.admitted.get()) {
+                return;
+            }
+        }
+        releasePermit();
+    }
+
+    private void release(Permit permit, boolean sample) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        if (sample) {
+            permit.sample(nanoClock.getAsLong());
+            onSample(permit.rttNanos);
+        }
+        releasePermit();
+    }
+
+    private void releasePermit() {
+        Waiter next;
+        synchronized (this) {
+            inFlight--;
+            if (inFlight >= (int) limit || (next = waiters.pollFirst()) == null) {
+                return;
+            }
+            inFlight++;
+            next.admitted.set(true);
+        }
+        next.sink.success(new Permit(nanoClock.getAsLong()));
+    }
+
+    private void onSample(long rttNanos) {
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        synchronized (this) {
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+            } else {
+                longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+                // Let the baseline follow a sustained improvement instead of waiting out the long window
+                if (longRttNanos / rttNanos > 2) {
+                    longRttNanos *= 0.95;
+                }
+            }
+
+            // While well below the limit, latency says nothing about whether the limit is too high or too low
+            if (inFlight < limit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rttNanos));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            double previous = limit;
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+
+            if ((int) previous != (int) limit) {
+                logger.debug("Concurrency limit for {} changed from {} to {} (rtt {}us, baseline {}us)",
+                        name, (int) previous, (int) limit, rttNanos / 1_000, (long) longRttNanos / 1_000);
+            }
+        }
+
+        admitWaiters();
+    }
+
+    /**
+     * A raised limit admits queued calls straight away rather than as in-flight calls complete.
+     */
+    private void admitWaiters() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                if (inFlight >= (int) limit || (next = waiters.pollFirst()) == null) {
+                    return;
+                }
+                inFlight++;
+                next.admitted.set(true);
+            }
+            next.sink.success(new Permit(nanoClock.getAsLong()));
+        }
+    }
+
+    private static final class Permit {
+        private final long startedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long rttNanos;
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private void sample(long now) {
+            if (rttNanos == 0) {
+                rttNanos = Math.max(1, now - startedAt);
+            }
+        }
+    }
+
+    private record Waiter(MonoSink<Permit> sink, AtomicBoolean admitted) {
+        private Waiter(MonoSink<Permit> sink) {
+            this(sink, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.projects.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Applies per-client rate limits to the endpoints that write to shared resources: catalog writes under
+ * {@code /api/v1/projects} and capital maximization queries under {@code /api/v1/capital/maximization}, each with its
+ * own budget. Reads, including polling for job results, are not limited.
+ *
+ * <p> Clients are identified by their authenticated principal, or by address until one is established. The address is
+ * the remote address, unless that is one of the configured trusted proxies: then it is the nearest address in
+ * {@code X-Forwarded-For} that is not a trusted proxy, so clients behind a shared proxy keep separate budgets. Headers
+ * are only read when a trusted proxy set them, and other client-set headers, such as an API key, are never trusted, so
+ * a client cannot take a fresh budget by changing them. Requests over budget are rejected with
+ * {@code 429 Too Many Requests} and a {@code Retry-After} header. </p>
+ */
+public class ApiRateLimitFilter implements WebFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ApiRateLimitFilter.class);
+    private static final String PROJECTS_PATH = "/api/v1/projects";
+    private static final String CAPITAL_MAXIMIZATION_PATH = "/api/v1/capital/maximization";
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+    /**
+     * Dotted-quad IPv4 or colon-separated IPv6 literals, which {@link InetAddress#getByName} parses without a lookup.
+     */
+    private static final Pattern ADDRESS_LITERAL = Pattern.compile(
+            "((25[0-5]|2[0-4]\\d|1?\\d?\\d)\\.){3}(25[0-5]|2[0-4]\\d|1?\\d?\\d)|[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    private final boolean enabled;
+    private final ClientRateLimiter projectWritesLimiter;
+    private final ClientRateLimiter optimizerLimiter;
+    private final List<AddressRange> trustedProxies;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param trustedProxies Addresses or CIDR ranges of the reverse proxies whose {@code X-Forwarded-For} is trusted.
+     * @throws IllegalArgumentException if a trusted proxy is not an IP address or CIDR range.
+     */
+    public ApiRateLimitFilter(boolean enabled, ClientRateLimiter projectWritesLimiter,
+                              ClientRateLimiter optimizerLimiter, List<String> trustedProxies, ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.projectWritesLimiter = projectWritesLimiter;
+        this.optimizerLimiter = optimizerLimiter;
+        this.trustedProxies = trustedProxies.stream().map(AddressRange::parse).toList();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ClientRateLimiter limiter = enabled ? limiterFor(exchange.getRequest()) : null;
+        if (limiter == null) {
+            return chain.filter(exchange);
+        }
+
+        return clientKey(exchange)
+                .flatMap(clientKey -> limiter.tryAcquire(clientKey)
+                        .flatMap(retryAfter -> retryAfter.isZero()
+                                ? chain.filter(exchange)
+                                : reject(exchange.getResponse(), limiter, clientKey, retryAfter)));
+    }
+
+    private ClientRateLimiter limiterFor(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        if (!WRITE_METHODS.contains(request.getMethod())) {
+            return null;
+        }
+        if (isUnder(path, PROJECTS_PATH)) {
+            return projectWritesLimiter;
+        }
+        if (isUnder(path, CAPITAL_MAXIMIZATION_PATH)) {
+            return optimizerLimiter;
+        }
+        return null;
+    }
+
+    private static boolean isUnder(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+
+    private Mono<String> clientKey(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .map(principal -> "principal:" + principal.getName())
+                .switchIfEmpty(Mono.fromSupplier(() -> addressKey(exchange.getRequest())));
+    }
+
+    private String addressKey(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null || remoteAddress.getAddress() == null
+                ? "anonymous"
+                : "address:" + clientAddress(remoteAddress.getAddress(), request.getHeaders()).getHostAddress();
+    }
+
+    /**
+     * Walks {@code X-Forwarded-For} back from the peer while the hops are trusted proxies, stopping at the first hop
+     * that is not one, or at a malformed entry; the entries before that hop are set by the client and not trusted.
+     */
+    private InetAddress clientAddress(InetAddress peer, HttpHeaders headers) {
+        InetAddress client = peer;
+        List<String> hops = headers.getValuesAsList(FORWARDED_FOR);
+        for (int i = hops.size() - 1; i >= 0 && isTrustedProxy(client); i--) {
+            InetAddress hop = parseAddress(hops.get(i));
+            if (hop == null) {
+                break;
+            }
+            client = hop;
+        }
+        return client;
+    }
+
+    private boolean isTrustedProxy(InetAddress address) {
+        return trustedProxies.stream().anyMatch(range -> range.contains(address));
+    }
+
+    /**
+     * Parses an IP address literal, or returns {@code null} for anything else; host names are never resolved.
+     */
+    private static InetAddress parseAddress(String value) {
+        if (!ADDRESS_LITERAL.matcher(value).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(value);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, ClientRateLimiter limiter, String clientKey, Duration retryAfter) {
+        logger.debug("Rate limit {} exceeded by {}; retry after {}", limiter.getName(), clientKey, retryAfter);
+
+        // Retry-After is in whole seconds; rounding down would invite a retry that is rejected again
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1_000);
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(ApiResponse.error(
+                        HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded; retry after %d seconds.".formatted(retryAfterSeconds))))
+                .flatMap(body -> response.writeWith(Mono.just(response.bufferFactory().wrap(body))));
+    }
+
+    /**
+     * An address range in CIDR notation; a plain address is a range of one.
+     */
+    private record AddressRange(byte[] network, int prefixLength) {
+
+        static AddressRange parse(String range) {
+            int slash = range.indexOf('/');
+            InetAddress network = parseAddress(slash < 0 ? range.strip() : range.substring(0, slash).strip());
+            if (network == null) {
+                throw new IllegalArgumentException("Trusted proxy %s is not an IP address or CIDR range".formatted(range));
+            }
+            int bits = network.getAddress().length * 8;
+            int prefixLength;
+            try {
+                prefixLength = slash < 0 ? bits : Integer.parseInt(range.substring(slash + 1).strip());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Trusted proxy %s has an invalid prefix length".formatted(range), e);
+            }
+            if (prefixLength < 0 || prefixLength > bits) {
+                throw new IllegalArgumentException("Trusted proxy %s has an invalid prefix length".formatted(range));
+            }
+            return new AddressRange(network.getAddress(), prefixLength);
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int wholeBytes = prefixLength / 8;
+            for (int i = 0; i < wholeBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            int mask = (0xFF << (8 - remainingBits)) & 0xFF;
+            return remainingBits == 0 || (bytes[wholeBytes] & mask) == (network[wholeBytes] & mask);
+        }
+    }
+}
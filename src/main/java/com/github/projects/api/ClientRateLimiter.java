@@ -0,0 +1,190 @@
+package com.github.projects.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets for one API budget, such as catalog writes or capital maximization queries.
+ *
+ * <p> Each client holds up to {@code capacity} tokens, refilled at {@code refill-per-second}; a request takes one token
+ * or is rejected with the time until the next token is available. Buckets are kept in memory by default. When a Redis
+ * template is given, buckets are kept in Redis and updated by an atomic Lua script, so a client's budget holds across
+ * instances; if Redis fails or is slower than {@code redis-timeout}, the local bucket decides instead. </p>
+ *
+ * <p> Local buckets that have refilled completely are dropped by a sweep that runs once per full refill period, since
+ * a full bucket is indistinguishable from a missing one; requests never scan the buckets. </p>
+ */
+public class ClientRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(ClientRateLimiter.class);
+    private static final String KEY_PREFIX = "rate-limit";
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/token-bucket.lua"), List.class);
+    private static final Duration MIN_SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    private final String name;
+    private final int capacity;
+    private final double tokensPerNano;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration redisTimeout;
+    private final LongSupplier nanoClock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Counter allowed;
+    private final Counter rejected;
+    private final Counter redisFallbacks;
+    private final Disposable sweeps;
+
+    /**
+     * @param redisTemplate Template used to share buckets across instances, or {@code null} to keep them local.
+     */
+    public ClientRateLimiter(String name, MeterRegistry meterRegistry, int capacity, double refillPerSecond,
+                             ReactiveStringRedisTemplate redisTemplate, Duration redisTimeout) {
+        this(name, meterRegistry, capacity, refillPerSecond, redisTemplate, redisTimeout, System::nanoTime,
+                Schedulers.parallel());
+    }
+
+    ClientRateLimiter(String name, MeterRegistry meterRegistry, int capacity, double refillPerSecond,
+                      ReactiveStringRedisTemplate redisTemplate, Duration redisTimeout, LongSupplier nanoClock,
+                      Scheduler sweepScheduler) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Rate limit capacity for '%s' must be at least 1".formatted(name));
+        }
+        if (refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit refill for '%s' must be positive".formatted(name));
+        }
+
+        this.name = name;
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.redisTemplate = redisTemplate;
+        this.redisTimeout = redisTimeout;
+        this.nanoClock = nanoClock;
+
+        Gauge.builder("roi.rate_limit.local_buckets", buckets, Map::size)
+                .description("Clients tracked by the local token buckets")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        this.allowed = Counter.builder("roi.rate_limit.requests")
+                .description("Requests admitted or rejected by the per-client rate limit")
+                .tag("limiter", name)
+                .tag("outcome", "allowed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("roi.rate_limit.requests")
+                .description("Requests admitted or rejected by the per-client rate limit")
+                .tag("limiter", name)
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.redisFallbacks = Counter.builder("roi.rate_limit.redis_fallbacks")
+                .description("Rate limit decisions made by the local bucket because Redis was unavailable")
+                .tag("limiter", name)
+                .register(meterRegistry);
+
+        Duration refillPeriod = Duration.ofNanos((long) Math.ceil(capacity / tokensPerNano));
+        Duration sweepInterval = refillPeriod.compareTo(MIN_SWEEP_INTERVAL) < 0 ? MIN_SWEEP_INTERVAL : refillPeriod;
+        this.sweeps = Flux.interval(sweepInterval, sweepScheduler)
+                .subscribe(tick -> sweepFullBuckets());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Takes a token from the client's bucket, emitting {@link Duration#ZERO} if one was available and the time until
+     * the next token otherwise.
+     */
+    public Mono<Duration> tryAcquire(String clientKey) {
+        Mono<Long> waitNanos = redisTemplate == null
+                ? Mono.fromSupplier(() -> tryAcquireLocally(clientKey))
+                : tryAcquireInRedis(clientKey)
+                        .onErrorResume(error -> {
+                            logger.warn("Rate limiter {} falling back to local buckets: {}", name, error.toString());
+                            redisFallbacks.increment();
+                            return Mono.fromSupplier(() -> tryAcquireLocally(clientKey));
+                        });
+
+        return waitNanos.map(nanos -> {
+            (nanos == 0 ? allowed : rejected).increment();
+            return Duration.ofNanos(nanos);
+        });
+    }
+
+    private long tryAcquireLocally(String clientKey) {
+        long now = nanoClock.getAsLong();
+        return buckets.computeIfAbsent(clientKey, key -> new TokenBucket(now)).tryTake(now);
+    }
+
+    private void sweepFullBuckets() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    /**
+     * Stops sweeping the local buckets.
+     */
+    public void shutdown() {
+        sweeps.dispose();
+    }
+
+    private Mono<Long> tryAcquireInRedis(String clientKey) {
+        long ttlMillis = (long) Math.ceil(capacity / tokensPerNano / TimeUnit.MILLISECONDS.toNanos(1)) + 1_000;
+        List<String> args = List.of(
+                String.valueOf(capacity),
+                String.valueOf(tokensPerNano * TimeUnit.MICROSECONDS.toNanos(1)),
+                String.valueOf(ttlMillis));
+
+        return redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of("%s:%s:%s".formatted(KEY_PREFIX, name, clientKey)), args)
+                .next()
+                .map(result -> {
+                    boolean granted = ((Number) result.get(0)).longValue() == 1;
+                    return granted ? 0L : TimeUnit.MICROSECONDS.toNanos(((Number) result.get(1)).longValue());
+                })
+                .timeout(redisTimeout);
+    }
+
+    private final class TokenBucket {
+        private double tokens = capacity;
+        private long refilledAt;
+
+        private TokenBucket(long now) {
+            this.refilledAt = now;
+        }
+
+        private synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+        }
+
+        private synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
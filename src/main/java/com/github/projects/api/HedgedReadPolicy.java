@@ -0,0 +1,125 @@
+package com.github.projects.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a point read that is still waiting on the cache should be hedged with a database read.
+ *
+ * <p> The hedge delay is a percentile of recent cache read latencies, clamped to {@code [min-delay, max-delay]}, so
+ * only the slowest cache reads are hedged. Hedges are paid for from a budget that earns {@code budget-ratio} of a
+ * hedge per read, up to {@code budget-burst}; when the cache is down, hedging therefore adds at most that fraction of
+ * extra database reads instead of doubling them. </p>
+ */
+@Component
+public class HedgedReadPolicy {
+    private static final int LATENCY_WINDOW = 512;
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double budgetRatio;
+    private final double budgetBurst;
+    private final Counter fired;
+    private final Counter throttled;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int recorded;
+    private long delayNanos;
+    private double budget;
+
+    public HedgedReadPolicy(
+            MeterRegistry meterRegistry,
+            @Value("${roi.projects.hedging.enabled}") boolean enabled,
+            @Value("${roi.projects.hedging.percentile}") double percentile,
+            @Value("${roi.projects.hedging.min-delay}") Duration minDelay,
+            @Value("${roi.projects.hedging.max-delay}") Duration maxDelay,
+            @Value("${roi.projects.hedging.budget-ratio}") double budgetRatio,
+            @Value("${roi.projects.hedging.budget-burst}") int budgetBurst) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("roi.projects.hedging.percentile must be between 0 and 1");
+        }
+        if (minDelay.compareTo(maxDelay) > 0) {
+            throw new IllegalArgumentException("roi.projects.hedging.min-delay must not exceed max-delay");
+        }
+
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.budgetRatio = budgetRatio;
+        this.budgetBurst = budgetBurst;
+        // Hedge late until the cache has shown how fast it is
+        this.delayNanos = maxDelayNanos;
+        this.budget = budgetBurst;
+
+        TimeGauge.builder("roi.projects.hedging.delay", this, TimeUnit.NANOSECONDS, HedgedReadPolicy::delayNanos)
+                .description("Time a point read waits on the cache before hedging with a database read")
+                .register(meterRegistry);
+        this.fired = Counter.builder("roi.projects.hedging.hedges")
+                .description("Point reads hedged with a database read, or not hedged for lack of budget")
+                .tag("outcome", "fired")
+                .register(meterRegistry);
+        this.throttled = Counter.builder("roi.projects.hedging.hedges")
+                .description("Point reads hedged with a database read, or not hedged for lack of budget")
+                .tag("outcome", "throttled")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * How long to wait on the cache before hedging. Each call also earns its share of the hedge budget.
+     */
+    public synchronized Duration hedgeDelay() {
+        budget = Math.min(budgetBurst, budget + budgetRatio);
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * Spends one hedge from the budget, returning {@code false} if the budget is exhausted.
+     */
+    public boolean tryHedge() {
+        synchronized (this) {
+            if (budget >= 1) {
+                budget--;
+                fired.increment();
+                return true;
+            }
+        }
+        throttled.increment();
+        return false;
+    }
+
+    /**
+     * Records how long a cache read took to answer, hit or miss.
+     */
+    public synchronized void recordCacheLatency(long nanos) {
+        latencies[recorded++ % LATENCY_WINDOW] = nanos;
+        if (recorded % RECOMPUTE_EVERY == 0) {
+            long[] window = Arrays.copyOf(latencies, Math.min(recorded, LATENCY_WINDOW));
+            Arrays.sort(window);
+            long observed = window[(int) Math.ceil(percentile * window.length) - 1];
+            delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, observed));
+        }
+        // Keep the counter from overflowing while preserving the position in the window
+        if (recorded == 2 * LATENCY_WINDOW) {
+            recorded = LATENCY_WINDOW;
+        }
+    }
+
+    private synchronized double delayNanos() {
+        return delayNanos;
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.projects.api;
+
+import com.github.projects.model.ProjectDTO;
+import com.github.projects.model.ProjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.github.configuration.ConcurrencyLimiterConfiguration.CASSANDRA_LIMITER;
+
+/**
+ * Micro-batching loader that coalesces concurrent point reads into grouped {@code IN} queries.
+ *
+ * <p> Each {@link #load(String)} call is queued and dispatched together with other calls that arrive within
+ * {@code max-wait} (or as soon as {@code max-batch-size} calls are queued). Results are fanned back to every waiting
+ * {@code Mono}; duplicate IDs within a batch are read once. Each batch takes one Cassandra concurrency permit. </p>
+ *
+ * <p> Batches are only cut when a batch slot is free, so loads keep queueing while {@code max-concurrent-batches}
+ * batches are in flight. Should the dispatcher fail nonetheless, its waiting loads fail and a new dispatcher takes
+ * over, so later loads are not left hanging. </p>
+ *
+ * <p> Loads are queued from many request threads at once without locking or spinning: the queue is a multi-producer
+ * one, so concurrent emissions need no serialization. </p>
+ */
+@Component
+public class ProjectBatchLoader {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectBatchLoader.class);
+
+    private final ProjectRepository projectRepository;
+    private final AdaptiveConcurrencyLimiter cassandraLimiter;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final int maxConcurrentBatches;
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+    private final Counter dispatcherRestarts;
+    private volatile Dispatcher dispatcher;
+    private volatile boolean shutdown;
+
+    public ProjectBatchLoader(
+            ProjectRepository projectRepository,
+            @Qualifier(CASSANDRA_LIMITER) AdaptiveConcurrencyLimiter cassandraLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${roi.projects.batch-loader.max-batch-size}") int maxBatchSize,
+            @Value("${roi.projects.batch-loader.max-wait}") Duration maxWait,
+            @Value("${roi.projects.batch-loader.max-concurrent-batches}") int maxConcurrentBatches) {
+        this.projectRepository = projectRepository;
+        this.cassandraLimiter = cassandraLimiter;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.maxConcurrentBatches = maxConcurrentBatches;
+        this.batchSize = DistributionSummary.builder("roi.projects.batch_loader.batch_size")
+                .description("Number of point reads coalesced into a single batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchWait = Timer.builder("roi.projects.batch_loader.wait")
+                .description("Time a point read waits in the batch window before being dispatched")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.dispatcherRestarts = Counter.builder("roi.projects.batch_loader.dispatcher_restarts")
+                .description("Times the batch dispatcher failed and was replaced")
+                .register(meterRegistry);
+
+        this.dispatcher = startDispatcher();
+    }
+
+    private Dispatcher startDispatcher() {
+        // The serialized sinks from Sinks.many() reject concurrent emissions; the multi-producer queue makes them safe
+        Sinks.Many<PendingLoad> pendingLoads = Sinks.unsafe().many().unicast()
+                .onBackpressureBuffer(Queues.<PendingLoad>unboundedMultiproducer().get());
+        var next = new Dispatcher(pendingLoads, ConcurrentHashMap.newKeySet());
+        next.pendingLoads().asFlux()
+                // Fair backpressure: a full window waits for a batch slot instead of overflowing
+                .bufferTimeout(maxBatchSize, maxWait, true)
+                .flatMap(batch -> Mono.defer(() -> dispatch(batch))
+                        .onErrorResume(error -> failBatch(batch, error)), maxConcurrentBatches)
+                .subscribe(null, error -> restartDispatcher(next, error));
+        return next;
+    }
+
+    private void restartDispatcher(Dispatcher failed, Throwable error) {
+        logger.error("Project batch dispatcher failed; failing {} waiting point reads", failed.outstanding().size(), error);
+        if (!shutdown) {
+            dispatcherRestarts.increment();
+            dispatcher = startDispatcher();
+        }
+        failed.outstanding().forEach(pendingLoad -> pendingLoad.result().tryEmitError(error));
+    }
+
+    /**
+     * Loads a project by ID as part of the next batch, completing empty when the project does not exist.
+     */
+    public Mono<ProjectDTO> load(String id) {
+        return Mono.defer(() -> {
+            UUID projectId = parseId(id);
+            if (projectId == null) {
+                return Mono.empty();
+            }
+
+            var pendingLoad = new PendingLoad(projectId, Sinks.one(), System.nanoTime());
+            Dispatcher current = dispatcher;
+            current.outstanding().add(pendingLoad);
+            Sinks.EmitResult emitted = current.pendingLoads().tryEmitNext(pendingLoad);
+            if (emitted.isFailure()) { // The dispatcher failed or shut down after this load picked it
+                current.outstanding().remove(pendingLoad);
+                return Mono.error(new Sinks.EmissionException(emitted));
+            }
+            return pendingLoad.result().asMono().doFinally(signal -> current.outstanding().remove(pendingLoad));
+        });
+    }
+
+    private Mono<Void> dispatch(List<PendingLoad> batch) {
+        final long dispatchedAt = System.nanoTime();
+        batchSize.record(batch.size());
+        batch.forEach(pendingLoad -> batchWait.record(dispatchedAt - pendingLoad.enqueuedAt(), TimeUnit.NANOSECONDS));
+
+        Set<UUID> ids = batch.stream().map(PendingLoad::id).collect(Collectors.toSet());
+
+        logger.debug("Dispatching batch of {} point reads for {} distinct projects", batch.size(), ids.size());
+
+        return cassandraLimiter.limit(projectRepository.findAllProjectsById(ids).collectMap(ProjectDTO::id, Function.identity()))
+                .doOnNext(projectsById -> batch.forEach(pendingLoad -> complete(pendingLoad, projectsById.get(pendingLoad.id()))))
+                .then();
+    }
+
+    private Mono<Void> failBatch(List<PendingLoad> batch, Throwable error) {
+        logger.error("Batched project read failed for {} point reads", batch.size(), error);
+        batch.forEach(pendingLoad -> pendingLoad.result().tryEmitError(error));
+        return Mono.empty();
+    }
+
+    private static void complete(PendingLoad pendingLoad, ProjectDTO project) {
+        if (project == null) {
+            pendingLoad.result().tryEmitEmpty();
+        } else {
+            pendingLoad.result().tryEmitValue(project);
+        }
+    }
+
+    /**
+     * Project IDs are UUIDs; anything else cannot exist in the table and resolves to an empty result.
+     */
+    private static UUID parseId(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shutdown = true;
+        dispatcher.pendingLoads().tryEmitComplete();
+    }
+
+    private record PendingLoad(UUID id, Sinks.One<ProjectDTO> result, long enqueuedAt) {
+    }
+
+    /**
+     * The queue of a dispatcher, and the loads emitted into it that have not completed yet.
+     */
+    private record Dispatcher(Sinks.Many<PendingLoad> pendingLoads, Set<PendingLoad> outstanding) {
+    }
+}
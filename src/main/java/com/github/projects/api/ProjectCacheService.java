@@ -1,28 +1,61 @@
 package com.github.projects.api;
 
+import com.github.projects.exception.ConcurrencyLimitExceededException;
 import com.github.projects.model.ProjectDTO;
+import com.github.projects.model.StaleProject;
 import com.github.projects.model.Validators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+
 import static com.github.configuration.CacheConfiguration.PROJECT_ID_CACHE_KEY;
+import static com.github.configuration.CacheConfiguration.STALE_PROJECT_CACHE_KEY;
+import static com.github.configuration.ConcurrencyLimiterConfiguration.REDIS_LIMITER;
 
+/**
+ * Two-tier Redis cache of projects by ID.
+ *
+ * <p> Every cached project is also written to a stale tier that outlives the regular entry by {@code stale-ttl}.
+ * Evicting or expiring a regular entry leaves its stale copy behind for the {@code findById} fallbacks to serve while
+ * the database is slow or unavailable. </p>
+ */
 @Service
 public class ProjectCacheService {
     private static final Logger logger = LoggerFactory.getLogger(ProjectCacheService.class);
 
     private final ReactiveValueOperations<String, ProjectDTO> valueOps;
+    private final ReactiveValueOperations<String, StaleProject> staleValueOps;
+    private final AdaptiveConcurrencyLimiter redisLimiter;
+    private final Duration ttl;
+    private final Duration staleTtl;
+
+    public ProjectCacheService(
+            ReactiveRedisTemplate<String, ProjectDTO> redisTemplate,
+            ReactiveRedisTemplate<String, StaleProject> staleProjectRedisTemplate,
+            @Qualifier(REDIS_LIMITER) AdaptiveConcurrencyLimiter redisLimiter,
+            @Value("${roi.projects.cache.ttl}") Duration ttl,
+            @Value("${roi.projects.cache.stale-ttl}") Duration staleTtl) {
+        if (staleTtl.compareTo(ttl) <= 0) {
+            throw new IllegalArgumentException("roi.projects.cache.stale-ttl must be longer than roi.projects.cache.ttl");
+        }
 
-    public ProjectCacheService(ReactiveRedisTemplate<String, ProjectDTO> redisTemplate) {
         this.valueOps = redisTemplate.opsForValue();
+        this.staleValueOps = staleProjectRedisTemplate.opsForValue();
+        this.redisLimiter = redisLimiter;
+        this.ttl = ttl;
+        this.staleTtl = staleTtl;
     }
 
     /**
-     * Caches a project with the given ID.
+     * Caches a project with the given ID for {@code ttl}, and its stale copy for {@code stale-ttl}.
      */
     public Mono<Boolean> cacheProject(String id, ProjectDTO project) {
         Validators.requireNonNullOrBlank(id, () -> "project ID should not be null or empty");
@@ -31,7 +64,9 @@ public class ProjectCacheService {
         final String cacheKey = createCacheKey(id);
         logger.info("Caching project with ID '{}' in Redis.", cacheKey);
 
-        return valueOps.set(cacheKey, project)
+        final var staleProject = new StaleProject(project, Instant.now());
+        return redisLimiter.limit(valueOps.set(cacheKey, project, ttl)
+                        .flatMap(cached -> staleValueOps.set(createStaleCacheKey(id), staleProject, staleTtl).thenReturn(cached)))
                 .doOnTerminate(() -> logger.info("Caching completed for project ID '{}'.", cacheKey))
                 .onErrorResume(error -> {
                     logger.error("Error caching project with ID '{}'", cacheKey, error);
@@ -41,6 +76,7 @@ public class ProjectCacheService {
 
     /**
      * Retrieves a project from the cache using its ID.
+     * A read shed by the Redis concurrency limiter is treated as a cache miss.
      */
     public Mono<ProjectDTO> getProjectFromCache(String id) {
         Validators.requireNonNullOrBlank(id, () -> "project ID should not be null or empty");
@@ -48,8 +84,12 @@ public class ProjectCacheService {
         final String cacheKey = createCacheKey(id);
         logger.info("Fetching project with ID '{}' from cache.", cacheKey);
 
-        return valueOps.get(cacheKey)
+        return redisLimiter.limit(valueOps.get(cacheKey))
                 .doOnTerminate(() -> logger.info("Cache retrieval completed for ID: '{}'", cacheKey))
+                .onErrorResume(ConcurrencyLimitExceededException.class, error -> {
+                    logger.warn("Cache read for ID '{}' shed: {}", cacheKey, error.getMessage());
+                    return Mono.empty();
+                })
                 .switchIfEmpty(Mono.defer(() -> {
                     logger.warn("Project with ID '{}' not found in cache.", cacheKey);
                     return Mono.empty();
@@ -57,7 +97,21 @@ public class ProjectCacheService {
     }
 
     /**
-     * Evicts a project from the cache using its ID.
+     * Retrieves the stale copy of a project, which outlives its regular cache entry.
+     */
+    public Mono<StaleProject> getStaleProject(String id) {
+        Validators.requireNonNullOrBlank(id, () -> "project ID should not be null or empty");
+
+        final String staleCacheKey = createStaleCacheKey(id);
+        return redisLimiter.limit(staleValueOps.get(staleCacheKey))
+                .onErrorResume(error -> {
+                    logger.error("Error reading stale copy of project with ID '{}'", staleCacheKey, error);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Evicts a project from the cache using its ID. Its stale copy is kept.
      */
     public Mono<Boolean> evictCache(String id) {
         Validators.requireNonNullOrBlank(id, () -> "project ID should not be null or empty");
@@ -65,7 +119,7 @@ public class ProjectCacheService {
         final String cacheKey = createCacheKey(id);
         logger.info("Evicting project with ID '{}' from cache.", cacheKey);
 
-        return valueOps.delete(cacheKey)
+        return redisLimiter.limit(valueOps.delete(cacheKey))
                 .doOnTerminate(() -> logger.info("Cache eviction completed for ID '{}'.", cacheKey))
                 .onErrorResume(error -> {
                     logger.error("Error evicting project with ID '{}'", cacheKey, error);
@@ -73,7 +127,27 @@ public class ProjectCacheService {
                 });
     }
 
+    /**
+     * Evicts both the regular entry and the stale copy of a project, for projects that no longer exist or changed.
+     */
+    public Mono<Void> evictAllTiers(String id) {
+        Validators.requireNonNullOrBlank(id, () -> "project ID should not be null or empty");
+
+        final String staleCacheKey = createStaleCacheKey(id);
+        return evictCache(id)
+                .then(redisLimiter.limit(staleValueOps.delete(staleCacheKey)))
+                .onErrorResume(error -> {
+                    logger.error("Error evicting stale copy of project with ID '{}'", staleCacheKey, error);
+                    return Mono.just(false);
+                })
+                .then();
+    }
+
     private String createCacheKey(final String projectId) {
         return "%s:%s".formatted(PROJECT_ID_CACHE_KEY, projectId);
     }
+
+    private String createStaleCacheKey(final String projectId) {
+        return "%s:%s".formatted(STALE_PROJECT_CACHE_KEY, projectId);
+    }
 }
\ No newline at end of file
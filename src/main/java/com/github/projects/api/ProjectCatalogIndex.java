@@ -0,0 +1,317 @@
+package com.github.projects.api;
+
+import com.github.projects.exception.CatalogChangesUnavailableException;
+import com.github.projects.model.ProjectCatalogChange;
+import com.github.projects.model.ProjectDTO;
+import com.github.projects.model.ProjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.github.configuration.CacheConfiguration.PROJECT_CATALOG_CHANNEL;
+import static com.github.configuration.ConcurrencyLimiterConfiguration.CASSANDRA_LIMITER;
+
+/**
+ * In-memory index of the project catalog, ordered by required capital, that serves whole-catalog reads without
+ * scanning Cassandra.
+ *
+ * <p> The index is built by a full scan on first use and tagged with the catalog version it reflects. Catalog writes
+ * are published as {@link ProjectCatalogChange}s on a Redis channel and applied incrementally by every
+ * instance, so a write does not force a rebuild. A read at a catalog version the index has not
+ * reached, for instance because a change was missed, rebuilds it; if the version cannot be read, Cassandra is scanned
+ * directly. Readers that find the index behind at the same version share one rebuilding scan. </p>
+ *
+ * <p> Each version of the index is published as an immutable {@link ProjectCatalogTree}, so a read streams exactly
+ * the catalog at one version while a change derives the next version in {@code O(log n)} per written project. </p>
+ *
+ * <p> The last {@code changelog-size} applied changes are retained, so clients that already hold the catalog at a
+ * recent version can fetch only what changed since. </p>
+ */
+@Component
+public class ProjectCatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectCatalogIndex.class);
+    private static final Duration RESUBSCRIBE_BACKOFF = Duration.ofSeconds(1);
+    private static final long UNBUILT = -1L;
+
+    /**
+     * Order in which the optimizer consumes the catalog; the ID breaks ties so equal capitals are distinct entries.
+     */
+    public static final Comparator<ProjectDTO> BY_REQUIRED_CAPITAL =
+            Comparator.comparing(ProjectDTO::requiredCapital).thenComparing(ProjectDTO::id);
+
+    private final ProjectRepository projectRepository;
+    private final AdaptiveConcurrencyLimiter cassandraLimiter;
+    private final ProjectCatalogVersionService projectCatalogVersionService;
+    private final ReactiveRedisTemplate<String, ProjectCatalogChange> redisTemplate;
+    private final Deque<ProjectCatalogChange> changelog = new ArrayDeque<>();
+    /**
+     * Projects of the current snapshot by ID, to find the entry a change replaces.
+     */
+    private final Map<UUID, ProjectDTO> byId = new HashMap<>();
+    private final int changelogSize;
+    private final Counter rebuilds;
+    private final Counter incrementalUpdates;
+    private final Disposable subscription;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    /**
+     * Oldest version from which {@link #changelog} holds every later change.
+     */
+    private long changelogFrom = UNBUILT;
+    private Rebuild rebuilding;
+
+    public ProjectCatalogIndex(
+            ProjectRepository projectRepository,
+            @Qualifier(CASSANDRA_LIMITER) AdaptiveConcurrencyLimiter cassandraLimiter,
+            ProjectCatalogVersionService projectCatalogVersionService,
+            ReactiveRedisTemplate<String, ProjectCatalogChange> projectCatalogChangeRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${roi.projects.catalog-index.changelog-size}") int changelogSize) {
+        if (changelogSize < 0) {
+            throw new IllegalArgumentException("roi.projects.catalog-index.changelog-size must not be negative");
+        }
+
+        this.projectRepository = projectRepository;
+        this.changelogSize = changelogSize;
+        this.cassandraLimiter = cassandraLimiter;
+        this.projectCatalogVersionService = projectCatalogVersionService;
+        this.redisTemplate = projectCatalogChangeRedisTemplate;
+
+        Gauge.builder("roi.projects.catalog_index.size", this, index -> index.snapshot.projects().size())
+                .description("Projects held by the in-memory catalog index")
+                .register(meterRegistry);
+        this.rebuilds = Counter.builder("roi.projects.catalog_index.rebuilds")
+                .description("Full scans of the catalog that rebuilt the in-memory index")
+                .register(meterRegistry);
+        this.incrementalUpdates = Counter.builder("roi.projects.catalog_index.incremental_updates")
+                .description("Catalog writes applied to the in-memory index without a rebuild")
+                .register(meterRegistry);
+
+        this.subscription = Flux.defer(() -> redisTemplate.listenToChannel(PROJECT_CATALOG_CHANNEL))
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnError(error -> logger.warn("Project catalog subscription failed; resubscribing", error))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, RESUBSCRIBE_BACKOFF))
+                .subscribe(this::apply);
+    }
+
+    /**
+     * Streams the catalog in ascending order of required capital, from the index when it reflects the current
+     * catalog version and from a rebuilding scan otherwise.
+     */
+    public Flux<ProjectDTO> findAll() {
+        return projectCatalogVersionService.currentVersion()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMapMany(currentVersion -> {
+                    if (currentVersion.isEmpty()) {
+                        logger.warn("Catalog version unavailable; scanning the catalog without the index");
+                        return scan().sort(BY_REQUIRED_CAPITAL);
+                    }
+                    Snapshot current = snapshot;
+                    if (currentVersion.get() == current.version()) {
+                        return Flux.fromIterable(current.projects());
+                    }
+                    return rebuild(currentVersion.get());
+                });
+    }
+
+    /**
+     * Returns the net change to the catalog between {@code sinceVersion} and the current version: the latest state of
+     * every project written since, and the IDs of projects deleted since. Served from memory only.
+     *
+     * @throws CatalogChangesUnavailableException if the changes since {@code sinceVersion} are no longer retained, or
+     *                                            the index does not reflect the current catalog version.
+     */
+    public Mono<ProjectCatalogChange> changesSince(long sinceVersion) {
+        return projectCatalogVersionService.currentVersion()
+                .switchIfEmpty(Mono.error(() -> new CatalogChangesUnavailableException("Catalog version unavailable.")))
+                .map(currentVersion -> {
+                    if (sinceVersion == currentVersion) {
+                        return new ProjectCatalogChange(currentVersion, List.of(), List.of());
+                    }
+                    return collectChanges(sinceVersion, currentVersion);
+                });
+    }
+
+    private synchronized ProjectCatalogChange collectChanges(long sinceVersion, long currentVersion) {
+        long version = snapshot.version();
+        if (version != currentVersion || sinceVersion < changelogFrom || sinceVersion > version) {
+            throw new CatalogChangesUnavailableException(
+                    "Changes since catalog version %d are unavailable; reload the catalog.".formatted(sinceVersion));
+        }
+
+        Map<UUID, ProjectDTO> upserted = new LinkedHashMap<>();
+        Set<UUID> deleted = new LinkedHashSet<>();
+        for (ProjectCatalogChange change : changelog) {
+            if (change.version() <= sinceVersion) {
+                continue;
+            }
+            change.deleted().forEach(projectId -> {
+                upserted.remove(projectId);
+                deleted.add(projectId);
+            });
+            change.upserted().forEach(project -> {
+                deleted.remove(project.id());
+                upserted.put(project.id(), project);
+            });
+        }
+        return new ProjectCatalogChange(version, List.copyOf(upserted.values()), List.copyOf(deleted));
+    }
+
+    /**
+     * Applies a catalog write locally and publishes it to the other instances. Publishing is best effort: an instance
+     * that misses the change rebuilds its index on its next read at the new catalog version.
+     */
+    public Mono<Void> publish(ProjectCatalogChange change) {
+        return Mono.fromRunnable(() -> apply(change))
+                .then(redisTemplate.convertAndSend(PROJECT_CATALOG_CHANNEL, change)
+                        .doOnError(error -> logger.error("Error publishing project catalog change {}", change.version(), error))
+                        .onErrorResume(error -> Mono.empty()))
+                .then();
+    }
+
+    /**
+     * Applies the next change in version order incrementally. Changes the index has already seen are ignored, and a
+     * gap in versions discards the index, since the missing changes cannot be recovered.
+     */
+    synchronized void apply(ProjectCatalogChange change) {
+        long version = snapshot.version();
+        if (version == UNBUILT || (change.version() != null && change.version() <= version)) {
+            return;
+        }
+        if (change.version() == null || change.version() != version + 1) {
+            logger.info("Discarding catalog index at version {} after change {}", version, change.version());
+            clear();
+            return;
+        }
+
+        ProjectCatalogTree projects = snapshot.projects();
+        for (UUID projectId : change.deleted()) {
+            ProjectDTO deleted = byId.remove(projectId);
+            if (deleted != null) {
+                projects = projects.without(deleted);
+            }
+        }
+        for (ProjectDTO project : change.upserted()) {
+            ProjectDTO replaced = byId.put(project.id(), project);
+            if (replaced != null) {
+                projects = projects.without(replaced);
+            }
+            projects = projects.with(project);
+        }
+        snapshot = new Snapshot(change.version(), projects);
+        record(change);
+        incrementalUpdates.increment();
+    }
+
+    private void record(ProjectCatalogChange change) {
+        changelog.addLast(change);
+        while (changelog.size() > changelogSize) {
+            changelogFrom = changelog.removeFirst().version();
+        }
+    }
+
+    /**
+     * Scans the catalog and installs it as the index at {@code targetVersion}, unless the index has moved past it in
+     * the meantime. The version is read before the scan, so writes racing the scan are at worst re-applied.
+     *
+     * <p> Concurrent reads at the same version share the scan of the first one instead of each starting their own. </p>
+     */
+    private Flux<ProjectDTO> rebuild(long targetVersion) {
+        return sharedRebuild(targetVersion).flatMapIterable(sorted -> sorted);
+    }
+
+    private synchronized Mono<List<ProjectDTO>> sharedRebuild(long targetVersion) {
+        if (rebuilding != null && rebuilding.version() == targetVersion) {
+            return rebuilding.projects();
+        }
+
+        Mono<List<ProjectDTO>> projects = scan()
+                .collectList()
+                .map(scanned -> {
+                    List<ProjectDTO> sorted = new ArrayList<>(scanned);
+                    sorted.sort(BY_REQUIRED_CAPITAL);
+                    install(sorted, targetVersion);
+                    return Collections.unmodifiableList(sorted);
+                })
+                .doFinally(signal -> finishRebuild(targetVersion))
+                .cache();
+        rebuilding = new Rebuild(targetVersion, projects);
+        return projects;
+    }
+
+    private synchronized void finishRebuild(long targetVersion) {
+        if (rebuilding != null && rebuilding.version() == targetVersion) {
+            rebuilding = null;
+        }
+    }
+
+    private synchronized void install(List<ProjectDTO> projects, long targetVersion) {
+        if (targetVersion <= snapshot.version()) {
+            return;
+        }
+
+        clear();
+        projects.forEach(project -> byId.put(project.id(), project));
+        snapshot = new Snapshot(targetVersion, ProjectCatalogTree.of(projects));
+        changelogFrom = targetVersion;
+        rebuilds.increment();
+        logger.info("Rebuilt catalog index with {} projects at version {}", projects.size(), targetVersion);
+    }
+
+    private void clear() {
+        snapshot = Snapshot.EMPTY;
+        byId.clear();
+        changelog.clear();
+        changelogFrom = UNBUILT;
+    }
+
+    private Flux<ProjectDTO> scan() {
+        return cassandraLimiter.limit(projectRepository.findAllProjects());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscription.dispose();
+    }
+
+    /**
+     * The catalog at {@code version}, in ascending order of required capital.
+     */
+    private record Snapshot(long version, ProjectCatalogTree projects) {
+        static final Snapshot EMPTY = new Snapshot(UNBUILT, ProjectCatalogTree.EMPTY);
+    }
+
+    /**
+     * A scan rebuilding the index at {@code version}, cached for the reads that share it.
+     */
+    private record Rebuild(long version, Mono<List<ProjectDTO>> projects) {
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.projects.api;
+
+import com.github.projects.model.ProjectDTO;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.projects.api.ProjectCatalogIndex.BY_REQUIRED_CAPITAL;
+
+/**
+ * Immutable set of projects in {@link ProjectCatalogIndex#BY_REQUIRED_CAPITAL} order, held in a persistent treap.
+ *
+ * <p> Adding or removing a project copies only the nodes on its path, expected {@code O(log n)}, and shares the rest
+ * with the previous tree, so every version stays readable while later ones are derived from it. </p>
+ */
+final class ProjectCatalogTree implements Iterable<ProjectDTO> {
+    static final ProjectCatalogTree EMPTY = new ProjectCatalogTree(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private ProjectCatalogTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Builds a balanced tree from projects already in order, in {@code O(n log n)} for drawing the priorities.
+     */
+    static ProjectCatalogTree of(List<ProjectDTO> sorted) {
+        int size = sorted.size();
+        int[] priorities = ThreadLocalRandom.current().ints(size).sorted().toArray();
+
+        // Hand out the priorities breadth-first over the balanced shape, highest first, so parents outrank children
+        int[] byPosition = new int[size];
+        Deque<int[]> ranges = new ArrayDeque<>();
+        if (size > 0) {
+            ranges.add(new int[]{0, size});
+        }
+        int next = size - 1;
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int middle = (range[0] + range[1]) >>> 1;
+            byPosition[middle] = priorities[next--];
+            if (range[0] < middle) {
+                ranges.add(new int[]{range[0], middle});
+            }
+            if (middle + 1 < range[1]) {
+                ranges.add(new int[]{middle + 1, range[1]});
+            }
+        }
+        return new ProjectCatalogTree(build(sorted, byPosition, 0, size), size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a tree that also holds {@code project}, which must not be in this one.
+     */
+    ProjectCatalogTree with(ProjectDTO project) {
+        var leaf = new Node(project, ThreadLocalRandom.current().nextInt(), null, null);
+        return new ProjectCatalogTree(insert(root, leaf), size + 1);
+    }
+
+    /**
+     * Returns a tree without {@code project}, or this one if it does not hold it.
+     */
+    ProjectCatalogTree without(ProjectDTO project) {
+        Node removed = remove(root, project);
+        return removed == root ? this : new ProjectCatalogTree(removed, size - 1);
+    }
+
+    /**
+     * Iterates in order over the projects; the tree never changes, so iteration needs no locking.
+     */
+    @Override
+    public Iterator<ProjectDTO> iterator() {
+        return new InOrder(root);
+    }
+
+    private static Node build(List<ProjectDTO> sorted, int[] priorities, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node(sorted.get(middle), priorities[middle],
+                build(sorted, priorities, from, middle), build(sorted, priorities, middle + 1, to));
+    }
+
+    private static Node insert(Node node, Node leaf) {
+        if (node == null) {
+            return leaf;
+        }
+        if (leaf.priority > node.priority) {
+            Node[] halves = split(node, leaf.project);
+            return new Node(leaf.project, leaf.priority, halves[0], halves[1]);
+        }
+        return BY_REQUIRED_CAPITAL.compare(leaf.project, node.project) < 0
+                ? node.withLeft(insert(node.left, leaf))
+                : node.withRight(insert(node.right, leaf));
+    }
+
+    /**
+     * Splits {@code node} into the projects ordered before {@code key} and the others.
+     */
+    private static Node[] split(Node node, ProjectDTO key) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (BY_REQUIRED_CAPITAL.compare(node.project, key) < 0) {
+            Node[] halves = split(node.right, key);
+            return new Node[]{node.withRight(halves[0]), halves[1]};
+        }
+        Node[] halves = split(node.left, key);
+        return new Node[]{halves[0], node.withLeft(halves[1])};
+    }
+
+    private static Node remove(Node node, ProjectDTO key) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = BY_REQUIRED_CAPITAL.compare(key, node.project);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            Node left = remove(node.left, key);
+            return left == node.left ? node : node.withLeft(left);
+        }
+        Node right = remove(node.right, key);
+        return right == node.right ? node : node.withRight(right);
+    }
+
+    /**
+     * Joins two trees, every project of {@code before} being ordered before those of {@code after}.
+     */
+    private static Node merge(Node before, Node after) {
+        if (before == null) {
+            return after;
+        }
+        if (after == null) {
+            return before;
+        }
+        return before.priority >= after.priority
+                ? before.withRight(merge(before.right, after))
+                : after.withLeft(merge(before, after.left));
+    }
+
+    private record Node(ProjectDTO project, int priority, Node left, Node right) {
+
+        Node withLeft(Node newLeft) {
+            return new Node(project, priority, newLeft, right);
+        }
+
+        Node withRight(Node newRight) {
+            return new Node(project, priority, left, newRight);
+        }
+    }
+
+    private static final class InOrder implements Iterator<ProjectDTO> {
+        private final Deque<Node> path = new ArrayDeque<>();
+
+        private InOrder(Node root) {
+            descendLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public ProjectDTO next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = path.pop();
+            descendLeft(node.right());
+            return node.project();
+        }
+
+        private void descendLeft(Node node) {
+            for (; node != null; node = node.left()) {
+                path.push(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.projects.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import static com.github.configuration.CacheConfiguration.PROJECT_CATALOG_VERSION_KEY;
+
+/**
+ * Tracks the version of the project catalog, a counter shared by all instances through Redis and incremented after
+ * every write to the catalog. Results derived from the whole catalog can be keyed by this version, since two reads at
+ * the same version see the same projects.
+ */
+@Service
+public class ProjectCatalogVersionService {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectCatalogVersionService.class);
+    private static final long INITIAL_VERSION = 0L;
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public ProjectCatalogVersionService(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Returns the current catalog version, or an empty {@code Mono} if it cannot be read.
+     */
+    public Mono<Long> currentVersion() {
+        return redisTemplate.opsForValue().get(PROJECT_CATALOG_VERSION_KEY)
+                .map(Long::parseLong)
+                .defaultIfEmpty(INITIAL_VERSION)
+                .onErrorResume(error -> {
+                    logger.warn("Unable to read the project catalog version", error);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Increments the catalog version after a write. Failures are logged and swallowed, since the write itself has
+     * already succeeded.
+     */
+    public Mono<Long> increment() {
+        return redisTemplate.opsForValue().increment(PROJECT_CATALOG_VERSION_KEY)
+                .doOnNext(version -> logger.info("Project catalog version incremented to {}", version))
+                .onErrorResume(error -> {
+                    logger.error("Unable to increment the project catalog version", error);
+                    return Mono.empty();
+                });
+    }
+}
@@ -2,36 +2,93 @@ package com.github.projects.api;
 
 import com.github.projects.exception.InvalidProjectException;
 import com.github.projects.exception.ProjectNotFoundException;
+import com.github.projects.exception.ProjectVersionConflictException;
+import com.github.projects.model.ProjectCatalogChange;
 import com.github.projects.model.ProjectDTO;
 import com.github.projects.model.ProjectEntity;
 import com.github.projects.model.ProjectRepository;
+import com.github.projects.model.StaleProject;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.StreamSupport;
 
+import static com.github.configuration.ConcurrencyLimiterConfiguration.CASSANDRA_LIMITER;
+
 @Service
 public class ProjectService {
     private static final Logger logger = LoggerFactory.getLogger(ProjectService.class);
     private static final String PROJECTS_RESILIENCE_CONFIG_NAME = "projects";
+    private static final int CACHE_PENDING = 0;
+    private static final int CACHE_MISSED = 1;
+    private static final int HEDGED = 2;
 
     private final ProjectRepository projectRepository;
     private final ProjectCacheService projectCacheService;
+    private final ProjectBatchLoader projectBatchLoader;
+    private final ProjectCatalogVersionService projectCatalogVersionService;
+    private final ProjectCatalogIndex projectCatalogIndex;
+    private final AdaptiveConcurrencyLimiter cassandraLimiter;
+    private final HedgedReadPolicy hedgedReadPolicy;
+    private final io.github.resilience4j.circuitbreaker.CircuitBreaker projectsCircuitBreaker;
+    private final Counter staleServedOnTimeout;
+    private final Counter staleServedOnCircuitOpen;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
 
-    public ProjectService(ProjectRepository projectRepository, ProjectCacheService projectCacheService) {
+    public ProjectService(
+            ProjectRepository projectRepository,
+            ProjectCacheService projectCacheService,
+            ProjectBatchLoader projectBatchLoader,
+            ProjectCatalogVersionService projectCatalogVersionService,
+            ProjectCatalogIndex projectCatalogIndex,
+            @Qualifier(CASSANDRA_LIMITER) AdaptiveConcurrencyLimiter cassandraLimiter,
+            HedgedReadPolicy hedgedReadPolicy,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            MeterRegistry meterRegistry) {
         this.projectRepository = projectRepository;
         this.projectCacheService = projectCacheService;
+        this.projectBatchLoader = projectBatchLoader;
+        this.projectCatalogVersionService = projectCatalogVersionService;
+        this.projectCatalogIndex = projectCatalogIndex;
+        this.cassandraLimiter = cassandraLimiter;
+        this.hedgedReadPolicy = hedgedReadPolicy;
+        this.projectsCircuitBreaker = circuitBreakerRegistry.circuitBreaker(PROJECTS_RESILIENCE_CONFIG_NAME);
+        this.staleServedOnTimeout = staleServedCounter(meterRegistry, "timeout");
+        this.staleServedOnCircuitOpen = staleServedCounter(meterRegistry, "circuit_open");
+    }
+
+    private static Counter staleServedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("roi.projects.cache.stale_served")
+                .description("Point reads answered from the stale tier of the project cache")
+                .tag("reason", reason)
+                .register(meterRegistry);
     }
 
     /**
      * Lazily and asynchronously saves a collection of projects to the repository, ensuring that the input is valid.
+     * Once the projects are saved, the catalog version is incremented and the change is published to the catalog index.
      */
     public Flux<ProjectDTO> addAll(final Iterable<ProjectEntity> projects) {
         return Flux.defer(() -> {
@@ -45,41 +102,224 @@ public class ProjectService {
                 return Flux.error(new InvalidProjectException("Project collection must not be empty or contain null elements."));
             }
 
-            return projectRepository.saveAll(projectList).map(ProjectDTO::fromEntity);
+            return cassandraLimiter.limit(projectRepository.saveAll(projectList))
+                    .map(ProjectDTO::fromEntity)
+                    .collectList()
+                    .flatMapMany(saved -> recordCatalogChange(version -> ProjectCatalogChange.upserted(version, saved))
+                            .thenMany(Flux.fromIterable(saved)));
+        });
+    }
+
+    /**
+     * Applies the non-null fields of the request to a project, provided {@code request.version()} is still the
+     * project's current version. Cassandra re-checks the version in a lightweight transaction, so a concurrent update
+     * between the read and the write is also rejected. On success, both cache tiers are evicted, so that not even a
+     * stale read serves the previous version, and the change is published to the catalog index.
+     *
+     * @throws ProjectNotFoundException         if the project does not exist.
+     * @throws ProjectVersionConflictException if the project was changed since the given version.
+     */
+    public Mono<ProjectDTO> update(final String id, final UpdateProjectRequest request) {
+        return Mono.defer(() -> {
+            final UUID projectId = parseProjectId(id);
+
+            return findCurrentVersion(projectId, request.version())
+                    .map(current -> new ProjectEntity(
+                            current.id(),
+                            request.name() != null ? request.name() : current.name(),
+                            request.requiredCapital() != null ? request.requiredCapital() : current.requiredCapital(),
+                            request.profit() != null ? request.profit() : current.profit(),
+                            current.auditMetadata(),
+                            current.version()))
+                    .flatMap(entity -> cassandraLimiter.limit(projectRepository.save(entity)))
+                    .onErrorMap(OptimisticLockingFailureException.class, e -> versionConflict(id, request.version(), e))
+                    .map(ProjectDTO::fromEntity)
+                    .flatMap(updated -> projectCacheService.evictAllTiers(id)
+                            .then(recordCatalogChange(version -> ProjectCatalogChange.upserted(version, List.of(updated))))
+                            .thenReturn(updated));
         });
     }
 
+    /**
+     * Deletes a project, provided {@code expectedVersion} is still its current version. On success, both cache tiers
+     * are evicted and the change is published to the catalog index.
+     *
+     * @throws ProjectNotFoundException         if the project does not exist.
+     * @throws ProjectVersionConflictException if the project was changed since the given version.
+     */
+    public Mono<Void> delete(final String id, final long expectedVersion) {
+        return Mono.defer(() -> {
+            final UUID projectId = parseProjectId(id);
+
+            return findCurrentVersion(projectId, expectedVersion)
+                    .flatMap(current -> cassandraLimiter.limit(projectRepository.delete(new ProjectEntity(current.id(),
+                            current.name(), current.requiredCapital(), current.profit(), current.auditMetadata(),
+                            current.version()))))
+                    .onErrorMap(OptimisticLockingFailureException.class, e -> versionConflict(id, expectedVersion, e))
+                    .then(Mono.defer(() -> projectCacheService.evictAllTiers(id)))
+                    .then(Mono.defer(() -> recordCatalogChange(version -> ProjectCatalogChange.deleted(version, projectId))));
+        });
+    }
+
+    private Mono<ProjectDTO> findCurrentVersion(final UUID projectId, final long expectedVersion) {
+        return cassandraLimiter.limit(projectRepository.findAllProjectsById(List.of(projectId)).next())
+                .switchIfEmpty(Mono.error(new ProjectNotFoundException("Project not found for ID: %s".formatted(projectId))))
+                .flatMap(current -> current.version() == expectedVersion
+                        ? Mono.just(current)
+                        : Mono.error(versionConflict(projectId.toString(), expectedVersion, null)));
+    }
+
+    /**
+     * Increments the catalog version and publishes the change made at that version to the catalog index.
+     */
+    private Mono<Void> recordCatalogChange(final Function<Long, ProjectCatalogChange> change) {
+        return projectCatalogVersionService.increment()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(version -> projectCatalogIndex.publish(change.apply(version.orElse(null))));
+    }
+
+    private static UUID parseProjectId(final String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ProjectNotFoundException("Project not found for ID: %s".formatted(id), e);
+        }
+    }
+
+    private static ProjectVersionConflictException versionConflict(String id, long expectedVersion, Throwable cause) {
+        return new ProjectVersionConflictException(
+                "Project %s was modified concurrently; version %d is no longer current.".formatted(id, expectedVersion), cause);
+    }
+
     /**
      * Retrieves a project by ID with caching and resilience mechanisms.
+     * Cache misses are coalesced with concurrent misses into batched reads by {@link ProjectBatchLoader}.
+     * With hedging enabled, a cache read slower than the {@link HedgedReadPolicy} delay races a database read, and
+     * whichever answers first wins while the other is cancelled.
      * Falls back to cache on timeouts or circuit breaker activation.
      */
     @TimeLimiter(name = PROJECTS_RESILIENCE_CONFIG_NAME, fallbackMethod = "findByIdTimeoutFallback")
     @CircuitBreaker(name = PROJECTS_RESILIENCE_CONFIG_NAME, fallbackMethod = "findByIdCircuitBreakerFallback")
     public Mono<ProjectDTO> findById(final String id) {
-        return projectCacheService.getProjectFromCache(id)
-                .switchIfEmpty(
-                        Mono.defer(() -> projectRepository.findById(id)
-                                .switchIfEmpty(Mono.error(new ProjectNotFoundException("Project not found for ID: %s".formatted(id))))
-                                .map(ProjectDTO::fromEntity)
-                                .flatMap(project -> projectCacheService.cacheProject(id, project).thenReturn(project))
-                        )
-                );
+        if (!hedgedReadPolicy.isEnabled()) {
+            return projectCacheService.getProjectFromCache(id).switchIfEmpty(Mono.defer(() -> loadAndCache(id)));
+        }
+
+        return Mono.defer(() -> {
+            // Whichever of a cache miss and the hedge happens first reads the database, so a miss never reads it twice
+            final var state = new AtomicInteger(CACHE_PENDING);
+            final Duration hedgeDelay = hedgedReadPolicy.hedgeDelay();
+            final long startedAt = System.nanoTime();
+
+            // A cache read cancelled by a winning hedge took at least the hedge delay; leaving it out would skew the
+            // delay towards the reads fast enough to finish
+            Mono<ProjectDTO> cacheThenDatabase = projectCacheService.getProjectFromCache(id)
+                    .doFinally(signal -> {
+                        long elapsed = System.nanoTime() - startedAt;
+                        hedgedReadPolicy.recordCacheLatency(signal == SignalType.CANCEL
+                                ? Math.max(elapsed, hedgeDelay.toNanos())
+                                : elapsed);
+                    })
+                    .switchIfEmpty(Mono.defer(() -> state.compareAndSet(CACHE_PENDING, CACHE_MISSED)
+                            ? loadAndCache(id)
+                            : Mono.never()));
+
+            Mono<ProjectDTO> hedge = Mono.delay(hedgeDelay)
+                    .filter(tick -> state.get() == CACHE_PENDING
+                            && hedgedReadPolicy.tryHedge()
+                            && state.compareAndSet(CACHE_PENDING, HEDGED))
+                    .doOnNext(tick -> logger.debug("Cache read for project {} is slow, hedging with a database read", id))
+                    .flatMap(tick -> loadAndCache(id))
+                    .switchIfEmpty(Mono.never());
+
+            return Mono.firstWithSignal(cacheThenDatabase, hedge);
+        });
     }
 
-    private Mono<ProjectDTO> findByIdTimeoutFallback(String id, TimeoutException e) {
+    private Mono<ProjectDTO> loadAndCache(final String id) {
+        return projectBatchLoader.load(id)
+                .switchIfEmpty(Mono.error(new ProjectNotFoundException("Project not found for ID: %s".formatted(id))))
+                .flatMap(project -> projectCacheService.cacheProject(id, project).thenReturn(project));
+    }
+
+    Mono<ProjectDTO> findByIdTimeoutFallback(String id, TimeoutException e) {
         logger.info("Project findById request timed out after 2 seconds. Checking cache for record as fallback.", e);
-        return projectCacheService.getProjectFromCache(id).switchIfEmpty(Mono.empty());
+        return projectCacheService.getProjectFromCache(id).switchIfEmpty(serveStale(id, staleServedOnTimeout));
     }
 
-    private Mono<ProjectDTO> findByIdCircuitBreakerFallback(String id, CallNotPermittedException e) {
+    Mono<ProjectDTO> findByIdCircuitBreakerFallback(String id, CallNotPermittedException e) {
         logger.info("Project findById encountered an error. Checking cache for record as fallback.", e);
-        return projectCacheService.getProjectFromCache(id).switchIfEmpty(Mono.empty());
+        return projectCacheService.getProjectFromCache(id).switchIfEmpty(serveStale(id, staleServedOnCircuitOpen));
+    }
+
+    /**
+     * Answers from the stale tier, marking the request's {@link StaleResponse} and refreshing the entry in the
+     * background so later reads are fresh again.
+     */
+    private Mono<ProjectDTO> serveStale(String id, Counter staleServed) {
+        return Mono.deferContextual(context -> projectCacheService.getStaleProject(id)
+                .doOnNext(stale -> {
+                    logger.info("Serving stale copy of project {} cached at {}", id, stale.cachedAt());
+                    staleServed.increment();
+                    context.<StaleResponse>getOrEmpty(StaleResponse.class).ifPresent(response -> response.markStale(stale.cachedAt()));
+                    revalidate(id);
+                })
+                .map(StaleProject::project));
+    }
+
+    /**
+     * Reloads a project into both cache tiers, at most once at a time per project. The reload goes through the
+     * {@code projects} circuit breaker like any other read, so none reaches the database while it is open.
+     */
+    private void revalidate(String id) {
+        if (!revalidating.add(id)) {
+            return;
+        }
+
+        projectBatchLoader.load(id)
+                .transformDeferred(CircuitBreakerOperator.of(projectsCircuitBreaker))
+                .flatMap(project -> projectCacheService.cacheProject(id, project))
+                .doFinally(signal -> revalidating.remove(id))
+                .subscribe(
+                        cached -> logger.debug("Revalidated stale copy of project {}", id),
+                        error -> {
+                            if (error instanceof CallNotPermittedException) {
+                                logger.debug("Skipped revalidation of project {} while the circuit breaker is open", id);
+                            } else {
+                                logger.warn("Revalidation of project {} failed: {}", id, error.getMessage());
+                            }
+                        });
     }
 
     /**
-     * Retrieves all projects from the repository as a reactive stream.
+     * Retrieves all projects as a reactive stream, in ascending order of required capital.
+     * Served by the {@link ProjectCatalogIndex}, which only scans Cassandra when it is behind the catalog version.
      */
     public Flux<ProjectDTO> findAll() {
-        return projectRepository.findAll().map(ProjectDTO::fromEntity);
+        return projectCatalogIndex.findAll();
+    }
+
+    /**
+     * Streams all projects straight from Cassandra in storage order, bypassing the {@link ProjectCatalogIndex}, for
+     * readers that must not hold the whole catalog on the heap. The scan holds a Cassandra concurrency slot until it
+     * completes.
+     */
+    public Flux<ProjectDTO> scanAll() {
+        return cassandraLimiter.limit(projectRepository.findAllProjects());
+    }
+
+    /**
+     * Returns the current catalog version, or an empty {@code Mono} if it cannot be read.
+     */
+    public Mono<Long> catalogVersion() {
+        return projectCatalogVersionService.currentVersion();
+    }
+
+    /**
+     * Retrieves the net change to the catalog since {@code version}, from the {@link ProjectCatalogIndex}'s changelog.
+     */
+    public Mono<ProjectCatalogChange> findChangesSince(final long version) {
+        return projectCatalogIndex.changesSince(version);
     }
 }
\ No newline at end of file
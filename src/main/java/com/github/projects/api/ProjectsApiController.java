@@ -1,23 +1,35 @@
 package com.github.projects.api;
 
 import com.github.projects.exception.TooManyProjectsException;
+import com.github.projects.model.ProjectCatalogChange;
 import com.github.projects.model.ProjectDTO;
 import com.github.projects.model.ProjectEntity;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(value = "/api/v1/projects")
 public class ProjectsApiController {
     private static final Logger logger = LoggerFactory.getLogger(ProjectsApiController.class);
     private static final int PROJECT_CREATION_LIMIT = 100;
+    /**
+     * Set to {@code STALE} when a project is served from the stale tier of the cache, together with {@code Age}.
+     */
+    public static final String CACHE_STATUS_HEADER = "X-Cache-Status";
 
     private final ProjectService projectService;
 
@@ -61,34 +73,111 @@ public class ProjectsApiController {
                 });
     }
 
+    /**
+     * Lists the whole catalog, tagged with the catalog version as its {@code ETag}. A request whose
+     * {@code If-None-Match} names the current version is answered with {@code 304 Not Modified} without reading the
+     * catalog. The version is read before the catalog, so a write racing the read yields an older tag and at worst an
+     * extra download on the next poll.
+     */
     // TODO: Implement pagination to avoid loading large datasets entirely into memory and improve scalability.
     @GetMapping
-    public Mono<ApiResponse<List<ProjectDTO>>> listAllProjects() {
+    public Mono<ResponseEntity<ApiResponse<List<ProjectDTO>>>> listAllProjects(ServerWebExchange exchange) {
         logger.info("Fetching all projects from the database...");
 
-        return projectService.findAll()
-                .collectList()
-                .doOnTerminate(() -> logger.info("Completed fetching all projects."))
-                .map(projects -> {
-                    logger.debug("Returning {} projects.", projects.size());
-                    return ApiResponse.success(HttpStatus.OK.value(), projects);
+        return projectService.catalogVersion()
+                .map(ProjectsApiController::catalogEtag)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(etag -> {
+                    if (etag.isPresent() && exchange.checkNotModified(etag.get())) {
+                        logger.debug("Catalog unchanged at {}; not modified.", etag.get());
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(etag.get())
+                                .<ApiResponse<List<ProjectDTO>>>build());
+                    }
+
+                    return projectService.findAll()
+                            .collectList()
+                            .doOnTerminate(() -> logger.info("Completed fetching all projects."))
+                            .map(projects -> {
+                                logger.debug("Returning {} projects.", projects.size());
+                                var response = ResponseEntity.ok();
+                                etag.ifPresent(response::eTag);
+                                return response.body(ApiResponse.success(HttpStatus.OK.value(), projects));
+                            });
                 })
                 .doOnError(error -> logger.error("Error fetching all projects", error));
     }
 
+    /**
+     * Lists the projects written and the IDs of projects deleted since catalog version {@code since}, tagged with the
+     * current catalog version. Answered with {@code 410 Gone} when those changes are no longer known, in which case the
+     * client reloads the whole catalog.
+     */
+    @GetMapping(value = "/changes")
+    public Mono<ResponseEntity<ApiResponse<ProjectCatalogChange>>> listProjectChanges(@RequestParam long since) {
+        logger.info("Fetching project changes since catalog version {}", since);
+
+        return projectService.findChangesSince(since)
+                .map(change -> {
+                    logger.debug("Returning {} upserted and {} deleted projects up to catalog version {}.",
+                            change.upserted().size(), change.deleted().size(), change.version());
+                    return ResponseEntity.ok()
+                            .eTag(catalogEtag(change.version()))
+                            .body(ApiResponse.success(HttpStatus.OK.value(), change));
+                })
+                .doOnError(error -> logger.error("Error fetching project changes since version {}", since, error));
+    }
+
+    private static String catalogEtag(long version) {
+        return "\"catalog-%d\"".formatted(version);
+    }
+
     @GetMapping(value = "/{id}")
-    public Mono<ApiResponse<ProjectDTO>> listProjectById(@PathVariable String id) {
+    public Mono<ApiResponse<ProjectDTO>> listProjectById(@PathVariable String id, ServerHttpResponse response) {
         logger.info("Fetching project with ID: {}", id);
 
+        final var staleResponse = new StaleResponse();
         return projectService.findById(id)
                 .map(project -> {
                     logger.debug("Found project with ID: {}", id);
+                    staleResponse.cachedAt().ifPresent(cachedAt -> {
+                        response.getHeaders().set(CACHE_STATUS_HEADER, "STALE");
+                        response.getHeaders().set(HttpHeaders.AGE,
+                                String.valueOf(Math.max(0, Duration.between(cachedAt, Instant.now()).toSeconds())));
+                    });
                     return ApiResponse.success(HttpStatus.OK.value(), project);
                 })
                 .switchIfEmpty(Mono.defer(() -> {
                     logger.warn("Project with ID '{}' not found.", id);
                     return Mono.just(ApiResponse.error(HttpStatus.NOT_FOUND.value(), "Project not found for ID: %s".formatted(id)));
                 }))
-                .doOnError(error -> logger.error("Error fetching project with ID '{}'", id, error));
+                .doOnError(error -> logger.error("Error fetching project with ID '{}'", id, error))
+                .contextWrite(context -> context.put(StaleResponse.class, staleResponse));
+    }
+
+    /**
+     * Partially updates a project; the request's version must be the project's current version.
+     */
+    @PatchMapping(value = "/{id}")
+    public Mono<ApiResponse<ProjectDTO>> updateProject(
+            @PathVariable String id, @Valid @RequestBody UpdateProjectRequest request) {
+        logger.info("Updating project with ID: {} at version {}", id, request.version());
+
+        return projectService.update(id, request)
+                .map(project -> ApiResponse.success(HttpStatus.OK.value(), project))
+                .doOnError(error -> logger.error("Error updating project with ID '{}'", id, error));
+    }
+
+    /**
+     * Deletes a project; {@code version} must be the project's current version.
+     */
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @DeleteMapping(value = "/{id}")
+    public Mono<Void> deleteProject(@PathVariable String id, @RequestParam long version) {
+        logger.info("Deleting project with ID: {} at version {}", id, version);
+
+        return projectService.delete(id, version)
+                .doOnError(error -> logger.error("Error deleting project with ID '{}'", id, error));
     }
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package com.github.projects.api;
 
+import com.github.analytics.exception.CapitalMaximizationJobNotFoundException;
+import com.github.analytics.exception.InvalidCapitalMaximizationQueryException;
+import com.github.analytics.exception.OptimizationCapacityExceededException;
+import com.github.projects.exception.CatalogChangesUnavailableException;
+import com.github.projects.exception.ConcurrencyLimitExceededException;
 import com.github.projects.exception.ProjectNotFoundException;
+import com.github.projects.exception.ProjectVersionConflictException;
 import com.github.projects.exception.TooManyProjectsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -45,6 +52,43 @@ public class ProjectsApiExceptionHandler {
         return Mono.just(ResponseEntity.badRequest().body(response));
     }
 
+    /**
+     * Handles invalid capital maximization queries, such as a malformed request timeout.
+     */
+    @ExceptionHandler(InvalidCapitalMaximizationQueryException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleInvalidCapitalMaximizationQueryException(
+            InvalidCapitalMaximizationQueryException e) {
+        var response = ApiResponse.<String>error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        return Mono.just(ResponseEntity.badRequest().body(response));
+    }
+
+    /**
+     * Handles optimizations rejected because the optimization executor is saturated.
+     */
+    @ExceptionHandler(OptimizationCapacityExceededException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleOptimizationCapacityExceededException(
+            OptimizationCapacityExceededException e) {
+        var response = ApiResponse.<String>error(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response));
+    }
+
+    /**
+     * Handles calls shed because a backing store is at its adaptive concurrency limit.
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleConcurrencyLimitExceededException(
+            ConcurrencyLimitExceededException e) {
+        var response = ApiResponse.<String>error(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response));
+    }
+
     /**
      * Handles exceptions when a project with the given ID is not found.
      */
@@ -55,6 +99,38 @@ public class ProjectsApiExceptionHandler {
         return Mono.just(ResponseEntity.badRequest().body(response));
     }
 
+    /**
+     * Handles updates and deletes made against a version that is no longer current.
+     */
+    @ExceptionHandler(ProjectVersionConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleProjectVersionConflictException(ProjectVersionConflictException e) {
+        var response = ApiResponse.<String>error(HttpStatus.CONFLICT.value(), e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(response));
+    }
+
+    /**
+     * Handles delta requests for catalog versions whose changes are no longer known; the client reloads the catalog.
+     */
+    @ExceptionHandler(CatalogChangesUnavailableException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleCatalogChangesUnavailableException(
+            CatalogChangesUnavailableException e) {
+        var response = ApiResponse.<String>error(HttpStatus.GONE.value(), e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.GONE).body(response));
+    }
+
+    /**
+     * Handles exceptions when no result is available for a capital maximization job.
+     */
+    @ExceptionHandler(CapitalMaximizationJobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public Mono<ResponseEntity<ApiResponse<String>>> handleCapitalMaximizationJobNotFoundException(
+            CapitalMaximizationJobNotFoundException e) {
+        var response = ApiResponse.<String>error(HttpStatus.NOT_FOUND.value(), e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(response));
+    }
+
     /**
      * Handles unexpected system errors by logging and returning a structured response.
      */
@@ -0,0 +1,25 @@
+package com.github.projects.api;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Marks a response as served from the stale tier of the project cache.
+ *
+ * <p> The controller puts one in the Reactor context of a request; the {@code findById} fallbacks mark it when they
+ * answer with a stale copy, and the controller turns it into response headers. </p>
+ */
+public final class StaleResponse {
+    private volatile Instant cachedAt;
+
+    void markStale(Instant cachedAt) {
+        this.cachedAt = cachedAt;
+    }
+
+    /**
+     * When the stale copy was cached, or empty if the response is fresh.
+     */
+    public Optional<Instant> cachedAt() {
+        return Optional.ofNullable(cachedAt);
+    }
+}
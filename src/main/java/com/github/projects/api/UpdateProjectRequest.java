@@ -0,0 +1,28 @@
+package com.github.projects.api;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+/**
+ * Data transfer object (DTO) for partially updating a project.
+ * Fields left null keep their current value; the version must match the project's current version.
+ */
+public record UpdateProjectRequest(
+        @Size(max = 100, message = "Project name must not exceed 100 characters")
+        @Pattern(regexp = ".*\\S.*", message = "Project name cannot be blank")
+        String name,
+
+        @DecimalMin(value = "0.00", message = "Required capital cannot be negative")
+        BigDecimal requiredCapital,
+
+        @DecimalMin(value = "0.00", message = "Profit cannot be negative")
+        BigDecimal profit,
+
+        @NotNull(message = "The version of the project being updated cannot be null")
+        Long version
+) {
+}
@@ -0,0 +1,16 @@
+package com.github.projects.exception;
+
+/**
+ * Exception thrown when the changes to the project catalog since a given version can no longer be reconstructed, and
+ * the client must reload the whole catalog instead.
+ */
+public class CatalogChangesUnavailableException extends RuntimeException {
+
+    public CatalogChangesUnavailableException(String message) {
+        super(message);
+    }
+
+    public CatalogChangesUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
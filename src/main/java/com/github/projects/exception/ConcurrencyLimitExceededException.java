@@ -0,0 +1,15 @@
+package com.github.projects.exception;
+
+/**
+ * Exception thrown when a call to a backing store is shed because its adaptive concurrency limit and wait queue are full.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+
+    public ConcurrencyLimitExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
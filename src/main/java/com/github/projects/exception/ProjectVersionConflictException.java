@@ -0,0 +1,16 @@
+package com.github.projects.exception;
+
+/**
+ * Exception thrown when a project update or delete names a version other than the project's current version,
+ * meaning the project was changed concurrently.
+ */
+public class ProjectVersionConflictException extends RuntimeException {
+
+    public ProjectVersionConflictException(String message) {
+        super(message);
+    }
+
+    public ProjectVersionConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.projects.model;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A write to the project catalog, published to every instance so their in-memory catalog indexes can apply it
+ * incrementally.
+ *
+ * @param version  The catalog version the write produced, or {@code null} if it could not be incremented.
+ * @param upserted Projects created or updated by the write.
+ * @param deleted  IDs of projects deleted by the write.
+ */
+public record ProjectCatalogChange(Long version, List<ProjectDTO> upserted, List<UUID> deleted) {
+
+    public ProjectCatalogChange {
+        upserted = upserted == null ? List.of() : List.copyOf(upserted);
+        deleted = deleted == null ? List.of() : List.copyOf(deleted);
+    }
+
+    public static ProjectCatalogChange upserted(Long version, List<ProjectDTO> projects) {
+        return new ProjectCatalogChange(version, projects, List.of());
+    }
+
+    public static ProjectCatalogChange deleted(Long version, UUID projectId) {
+        return new ProjectCatalogChange(version, List.of(), List.of(projectId));
+    }
+}
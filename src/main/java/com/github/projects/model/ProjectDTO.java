@@ -21,11 +21,11 @@ public record ProjectDTO(
     public ProjectDTO {
         // Validate identifier fields
         requireNonNull(id, "Project ID must not be null or blank");
-        requireNonNullOrBlank(name, () -> "Project name must not be null or blank");
+        requireNonNullOrBlank(name, "Project name must not be null or blank");
 
         // Validate numeric fields
-        requireNonNullAndNonNegative(requiredCapital, () -> "Required capital must not be null and must be non-negative");
-        requireNonNullAndNonNegative(profit, () -> "Profit must not be null and must be non-negative");
+        requireNonNullAndNonNegative(requiredCapital, "Required capital must not be null and must be non-negative");
+        requireNonNullAndNonNegative(profit, "Profit must not be null and must be non-negative");
 
         // Validate audit metadata and version
         requireNonNull(auditMetadata, "Audit metadata must not be null");
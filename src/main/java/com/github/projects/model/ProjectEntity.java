@@ -29,11 +29,11 @@ public record ProjectEntity(
 
     public ProjectEntity {
         // Validate string fields
-        requireNonNullOrBlank(name, () -> "Project name must not be null or blank");
+        requireNonNullOrBlank(name, "Project name must not be null or blank");
 
         // Validate numeric fields
-        requireNonNullAndNonNegative(requiredCapital, () -> "Required capital must be non-null and non-negative");
-        requireNonNullAndNonNegative(profit, () -> "Profit must be non-null and non-negative");
+        requireNonNullAndNonNegative(requiredCapital, "Required capital must be non-null and non-negative");
+        requireNonNullAndNonNegative(profit, "Profit must be non-null and non-negative");
 
         // Validate audit metadata
         requireNonNull(auditMetadata, "Audit metadata must not be null");
@@ -2,6 +2,6 @@ package com.github.projects.model;
 
 import org.springframework.data.cassandra.repository.ReactiveCassandraRepository;
 
-public interface ProjectRepository extends ReactiveCassandraRepository<ProjectEntity, String> {
+public interface ProjectRepository extends ReactiveCassandraRepository<ProjectEntity, String>, ProjectRowRepository {
 
 }
\ No newline at end of file
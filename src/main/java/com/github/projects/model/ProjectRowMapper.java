@@ -0,0 +1,51 @@
+package com.github.projects.model;
+
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.data.UdtValue;
+import org.springframework.data.cassandra.core.cql.RowMapper;
+
+/**
+ * Maps driver {@link Row}s from the {@code projects} table straight into {@link ProjectDTO}s.
+ *
+ * <p> Bypasses Spring Data's reflective entity conversion and the intermediate {@link ProjectEntity}, so each row is
+ * decoded by column index and validated exactly once by the {@link ProjectDTO} constructor. </p>
+ */
+public final class ProjectRowMapper implements RowMapper<ProjectDTO> {
+    public static final ProjectRowMapper INSTANCE = new ProjectRowMapper();
+
+    /**
+     * Column projection matching the index constants below. Keep both in sync.
+     */
+    public static final String PROJECT_COLUMNS = "id, name, required_capital, profit, auditmetadata, version";
+
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int REQUIRED_CAPITAL = 2;
+    private static final int PROFIT = 3;
+    private static final int AUDIT_METADATA = 4;
+    private static final int VERSION = 5;
+
+    private static final int CREATED_AT = 0;
+    private static final int UPDATED_AT = 1;
+
+    private ProjectRowMapper() {
+    }
+
+    @Override
+    public ProjectDTO mapRow(Row row, int rowNum) {
+        return new ProjectDTO(
+                row.getUuid(ID),
+                row.getString(NAME),
+                row.getBigDecimal(REQUIRED_CAPITAL),
+                row.getBigDecimal(PROFIT),
+                toAuditMetadata(row.getUdtValue(AUDIT_METADATA)),
+                row.isNull(VERSION) ? null : row.getLong(VERSION));
+    }
+
+    private static AuditMetadata toAuditMetadata(UdtValue udtValue) {
+        if (udtValue == null) {
+            return null; // Rejected by the ProjectDTO constructor, as with the entity mapping
+        }
+        return new AuditMetadata(udtValue.getInstant(CREATED_AT), udtValue.getInstant(UPDATED_AT));
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.projects.model;
+
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Repository fragment for read paths that map driver rows directly into {@link ProjectDTO}s.
+ */
+public interface ProjectRowRepository {
+
+    /**
+     * Streams every project in the catalog, page by page, without materializing {@link ProjectEntity} instances.
+     */
+    Flux<ProjectDTO> findAllProjects();
+
+    /**
+     * Reads the given projects with token-aware {@code IN} queries, one per replica group, so each query is
+     * coordinated by a node that owns all of its partitions. Missing IDs are simply absent from the result.
+     */
+    Flux<ProjectDTO> findAllProjectsById(Collection<UUID> ids);
+}
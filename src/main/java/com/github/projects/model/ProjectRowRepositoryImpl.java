@@ -0,0 +1,73 @@
+package com.github.projects.model;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import org.springframework.data.cassandra.ReactiveSession;
+import org.springframework.data.cassandra.core.ReactiveCassandraOperations;
+import org.springframework.data.cassandra.core.cql.ReactiveCqlOperations;
+import org.springframework.data.cassandra.core.cql.ReactiveSessionCallback;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Spring Data fragment implementation of {@link ProjectRowRepository} backed by {@link ProjectRowMapper}.
+ */
+class ProjectRowRepositoryImpl implements ProjectRowRepository {
+    private static final SimpleStatement SELECT_ALL_PROJECTS =
+            SimpleStatement.newInstance("SELECT %s FROM projects".formatted(ProjectRowMapper.PROJECT_COLUMNS));
+    private static final String SELECT_PROJECTS_BY_ID =
+            "SELECT %s FROM projects WHERE id IN ?".formatted(ProjectRowMapper.PROJECT_COLUMNS);
+
+    private final ReactiveCqlOperations cqlOperations;
+
+    ProjectRowRepositoryImpl(ReactiveCassandraOperations cassandraOperations) {
+        this.cqlOperations = cassandraOperations.getReactiveCqlOperations();
+    }
+
+    @Override
+    public Flux<ProjectDTO> findAllProjects() {
+        return cqlOperations.query(SELECT_ALL_PROJECTS, ProjectRowMapper.INSTANCE);
+    }
+
+    @Override
+    public Flux<ProjectDTO> findAllProjectsById(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return cqlOperations.execute((ReactiveSessionCallback<List<UUID>>) session -> Flux.fromIterable(groupByReplica(session, ids)))
+                .flatMap(group -> cqlOperations.query(
+                        session -> session.prepare(SELECT_PROJECTS_BY_ID),
+                        preparedStatement -> preparedStatement.bind(group).setRoutingKey(routingKey(group.getFirst())),
+                        ProjectRowMapper.INSTANCE));
+    }
+
+    /**
+     * Groups IDs by the replica set owning their partitions. Falls back to a single group when token metadata is
+     * unavailable (e.g. token metadata disabled), which still saves round trips compared to individual reads.
+     */
+    private static Collection<List<UUID>> groupByReplica(ReactiveSession session, Collection<UUID> ids) {
+        Optional<TokenMap> tokenMap = session.getMetadata().getTokenMap();
+        Optional<CqlIdentifier> keyspace = session.getKeyspace();
+        if (tokenMap.isEmpty() || keyspace.isEmpty()) {
+            return List.of(List.copyOf(ids));
+        }
+
+        Map<Set<Node>, List<UUID>> groups = new HashMap<>();
+        for (UUID id : ids) {
+            Set<Node> replicas = tokenMap.get().getReplicas(keyspace.get(), routingKey(id));
+            groups.computeIfAbsent(replicas, key -> new ArrayList<>()).add(id);
+        }
+        return groups.values();
+    }
+
+    private static ByteBuffer routingKey(UUID id) {
+        return TypeCodecs.UUID.encode(id, ProtocolVersion.DEFAULT);
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.projects.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A copy of a cached project kept in the stale tier after its regular cache entry is evicted or expires.
+ *
+ * @param project  The project as it was cached.
+ * @param cachedAt When the project was cached.
+ */
+public record StaleProject(ProjectDTO project, Instant cachedAt) {
+
+    public StaleProject {
+        requireNonNull(project, "Project must not be null");
+        requireNonNull(cachedAt, "Cached at must not be null");
+    }
+
+    /**
+     * How long ago the project was cached, never negative.
+     */
+    public Duration age(Instant now) {
+        Duration age = Duration.between(cachedAt, now);
+        return age.isNegative() ? Duration.ZERO : age;
+    }
+}
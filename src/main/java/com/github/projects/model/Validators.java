@@ -28,6 +28,21 @@ public final class Validators {
         }
     }
 
+    /**
+     * Validates the provided string is neither null nor blank.
+     * Allocation-free variant for hot paths such as row and entity construction.
+     *
+     * @param value        The string to validate.
+     * @param errorMessage The error message if validation fails.
+     * @throws IllegalArgumentException If the string is null or blank.
+     */
+    public static void requireNonNullOrBlank(String value, String errorMessage) {
+        Objects.requireNonNull(value, errorMessage);
+        if (value.isBlank()) {
+            throw new IllegalArgumentException(errorMessage);
+        }
+    }
+
     /**
      * Validates the provided BigDecimal is non-null and non-negative.
      *
@@ -42,6 +57,21 @@ public final class Validators {
         }
     }
 
+    /**
+     * Validates the provided BigDecimal is non-null and non-negative.
+     * Allocation-free variant for hot paths such as row and entity construction.
+     *
+     * @param value        The BigDecimal to validate.
+     * @param errorMessage The error message if validation fails.
+     * @throws IllegalArgumentException If the value is null or negative.
+     */
+    public static void requireNonNullAndNonNegative(BigDecimal value, String errorMessage) {
+        Objects.requireNonNull(value, errorMessage);
+        if (value.signum() < 0) {
+            throw new IllegalArgumentException(errorMessage);
+        }
+    }
+
     /**
      * Validates the collection is non-null, non-empty, and contains no null elements.
      *
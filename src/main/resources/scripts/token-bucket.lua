@@ -0,0 +1,26 @@
+-- Atomically takes a token from the bucket at KEYS[1], refilling it for the time elapsed since its last use.
+-- ARGV[1]: capacity, ARGV[2]: tokens refilled per microsecond, ARGV[3]: expiry of an idle bucket in milliseconds.
+-- Returns {1, 0} if a token was taken, or {0, microseconds until the next token} otherwise.
+local capacity = tonumber(ARGV[1])
+local refill_per_micro = tonumber(ARGV[2])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'refilled_at')
+local tokens = tonumber(state[1]) or capacity
+local refilled_at = tonumber(state[2]) or now
+tokens = math.min(capacity, tokens + math.max(0, now - refilled_at) * refill_per_micro)
+
+local granted = 0
+local wait = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+    granted = 1
+else
+    wait = math.max(1, math.ceil((1 - tokens) / refill_per_micro))
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'refilled_at', string.format('%.0f', now))
+redis.call('PEXPIRE', KEYS[1], ARGV[3])
+return {granted, wait}
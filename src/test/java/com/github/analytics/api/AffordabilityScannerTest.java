@@ -0,0 +1,74 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AffordabilityScannerTest {
+
+    @Test
+    void shouldUseTheVectorScan_WhenTheJvmResolvedTheVectorModule() {
+        // Given: The test JVM is started with --add-modules jdk.incubator.vector, except by scalarFallbackTest.
+        boolean vectorModulePresent = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        // When & Then
+        assertThat(AffordabilityScanner.vectorIfAvailable().name()).isEqualTo(vectorModulePresent ? "vector" : "scalar");
+    }
+
+    @Test
+    void shouldFindTheSameBoundaryAsTheScalarScan() {
+        var random = new Random(42);
+        AffordabilityScanner underTest = AffordabilityScanner.vectorIfAvailable();
+
+        for (int round = 0; round < 200; round++) {
+            // Given: Sorted required capitals with duplicates, over ranges of lengths around the vector width.
+            long[] requiredCapital = random.longs(random.nextInt(70), 0, 1_000).sorted().toArray();
+            int from = requiredCapital.length == 0 ? 0 : random.nextInt(requiredCapital.length + 1);
+            int to = from + random.nextInt(requiredCapital.length - from + 1);
+            long capital = random.nextInt(1_100) - 50;
+
+            // When & Then
+            assertThat(underTest.nextUnaffordable(requiredCapital, from, to, capital))
+                    .as("Boundary in %s over [%d, %d) at capital %d", Arrays.toString(requiredCapital), from, to, capital)
+                    .isEqualTo(AffordabilityScanner.SCALAR.nextUnaffordable(requiredCapital, from, to, capital));
+        }
+    }
+
+    @Test
+    void shouldSelectTheSameProjectsAsTheBigDecimalScan() {
+        // Given: Required capitals and capital at different scales.
+        var random = new Random(7);
+        List<ProjectDTO> projects = IntStream.range(0, 300)
+                .mapToObj(i -> new ProjectDTO(randomUUID(), "Project %d".formatted(i),
+                        BigDecimal.valueOf(random.nextInt(5_000), random.nextInt(3)),
+                        BigDecimal.valueOf(random.nextInt(500), 1), AuditMetadata.empty(), 0L))
+                .toList();
+        var query = new CapitalMaximizationQuery(projects, 150, new BigDecimal("0.5"));
+
+        // When
+        var underTest = new GreedyCapitalSelection(query, AffordabilityScanner.vectorIfAvailable());
+        var reference = new GreedyCapitalSelection(query);
+
+        // Then
+        assertThat(drain(underTest)).containsExactlyElementsOf(drain(reference));
+        assertThat(underTest.capital()).isEqualByComparingTo(reference.capital());
+    }
+
+    private static List<CapitalSelection> drain(GreedyCapitalSelection selection) {
+        List<CapitalSelection> selections = new ArrayList<>();
+        for (CapitalSelection next = selection.next(); next != null; next = selection.next()) {
+            selections.add(next);
+        }
+        return selections;
+    }
+}
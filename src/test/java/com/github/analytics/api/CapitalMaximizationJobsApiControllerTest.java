@@ -0,0 +1,106 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(CapitalMaximizationJobsApiController.class)
+class CapitalMaximizationJobsApiControllerTest {
+    private static final String JOBS_API_ENDPOINT = "/api/v1/capital/maximization/jobs/{jobId}";
+    private static final String JOB_STREAM_API_ENDPOINT = "/api/v1/capital/maximization/jobs/{jobId}/stream";
+
+    @MockitoBean
+    private CapitalMaximizationJobService capitalMaximizationJobService;
+
+    private final WebTestClient webTestClient;
+
+    @Autowired
+    CapitalMaximizationJobsApiControllerTest(WebTestClient webTestClient) {
+        this.webTestClient = webTestClient;
+    }
+
+    @Test
+    void shouldReturnJobResult_WhenResultIsAvailable() {
+        // Given
+        var jobResult = completedJobResult();
+        when(capitalMaximizationJobService.findResult(jobResult.jobId())).thenReturn(Mono.just(jobResult));
+
+        // When & Then
+        webTestClient.get()
+                .uri(JOBS_API_ENDPOINT, jobResult.jobId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo(HttpStatus.OK.value())
+                .jsonPath("$.data.jobId").isEqualTo(jobResult.jobId())
+                .jsonPath("$.data.status").isEqualTo("COMPLETED")
+                .jsonPath("$.data.result.finalCapital").isEqualTo(150.00)
+                .jsonPath("$.data.result.selectedProjects[0].name").isEqualTo("Project 1");
+    }
+
+    @Test
+    void shouldReturnNotFound_WhenResultIsNotAvailable() {
+        // Given
+        var jobId = randomUUID().toString();
+        when(capitalMaximizationJobService.findResult(jobId)).thenReturn(Mono.empty());
+
+        // When & Then
+        webTestClient.get()
+                .uri(JOBS_API_ENDPOINT, jobId)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo(HttpStatus.NOT_FOUND.value())
+                .jsonPath("$.message").isEqualTo("No result available for job ID: " + jobId);
+    }
+
+    @Test
+    void shouldStreamJobResultAndComplete_WhenResultLands() {
+        // Given
+        var jobResult = completedJobResult();
+        when(capitalMaximizationJobService.awaitResult(jobResult.jobId())).thenReturn(Mono.just(jobResult));
+
+        // When
+        var events = webTestClient.get()
+                .uri(JOB_STREAM_API_ENDPOINT, jobResult.jobId())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<CapitalMaximizationJobResult>>() {
+                })
+                .getResponseBody();
+
+        // Then
+        StepVerifier.create(events)
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo("result");
+                    assertThat(event.id()).isEqualTo(jobResult.jobId());
+                    assertThat(event.data()).isNotNull();
+                    assertThat(event.data().status()).isEqualTo(CapitalMaximizationJobResult.Status.COMPLETED);
+                })
+                .verifyComplete();
+    }
+
+    private static CapitalMaximizationJobResult completedJobResult() {
+        var project = new ProjectDTO(randomUUID(), "Project 1", BigDecimal.ZERO, new BigDecimal("50.00"), AuditMetadata.empty(), 0L);
+        var optimized = new ProjectCapitalOptimized(List.of(project), new BigDecimal("150.00"));
+        return CapitalMaximizationJobResult.completed(randomUUID().toString(), optimized);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CapitalOptimizationMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimizationCostEstimator costEstimator =
+            new OptimizationCostEstimator(Duration.ofMillis(250), Duration.ofNanos(5_000), Duration.ofNanos(50));
+
+    private CapitalOptimizationMetrics underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CapitalOptimizationMetrics(meterRegistry, costEstimator, 2);
+    }
+
+    @Test
+    void shouldRecordResultsWithoutRegisteringNewMeters() {
+        // Given
+        int metersBefore = meterRegistry.getMeters().size();
+
+        // When
+        for (int i = 1; i <= 5; i++) {
+            underTest.record(CapitalOptimizationMetrics.Mode.ASYNC, "job-" + i, 2, BigDecimal.TEN,
+                    optimized(BigDecimal.valueOf(100L * i), "Project " + i), Duration.ofMillis(i));
+        }
+
+        // Then
+        assertThat(meterRegistry.getMeters()).hasSize(metersBefore);
+        assertThat(meterRegistry.get("roi.optimizer.final_capital").summary().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("roi.optimizer.final_capital").summary().max()).isEqualTo(500);
+        assertThat(meterRegistry.get("roi.optimizer.selected_projects").summary().totalAmount()).isEqualTo(5);
+        assertThat(meterRegistry.get("roi.optimizer.latency").tag("mode", "async").timer().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("roi.optimizer.latency").tag("mode", "sync").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldKeepOnlyMostRecentOptimizationsNewestFirst() {
+        // When
+        for (int i = 1; i <= 3; i++) {
+            underTest.record(CapitalOptimizationMetrics.Mode.SYNC, null, 2, BigDecimal.TEN,
+                    optimized(BigDecimal.valueOf(i), "Project " + i), Duration.ofMillis(i));
+        }
+
+        // Then
+        assertThat(underTest.recentOptimizations())
+                .extracting(RecentOptimization::firstSelected)
+                .containsExactly(List.of("Project 3"), List.of("Project 2"));
+    }
+
+    @Test
+    void shouldKeepOnlyTheFirstSelectedNames_OfALargeSelection() {
+        // Given
+        String[] names = IntStream.range(0, 1_000).mapToObj(i -> "Project " + i).toArray(String[]::new);
+
+        // When
+        underTest.record(CapitalOptimizationMetrics.Mode.SYNC, null, names.length, BigDecimal.TEN,
+                optimized(BigDecimal.ONE, names), Duration.ofMillis(1));
+
+        // Then
+        RecentOptimization recent = underTest.recentOptimizations().getFirst();
+        assertThat(recent.selectedCount()).isEqualTo(names.length);
+        assertThat(recent.firstSelected())
+                .hasSize(CapitalOptimizationMetrics.RECENT_SELECTED_NAMES)
+                .containsExactly(Arrays.copyOf(names, CapitalOptimizationMetrics.RECENT_SELECTED_NAMES));
+    }
+
+    @Test
+    void shouldExposeCatalogSizeAsGauge() {
+        // Given
+        assertThat(meterRegistry.get("roi.optimizer.catalog_size").gauge().value()).isNaN();
+
+        // When
+        costEstimator.recordCatalogSize(42);
+
+        // Then
+        assertThat(meterRegistry.get("roi.optimizer.catalog_size").gauge().value()).isEqualTo(42);
+    }
+
+    private static ProjectCapitalOptimized optimized(BigDecimal finalCapital, String... projectNames) {
+        List<ProjectDTO> projects = Arrays.stream(projectNames)
+                .map(name -> new ProjectDTO(randomUUID(), name, BigDecimal.ZERO, finalCapital, AuditMetadata.empty(), 0L))
+                .toList();
+        return new ProjectCapitalOptimized(projects, finalCapital);
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfitQueueTest {
+
+    @Test
+    void shouldBucketProfits_WhenTheyFitAKnownRangeAndScale() {
+        // Given
+        List<ProjectDTO> projects = List.of(project("2.5"), project("2.50"), project("100"), project("0.01"));
+
+        // When & Then
+        assertThat(ProfitQueue.forCatalog(projects)).isInstanceOf(ProfitQueue.BucketProfitQueue.class);
+    }
+
+    @Test
+    void shouldFallBackToAHeap_WhenProfitsAreTooSpreadOut() {
+        // Given
+        List<ProjectDTO> projects = List.of(project("0.01"), project("1000000.00"));
+
+        // When & Then
+        assertThat(ProfitQueue.forCatalog(projects)).isInstanceOf(ProfitQueue.HeapProfitQueue.class);
+    }
+
+    @Test
+    void shouldPollEqualProfitsInOfferOrder() {
+        // Given
+        var first = project("5.00");
+        var second = project("5");
+        var highest = project("7.25");
+        List<ProjectDTO> projects = List.of(first, second, highest);
+
+        for (ProfitQueue underTest : List.of(ProfitQueue.forCatalog(projects), new ProfitQueue.HeapProfitQueue())) {
+            // When
+            projects.forEach(underTest::offer);
+
+            // Then
+            assertThat(List.of(underTest.poll(), underTest.poll(), underTest.poll()))
+                    .containsExactly(highest, first, second);
+            assertThat(underTest.isEmpty()).isTrue();
+            assertThat(underTest.poll()).isNull();
+        }
+    }
+
+    @Test
+    void shouldPollTheSameProjectsAsTheHeap_ForInterleavedOffersAndPolls() {
+        var random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            // Given: Many ties, and profits spanning several bitmap words.
+            List<ProjectDTO> projects = IntStream.range(0, 500)
+                    .mapToObj(i -> project(BigDecimal.valueOf(random.nextInt(300), 2).toPlainString()))
+                    .toList();
+            ProfitQueue underTest = ProfitQueue.forCatalog(projects);
+            ProfitQueue reference = new ProfitQueue.HeapProfitQueue();
+            assertThat(underTest).isInstanceOf(ProfitQueue.BucketProfitQueue.class);
+
+            // When
+            List<ProjectDTO> polled = new ArrayList<>();
+            List<ProjectDTO> expected = new ArrayList<>();
+            for (ProjectDTO project : projects) {
+                underTest.offer(project);
+                reference.offer(project);
+                if (random.nextInt(3) == 0) {
+                    polled.add(underTest.poll());
+                    expected.add(reference.poll());
+                }
+            }
+            while (!reference.isEmpty()) {
+                polled.add(underTest.poll());
+                expected.add(reference.poll());
+            }
+
+            // Then
+            assertThat(polled).containsExactlyElementsOf(expected);
+            assertThat(underTest.isEmpty()).isTrue();
+        }
+    }
+
+    private static ProjectDTO project(String profit) {
+        return new ProjectDTO(randomUUID(), "Project", BigDecimal.ZERO, new BigDecimal(profit), AuditMetadata.empty(), 0L);
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.analytics.api;
+
+import com.github.projects.api.ProjectService;
+import com.github.projects.exception.ProjectNotFoundException;
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+class ProjectCapitalOptimizationServiceTest {
+    private final ProjectService projectService = mock(ProjectService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // 10µs per project and no comparison cost: a 1ms budget fits exactly 100 projects.
+    private final OptimizationCostEstimator costEstimator =
+            new OptimizationCostEstimator(Duration.ofMillis(1), Duration.ofNanos(10_000), Duration.ZERO);
+
+    private ProjectCapitalOptimizationService underTest;
+
+    @BeforeEach
+    void setUp() {
+        var capitalOptimizationMetrics = new CapitalOptimizationMetrics(meterRegistry, costEstimator, 10);
+        underTest = new ProjectCapitalOptimizationService(
+                projectService, new ProjectCapitalOptimizer(ThreadPoolBulkheadRegistry.ofDefaults(), false, Integer.MAX_VALUE), costEstimator, capitalOptimizationMetrics, meterRegistry);
+    }
+
+    @Test
+    void shouldOptimizeInProcess_WhenCatalogFitsLatencyBudget() {
+        // Given
+        when(projectService.findAll()).thenReturn(Flux.fromStream(IntStream.range(0, 3).mapToObj(this::createProject)));
+
+        // When & Then
+        StepVerifier.create(underTest.optimizeWithinBudget(2, BigDecimal.TEN))
+                .assertNext(result -> {
+                    assertThat(result.selectedProjects()).hasSize(2);
+                    assertThat(result.finalCapital()).isEqualByComparingTo("13");
+                })
+                .verifyComplete();
+
+        assertThat(costEstimator.knownCatalogSize()).isEqualTo(3);
+        // The request is timed once it completes, on the bulkhead thread that emitted the result
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(meterRegistry.get("roi.optimizer.sync.latency").tag("outcome", "success").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("roi.optimizer.latency").tag("mode", "sync").timer().count()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void shouldCompleteEmptyAndRecordCatalogSize_WhenCatalogExceedsLatencyBudget() {
+        // Given
+        when(projectService.findAll()).thenReturn(Flux.fromStream(IntStream.range(0, 500).mapToObj(this::createProject)));
+
+        // When & Then
+        StepVerifier.create(underTest.optimizeWithinBudget(2, BigDecimal.TEN)).verifyComplete();
+
+        assertThat(costEstimator.knownCatalogSize()).isEqualTo(101); // Load stops one project past the limit
+        assertThat(meterRegistry.get("roi.optimizer.sync.budget_exceeded").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.sync.latency").tag("outcome", "fallback").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSkipCatalogLoad_WhenKnownCatalogExceedsLatencyBudget() {
+        // Given
+        costEstimator.recordCatalogSize(1_000);
+
+        // When & Then
+        StepVerifier.create(underTest.optimizeWithinBudget(2, BigDecimal.TEN)).verifyComplete();
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void shouldReturnError_WhenCatalogIsEmpty() {
+        // Given
+        when(projectService.findAll()).thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(underTest.optimizeWithinBudget(2, BigDecimal.TEN))
+                .expectError(ProjectNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldTimeFailedRequests_ByOutcome() {
+        // Given
+        when(projectService.findAll())
+                .thenReturn(Flux.error(new TimeoutException()))
+                .thenReturn(Flux.error(new IllegalStateException("Catalog unavailable")));
+
+        // When
+        StepVerifier.create(underTest.optimizeWithinBudget(2, BigDecimal.TEN)).expectError(TimeoutException.class).verify();
+        StepVerifier.create(underTest.optimizeWithinBudget(2, BigDecimal.TEN)).expectError(IllegalStateException.class).verify();
+
+        // Then
+        assertThat(meterRegistry.get("roi.optimizer.sync.latency").tag("outcome", "timeout").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.sync.latency").tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.sync.latency").tag("outcome", "success").timer().count()).isZero();
+        assertThat(meterRegistry.get("roi.optimizer.latency").tag("mode", "sync").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldStreamSelections_EvenWhenCatalogExceedsLatencyBudget() {
+        // Given
+        when(projectService.findAll()).thenReturn(Flux.fromStream(IntStream.range(0, 500).mapToObj(this::createProject)));
+
+        // When & Then
+        StepVerifier.create(underTest.streamSelections(2, BigDecimal.TEN, null))
+                .assertNext(selection -> assertThat(selection.capitalAfter()).isEqualByComparingTo("509"))
+                .assertNext(selection -> assertThat(selection.capitalAfter()).isEqualByComparingTo("1007"))
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("roi.optimizer.latency").tag("mode", "stream").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailTheStream_WhenCatalogIsEmpty() {
+        // Given
+        when(projectService.findAll()).thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(underTest.streamSelections(2, BigDecimal.TEN, null))
+                .expectError(ProjectNotFoundException.class)
+                .verify();
+
+        assertThat(meterRegistry.get("roi.optimizer.latency").tag("mode", "stream").timer().count()).isZero();
+    }
+
+    private ProjectDTO createProject(int index) {
+        return new ProjectDTO(randomUUID(), "Project %d".formatted(index), BigDecimal.ZERO,
+                BigDecimal.valueOf(index), AuditMetadata.empty(), 0L);
+    }
+}
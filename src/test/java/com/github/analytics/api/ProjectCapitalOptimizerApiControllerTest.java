@@ -1,21 +1,35 @@
 package com.github.analytics.api;
 
 import com.github.analytics.event.CapitalMaximizationQueryEvent;
+import com.github.analytics.event.JobPriority;
 import com.github.analytics.event.ProjectCapitalOptimizerEventPublisher;
+import com.github.analytics.exception.OptimizationCapacityExceededException;
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 
+import static java.util.UUID.randomUUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @WebFluxTest(ProjectCapitalOptimizerApiController.class)
@@ -24,6 +38,9 @@ class ProjectCapitalOptimizerApiControllerTest {
     @MockitoBean
     private ProjectCapitalOptimizerEventPublisher projectCapitalOptimizerEventPublisher;
 
+    @MockitoBean
+    private ProjectCapitalOptimizationService projectCapitalOptimizationService;
+
     private final WebTestClient webTestClient;
 
     @Autowired
@@ -32,6 +49,8 @@ class ProjectCapitalOptimizerApiControllerTest {
     }
 
     private static final String API_ENDPOINT = "/api/v1/capital/maximization";
+    private static final String SYNC_API_ENDPOINT = "/api/v1/capital/maximization/sync";
+    private static final String STREAM_API_ENDPOINT = "/api/v1/capital/maximization/stream";
 
     @Test
     void shouldAcceptCapitalMaximizationQueryEvent_WhenRequestIsValid() {
@@ -39,7 +58,7 @@ class ProjectCapitalOptimizerApiControllerTest {
         var request = validRequest();
         var expectedEvent = new CapitalMaximizationQueryEvent(request.maxProjects(), request.initialCapital());
 
-        when(projectCapitalOptimizerEventPublisher.publishEvent(any(CapitalMaximizationQueryEvent.class)))
+        when(projectCapitalOptimizerEventPublisher.publishEvent(any(CapitalMaximizationQueryEvent.class), isNull()))
                 .thenReturn(Mono.empty());
 
         // When & Then
@@ -51,23 +70,80 @@ class ProjectCapitalOptimizerApiControllerTest {
                 .expectStatus().isAccepted()
                 .expectBody()
                 .jsonPath("$.statusCode").isEqualTo(HttpStatus.ACCEPTED.value())
-                .jsonPath("$.data").isEqualTo("Capital maximization query event accepted for processing");
+                .jsonPath("$.data.jobId").isNotEmpty()
+                .jsonPath("$.data.message").isEqualTo("Capital maximization query event accepted for processing");
 
         verify(projectCapitalOptimizerEventPublisher, times(1))
                 .publishEvent(argThat(event ->
                         Objects.equals(event.maxProjects(), expectedEvent.maxProjects()) &&
-                                event.initialCapital().compareTo(expectedEvent.initialCapital()) == 0
-                ));
+                                event.initialCapital().compareTo(expectedEvent.initialCapital()) == 0 &&
+                                event.priority() == JobPriority.NORMAL
+                ), isNull());
 
         verifyNoMoreInteractions(projectCapitalOptimizerEventPublisher);
     }
 
+    @Test
+    void shouldPublishRequestedPriority() {
+        // Given
+        var request = new ProjectCapitalOptimizerRequest(2, new BigDecimal("100.00"), JobPriority.HIGH);
+        when(projectCapitalOptimizerEventPublisher.publishEvent(any(CapitalMaximizationQueryEvent.class), isNull()))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        webTestClient.post()
+                .uri(API_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted();
+
+        verify(projectCapitalOptimizerEventPublisher).publishEvent(argThat(event -> event.priority() == JobPriority.HIGH), isNull());
+    }
+
+    @Test
+    void shouldStampDeadlineFromRequestTimeoutHeader() {
+        // Given
+        var request = validRequest();
+        var sentAt = Instant.now();
+        when(projectCapitalOptimizerEventPublisher.publishEvent(any(CapitalMaximizationQueryEvent.class), any(Instant.class)))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        webTestClient.post()
+                .uri(API_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(ProjectCapitalOptimizerApiController.REQUEST_TIMEOUT_HEADER, "30s")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted();
+
+        verify(projectCapitalOptimizerEventPublisher).publishEvent(any(CapitalMaximizationQueryEvent.class),
+                argThat(deadline -> !deadline.isBefore(sentAt.plusSeconds(30)) && deadline.isBefore(sentAt.plusSeconds(40))));
+    }
+
+    @Test
+    void shouldReturnBadRequest_WhenRequestTimeoutHeaderIsInvalid() {
+        // When & Then
+        webTestClient.post()
+                .uri(API_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(ProjectCapitalOptimizerApiController.REQUEST_TIMEOUT_HEADER, "soon")
+                .bodyValue(validRequest())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").value(containsString("X-Request-Timeout"));
+
+        verifyNoInteractions(projectCapitalOptimizerEventPublisher);
+    }
+
     @Test
     void shouldReturnInternalServerError_WhenEventPublishingFails() {
         // Given
         var request = validRequest();
 
-        when(projectCapitalOptimizerEventPublisher.publishEvent(any(CapitalMaximizationQueryEvent.class)))
+        when(projectCapitalOptimizerEventPublisher.publishEvent(any(CapitalMaximizationQueryEvent.class), isNull()))
                 .thenReturn(Mono.error(new RuntimeException("Publishing failed")));
 
         // When & Then
@@ -81,7 +157,7 @@ class ProjectCapitalOptimizerApiControllerTest {
                 .jsonPath("$.statusCode").isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR.value())
                 .jsonPath("$.message").isEqualTo("An unexpected error occurred.");
 
-        verify(projectCapitalOptimizerEventPublisher, times(1)).publishEvent(any(CapitalMaximizationQueryEvent.class));
+        verify(projectCapitalOptimizerEventPublisher, times(1)).publishEvent(any(CapitalMaximizationQueryEvent.class), isNull());
         verifyNoMoreInteractions(projectCapitalOptimizerEventPublisher);
     }
 
@@ -153,6 +229,106 @@ class ProjectCapitalOptimizerApiControllerTest {
                 .jsonPath("$.message").value(containsString("Initial capital cannot be negative"));
     }
 
+    @Test
+    void shouldReturnOptimizedResult_WhenSynchronousRequestFitsLatencyBudget() {
+        // Given
+        var request = validRequest();
+        var project = new ProjectDTO(randomUUID(), "Project 1", BigDecimal.ZERO, new BigDecimal("50.00"), AuditMetadata.empty(), 0L);
+        var optimized = new ProjectCapitalOptimized(List.of(project), new BigDecimal("150.00"));
+
+        when(projectCapitalOptimizationService.optimizeWithinBudget(eq(2), any(BigDecimal.class)))
+                .thenReturn(Mono.just(optimized));
+
+        // When & Then
+        webTestClient.post()
+                .uri(SYNC_API_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo(HttpStatus.OK.value())
+                .jsonPath("$.data.finalCapital").isEqualTo(150.00)
+                .jsonPath("$.data.selectedProjects[0].name").isEqualTo("Project 1");
+
+        verifyNoInteractions(projectCapitalOptimizerEventPublisher);
+    }
+
+    @Test
+    void shouldFallBackToAsynchronousProcessing_WhenSynchronousRequestExceedsLatencyBudget() {
+        // Given
+        var request = validRequest();
+
+        when(projectCapitalOptimizationService.optimizeWithinBudget(eq(2), any(BigDecimal.class)))
+                .thenReturn(Mono.empty());
+        when(projectCapitalOptimizerEventPublisher.publishEvent(any(CapitalMaximizationQueryEvent.class), isNull()))
+                .thenReturn(Mono.just(true));
+
+        // When & Then
+        webTestClient.post()
+                .uri(SYNC_API_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo(HttpStatus.ACCEPTED.value())
+                .jsonPath("$.data.jobId").isNotEmpty()
+                .jsonPath("$.data.message").isEqualTo("Capital maximization query event accepted for processing");
+
+        verify(projectCapitalOptimizerEventPublisher, times(1)).publishEvent(any(CapitalMaximizationQueryEvent.class), isNull());
+    }
+
+    @Test
+    void shouldReturnTooManyRequests_WhenOptimizationCapacityIsExceeded() {
+        // Given
+        when(projectCapitalOptimizationService.optimizeWithinBudget(eq(2), any(BigDecimal.class)))
+                .thenReturn(Mono.error(new OptimizationCapacityExceededException("Optimization capacity exceeded; retry later.", null)));
+
+        // When & Then
+        webTestClient.post()
+                .uri(SYNC_API_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(validRequest())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        verifyNoInteractions(projectCapitalOptimizerEventPublisher);
+    }
+
+    @Test
+    void shouldStreamSelectionsAsNdjson() {
+        // Given
+        var first = new ProjectDTO(randomUUID(), "Project 1", BigDecimal.ZERO, new BigDecimal("50.00"), AuditMetadata.empty(), 0L);
+        var second = new ProjectDTO(randomUUID(), "Project 2", BigDecimal.ZERO, new BigDecimal("25.00"), AuditMetadata.empty(), 0L);
+
+        when(projectCapitalOptimizationService.streamSelections(eq(2), any(BigDecimal.class), isNull()))
+                .thenReturn(Flux.just(
+                        new CapitalSelection(1, first, new BigDecimal("150.00")),
+                        new CapitalSelection(2, second, new BigDecimal("175.00"))));
+
+        // When & Then
+        webTestClient.post()
+                .uri(STREAM_API_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(validRequest())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CapitalSelection.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .assertNext(selection -> assertThat(selection.project().name()).isEqualTo("Project 1"))
+                .assertNext(selection -> assertThat(selection.capitalAfter()).isEqualByComparingTo("175.00"))
+                .verifyComplete();
+
+        verifyNoInteractions(projectCapitalOptimizerEventPublisher);
+    }
+
     private ProjectCapitalOptimizerRequest validRequest() {
         return new ProjectCapitalOptimizerRequest(2, new BigDecimal("100.00"));
     }
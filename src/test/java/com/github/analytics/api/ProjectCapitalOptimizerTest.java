@@ -1,20 +1,29 @@
 package com.github.analytics.api;
 
+import com.github.analytics.exception.CapitalMaximizationDeadlineExceededException;
 import com.github.analytics.exception.InvalidCapitalMaximizationQueryException;
+import com.github.analytics.exception.OptimizationCapacityExceededException;
 import com.github.projects.model.AuditMetadata;
 import com.github.projects.model.ProjectDTO;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 class ProjectCapitalOptimizerTest {
-    private final ProjectCapitalOptimizer underTest = new ProjectCapitalOptimizer();
+    private final ProjectCapitalOptimizer underTest = new ProjectCapitalOptimizer(ThreadPoolBulkheadRegistry.ofDefaults(), false, Integer.MAX_VALUE);
 
     @Test
     void shouldReturnError_whenQueryIsNull() {
@@ -33,6 +42,55 @@ class ProjectCapitalOptimizerTest {
                 .verify();
     }
 
+    @Test
+    void shouldAbandonSelection_whenDeadlineHasPassed() {
+        // Given: A query whose deadline passed before the selection started
+        List<ProjectDTO> projects = List.of(
+                new ProjectDTO(randomUUID(), "Project A", new BigDecimal("0"), new BigDecimal("5"), AuditMetadata.empty(), 0L));
+        var query = new CapitalMaximizationQuery(projects, 1, BigDecimal.TEN, Instant.now().minusSeconds(1));
+
+        // When: maximizeCapital is called
+        Mono<ProjectCapitalOptimized> resultMono = underTest.maximizeCapital(query);
+
+        // Then: The selection is abandoned instead of completing
+        StepVerifier.create(resultMono)
+                .expectError(CapitalMaximizationDeadlineExceededException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldRejectOptimization_whenExecutorAndQueueAreFull() throws InterruptedException {
+        // Given: An optimizer bulkhead with one thread and one queue slot, both occupied
+        var bulkheadRegistry = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(1)
+                .maxThreadPoolSize(1)
+                .queueCapacity(1)
+                .build());
+        var saturated = new ProjectCapitalOptimizer(bulkheadRegistry, false, Integer.MAX_VALUE);
+        var release = new CountDownLatch(1);
+        var bulkhead = bulkheadRegistry.bulkhead(ProjectCapitalOptimizer.OPTIMIZER_BULKHEAD_NAME);
+        bulkhead.submit(() -> {
+            release.await();
+            return null;
+        });
+        bulkhead.submit(() -> null);
+
+        // When: Another optimization is submitted
+        var query = new CapitalMaximizationQuery(List.of(
+                new ProjectDTO(randomUUID(), "Project A", BigDecimal.ONE, BigDecimal.ONE, AuditMetadata.empty(), 0L)),
+                1, BigDecimal.TEN);
+        Mono<ProjectCapitalOptimized> resultMono = saturated.maximizeCapital(query);
+
+        // Then: It is rejected instead of queued without bound
+        try {
+            StepVerifier.create(resultMono)
+                    .expectError(OptimizationCapacityExceededException.class)
+                    .verify();
+        } finally {
+            release.countDown();
+        }
+    }
+
     @Test
     void shouldReturnInitialCapitalWhenNoProjectsAreAffordable() {
         // Given: Projects with required capital higher than the initial capital.
@@ -88,4 +146,91 @@ class ProjectCapitalOptimizerTest {
                 })
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStreamSelectionsInTheOrderTheyAreMade() {
+        // Given: The same catalog as the materialized maximization.
+        List<ProjectDTO> projects = List.of(
+                new ProjectDTO(randomUUID(), "Project A", BigDecimal.ZERO, BigDecimal.ONE, AuditMetadata.empty(), 0L),
+                new ProjectDTO(randomUUID(), "Project B", BigDecimal.ONE, new BigDecimal("2"), AuditMetadata.empty(), 0L),
+                new ProjectDTO(randomUUID(), "Project C", BigDecimal.ONE, new BigDecimal("3"), AuditMetadata.empty(), 0L)
+        );
+        CapitalMaximizationQuery query = new CapitalMaximizationQuery(projects, 2, BigDecimal.ZERO);
+
+        // When & Then: Each selection carries its step and the capital it leaves, one per request.
+        StepVerifier.create(underTest.streamSelections(query), 1)
+                .assertNext(selection -> {
+                    assertThat(selection.step()).isEqualTo(1);
+                    assertThat(selection.project().name()).isEqualTo("Project A");
+                    assertThat(selection.capitalAfter()).isEqualByComparingTo(BigDecimal.ONE);
+                })
+                .thenRequest(1)
+                .assertNext(selection -> {
+                    assertThat(selection.step()).isEqualTo(2);
+                    assertThat(selection.project().name()).isEqualTo("Project C");
+                    assertThat(selection.capitalAfter()).isEqualByComparingTo(new BigDecimal("4"));
+                })
+                .thenRequest(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFailTheStream_WhenDeadlineHasPassed() {
+        // Given
+        List<ProjectDTO> projects = List.of(
+                new ProjectDTO(randomUUID(), "Project A", BigDecimal.ZERO, BigDecimal.ONE, AuditMetadata.empty(), 0L));
+        CapitalMaximizationQuery query = new CapitalMaximizationQuery(projects, 1, BigDecimal.ZERO, Instant.now().minusSeconds(1));
+
+        // When & Then
+        StepVerifier.create(underTest.streamSelections(query))
+                .expectError(CapitalMaximizationDeadlineExceededException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldStreamOnTheOptimizerBulkhead_HoldingItsThreadUntilTheStreamEnds() {
+        // Given: An optimizer bulkhead with one thread and one queue slot
+        var bulkheadRegistry = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(1)
+                .maxThreadPoolSize(1)
+                .queueCapacity(1)
+                .build());
+        var optimizer = new ProjectCapitalOptimizer(bulkheadRegistry, false, Integer.MAX_VALUE);
+        var bulkhead = bulkheadRegistry.bulkhead(ProjectCapitalOptimizer.OPTIMIZER_BULKHEAD_NAME);
+        List<ProjectDTO> projects = List.of(
+                new ProjectDTO(randomUUID(), "Project A", BigDecimal.ZERO, BigDecimal.ONE, AuditMetadata.empty(), 0L),
+                new ProjectDTO(randomUUID(), "Project B", BigDecimal.ZERO, new BigDecimal("2"), AuditMetadata.empty(), 0L));
+        var query = new CapitalMaximizationQuery(projects, 2, BigDecimal.ZERO);
+
+        // When & Then: Selections are computed on the bulkhead thread, which stays taken while the stream is open
+        StepVerifier.create(optimizer.streamSelections(query), 1)
+                .assertNext(selection -> assertThat(Thread.currentThread().getName()).contains("optimizer"))
+                .then(() -> {
+                    bulkhead.submit(() -> null);
+                    assertThatThrownBy(() -> optimizer.maximizeCapital(query).block())
+                            .isInstanceOf(OptimizationCapacityExceededException.class);
+                })
+                .thenRequest(1)
+                .assertNext(selection -> assertThat(selection.project().name()).isEqualTo("Project A"))
+                .thenRequest(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamSelectionsOverASortedCatalog_CancellingItOnceTheSelectionsAreMade() throws InterruptedException {
+        // Given: A catalog far longer than the selections need, in ascending order of required capital
+        var catalogCancelled = new CountDownLatch(1);
+        Flux<ProjectDTO> catalog = Flux.range(0, 100_000)
+                .map(i -> new ProjectDTO(randomUUID(), "Project " + i, BigDecimal.valueOf(i), BigDecimal.valueOf(i % 7),
+                        AuditMetadata.empty(), 0L))
+                .doOnCancel(catalogCancelled::countDown);
+
+        // When & Then
+        StepVerifier.create(underTest.streamSelections(catalog, 2, BigDecimal.TEN, null))
+                .assertNext(selection -> assertThat(selection.capitalAfter()).isEqualByComparingTo("16"))
+                .assertNext(selection -> assertThat(selection.capitalAfter()).isEqualByComparingTo("22"))
+                .verifyComplete();
+
+        assertThat(catalogCancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
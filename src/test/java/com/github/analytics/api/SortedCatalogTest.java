@@ -0,0 +1,127 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedCatalogTest {
+
+    @Test
+    void shouldSortInParallel_LikeTheSequentialSort() {
+        // Given: Many ties at different scales, so that the order among equal required capitals is observable.
+        List<ProjectDTO> projects = projects(new Random(42), 20_000);
+
+        // When
+        try (SortedCatalog underTest = SortedCatalog.prepare(projects, true, 1);
+             SortedCatalog reference = SortedCatalog.prepare(projects, true, Integer.MAX_VALUE)) {
+
+            // Then
+            assertThat(underTest).isInstanceOf(ParallelSortedCatalog.class);
+            assertThat(reference).isInstanceOf(SortedCatalog.SequentialSortedCatalog.class);
+            assertThat(underTest.requiredCapitalScale()).isEqualTo(reference.requiredCapitalScale()).isEqualTo(2);
+            for (int index = 0; index < projects.size(); ) {
+                int sortedEnd = underTest.awaitSorted(index);
+                assertThat(sortedEnd).isGreaterThan(index).isLessThanOrEqualTo(projects.size());
+                for (; index < sortedEnd; index++) {
+                    assertThat(underTest.get(index)).isSameAs(reference.get(index));
+                    assertThat(underTest.scaledRequiredCapital()[index])
+                            .isEqualTo(reference.scaledRequiredCapital()[index]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldReleaseTheCheapestRange_BeforeTheWholeCatalog() {
+        // Given
+        List<ProjectDTO> projects = projects(new Random(7), 50_000);
+
+        // When
+        try (SortedCatalog underTest = SortedCatalog.prepare(projects, false, 1)) {
+            int sortedEnd = underTest.awaitSorted(0);
+
+            // Then
+            assertThat(sortedEnd).isLessThan(projects.size());
+            assertThat(underTest.scaledRequiredCapital()).isNull();
+            for (int index = 1; index < sortedEnd; index++) {
+                assertThat(underTest.get(index - 1).requiredCapital())
+                        .isLessThanOrEqualTo(underTest.get(index).requiredCapital());
+            }
+        }
+    }
+
+    @Test
+    void shouldSelectTheSameProjects_WhenPreparedInParallel() {
+        // Given
+        List<ProjectDTO> projects = projects(new Random(3), 5_000);
+        var query = new CapitalMaximizationQuery(projects, 2_000, new BigDecimal("10.00"));
+
+        // When
+        try (var underTest = new GreedyCapitalSelection(query, AffordabilityScanner.SCALAR, 1);
+             var reference = new GreedyCapitalSelection(query)) {
+
+            // Then
+            assertThat(drain(underTest)).containsExactlyElementsOf(drain(reference));
+            assertThat(underTest.capital()).isEqualByComparingTo(reference.capital());
+        }
+    }
+
+    @Test
+    void shouldSelectTheSameProjects_WhenStreamedInOrder() {
+        // Given
+        List<ProjectDTO> projects = projects(new Random(5), 5_000);
+        List<ProjectDTO> sorted = projects.stream().sorted(SortedCatalog.BY_REQUIRED_CAPITAL).toList();
+        var query = new CapitalMaximizationQuery(sorted, 2_000, new BigDecimal("10.00"));
+
+        // When
+        try (var underTest = new GreedyCapitalSelection(sorted.stream(), 2_000, new BigDecimal("10.00"));
+             var reference = new GreedyCapitalSelection(query)) {
+
+            // Then
+            assertThat(drain(underTest)).containsExactlyElementsOf(drain(reference));
+            assertThat(underTest.capital()).isEqualByComparingTo(reference.capital());
+        }
+    }
+
+    @Test
+    void shouldPrepareEmptyAndTinyCatalogsInParallel() {
+        for (int size = 0; size < 4; size++) {
+            // Given
+            List<ProjectDTO> projects = projects(new Random(size), size);
+
+            // When
+            try (SortedCatalog underTest = SortedCatalog.prepare(projects, true, 0)) {
+                // Then
+                assertThat(underTest.size()).isEqualTo(size);
+                if (size > 0) {
+                    assertThat(underTest.awaitSorted(size - 1)).isEqualTo(size);
+                }
+            }
+        }
+    }
+
+    private static List<ProjectDTO> projects(Random random, int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new ProjectDTO(randomUUID(), "Project %d".formatted(i),
+                        BigDecimal.valueOf(random.nextInt(2_000), random.nextInt(3)),
+                        BigDecimal.valueOf(random.nextInt(500), 1), AuditMetadata.empty(), 0L))
+                .toList();
+    }
+
+    private static List<CapitalSelection> drain(GreedyCapitalSelection selection) {
+        List<CapitalSelection> selections = new ArrayList<>();
+        for (CapitalSelection next = selection.next(); next != null; next = selection.next()) {
+            selections.add(next);
+        }
+        return selections;
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.analytics.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpilledCatalogTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldMergeRunsInTheOrderOfTheInMemorySort() {
+        // Given: Ties across runs, and every field of a project set.
+        List<ProjectDTO> projects = projects(new Random(42), 1_000);
+
+        // When
+        List<ProjectDTO> merged = SpilledCatalog.spill(Flux.fromIterable(projects), directory, 64, catalog -> {
+            assertThat(catalog.runCount()).isEqualTo(16);
+            SortedCatalog underTest = catalog.merge();
+            List<ProjectDTO> read = new ArrayList<>();
+            for (int index = 0; index < underTest.size(); index++) {
+                underTest.awaitSorted(index);
+                read.add(underTest.get(index));
+                underTest.release(index + 1);
+            }
+            return Mono.just(read);
+        }).block();
+
+        // Then
+        try (SortedCatalog reference = SortedCatalog.prepare(projects, false, Integer.MAX_VALUE)) {
+            assertThat(merged).hasSize(projects.size());
+            for (int index = 0; index < merged.size(); index++) {
+                assertThat(merged.get(index)).usingRecursiveComparison().isEqualTo(reference.get(index));
+            }
+        }
+    }
+
+    @Test
+    void shouldSelectTheSameProjectsAsTheInMemoryCatalog() {
+        // Given
+        List<ProjectDTO> projects = projects(new Random(7), 2_000);
+        var optimizer = new ProjectCapitalOptimizer(ThreadPoolBulkheadRegistry.ofDefaults(), false, Integer.MAX_VALUE);
+        var expected = optimizer.maximizeCapital(new CapitalMaximizationQuery(projects, 500, new BigDecimal("10.00")))
+                .block();
+
+        // When
+        Mono<ProjectCapitalOptimized> result = SpilledCatalog.spill(Flux.fromIterable(projects), directory, 300,
+                catalog -> optimizer.maximizeCapital(catalog, 500, new BigDecimal("10.00"), null));
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(optimized -> {
+                    assertThat(optimized.selectedProjects()).containsExactlyElementsOf(expected.selectedProjects());
+                    assertThat(optimized.finalCapital()).isEqualByComparingTo(expected.finalCapital());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldDeleteTheRuns_WhenTheResultCompletesOrFails() throws IOException {
+        // Given
+        List<ProjectDTO> projects = projects(new Random(3), 100);
+
+        // When
+        StepVerifier.create(SpilledCatalog.spill(Flux.fromIterable(projects), directory, 10,
+                        catalog -> Mono.just(catalog.size())))
+                .expectNext(100)
+                .verifyComplete();
+        StepVerifier.create(SpilledCatalog.spill(Flux.fromIterable(projects), directory, 10,
+                        catalog -> Mono.error(new IllegalStateException("Failed"))))
+                .verifyError(IllegalStateException.class);
+
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldSpillAnEmptyCatalogWithoutRuns() {
+        StepVerifier.create(SpilledCatalog.spill(Flux.empty(), directory, 10,
+                        catalog -> Mono.just(List.of(catalog.size(), catalog.runCount()))))
+                .expectNext(List.of(0, 0))
+                .verifyComplete();
+    }
+
+    private static List<ProjectDTO> projects(Random random, int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new ProjectDTO(randomUUID(), "Projekt Ω %d".formatted(i),
+                        BigDecimal.valueOf(random.nextInt(2_000), random.nextInt(3)),
+                        BigDecimal.valueOf(random.nextLong(), random.nextInt(4)).abs(),
+                        i % 2 == 0 ? AuditMetadata.empty()
+                                : new AuditMetadata(Instant.ofEpochSecond(random.nextInt(), 123_456_789), Instant.now()),
+                        (long) i))
+                .toList();
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.analytics.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.analytics.event.JobPriority.HIGH;
+import static com.github.analytics.event.JobPriority.NORMAL;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CapitalMaximizationEventPipelineTest {
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+    @Mock
+    private MessageListenerContainer listenerContainer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldRunWorkOfTheSamePartitionInSubmissionOrder() {
+        // Given
+        var underTest = pipeline(4, 0, 64);
+        List<String> completed = new CopyOnWriteArrayList<>();
+
+        // When
+        var slow = underTest.submit(NORMAL, 0, Mono.delay(Duration.ofMillis(100)).then(Mono.fromRunnable(() -> completed.add("first"))));
+        var fast = underTest.submit(NORMAL, 0, Mono.fromRunnable(() -> completed.add("second")));
+
+        // Then
+        StepVerifier.create(Flux.merge(slow, fast)).verifyComplete();
+        assertThat(completed).containsExactly("first", "second");
+        assertThat(meterRegistry.get("roi.optimizer.consumer.queue_time").tag("lane", "normal").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("roi.optimizer.consumer.completed").tag("lane", "normal").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCapInFlightWorkAcrossPartitions() {
+        // Given
+        var underTest = pipeline(2, 0, 64);
+        var running = new AtomicInteger();
+        var maxObserved = new AtomicInteger();
+
+        // When
+        var submissions = Flux.range(0, 6)
+                .flatMap(partition -> underTest.submit(NORMAL, partition, Mono.defer(() -> {
+                    maxObserved.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    return Mono.delay(Duration.ofMillis(20)).then(Mono.fromRunnable(running::decrementAndGet));
+                })));
+
+        // Then
+        StepVerifier.create(submissions).verifyComplete();
+        assertThat(maxObserved.get()).isEqualTo(2);
+        assertThat(underTest.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldPropagateWorkFailureWithoutBlockingThePartition() {
+        // Given
+        var underTest = pipeline(4, 0, 64);
+
+        // When
+        var failing = underTest.submit(NORMAL, 0, Mono.error(new IllegalStateException("Simulated failure")));
+        var following = underTest.submit(NORMAL, 0, Mono.empty());
+
+        // Then
+        StepVerifier.create(failing).expectError(IllegalStateException.class).verify();
+        StepVerifier.create(following).verifyComplete();
+    }
+
+    @Test
+    void shouldPauseLanePartitionsWhenPendingWorkExceedsLimitAndResumeOnceDrained() {
+        // Given
+        var normalPartition = new TopicPartition(CAPITAL_MAXIMIZATION_QUERY_TOPIC, 0);
+        var priorityPartition = new TopicPartition(CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC, 0);
+        when(listenerRegistry.getListenerContainer(CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID)).thenReturn(listenerContainer);
+        when(listenerContainer.getAssignedPartitions()).thenReturn(List.of(normalPartition, priorityPartition));
+        var underTest = pipeline(1, 0, 2);
+        Sinks.Empty<Void> gate = Sinks.empty();
+
+        // When
+        var blocked = underTest.submit(NORMAL, 0, gate.asMono());
+        var firstQueued = underTest.submit(NORMAL, 0, Mono.empty());
+        var secondQueued = underTest.submit(NORMAL, 0, Mono.empty());
+        var submissions = Flux.merge(blocked, firstQueued, secondQueued).cache();
+        submissions.subscribe();
+
+        // Then
+        verify(listenerContainer, timeout(1000).atLeastOnce()).pausePartition(normalPartition);
+        verify(listenerContainer, never()).pausePartition(priorityPartition);
+        verify(listenerContainer, never()).pause();
+        verify(listenerContainer, never()).resumePartition(any());
+
+        gate.tryEmitEmpty();
+        StepVerifier.create(submissions).verifyComplete();
+        verify(listenerContainer, timeout(1000)).resumePartition(normalPartition);
+    }
+
+    @Test
+    void shouldReserveProcessingSlotsForHighPriorityWork() {
+        // Given
+        var underTest = pipeline(2, 1, 64);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        var started = new CopyOnWriteArrayList<String>();
+
+        // When
+        Flux.range(0, 3)
+                .flatMap(partition -> underTest.submit(NORMAL, partition,
+                        Mono.fromRunnable(() -> started.add("normal-" + partition)).then(gate.asMono())))
+                .subscribe();
+        var interactive = underTest.submit(HIGH, 0, Mono.fromRunnable(() -> started.add("high")));
+
+        // Then
+        StepVerifier.create(interactive).verifyComplete();
+        assertThat(started).containsExactly("normal-0", "high");
+        assertThat(underTest.inFlight()).isEqualTo(1);
+        assertThat(underTest.pending()).isEqualTo(2);
+        gate.tryEmitEmpty();
+    }
+
+    @Test
+    void shouldDispatchHighPriorityWorkAheadOfNormalWorkByWeight() {
+        // Given
+        var underTest = new CapitalMaximizationEventPipeline(listenerRegistry, meterRegistry, 1, 0, 2, 64, DRAIN_TIMEOUT);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        var started = new CopyOnWriteArrayList<String>();
+
+        underTest.submit(NORMAL, 0, gate.asMono()).subscribe();
+        for (int partition = 1; partition <= 2; partition++) {
+            String name = "normal-" + partition;
+            underTest.submit(NORMAL, partition, Mono.fromRunnable(() -> started.add(name))).subscribe();
+        }
+        for (int partition = 0; partition < 3; partition++) {
+            String name = "high-" + partition;
+            underTest.submit(HIGH, partition, Mono.fromRunnable(() -> started.add(name))).subscribe();
+        }
+
+        // When
+        gate.tryEmitEmpty();
+
+        // Then
+        assertThat(started).containsExactly("high-0", "high-1", "normal-1", "high-2", "normal-2");
+        assertThat(underTest.pending()).isZero();
+        assertThat(meterRegistry.get("roi.optimizer.consumer.completed").tag("lane", "high").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDrainQueuedWorkOnStop() {
+        // Given
+        when(listenerRegistry.getListenerContainer(CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID)).thenReturn(listenerContainer);
+        var underTest = pipeline(1, 0, 64);
+        underTest.start();
+        var completed = new AtomicInteger();
+
+        underTest.submit(NORMAL, 0, Mono.delay(Duration.ofMillis(100)).then(Mono.fromRunnable(completed::incrementAndGet))).subscribe();
+        underTest.submit(NORMAL, 1, Mono.delay(Duration.ofMillis(100)).then(Mono.fromRunnable(completed::incrementAndGet))).subscribe();
+
+        // When
+        underTest.stop();
+
+        // Then
+        assertThat(completed.get()).isEqualTo(2);
+        assertThat(underTest.isRunning()).isFalse();
+        verify(listenerContainer).pause();
+        verify(listenerContainer, never()).resume();
+    }
+
+    private CapitalMaximizationEventPipeline pipeline(int maxInFlight, int reservedHighPriority, int maxPending) {
+        return new CapitalMaximizationEventPipeline(listenerRegistry, meterRegistry,
+                maxInFlight, reservedHighPriority, 1, maxPending, DRAIN_TIMEOUT);
+    }
+}
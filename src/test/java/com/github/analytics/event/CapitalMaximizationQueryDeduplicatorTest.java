@@ -0,0 +1,161 @@
+package com.github.analytics.event;
+
+import com.github.analytics.api.ProjectCapitalOptimized;
+import com.github.projects.api.ProjectCatalogVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CapitalMaximizationQueryDeduplicatorTest {
+    private static final ProjectCapitalOptimized RESULT = new ProjectCapitalOptimized(List.of(), new BigDecimal("500.00"));
+
+    @Mock
+    private ProjectCatalogVersionService catalogVersionService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CapitalMaximizationQueryDeduplicator underTest;
+    private AtomicInteger computations;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new CapitalMaximizationQueryDeduplicator(catalogVersionService, meterRegistry, Duration.ofSeconds(5));
+        computations = new AtomicInteger();
+    }
+
+    @Test
+    void shouldAttachIdenticalQueryToRunningComputation() {
+        // Given
+        when(catalogVersionService.currentVersion()).thenReturn(Mono.just(1L));
+        Sinks.One<ProjectCapitalOptimized> running = Sinks.one();
+
+        // When
+        var first = underTest.deduplicate(query("100.00"), null, () -> count(running.asMono()));
+        var second = underTest.deduplicate(query("100.0"), null, () -> count(Mono.just(RESULT)));
+        var both = Mono.zip(first, second).cache();
+        both.subscribe();
+        running.tryEmitValue(RESULT);
+
+        // Then
+        StepVerifier.create(both)
+                .assertNext(results -> assertThat(results.getT2()).isSameAs(results.getT1()))
+                .verifyComplete();
+        assertThat(computations.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.consumer.deduplication.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldNotAttachToARunningComputation_ThatGivesUpBeforeTheQueryDeadline() {
+        // Given
+        when(catalogVersionService.currentVersion()).thenReturn(Mono.just(1L));
+        Instant now = Instant.now();
+        underTest.deduplicate(query("100.00"), now.plusSeconds(1), () -> count(Mono.never())).subscribe();
+
+        // When & Then: A later deadline computes again, and an earlier one attaches to that computation.
+        underTest.deduplicate(query("100.00"), now.plusSeconds(60), () -> count(Mono.never())).subscribe();
+        StepVerifier.create(underTest.deduplicate(query("100.00"), now.plusSeconds(30), () -> count(Mono.just(RESULT)))
+                        .timeout(Duration.ofMillis(100)))
+                .expectError(TimeoutException.class)
+                .verify();
+        assertThat(computations.get()).isEqualTo(2);
+
+        // When & Then: Without a deadline, no running computation is enough.
+        StepVerifier.create(underTest.deduplicate(query("100.00"), null, () -> count(Mono.just(RESULT))))
+                .expectNext(RESULT)
+                .verifyComplete();
+        assertThat(computations.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReuseCompletedResultWithinWindow() {
+        // Given
+        when(catalogVersionService.currentVersion()).thenReturn(Mono.just(1L));
+
+        // When
+        StepVerifier.create(underTest.deduplicate(query("100.00"), null, () -> count(Mono.just(RESULT))))
+                .expectNext(RESULT)
+                .verifyComplete();
+        StepVerifier.create(underTest.deduplicate(query("100.00"), null, () -> count(Mono.just(RESULT))))
+                .expectNext(RESULT)
+                .verifyComplete();
+
+        // Then
+        assertThat(computations.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.consumer.deduplication.queries")
+                .tag("outcome", "coalesced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecompute_WhenCatalogVersionChanged() {
+        // Given
+        when(catalogVersionService.currentVersion()).thenReturn(Mono.just(1L), Mono.just(2L));
+
+        // When
+        underTest.deduplicate(query("100.00"), null, () -> count(Mono.just(RESULT))).block();
+        underTest.deduplicate(query("100.00"), null, () -> count(Mono.just(RESULT))).block();
+
+        // Then
+        assertThat(computations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotRetainFailedComputation() {
+        // Given
+        when(catalogVersionService.currentVersion()).thenReturn(Mono.just(1L));
+
+        // When
+        StepVerifier.create(underTest.deduplicate(query("100.00"), null,
+                        () -> count(Mono.error(new IllegalStateException("Simulated failure")))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        // Then
+        StepVerifier.create(underTest.deduplicate(query("100.00"), null, () -> count(Mono.just(RESULT))))
+                .expectNext(RESULT)
+                .verifyComplete();
+        assertThat(computations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldComputeWithoutCoalescing_WhenCatalogVersionIsUnavailable() {
+        // Given
+        when(catalogVersionService.currentVersion()).thenReturn(Mono.empty());
+
+        // When
+        underTest.deduplicate(query("100.00"), null, () -> count(Mono.just(RESULT))).block();
+        underTest.deduplicate(query("100.00"), null, () -> count(Mono.just(RESULT))).block();
+
+        // Then
+        assertThat(computations.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("roi.optimizer.consumer.deduplication.queries")
+                .tag("outcome", "bypassed").counter().count()).isEqualTo(2);
+    }
+
+    private static CapitalMaximizationQueryEvent query(String initialCapital) {
+        return new CapitalMaximizationQueryEvent(2, new BigDecimal(initialCapital));
+    }
+
+    private Mono<ProjectCapitalOptimized> count(Mono<ProjectCapitalOptimized> computation) {
+        return Mono.defer(() -> {
+            computations.incrementAndGet();
+            return computation;
+        });
+    }
+}
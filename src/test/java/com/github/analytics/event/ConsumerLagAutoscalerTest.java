@@ -0,0 +1,123 @@
+package com.github.analytics.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+
+import java.time.Duration;
+
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerLagAutoscalerTest {
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private ConsumerGroupLagReader lagReader;
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+    @Mock
+    private CapitalMaximizationEventPipeline eventPipeline;
+    @Mock
+    private ConcurrentMessageListenerContainer<Object, Object> container;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsumerLagAutoscaler underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new ConsumerLagAutoscaler(lagReader, listenerRegistry, eventPipeline, meterRegistry,
+                true, 1, 4, 100, Duration.ofSeconds(30), Duration.ofMinutes(5), DRAIN_TIMEOUT);
+    }
+
+    @Test
+    void shouldBoundDesiredConcurrencyByLimitsAndPartitionCount() {
+        assertThat(underTest.desiredConcurrency(0, 8)).isEqualTo(1);
+        assertThat(underTest.desiredConcurrency(250, 8)).isEqualTo(3);
+        assertThat(underTest.desiredConcurrency(10_000, 2)).isEqualTo(2);
+        assertThat(underTest.desiredConcurrency(10_000, 8)).isEqualTo(4);
+    }
+
+    @Test
+    void shouldDrainAndRestartContainerWithMoreConsumers_WhenLagGrows() throws Exception {
+        // Given
+        givenRunningContainerWithConcurrency(1);
+        when(lagReader.read()).thenReturn(new ConsumerGroupLagReader.ConsumerGroupLag(250, 8));
+        when(eventPipeline.drain(DRAIN_TIMEOUT)).thenReturn(true);
+
+        // When
+        underTest.evaluate();
+
+        // Then
+        InOrder inOrder = inOrder(eventPipeline, container);
+        inOrder.verify(eventPipeline).drain(DRAIN_TIMEOUT);
+        inOrder.verify(container).stop();
+        inOrder.verify(container).setConcurrency(3);
+        inOrder.verify(container).start();
+        inOrder.verify(eventPipeline).endDrain();
+
+        assertThat(meterRegistry.get("roi.optimizer.consumer.concurrency").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("roi.optimizer.consumer.lag").gauge().value()).isEqualTo(250);
+    }
+
+    @Test
+    void shouldNotScaleDown_WithinCooldown() throws Exception {
+        // Given
+        givenRunningContainerWithConcurrency(3);
+        when(lagReader.read()).thenReturn(new ConsumerGroupLagReader.ConsumerGroupLag(0, 8));
+
+        // When
+        underTest.evaluate();
+
+        // Then
+        verify(container, never()).stop();
+        verifyNoInteractions(eventPipeline);
+    }
+
+    @Test
+    void shouldPostponeRescale_WhenPipelineDoesNotDrain() throws Exception {
+        // Given
+        givenRunningContainerWithConcurrency(1);
+        when(lagReader.read()).thenReturn(new ConsumerGroupLagReader.ConsumerGroupLag(250, 8));
+        when(eventPipeline.drain(DRAIN_TIMEOUT)).thenReturn(false);
+
+        // When
+        underTest.evaluate();
+
+        // Then
+        verify(container, never()).stop();
+        verify(container, never()).setConcurrency(anyInt());
+        verify(eventPipeline).endDrain();
+    }
+
+    @Test
+    void shouldKeepConcurrency_WhenLagCannotBeRead() throws Exception {
+        // Given
+        givenRunningContainerWithConcurrency(1);
+        when(lagReader.read()).thenThrow(new IllegalStateException("Broker unavailable"));
+
+        // When
+        underTest.evaluate();
+
+        // Then
+        verify(eventPipeline, never()).drain(any());
+        verify(container, never()).stop();
+    }
+
+    private void givenRunningContainerWithConcurrency(int concurrency) {
+        when(listenerRegistry.getListenerContainer(CAPITAL_MAXIMIZATION_QUERY_LISTENER_ID)).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+        lenient().when(container.getConcurrency()).thenReturn(concurrency);
+    }
+}
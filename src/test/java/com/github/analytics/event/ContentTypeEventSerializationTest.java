@@ -0,0 +1,235 @@
+package com.github.analytics.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.github.analytics.event.EventCodecs.CONTENT_TYPE_HEADER;
+import static com.github.analytics.event.EventCodecs.readContentType;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentTypeEventSerializationTest {
+    private static final Map<String, Object> JSON_CONFIG = Map.of(
+            JsonSerializer.ADD_TYPE_INFO_HEADERS, false,
+            JsonDeserializer.VALUE_DEFAULT_TYPE, CapitalMaximizationQueryEvent.class.getName());
+
+    private ContentTypeEventSerializer serializer;
+    private ContentTypeEventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new ContentTypeEventSerializer();
+        deserializer = new ContentTypeEventDeserializer();
+        deserializer.configure(JSON_CONFIG, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    void shouldRoundTripEventInBinaryFormat() {
+        // Given
+        configureWireFormat("binary");
+        var event = new CapitalMaximizationQueryEvent(5, new BigDecimal("12345678901234567890.125"));
+        var headers = new RecordHeaders();
+
+        // When
+        byte[] payload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, event);
+        Object decoded = deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, payload);
+
+        // Then
+        assertThat(readContentType(headers)).isEqualTo("application/x-roi-capital-maximization-query;version=1");
+        assertThat(decoded).isEqualTo(event);
+        assertThat(payload.length).isLessThan(legacyJson(event).length / 2);
+    }
+
+    @Test
+    void shouldRoundTripNonUuidJobIdInBinaryFormat() {
+        // Given
+        configureWireFormat("binary");
+        var event = new CapitalMaximizationQueryEvent("sweep-42/ü", 0, BigDecimal.ZERO, JobPriority.HIGH);
+        var headers = new RecordHeaders();
+
+        // When
+        byte[] payload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, event);
+
+        // Then
+        assertThat(deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, payload)).isEqualTo(event);
+    }
+
+    @Test
+    void shouldWriteJsonWithContentType_WhenWireFormatIsJson() {
+        // Given
+        configureWireFormat("json");
+        var event = new CapitalMaximizationQueryEvent(2, new BigDecimal("100.00"));
+        var headers = new RecordHeaders();
+
+        // When
+        byte[] payload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, event);
+
+        // Then
+        assertThat(readContentType(headers)).isEqualTo("application/json");
+        assertThat(new String(payload, StandardCharsets.UTF_8)).contains("\"maxProjects\":2");
+        assertThat(deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, payload)).isEqualTo(event);
+    }
+
+    @Test
+    void shouldReadJsonEventsFromProducersWithoutBinarySupport() {
+        // Given
+        var event = new CapitalMaximizationQueryEvent(3, new BigDecimal("1000.00"));
+        byte[] payload = legacyJson(event);
+
+        var withoutContentType = new RecordHeaders();
+        var withStreamBridgeContentType = new RecordHeaders();
+        withStreamBridgeContentType.add(CONTENT_TYPE_HEADER, "\"application/json\"".getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertThat(deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, withoutContentType, payload))
+                .isEqualTo(event);
+        assertThat(deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, withStreamBridgeContentType, payload))
+                .isEqualTo(event);
+    }
+
+    @Test
+    void shouldKeepNormalPriorityEventsReadableByVersionOneConsumers() {
+        // Given
+        configureWireFormat("binary");
+        var uuidJobId = new CapitalMaximizationQueryEvent(7, new BigDecimal("0.001"));
+        var textJobId = new CapitalMaximizationQueryEvent("sweep-7", 7, new BigDecimal("1E+3"), JobPriority.NORMAL);
+
+        for (var event : new CapitalMaximizationQueryEvent[]{uuidJobId, textJobId}) {
+            var headers = new RecordHeaders();
+
+            // When
+            byte[] payload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, event);
+
+            // Then
+            assertThat(EventCodecs.version(readContentType(headers))).isEqualTo(1);
+            assertThat(decodeAsVersionOneConsumer(payload)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void shouldWriteVersionTwo_OnlyForHighPriorityEvents() {
+        // Given
+        configureWireFormat("binary");
+        var event = new CapitalMaximizationQueryEvent(null, 4, new BigDecimal("250.50"), JobPriority.HIGH);
+        var headers = new RecordHeaders();
+
+        // When
+        byte[] payload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, event);
+
+        // Then
+        assertThat(readContentType(headers)).isEqualTo("application/x-roi-capital-maximization-query;version=2");
+        assertThat(deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, payload)).isEqualTo(event);
+    }
+
+    @Test
+    void shouldDecodeVersionOnePayloadsAsNormalPriority() {
+        // Given
+        configureWireFormat("binary");
+        var headers = new RecordHeaders();
+        var event = new CapitalMaximizationQueryEvent(null, 4, new BigDecimal("250.50"), JobPriority.HIGH);
+        byte[] payload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, event);
+        byte[] versionOnePayload = Arrays.copyOf(payload, payload.length - 1); // Version 1 has no priority byte
+        headers.remove(CONTENT_TYPE_HEADER);
+        headers.add(CONTENT_TYPE_HEADER,
+                "application/x-roi-capital-maximization-query;version=1".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        Object decoded = deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, versionOnePayload);
+
+        // Then
+        assertThat(decoded).isEqualTo(new CapitalMaximizationQueryEvent(
+                event.jobId(), event.maxProjects(), event.initialCapital(), JobPriority.NORMAL));
+    }
+
+    @Test
+    void shouldRejectUnsupportedSchemaVersion() {
+        // Given
+        configureWireFormat("binary");
+        var headers = new RecordHeaders();
+        byte[] payload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers,
+                new CapitalMaximizationQueryEvent(1, BigDecimal.TEN));
+        headers.remove(CONTENT_TYPE_HEADER);
+        headers.add(CONTENT_TYPE_HEADER,
+                "application/x-roi-capital-maximization-query;version=3".getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertThatThrownBy(() -> deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, payload))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Unsupported application/x-roi-capital-maximization-query version: 3");
+    }
+
+    @Test
+    void shouldRejectTruncatedBinaryPayload() {
+        // Given
+        configureWireFormat("binary");
+        var headers = new RecordHeaders();
+        byte[] payload = serializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers,
+                new CapitalMaximizationQueryEvent(1, BigDecimal.TEN));
+        byte[] truncated = Arrays.copyOf(payload, payload.length - 3);
+
+        // When & Then
+        assertThatThrownBy(() -> deserializer.deserialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, headers, truncated))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Malformed");
+    }
+
+    private void configureWireFormat(String wireFormat) {
+        var configs = new HashMap<String, Object>(JSON_CONFIG);
+        configs.put(ContentTypeEventSerializer.WIRE_FORMAT_CONFIG, wireFormat);
+        serializer.configure(configs, false);
+    }
+
+    // Serializes events as producers did before the binary format was introduced
+    private static byte[] legacyJson(CapitalMaximizationQueryEvent event) {
+        try (var jsonSerializer = new JsonSerializer<CapitalMaximizationQueryEvent>()) {
+            jsonSerializer.configure(JSON_CONFIG, false);
+            return jsonSerializer.serialize(CAPITAL_MAXIMIZATION_QUERY_TOPIC, event);
+        }
+    }
+
+    /**
+     * The decoder of consumers that only read version 1, which rejects trailing bytes.
+     */
+    private static CapitalMaximizationQueryEvent decodeAsVersionOneConsumer(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        String jobId = switch (buffer.get()) {
+            case 0 -> new UUID(buffer.getLong(), buffer.getLong()).toString();
+            case 1 -> new String(readField(buffer), StandardCharsets.UTF_8);
+            default -> throw new SerializationException("Unknown job ID encoding");
+        };
+        int maxProjects = buffer.getInt();
+        int scale = buffer.getInt();
+        BigDecimal initialCapital = new BigDecimal(new BigInteger(readField(buffer)), scale);
+        if (buffer.hasRemaining()) {
+            throw new SerializationException("Trailing bytes");
+        }
+        return new CapitalMaximizationQueryEvent(jobId, maxProjects, initialCapital);
+    }
+
+    private static byte[] readField(ByteBuffer buffer) {
+        byte[] field = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(field);
+        return field;
+    }
+}
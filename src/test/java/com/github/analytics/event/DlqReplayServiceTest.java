@@ -0,0 +1,208 @@
+package com.github.analytics.event;
+
+import com.github.analytics.api.CapitalMaximizationJobResult;
+import com.github.analytics.api.ProjectCapitalOptimized;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DlqReplayServiceTest {
+    private static final TopicPartition DLQ_PARTITION = new TopicPartition(CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC, 0);
+    private static final Instant DEAD_LETTERED_AT = Instant.parse("2025-03-01T10:00:00Z");
+
+    @Mock
+    private ConsumerFactory<String, Object> consumerFactory;
+    @Mock
+    private ProjectCapitalOptimizerEventPublisher eventPublisher;
+    @Mock
+    private ProjectCapitalOptimizerEventConsumer eventConsumer;
+
+    private MockConsumer<String, Object> dlqConsumer;
+    private Map<TopicPartition, OffsetAndMetadata> earlierCheckpoints = Map.of();
+    private SimpleMeterRegistry meterRegistry;
+    private DlqReplayService underTest;
+
+    @BeforeEach
+    void setUp() {
+        dlqConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            // MockConsumer forgets committed offsets on assignment, unlike the offsets of a real consumer group
+            @Override
+            public synchronized Map<TopicPartition, OffsetAndMetadata> committed(Set<TopicPartition> partitions) {
+                return earlierCheckpoints.isEmpty() ? super.committed(partitions) : earlierCheckpoints;
+            }
+        };
+        dlqConsumer.updatePartitions(CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC,
+                List.of(new PartitionInfo(CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC, 0, null, null, null)));
+        dlqConsumer.updateBeginningOffsets(Map.of(DLQ_PARTITION, 0L));
+        lenient().when(consumerFactory.createConsumer(anyString(), isNull(), anyString(), any())).thenReturn(dlqConsumer);
+
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new DlqReplayService(consumerFactory, eventPublisher, eventConsumer, meterRegistry,
+                "dlq-replay-test", 100, Duration.ofMillis(10), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldRepublishMatchingEventsAndCheckpointProgress() {
+        // Given
+        var timedOut = event();
+        var invalid = event();
+        givenDeadLetteredEvents(
+                deadLettered(0, timedOut, "java.util.concurrent.TimeoutException: Did not observe any item"),
+                deadLettered(1, invalid, "InvalidCapitalMaximizationQueryException: Invalid capital"));
+        when(eventPublisher.publishEvent(timedOut)).thenReturn(Mono.just(true));
+
+        // When
+        underTest.run(new DlqReplayRequest(DlqReplayRequest.Mode.REPUBLISH, null, null, "timeout", 100, false));
+
+        // Then
+        verify(eventPublisher).publishEvent(timedOut);
+        verify(eventPublisher, never()).publishEvent(invalid);
+
+        DlqReplayStatus status = underTest.status();
+        assertThat(status.state()).isEqualTo(DlqReplayStatus.State.COMPLETED);
+        assertThat(status.scanned()).isEqualTo(2);
+        assertThat(status.replayed()).isEqualTo(1);
+        assertThat(status.skipped()).isEqualTo(1);
+        assertThat(status.checkpoints()).containsEntry(0, 2L);
+        assertThat(meterRegistry.get("roi.optimizer.dlq_replay.events").tag("outcome", "replayed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldProcessEventsDirectly_WhenModeIsProcess() {
+        // Given
+        var event = event();
+        givenDeadLetteredEvents(deadLettered(0, event, "Simulated failure"));
+        when(eventConsumer.process(event)).thenReturn(Mono.just(CapitalMaximizationJobResult.completed(event.jobId(),
+                new ProjectCapitalOptimized(List.of(), event.initialCapital()))));
+
+        // When
+        underTest.run(new DlqReplayRequest(DlqReplayRequest.Mode.PROCESS, null, null, null, 100, false));
+
+        // Then
+        verify(eventConsumer).process(event);
+        verifyNoInteractions(eventPublisher);
+        assertThat(underTest.status().replayed()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountEventsAsFailed_WhenTheirJobFailsAgainInProcessMode() {
+        // Given
+        var event = event();
+        givenDeadLetteredEvents(deadLettered(0, event, "Simulated failure"));
+        when(eventConsumer.process(event))
+                .thenReturn(Mono.just(CapitalMaximizationJobResult.failed(event.jobId(), "Capital maximization failed")));
+
+        // When
+        underTest.run(new DlqReplayRequest(DlqReplayRequest.Mode.PROCESS, null, null, null, 100, false));
+
+        // Then
+        DlqReplayStatus status = underTest.status();
+        assertThat(status.replayed()).isZero();
+        assertThat(status.failed()).isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.dlq_replay.events").tag("outcome", "failed").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.dlq_replay.events").tag("outcome", "replayed").counter().count())
+                .isZero();
+    }
+
+    @Test
+    void shouldResumeFromCheckpoint_AndSkipEventsOutsideTimeRange() {
+        // Given
+        var alreadyReplayed = event();
+        var inRange = event();
+        var late = event();
+        givenDeadLetteredEvents(
+                deadLettered(0, alreadyReplayed, "Simulated failure"),
+                deadLettered(1, inRange, "Simulated failure"),
+                deadLettered(2, late, "Simulated failure"));
+        earlierCheckpoints = Map.of(DLQ_PARTITION, new OffsetAndMetadata(1));
+        when(eventPublisher.publishEvent(inRange)).thenReturn(Mono.just(true));
+
+        // When
+        underTest.run(new DlqReplayRequest(DlqReplayRequest.Mode.REPUBLISH,
+                null, DEAD_LETTERED_AT.plusSeconds(3), null, 100, false));
+
+        // Then
+        verify(eventPublisher).publishEvent(inRange);
+        verify(eventPublisher, never()).publishEvent(late);
+        verify(eventPublisher, never()).publishEvent(alreadyReplayed);
+        assertThat(underTest.status().scanned()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountRecordsWithoutQueryEventAsFailed() {
+        // Given
+        givenDeadLetteredEvents(new ConsumerRecord<>(CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC, 0, 0, "key", "not an event"));
+
+        // When
+        underTest.run(new DlqReplayRequest(DlqReplayRequest.Mode.REPUBLISH, null, null, null, 100, false));
+
+        // Then
+        assertThat(underTest.status().failed()).isEqualTo(1);
+        assertThat(underTest.status().checkpoints()).containsEntry(0, 1L);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldRejectRateAboveConfiguredMaximum() {
+        // Given
+        var request = new DlqReplayRequest(DlqReplayRequest.Mode.REPUBLISH, null, null, null, 1_000, false);
+
+        // When & Then
+        assertThatThrownBy(() -> underTest.start(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cannot exceed 100 events per second");
+        assertThat(underTest.status().state()).isEqualTo(DlqReplayStatus.State.IDLE);
+    }
+
+    @SafeVarargs
+    private void givenDeadLetteredEvents(ConsumerRecord<String, Object>... records) {
+        dlqConsumer.updateEndOffsets(Map.of(DLQ_PARTITION, (long) records.length));
+        dlqConsumer.schedulePollTask(() -> List.of(records).forEach(dlqConsumer::addRecord));
+    }
+
+    private static ConsumerRecord<String, Object> deadLettered(long offset, CapitalMaximizationQueryEvent event, String error) {
+        var headers = new RecordHeaders();
+        headers.add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, error.getBytes(StandardCharsets.UTF_8));
+        return new ConsumerRecord<>(CAPITAL_MAXIMIZATION_QUERY_DLQ_TOPIC, 0, offset,
+                DEAD_LETTERED_AT.plusSeconds(offset * 2).toEpochMilli(), TimestampType.CREATE_TIME, 0, 0,
+                "key", event, headers, Optional.empty());
+    }
+
+    private static CapitalMaximizationQueryEvent event() {
+        return new CapitalMaximizationQueryEvent(2, new BigDecimal("100.00"));
+    }
+}
@@ -1,14 +1,22 @@
 package com.github.analytics.event;
 
+import com.github.analytics.api.CapitalMaximizationJobResult;
+import com.github.analytics.api.CapitalMaximizationJobService;
 import com.github.analytics.api.CapitalMaximizationQuery;
+import com.github.analytics.api.CapitalOptimizationMetrics;
+import com.github.analytics.api.OptimizationCostEstimator;
 import com.github.analytics.api.ProjectCapitalOptimized;
 import com.github.analytics.api.ProjectCapitalOptimizer;
+import com.github.analytics.api.SpilledCatalog;
+import com.github.analytics.exception.CapitalMaximizationDeadlineExceededException;
+import com.github.analytics.exception.OptimizationCapacityExceededException;
 import com.github.projects.api.ProjectService;
 import com.github.projects.exception.ProjectNotFoundException;
 import com.github.projects.model.AuditMetadata;
 import com.github.projects.model.ProjectDTO;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,11 +25,19 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
 import static java.util.UUID.randomUUID;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +47,18 @@ class ProjectCapitalOptimizerEventConsumerTest {
     private ProjectService projectService;
     @Mock
     private ProjectCapitalOptimizer projectCapitalOptimizer;
+    @Mock
+    private OptimizationCostEstimator costEstimator;
+    @Mock
+    private CapitalMaximizationJobService capitalMaximizationJobService;
+    @Mock
+    private CapitalMaximizationEventPipeline eventPipeline;
+    @Mock
+    private CapitalOptimizationMetrics capitalOptimizationMetrics;
+    @Mock
+    private CapitalMaximizationQueryDeduplicator queryDeduplicator;
+    @Mock
+    private ExternalMemoryCatalogLoader externalMemoryCatalogLoader;
 
     @InjectMocks
     private ProjectCapitalOptimizerEventConsumer underTest;
@@ -81,4 +109,114 @@ class ProjectCapitalOptimizerEventConsumerTest {
         verify(projectService, times(1)).findAll();
         verifyNoMoreInteractions(projectService, projectCapitalOptimizer);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStoreCompletedResultUnderEventJobId_WhenEventIsHandledInItsTopicLane() {
+        // Given
+        var project = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
+        var optimized = new ProjectCapitalOptimized(List.of(project), new BigDecimal("500.00"));
+
+        when(projectService.findAll()).thenReturn(Flux.just(project));
+        when(projectCapitalOptimizer.maximizeCapital(any(CapitalMaximizationQuery.class))).thenReturn(Mono.just(optimized));
+        when(capitalMaximizationJobService.saveResult(any(CapitalMaximizationJobResult.class))).thenReturn(Mono.empty());
+        when(eventPipeline.submit(eq(JobPriority.HIGH), eq(0), any())).thenAnswer(invocation -> invocation.getArgument(2));
+        when(queryDeduplicator.deduplicate(eq(EVENT), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Mono<ProjectCapitalOptimized>>>getArgument(2).get());
+
+        // When & Then
+        StepVerifier.create(underTest.handleCapitalMaximizationEvent(EVENT, CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC, 0, null)).verifyComplete();
+
+        verify(capitalMaximizationJobService).saveResult(argThat(jobResult ->
+                jobResult.jobId().equals(EVENT.jobId()) &&
+                        jobResult.status() == CapitalMaximizationJobResult.Status.COMPLETED &&
+                        jobResult.result().equals(optimized)));
+        verify(capitalOptimizationMetrics).record(eq(CapitalOptimizationMetrics.Mode.ASYNC), eq(EVENT.jobId()),
+                eq(EVENT.maxProjects()), eq(EVENT.initialCapital()), eq(optimized), any(Duration.class));
+    }
+
+    @Test
+    void shouldShedEventBeforeLoadingCatalog_WhenDeadlineHasPassed() {
+        // Given
+        var deadline = EventDeadlines.write(Instant.now().minusSeconds(1));
+        when(capitalMaximizationJobService.saveResult(any(CapitalMaximizationJobResult.class))).thenReturn(Mono.empty());
+        when(eventPipeline.submit(eq(JobPriority.NORMAL), eq(0), any())).thenAnswer(invocation -> invocation.getArgument(2));
+
+        // When & Then
+        StepVerifier.create(underTest.handleCapitalMaximizationEvent(EVENT, CAPITAL_MAXIMIZATION_QUERY_TOPIC, 0, deadline))
+                .verifyComplete();
+
+        verify(capitalMaximizationJobService).saveResult(argThat(jobResult ->
+                jobResult.jobId().equals(EVENT.jobId()) && jobResult.status() == CapitalMaximizationJobResult.Status.FAILED));
+        verify(capitalOptimizationMetrics).recordDeadlineExceeded(CapitalOptimizationMetrics.DeadlineOutcome.SHED);
+        verifyNoInteractions(projectService, projectCapitalOptimizer, queryDeduplicator);
+    }
+
+    @Test
+    void shouldRecordCancellationWithoutRetrying_WhenOptimizerExceedsDeadline() {
+        // Given
+        var project = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
+        var deadline = EventDeadlines.write(Instant.now().plusSeconds(60));
+
+        when(projectService.findAll()).thenReturn(Flux.just(project));
+        when(projectCapitalOptimizer.maximizeCapital(argThat(query -> query.deadline() != null)))
+                .thenReturn(Mono.error(new CapitalMaximizationDeadlineExceededException("Deadline exceeded")));
+        when(capitalMaximizationJobService.saveResult(any(CapitalMaximizationJobResult.class))).thenReturn(Mono.empty());
+        when(eventPipeline.submit(eq(JobPriority.NORMAL), eq(0), any())).thenAnswer(invocation -> invocation.getArgument(2));
+        when(queryDeduplicator.deduplicate(eq(EVENT), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Mono<ProjectCapitalOptimized>>>getArgument(2).get());
+
+        // When & Then
+        StepVerifier.create(underTest.handleCapitalMaximizationEvent(EVENT, CAPITAL_MAXIMIZATION_QUERY_TOPIC, 0, deadline))
+                .verifyComplete();
+
+        verify(projectCapitalOptimizer, times(1)).maximizeCapital(any(CapitalMaximizationQuery.class));
+        verify(capitalOptimizationMetrics).recordDeadlineExceeded(CapitalOptimizationMetrics.DeadlineOutcome.CANCELLED);
+        verify(capitalMaximizationJobService).saveResult(argThat(jobResult ->
+                jobResult.status() == CapitalMaximizationJobResult.Status.FAILED));
+    }
+
+    @Test
+    void shouldWaitForOptimizerCapacity_WhenOptimizerIsSaturated() {
+        // Given
+        var project = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
+        var optimized = new ProjectCapitalOptimized(List.of(project), new BigDecimal("500.00"));
+        var attempts = new AtomicInteger();
+
+        when(projectService.findAll()).thenReturn(Flux.just(project));
+        when(projectCapitalOptimizer.maximizeCapital(any(CapitalMaximizationQuery.class))).thenReturn(Mono.defer(() ->
+                attempts.incrementAndGet() == 1
+                        ? Mono.error(new OptimizationCapacityExceededException("Optimization capacity exceeded", null))
+                        : Mono.just(optimized)));
+
+        // When & Then
+        StepVerifier.create(underTest.processCapitalMaximizationEvent(EVENT))
+                .expectNext(optimized)
+                .verifyComplete();
+
+        assertThat(attempts.get()).isEqualTo(2);
+        verify(projectService, times(1)).findAll(); // The catalog is not reloaded while waiting for capacity
+    }
+
+    @Test
+    void shouldOptimizeTheSpilledScan_WithoutTheCatalogIndex_WhenExternalMemoryIsEnabled(@TempDir Path directory) {
+        // Given
+        var project = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
+        var optimized = new ProjectCapitalOptimized(List.of(project), new BigDecimal("600.00"));
+
+        when(projectService.scanAll()).thenReturn(Flux.just(project));
+        when(externalMemoryCatalogLoader.isEnabled()).thenReturn(true);
+        when(externalMemoryCatalogLoader.load(any(), any())).thenAnswer(invocation ->
+                SpilledCatalog.spill(invocation.getArgument(0), directory, 10, invocation.getArgument(1)));
+        when(projectCapitalOptimizer.maximizeCapital(any(SpilledCatalog.class), eq(2), eq(new BigDecimal("100")), isNull()))
+                .thenReturn(Mono.just(optimized));
+
+        // When & Then
+        StepVerifier.create(underTest.processCapitalMaximizationEvent(EVENT))
+                .expectNext(optimized)
+                .verifyComplete();
+
+        verify(costEstimator).recordCatalogSize(1);
+        verify(projectService, never()).findAll();
+        verify(projectCapitalOptimizer, never()).maximizeCapital(any(CapitalMaximizationQuery.class));
+    }
+}
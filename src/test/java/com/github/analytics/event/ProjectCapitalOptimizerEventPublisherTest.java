@@ -1,19 +1,28 @@
 package com.github.analytics.event;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.cloud.stream.function.StreamBridge;
-import org.springframework.messaging.Message;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC;
+import static com.github.configuration.KafkaConfiguration.CAPITAL_MAXIMIZATION_QUERY_TOPIC;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
@@ -21,24 +30,24 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ProjectCapitalOptimizerEventPublisherTest {
-    private static final String CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING = "capital-maximization-query-out-0";
-    private static final String PARTITION_KEY_HEADER = "PARTITION_KEY";
 
     @Mock
-    private StreamBridge streamBridge;
+    private KafkaTemplate<String, CapitalMaximizationQueryEvent> kafkaTemplate;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private ProjectCapitalOptimizerEventPublisher publisher;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new ProjectCapitalOptimizerEventPublisher(kafkaTemplate, meterRegistry);
+    }
+
     @Test
-    void shouldPublishEventSuccessfully_WhenStreamBridgeReturnsTrue() {
+    void shouldPublishEventSuccessfully_WhenBrokerAcknowledgesWrite() {
         // Given
         CapitalMaximizationQueryEvent event = new CapitalMaximizationQueryEvent(2, new BigDecimal("100.00"));
-        String expectedPartitionKey = computePartitionKey(event);
-
-        // Ensure the stub matches the exact parameters
-        when(streamBridge.send(eq(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING), any(Message.class)))
-                .thenReturn(true);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> acknowledged(invocation.getArgument(0)));
 
         // When
         Mono<Boolean> result = publisher.publishEvent(event);
@@ -48,33 +57,113 @@ class ProjectCapitalOptimizerEventPublisherTest {
                 .expectNext(true)
                 .verifyComplete();
 
-        ArgumentCaptor<Message<CapitalMaximizationQueryEvent>> messageCaptor = ArgumentCaptor.forClass(Message.class);
-        verify(streamBridge, times(1))
-                .send(eq(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING), messageCaptor.capture());
+        ArgumentCaptor<ProducerRecord<String, CapitalMaximizationQueryEvent>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
+
+        ProducerRecord<String, CapitalMaximizationQueryEvent> actualRecord = recordCaptor.getValue();
+        assertThat(actualRecord.topic()).isEqualTo(CAPITAL_MAXIMIZATION_QUERY_TOPIC);
+        assertThat(actualRecord.value()).isEqualTo(event);
+        assertThat(actualRecord.key()).isEqualTo(computePartitionKey(event));
+
+        assertThat(meterRegistry.get("roi.optimizer.publisher.ack_latency").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.publisher.events").tag("outcome", "acknowledged").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSendOffTheSubscribingThread_SinceTheProducerMayBlock() {
+        // Given
+        var event = new CapitalMaximizationQueryEvent(2, new BigDecimal("100.00"));
+        var sendingThread = new AtomicReference<String>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sendingThread.set(Thread.currentThread().getName());
+            return acknowledged(invocation.getArgument(0));
+        });
+
+        // When
+        StepVerifier.create(publisher.publishEvent(event)).expectNext(true).verifyComplete();
+
+        // Then
+        assertThat(sendingThread.get()).startsWith("boundedElastic").isNotEqualTo(Thread.currentThread().getName());
+    }
+
+    @Test
+    void shouldUseTheSamePartitionKey_ForCapitalsDifferingOnlyInScale() {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> acknowledged(invocation.getArgument(0)));
+
+        // When
+        StepVerifier.create(publisher.publishEvent(new CapitalMaximizationQueryEvent(2, new BigDecimal("100"))))
+                .expectNext(true).verifyComplete();
+        StepVerifier.create(publisher.publishEvent(new CapitalMaximizationQueryEvent(2, new BigDecimal("100.00"))))
+                .expectNext(true).verifyComplete();
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, CapitalMaximizationQueryEvent>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        assertThat(recordCaptor.getAllValues().get(0).key()).isEqualTo(recordCaptor.getAllValues().get(1).key());
+    }
+
+    @Test
+    void shouldPublishHighPriorityEventToPriorityTopic() {
+        // Given
+        var event = new CapitalMaximizationQueryEvent(null, 2, new BigDecimal("100.00"), JobPriority.HIGH);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> acknowledged(invocation.getArgument(0)));
 
-        Message<CapitalMaximizationQueryEvent> actualMessage = messageCaptor.getValue();
-        assertThat(actualMessage).isNotNull();
-        assertThat(actualMessage.getPayload()).isEqualTo(event);
-        assertThat(actualMessage.getHeaders()).containsEntry(PARTITION_KEY_HEADER, expectedPartitionKey);
+        // When
+        StepVerifier.create(publisher.publishEvent(event)).expectNext(true).verifyComplete();
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, CapitalMaximizationQueryEvent>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        assertThat(recordCaptor.getValue().topic()).isEqualTo(CAPITAL_MAXIMIZATION_PRIORITY_QUERY_TOPIC);
     }
 
     @Test
-    void shouldReturnFalse_WhenStreamBridgeFailsToSendMessage() {
+    void shouldWriteDeadlineHeader_WhenDeadlineIsGiven() {
+        // Given
+        var event = new CapitalMaximizationQueryEvent(2, new BigDecimal("100.00"));
+        var deadline = Instant.parse("2025-03-01T10:00:30Z");
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> acknowledged(invocation.getArgument(0)));
+
+        // When
+        StepVerifier.create(publisher.publishEvent(event, deadline)).expectNext(true).verifyComplete();
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, CapitalMaximizationQueryEvent>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(recordCaptor.capture());
+        var header = recordCaptor.getValue().headers().lastHeader(EventDeadlines.DEADLINE_HEADER);
+        assertThat(EventDeadlines.read(header.value())).isEqualTo(deadline);
+    }
+
+    @Test
+    void shouldNotSendUntilSubscribed() {
         // Given
         CapitalMaximizationQueryEvent event = new CapitalMaximizationQueryEvent(2, new BigDecimal("100.00"));
-        when(streamBridge.send(eq(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING), any(Message.class)))
-                .thenReturn(false);
+
+        // When
+        publisher.publishEvent(event);
+
+        // Then
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void shouldPropagateError_WhenBrokerRejectsWrite() {
+        // Given
+        CapitalMaximizationQueryEvent event = new CapitalMaximizationQueryEvent(2, new BigDecimal("100.00"));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Simulated Kafka failure")));
 
         // When
         Mono<Boolean> result = publisher.publishEvent(event);
 
         // Then
         StepVerifier.create(result)
-                .expectNext(false)
-                .verifyComplete();
+                .expectErrorMatches(throwable -> throwable.getMessage().equals("Simulated Kafka failure"))
+                .verify();
 
-        verify(streamBridge, times(1))
-                .send(eq(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING), any(Message.class));
+        assertThat(meterRegistry.get("roi.optimizer.publisher.events").tag("outcome", "failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("roi.optimizer.publisher.ack_latency").timer().count()).isZero();
     }
 
     @Test
@@ -84,41 +173,34 @@ class ProjectCapitalOptimizerEventPublisherTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Capital maximization query event cannot be null");
 
-        verifyNoInteractions(streamBridge);
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
-    void shouldGenerateCorrectPartitionKey_WhenPublishingEvent() {
+    void shouldRouteIdenticalQueriesWithTheSameKey() {
         // Given
-        CapitalMaximizationQueryEvent event = new CapitalMaximizationQueryEvent(5, new BigDecimal("5000.00"));
-        String expectedPartitionKey = computePartitionKey(event);
-
-        when(streamBridge.send(eq(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING), any(Message.class)))
-                .thenReturn(true);
+        var first = new CapitalMaximizationQueryEvent(5, new BigDecimal("5000.00"));
+        var second = new CapitalMaximizationQueryEvent(5, new BigDecimal("5000.00"));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> acknowledged(invocation.getArgument(0)));
 
         // When
-        Mono<Boolean> result = publisher.publishEvent(event);
-
-        // Then
-        StepVerifier.create(result)
+        StepVerifier.create(publisher.publishEvent(first).then(publisher.publishEvent(second)))
                 .expectNext(true)
                 .verifyComplete();
 
-        ArgumentCaptor<Message<CapitalMaximizationQueryEvent>> messageCaptor = ArgumentCaptor.forClass(Message.class);
-        verify(streamBridge, times(1))
-                .send(eq(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING), messageCaptor.capture());
-
-        Message<CapitalMaximizationQueryEvent> actualMessage = messageCaptor.getValue();
-        assertThat(actualMessage.getHeaders()).containsEntry(PARTITION_KEY_HEADER, expectedPartitionKey);
+        // Then
+        ArgumentCaptor<ProducerRecord<String, CapitalMaximizationQueryEvent>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        assertThat(recordCaptor.getAllValues())
+                .extracting(ProducerRecord::key)
+                .containsOnly(computePartitionKey(first));
     }
 
     @Test
-    void shouldPropagateException_WhenStreamBridgeThrowsException() {
+    void shouldPropagateException_WhenProducerThrowsException() {
         // Given
         CapitalMaximizationQueryEvent event = new CapitalMaximizationQueryEvent(3, new BigDecimal("1000.00"));
-        RuntimeException simulatedException = new RuntimeException("Simulated Kafka failure");
-        when(streamBridge.send(eq(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING), any(Message.class)))
-                .thenThrow(simulatedException);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenThrow(new RuntimeException("Simulated Kafka failure"));
 
         // When
         Mono<Boolean> result = publisher.publishEvent(event);
@@ -129,14 +211,17 @@ class ProjectCapitalOptimizerEventPublisherTest {
                         throwable instanceof RuntimeException &&
                                 throwable.getMessage().equals("Simulated Kafka failure"))
                 .verify();
+    }
 
-        verify(streamBridge, times(1))
-                .send(eq(CAPITAL_MAXIMIZATION_QUERY_TOPIC_OUT_BINDING), any(Message.class));
+    private static CompletableFuture<SendResult<String, CapitalMaximizationQueryEvent>> acknowledged(
+            ProducerRecord<String, CapitalMaximizationQueryEvent> record) {
+        var metadata = new RecordMetadata(new TopicPartition(record.topic(), 0), 0, 0, 0L, 0, 0);
+        return CompletableFuture.completedFuture(new SendResult<>(record, metadata));
     }
 
     // Helper method to compute the expected partition key based on the event data
     private String computePartitionKey(CapitalMaximizationQueryEvent event) {
-        int hash = Objects.hash(event.maxProjects(), event.initialCapital());
-        return Integer.toString(Math.abs(hash) % 10);
+        int hash = Objects.hash(event.maxProjects(), event.initialCapital().stripTrailingZeros());
+        return Integer.toHexString(hash);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package com.github.projects.api;
+
+import com.github.projects.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldQueueCallsBeyondLimit_AndShedOnceTheQueueIsFull() {
+        // Given
+        var underTest = limiter(1, 1, 1, 1);
+        Sinks.One<String> first = Sinks.one();
+        var secondStarted = new AtomicBoolean();
+        underTest.limit(first.asMono()).subscribe();
+
+        // When
+        var second = underTest.limit(Mono.fromCallable(() -> {
+            secondStarted.set(true);
+            return "second";
+        })).toFuture();
+
+        // Then
+        assertThat(underTest.getInFlight()).isEqualTo(1);
+        assertThat(underTest.getQueued()).isEqualTo(1);
+        assertThat(secondStarted).isFalse();
+        StepVerifier.create(underTest.limit(Mono.just("third")))
+                .expectError(ConcurrencyLimitExceededException.class)
+                .verify();
+        assertThat(meterRegistry.get("roi.projects.concurrency_limiter.rejected").tag("backend", "test").counter().count())
+                .isEqualTo(1);
+
+        first.tryEmitValue("first");
+
+        assertThat(second).isCompletedWithValue("second");
+        assertThat(underTest.getInFlight()).isZero();
+        assertThat(underTest.getQueued()).isZero();
+    }
+
+    @Test
+    void shouldFreeTheQueueSlot_WhenAWaitingCallIsCancelled() {
+        // Given
+        var underTest = limiter(1, 1, 1, 1);
+        Sinks.One<String> first = Sinks.one();
+        underTest.limit(first.asMono()).subscribe();
+        Disposable waiting = underTest.limit(Mono.just("cancelled")).subscribe();
+
+        // When
+        waiting.dispose();
+        var next = underTest.limit(Mono.just("next")).toFuture();
+        first.tryEmitValue("first");
+
+        // Then
+        assertThat(next).isCompletedWithValue("next");
+        assertThat(underTest.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldGrowWhileLatencyIsStable_AndShrinkWhenItInflates() {
+        // Given
+        var underTest = limiter(10, 2, 100, 100);
+
+        // When
+        for (int round = 0; round < 5; round++) {
+            runConcurrently(underTest, 10);
+        }
+        int stableLimit = underTest.getLimit();
+
+        for (int round = 0; round < 5; round++) {
+            runConcurrently(underTest, 100);
+        }
+        int inflatedLimit = underTest.getLimit();
+
+        // Then
+        assertThat(stableLimit).isGreaterThan(10);
+        assertThat(inflatedLimit).isLessThan(stableLimit).isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.get("roi.projects.concurrency_limit").tag("backend", "test").gauge().value())
+                .isEqualTo(inflatedLimit);
+    }
+
+    /**
+     * Fills the current limit with concurrent calls and completes them all once {@code rttMillis} have passed.
+     */
+    private void runConcurrently(AdaptiveConcurrencyLimiter underTest, long rttMillis) {
+        List<Sinks.One<Integer>> pending = new ArrayList<>();
+        for (int i = underTest.getLimit(); i > 0; i--) {
+            Sinks.One<Integer> call = Sinks.one();
+            pending.add(call);
+            underTest.limit(call.asMono()).subscribe();
+        }
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(rttMillis));
+        pending.forEach(call -> call.tryEmitValue(1));
+        assertThat(underTest.getInFlight()).isZero();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit, int maxQueue) {
+        return new AdaptiveConcurrencyLimiter("test", meterRegistry, initialLimit, minLimit, maxLimit, maxQueue, clock::get);
+    }
+}
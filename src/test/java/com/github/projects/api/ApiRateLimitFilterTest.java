@@ -0,0 +1,155 @@
+package com.github.projects.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ApiRateLimitFilterTest {
+    private static final InetSocketAddress CLIENT_A = new InetSocketAddress("10.0.0.1", 40_000);
+    private static final InetSocketAddress CLIENT_B = new InetSocketAddress("10.0.0.2", 40_000);
+    private static final InetSocketAddress PROXY = new InetSocketAddress("192.168.1.10", 40_000);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger passed = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> Mono.fromRunnable(passed::incrementAndGet);
+
+    // One token per budget, refilled every 10 seconds, so a second request within the test is always rejected.
+    private final ApiRateLimitFilter underTest = new ApiRateLimitFilter(true,
+            new ClientRateLimiter("project_writes", meterRegistry, 1, 0.1, null, Duration.ofMillis(20)),
+            new ClientRateLimiter("optimizer", meterRegistry, 1, 0.1, null, Duration.ofMillis(20)),
+            List.of("192.168.1.0/24"), new ObjectMapper());
+
+    @Test
+    void shouldRejectRequestsOverBudget_WithRetryAfter() {
+        // Given
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_A));
+
+        // When
+        var rejected = filter(MockServerHttpRequest.post("/api/v1/capital/maximization/sync").remoteAddress(CLIENT_A));
+
+        // Then
+        assertThat(passed).hasValue(1);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+        StepVerifier.create(rejected.getResponse().getBodyAsString())
+                .assertNext(body -> assertThat(body).contains("\"statusCode\":429"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldKeepSeparateBudgetsPerClientAndPerEndpoint() {
+        // When
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_A));
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_B));
+        filter(MockServerHttpRequest.patch("/api/v1/projects/42").remoteAddress(CLIENT_A));
+
+        // Then
+        assertThat(passed).hasValue(3);
+    }
+
+    @Test
+    void shouldIgnoreClientSetApiKeys_WhenIdentifyingTheClient() {
+        // When
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_A).header("X-Api-Key", "key-1"));
+        var rejected = filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_A)
+                .header("X-Api-Key", "key-2"));
+
+        // Then
+        assertThat(passed).hasValue(1);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void shouldIdentifyAuthenticatedClientsByPrincipal_AcrossRemoteAddresses() {
+        // When
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_A), "client-a");
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_A), "client-b");
+        var rejected = filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_B), "client-a");
+
+        // Then
+        assertThat(passed).hasValue(2);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void shouldKeepSeparateBudgets_ForClientsBehindTheSameTrustedProxy() {
+        // When
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(PROXY)
+                .header("X-Forwarded-For", "203.0.113.7"));
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(PROXY)
+                .header("X-Forwarded-For", "203.0.113.8"));
+        var rejected = filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(PROXY)
+                .header("X-Forwarded-For", "203.0.113.7"));
+
+        // Then
+        assertThat(passed).hasValue(2);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void shouldIgnoreForwardedAddresses_SetByTheClientOrAnUntrustedPeer() {
+        // When: A client spoofs the hop before the trusted proxy, and another peer forwards without being trusted
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(PROXY)
+                .header("X-Forwarded-For", "198.51.100.1, 203.0.113.7"));
+        var spoofed = filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(PROXY)
+                .header("X-Forwarded-For", "198.51.100.2, 203.0.113.7"));
+        filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_A)
+                .header("X-Forwarded-For", "203.0.113.9"));
+        var untrusted = filter(MockServerHttpRequest.post("/api/v1/capital/maximization").remoteAddress(CLIENT_A)
+                .header("X-Forwarded-For", "203.0.113.10"));
+
+        // Then
+        assertThat(passed).hasValue(2);
+        assertThat(spoofed.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(untrusted.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void shouldRejectTrustedProxies_ThatAreNotAddressesOrRanges() {
+        assertThatThrownBy(() -> new ApiRateLimitFilter(true, null, null, List.of("proxy.internal"), new ObjectMapper()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ApiRateLimitFilter(true, null, null, List.of("10.0.0.0/33"), new ObjectMapper()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldNotLimitReads() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            filter(MockServerHttpRequest.get("/api/v1/projects").remoteAddress(CLIENT_A));
+            filter(MockServerHttpRequest.get("/api/v1/capital/maximization/jobs/42").remoteAddress(CLIENT_A));
+        }
+
+        // Then
+        assertThat(passed).hasValue(6);
+    }
+
+    private MockServerWebExchange filter(MockServerHttpRequest.BaseBuilder<?> request) {
+        var exchange = MockServerWebExchange.from(request);
+        underTest.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange filter(MockServerHttpRequest.BaseBuilder<?> request, String principalName) {
+        var exchange = MockServerWebExchange.from(request);
+        Principal principal = () -> principalName;
+        underTest.filter(exchange.mutate().principal(Mono.just(principal)).build(), chain).block();
+        return exchange;
+    }
+}
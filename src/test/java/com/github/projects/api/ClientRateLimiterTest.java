@@ -0,0 +1,112 @@
+package com.github.projects.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClientRateLimiterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final VirtualTimeScheduler sweepScheduler = VirtualTimeScheduler.create();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldAllowABurstUpToCapacity_ThenRejectUntilATokenIsRefilled() {
+        // Given: Two tokens, refilled at one per second.
+        var underTest = new ClientRateLimiter("test", meterRegistry, 2, 1.0, null, Duration.ofMillis(20), clock::get, sweepScheduler);
+
+        // When & Then
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ZERO).verifyComplete();
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ZERO).verifyComplete();
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ofSeconds(1)).verifyComplete();
+        StepVerifier.create(underTest.tryAcquire("other")).expectNext(Duration.ZERO).verifyComplete();
+
+        clock.addAndGet(Duration.ofMillis(750).toNanos());
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ofMillis(250)).verifyComplete();
+
+        clock.addAndGet(Duration.ofMillis(250).toNanos());
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ZERO).verifyComplete();
+
+        assertThat(requests("allowed")).isEqualTo(4);
+        assertThat(requests("rejected")).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldUseTheSharedBucketInRedis_WhenDistributed() {
+        // Given
+        var redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("rate-limit:test:client")), anyList()))
+                .thenReturn(Flux.just(List.of(1L, 0L)), Flux.just(List.of(0L, 400_000L)));
+        var underTest = new ClientRateLimiter("test", meterRegistry, 1, 1.0, redisTemplate, Duration.ofMillis(20), clock::get, sweepScheduler);
+
+        // When & Then
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ZERO).verifyComplete();
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ofMillis(400)).verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFallBackToLocalBuckets_WhenRedisFails() {
+        // Given
+        var redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.error(new IllegalStateException("Redis unavailable")));
+        var underTest = new ClientRateLimiter("test", meterRegistry, 1, 1.0, redisTemplate, Duration.ofMillis(20), clock::get, sweepScheduler);
+
+        // When & Then
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ZERO).verifyComplete();
+        StepVerifier.create(underTest.tryAcquire("client")).expectNext(Duration.ofSeconds(1)).verifyComplete();
+
+        assertThat(meterRegistry.get("roi.rate_limit.redis_fallbacks").tag("limiter", "test").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldDropOnlyFullBuckets_WhenSweeping() {
+        // Given: Two tokens, refilled at one per second, so a drained bucket is full again after two seconds.
+        var underTest = new ClientRateLimiter("test", meterRegistry, 2, 1.0, null, Duration.ofMillis(20), clock::get, sweepScheduler);
+        underTest.tryAcquire("idle").block();
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        underTest.tryAcquire("active").block();
+        underTest.tryAcquire("active").block();
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        sweepScheduler.advanceTimeBy(Duration.ofSeconds(2));
+
+        // Then: The active client keeps the tokens it spent.
+        assertThat(localBuckets()).isEqualTo(1);
+        StepVerifier.create(underTest.tryAcquire("active")).expectNext(Duration.ZERO).verifyComplete();
+        StepVerifier.create(underTest.tryAcquire("active")).expectNext(Duration.ofSeconds(1)).verifyComplete();
+        underTest.shutdown();
+    }
+
+    private double localBuckets() {
+        return meterRegistry.get("roi.rate_limit.local_buckets").tag("limiter", "test").gauge().value();
+    }
+
+    private double requests(String outcome) {
+        return meterRegistry.get("roi.rate_limit.requests").tag("limiter", "test").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.projects.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgedReadPolicyTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldHedgeAtMaxDelay_UntilCacheLatenciesAreKnown() {
+        // Given
+        var underTest = policy(Duration.ofMillis(1), Duration.ofMillis(100), 0.1, 10);
+
+        // When & Then
+        assertThat(underTest.hedgeDelay()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void shouldDeriveDelayFromCacheLatencyPercentile_WithinBounds() {
+        // Given
+        var underTest = policy(Duration.ofMillis(1), Duration.ofMillis(100), 0.1, 10);
+
+        // When
+        for (int i = 1; i <= 64; i++) {
+            underTest.recordCacheLatency(Duration.ofMillis(i % 2 == 0 ? 2 : 4).toNanos());
+        }
+
+        // Then
+        assertThat(underTest.hedgeDelay()).isEqualTo(Duration.ofMillis(4));
+
+        for (int i = 0; i < 512; i++) {
+            underTest.recordCacheLatency(Duration.ofSeconds(1).toNanos());
+        }
+        assertThat(underTest.hedgeDelay()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void shouldCapHedgesToTheBudgetEarnedByReads() {
+        // Given
+        var underTest = policy(Duration.ofMillis(1), Duration.ofMillis(100), 0.1, 2);
+
+        // When
+        int hedges = 0;
+        for (int i = 0; i < 100; i++) {
+            underTest.hedgeDelay();
+            if (underTest.tryHedge()) {
+                hedges++;
+            }
+        }
+
+        // Then
+        assertThat(hedges).isBetween(10, 12); // The initial burst plus one in ten reads
+        assertThat(meterRegistry.get("roi.projects.hedging.hedges").tag("outcome", "throttled").counter().count())
+                .isEqualTo(100 - hedges);
+    }
+
+    private HedgedReadPolicy policy(Duration minDelay, Duration maxDelay, double budgetRatio, int budgetBurst) {
+        return new HedgedReadPolicy(meterRegistry, true, 0.95, minDelay, maxDelay, budgetRatio, budgetBurst);
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.projects.api;
+
+import com.github.projects.exception.CriticalServiceFailureException;
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import com.github.projects.model.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectBatchLoaderTest {
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final Duration MAX_WAIT = Duration.ofMillis(50);
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProjectBatchLoader underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        var cassandraLimiter = new AdaptiveConcurrencyLimiter("cassandra", meterRegistry, 4, 1, 16, 16);
+        underTest = new ProjectBatchLoader(projectRepository, cassandraLimiter, meterRegistry, MAX_BATCH_SIZE, MAX_WAIT, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void shouldCoalesceConcurrentLoadsIntoSingleRepositoryCall() {
+        // Given
+        var project1 = createProject("Project 1");
+        var project2 = createProject("Project 2");
+        when(projectRepository.findAllProjectsById(Set.of(project1.id(), project2.id())))
+                .thenReturn(Flux.just(project1, project2));
+
+        // When
+        var results = Mono.zip(
+                underTest.load(project1.id().toString()),
+                underTest.load(project2.id().toString()),
+                underTest.load(project1.id().toString()));
+
+        // Then
+        StepVerifier.create(results)
+                .assertNext(tuple -> {
+                    assertThat(tuple.getT1()).isEqualTo(project1);
+                    assertThat(tuple.getT2()).isEqualTo(project2);
+                    assertThat(tuple.getT3()).isEqualTo(project1);
+                })
+                .verifyComplete();
+
+        verify(projectRepository, times(1)).findAllProjectsById(anyCollection());
+        assertThat(meterRegistry.get("roi.projects.batch_loader.batch_size").summary().max()).isEqualTo(3);
+        assertThat(meterRegistry.get("roi.projects.batch_loader.wait").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCompleteEmpty_WhenProjectDoesNotExist() {
+        // Given
+        var missingId = randomUUID();
+        when(projectRepository.findAllProjectsById(Set.of(missingId))).thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(underTest.load(missingId.toString())).verifyComplete();
+    }
+
+    @Test
+    void shouldCompleteEmptyWithoutQuerying_WhenIdIsNotAUuid() {
+        // When & Then
+        StepVerifier.create(underTest.load("non-existing-id")).verifyComplete();
+
+        verifyNoInteractions(projectRepository);
+    }
+
+    @Test
+    void shouldPropagateErrorToEveryWaiter_WhenBatchReadFails() {
+        // Given
+        when(projectRepository.findAllProjectsById(anyCollection()))
+                .thenReturn(Flux.error(new CriticalServiceFailureException("Simulated failure")));
+
+        // When
+        var first = underTest.load(randomUUID().toString());
+        var second = underTest.load(randomUUID().toString());
+
+        // Then
+        StepVerifier.create(Flux.merge(first, second))
+                .expectError(CriticalServiceFailureException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldQueueLoadsFromManyThreadsAtOnce() {
+        // Given
+        when(projectRepository.findAllProjectsById(anyCollection())).thenAnswer(invocation ->
+                Flux.fromIterable(invocation.<Collection<UUID>>getArgument(0)).map(id -> createProject(id, "Project")));
+        List<UUID> ids = IntStream.range(0, 1_000).mapToObj(i -> randomUUID()).toList();
+
+        // When
+        Flux<ProjectDTO> results = Flux.fromIterable(ids)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(id -> underTest.load(id.toString()))
+                .sequential();
+
+        // Then
+        StepVerifier.create(results.map(ProjectDTO::id).collectList())
+                .assertNext(loaded -> assertThat(loaded).containsExactlyInAnyOrderElementsOf(ids))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldKeepQueueing_WhenSlowBatchesFillEveryBatchSlot() {
+        // Given: One batch slot, and batches slower than the batch window.
+        var singleSlotLoader = new ProjectBatchLoader(projectRepository,
+                new AdaptiveConcurrencyLimiter("cassandra", meterRegistry, 4, 1, 16, 16), meterRegistry,
+                MAX_BATCH_SIZE, Duration.ofMillis(5), 1);
+        when(projectRepository.findAllProjectsById(anyCollection()))
+                .thenAnswer(invocation -> Flux.<ProjectDTO>empty().delaySubscription(Duration.ofMillis(100)));
+
+        try {
+            // When: Loads keep arriving while the slot is busy.
+            var loads = Flux.range(0, 30)
+                    .delayElements(Duration.ofMillis(10))
+                    .flatMap(i -> singleSlotLoader.load(randomUUID().toString()).thenReturn(i).defaultIfEmpty(i));
+
+            // Then: Every load completes, and the dispatcher still serves later loads.
+            StepVerifier.create(loads.count())
+                    .expectNext(30L)
+                    .verifyComplete();
+            StepVerifier.create(singleSlotLoader.load(randomUUID().toString()))
+                    .verifyComplete();
+            assertThat(meterRegistry.get("roi.projects.batch_loader.dispatcher_restarts").counter().count()).isZero();
+        } finally {
+            singleSlotLoader.shutdown();
+        }
+    }
+
+    private static ProjectDTO createProject(String name) {
+        return createProject(randomUUID(), name);
+    }
+
+    private static ProjectDTO createProject(UUID id, String name) {
+        return new ProjectDTO(id, name, new BigDecimal("100"), new BigDecimal("500"), AuditMetadata.empty(), 0L);
+    }
+}
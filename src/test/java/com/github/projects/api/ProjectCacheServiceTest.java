@@ -3,6 +3,7 @@ package com.github.projects.api;
 import com.github.configuration.TestcontainersConfiguration;
 import com.github.projects.model.AuditMetadata;
 import com.github.projects.model.ProjectDTO;
+import com.github.projects.model.StaleProject;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -90,6 +91,19 @@ class ProjectCacheServiceTest extends TestcontainersConfiguration {
         StepVerifier.create(retrievedProject).verifyComplete(); // No result after eviction
     }
 
+    @Test
+    void shouldKeepStaleCopyAfterEviction() {
+        ProjectDTO testProject = createTestProject();
+        String projectId = testProject.id().toString();
+        underTest.cacheProject(projectId, testProject).block();
+        underTest.evictCache(projectId).block();
+
+        Mono<ProjectDTO> staleProject = underTest.getStaleProject(projectId).map(StaleProject::project);
+        StepVerifier.create(staleProject)
+                .expectNext(testProject)
+                .verifyComplete();
+    }
+
     private static ProjectDTO createTestProject() {
         return new ProjectDTO(randomUUID(),
                 "Project 1", new BigDecimal("100"), new BigDecimal("500"),
@@ -0,0 +1,256 @@
+package com.github.projects.api;
+
+import com.github.projects.exception.CatalogChangesUnavailableException;
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectCatalogChange;
+import com.github.projects.model.ProjectDTO;
+import com.github.projects.model.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static com.github.configuration.CacheConfiguration.PROJECT_CATALOG_CHANNEL;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectCatalogIndexTest {
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private ProjectCatalogVersionService projectCatalogVersionService;
+
+    @Mock
+    private ReactiveRedisTemplate<String, ProjectCatalogChange> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProjectCatalogIndex underTest;
+
+    private final ProjectDTO cheap = project("Cheap", "10.00");
+    private final ProjectDTO medium = project("Medium", "50.00");
+    private final ProjectDTO expensive = project("Expensive", "100.00");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(redisTemplate.listenToChannel(PROJECT_CATALOG_CHANNEL)).thenReturn(Flux.never());
+        var cassandraLimiter = new AdaptiveConcurrencyLimiter("cassandra", meterRegistry, 4, 1, 16, 16);
+        underTest = new ProjectCatalogIndex(projectRepository, cassandraLimiter, projectCatalogVersionService,
+                redisTemplate, meterRegistry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void shouldBuildOnFirstRead_AndServeLaterReadsAtTheSameVersionFromMemory() {
+        // Given
+        when(projectCatalogVersionService.currentVersion()).thenReturn(Mono.just(3L));
+        when(projectRepository.findAllProjects()).thenReturn(Flux.just(expensive, cheap, medium));
+
+        // When & Then
+        StepVerifier.create(underTest.findAll())
+                .expectNext(cheap, medium, expensive)
+                .verifyComplete();
+        StepVerifier.create(underTest.findAll())
+                .expectNext(cheap, medium, expensive)
+                .verifyComplete();
+
+        verify(projectRepository, times(1)).findAllProjects();
+        assertThat(meterRegistry.get("roi.projects.catalog_index.rebuilds").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldApplyPublishedChangesIncrementally_WithoutRescanning() {
+        // Given
+        givenIndexBuiltAtVersion(3L, cheap, medium, expensive);
+        when(redisTemplate.convertAndSend(eq(PROJECT_CATALOG_CHANNEL), any())).thenReturn(Mono.just(1L));
+        var repriced = new ProjectDTO(medium.id(), medium.name(), new BigDecimal("500.00"), medium.profit(),
+                medium.auditMetadata(), 1L);
+        var added = project("Added", "20.00");
+
+        // When
+        underTest.publish(ProjectCatalogChange.upserted(4L, List.of(repriced, added))).block();
+        underTest.publish(ProjectCatalogChange.deleted(5L, cheap.id())).block();
+        when(projectCatalogVersionService.currentVersion()).thenReturn(Mono.just(5L));
+
+        // Then
+        StepVerifier.create(underTest.findAll())
+                .expectNext(added, expensive, repriced)
+                .verifyComplete();
+
+        verify(projectRepository, times(1)).findAllProjects();
+        assertThat(meterRegistry.get("roi.projects.catalog_index.incremental_updates").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRebuild_WhenAChangeWasMissed() {
+        // Given
+        givenIndexBuiltAtVersion(3L, cheap);
+
+        // When
+        underTest.apply(ProjectCatalogChange.upserted(5L, List.of(medium)));
+        when(projectCatalogVersionService.currentVersion()).thenReturn(Mono.just(5L));
+        when(projectRepository.findAllProjects()).thenReturn(Flux.just(medium, cheap, expensive));
+
+        // Then
+        StepVerifier.create(underTest.findAll())
+                .expectNext(cheap, medium, expensive)
+                .verifyComplete();
+
+        verify(projectRepository, times(2)).findAllProjects();
+    }
+
+    @Test
+    void shouldShareOneRebuildingScan_BetweenConcurrentReadsAtTheSameVersion() {
+        // Given
+        Sinks.Empty<Void> scanReleased = Sinks.empty();
+        when(projectCatalogVersionService.currentVersion()).thenReturn(Mono.just(3L));
+        when(projectRepository.findAllProjects())
+                .thenReturn(Flux.just(expensive, cheap, medium).delaySubscription(scanReleased.asMono()));
+
+        // When
+        var firstRead = underTest.findAll().collectList().toFuture();
+        var secondRead = underTest.findAll().collectList().toFuture();
+        scanReleased.tryEmitEmpty();
+
+        // Then
+        assertThat(firstRead.join()).containsExactly(cheap, medium, expensive);
+        assertThat(secondRead.join()).containsExactly(cheap, medium, expensive);
+        verify(projectRepository, times(1)).findAllProjects();
+        assertThat(meterRegistry.get("roi.projects.catalog_index.rebuilds").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldScanWithoutTheIndex_WhenCatalogVersionIsUnavailable() {
+        // Given
+        when(projectCatalogVersionService.currentVersion()).thenReturn(Mono.empty());
+        when(projectRepository.findAllProjects()).thenReturn(Flux.just(medium, cheap));
+
+        // When & Then
+        StepVerifier.create(underTest.findAll())
+                .expectNext(cheap, medium)
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("roi.projects.catalog_index.rebuilds").counter().count()).isZero();
+    }
+
+    @Test
+    void shouldReturnTheNetChangeSinceAVersion_FromTheChangelog() {
+        // Given
+        givenIndexBuiltAtVersion(3L, cheap, medium);
+        var repriced = new ProjectDTO(cheap.id(), cheap.name(), new BigDecimal("15.00"), cheap.profit(),
+                cheap.auditMetadata(), 1L);
+        underTest.apply(ProjectCatalogChange.upserted(4L, List.of(expensive)));
+        underTest.apply(ProjectCatalogChange.deleted(5L, expensive.id()));
+        underTest.apply(ProjectCatalogChange.upserted(6L, List.of(repriced)));
+        when(projectCatalogVersionService.currentVersion()).thenReturn(Mono.just(6L));
+
+        // When & Then
+        StepVerifier.create(underTest.changesSince(4L))
+                .assertNext(change -> {
+                    assertThat(change.version()).isEqualTo(6L);
+                    assertThat(change.upserted()).containsExactly(repriced);
+                    assertThat(change.deleted()).containsExactly(expensive.id());
+                })
+                .verifyComplete();
+        StepVerifier.create(underTest.changesSince(6L))
+                .assertNext(change -> assertThat(change.upserted()).isEmpty())
+                .verifyComplete();
+        verify(projectRepository, times(1)).findAllProjects();
+    }
+
+    @Test
+    void shouldRejectChangesSinceAVersion_OnceTheyAreNoLongerRetained() {
+        // Given: The changelog keeps the last two changes.
+        givenIndexBuiltAtVersion(3L, cheap);
+        underTest.apply(ProjectCatalogChange.upserted(4L, List.of(medium)));
+        underTest.apply(ProjectCatalogChange.upserted(5L, List.of(expensive)));
+        underTest.apply(ProjectCatalogChange.deleted(6L, cheap.id()));
+        when(projectCatalogVersionService.currentVersion()).thenReturn(Mono.just(6L));
+
+        // When & Then
+        StepVerifier.create(underTest.changesSince(3L))
+                .expectError(CatalogChangesUnavailableException.class)
+                .verify();
+        StepVerifier.create(underTest.changesSince(4L))
+                .assertNext(change -> {
+                    assertThat(change.upserted()).containsExactly(expensive);
+                    assertThat(change.deleted()).containsExactly(cheap.id());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamACompleteSortedCatalog_WhileChangesAreApplied() throws Exception {
+        // Given
+        List<ProjectDTO> catalog = IntStream.range(0, 200)
+                .mapToObj(i -> project("Project " + i, i + ".00"))
+                .toList();
+        givenIndexBuiltAtVersion(3L, catalog.toArray(ProjectDTO[]::new));
+        var latestVersion = new AtomicLong(3L);
+        when(projectCatalogVersionService.currentVersion()).thenAnswer(invocation -> Mono.just(latestVersion.get()));
+        lenient().when(projectRepository.findAllProjects()).thenReturn(Flux.fromIterable(catalog));
+
+        // When: Projects are repriced across the whole range while the catalog is read.
+        var random = new Random(43);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        Future<?> writes = writer.submit(() -> {
+            for (long version = 4; version < 2_000; version++) {
+                ProjectDTO project = catalog.get(random.nextInt(catalog.size()));
+                var repriced = new ProjectDTO(project.id(), project.name(),
+                        BigDecimal.valueOf(random.nextInt(20_000), 2), project.profit(), project.auditMetadata(), version);
+                underTest.apply(ProjectCatalogChange.upserted(version, List.of(repriced)));
+                latestVersion.set(version);
+            }
+        });
+
+        // Then
+        try {
+            while (!writes.isDone()) {
+                // Yielding per project lets the writes interleave with the read even on a single core
+                List<ProjectDTO> read = underTest.findAll().doOnNext(project -> Thread.yield()).collectList().block();
+                assertThat(read).extracting(ProjectDTO::id).doesNotHaveDuplicates().hasSize(catalog.size());
+                assertThat(read).isSortedAccordingTo(ProjectCatalogIndex.BY_REQUIRED_CAPITAL);
+            }
+            writes.get();
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    private void givenIndexBuiltAtVersion(long version, ProjectDTO... projects) {
+        when(projectCatalogVersionService.currentVersion()).thenReturn(Mono.just(version));
+        when(projectRepository.findAllProjects()).thenReturn(Flux.just(projects));
+        underTest.findAll().blockLast();
+    }
+
+    private static ProjectDTO project(String name, String requiredCapital) {
+        return new ProjectDTO(randomUUID(), name, new BigDecimal(requiredCapital), BigDecimal.ONE, AuditMetadata.empty(), 0L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.projects.api;
+
+import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectCatalogTreeTest {
+
+    @Test
+    void shouldKeepProjectsInOrder_ThroughRandomAdditionsAndRemovals() {
+        // Given
+        var random = new Random(17);
+        List<ProjectDTO> initial = IntStream.range(0, 100)
+                .mapToObj(i -> project(random.nextInt(50)))
+                .sorted(ProjectCatalogIndex.BY_REQUIRED_CAPITAL)
+                .toList();
+        var expected = new TreeSet<>(ProjectCatalogIndex.BY_REQUIRED_CAPITAL);
+        expected.addAll(initial);
+        ProjectCatalogTree tree = ProjectCatalogTree.of(initial);
+
+        // When
+        for (int i = 0; i < 2_000; i++) {
+            if (random.nextBoolean() && !expected.isEmpty()) {
+                ProjectDTO removed = new ArrayList<>(expected).get(random.nextInt(expected.size()));
+                expected.remove(removed);
+                tree = tree.without(removed);
+            } else {
+                ProjectDTO added = project(random.nextInt(50));
+                expected.add(added);
+                tree = tree.with(added);
+            }
+        }
+
+        // Then
+        assertThat(tree).containsExactlyElementsOf(expected);
+        assertThat(tree.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void shouldLeaveEarlierVersionsUnchanged_WhenDerivingLaterOnes() {
+        // Given
+        ProjectDTO cheap = project(10);
+        ProjectDTO expensive = project(100);
+        ProjectCatalogTree original = ProjectCatalogTree.of(List.of(cheap, expensive));
+
+        // When
+        ProjectDTO added = project(50);
+        ProjectCatalogTree derived = original.without(cheap).with(added);
+
+        // Then
+        assertThat(original).containsExactly(cheap, expensive);
+        assertThat(derived).containsExactly(added, expensive);
+        assertThat(original.without(added)).isSameAs(original);
+    }
+
+    private static ProjectDTO project(int requiredCapital) {
+        return new ProjectDTO(randomUUID(), "Project", BigDecimal.valueOf(requiredCapital), BigDecimal.ONE,
+                AuditMetadata.empty(), 0L);
+    }
+}
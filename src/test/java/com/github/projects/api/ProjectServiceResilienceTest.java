@@ -11,7 +11,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -33,6 +32,9 @@ class ProjectServiceResilienceTest extends TestcontainersConfiguration {
     @MockitoBean
     private ProjectCacheService projectCacheService;
 
+    @MockitoBean
+    private ProjectBatchLoader projectBatchLoader;
+
     private final ProjectService underTest;
 
     @Autowired
@@ -49,8 +51,8 @@ class ProjectServiceResilienceTest extends TestcontainersConfiguration {
                 .thenReturn(Mono.empty()) // Cache miss on first attempt
                 .thenReturn(Mono.just(cachedProject)); // Cache fallback should return this
 
-        when(projectRepository.findById(cachedProject.id().toString()))
-                .thenReturn(Flux.just(cachedProject).delayElements(Duration.ofSeconds(3)) // Simulating timeout
+        when(projectBatchLoader.load(cachedProject.id().toString()))
+                .thenReturn(Mono.delay(Duration.ofSeconds(3)) // Simulating timeout
                         .then(Mono.empty()));
 
         // When requesting the project
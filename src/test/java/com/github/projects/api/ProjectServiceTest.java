@@ -2,26 +2,38 @@ package com.github.projects.api;
 
 import com.github.projects.exception.InvalidProjectException;
 import com.github.projects.exception.ProjectNotFoundException;
+import com.github.projects.exception.ProjectVersionConflictException;
 import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectCatalogChange;
 import com.github.projects.model.ProjectDTO;
 import com.github.projects.model.ProjectEntity;
 import com.github.projects.model.ProjectRepository;
+import com.github.projects.model.StaleProject;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,7 +45,17 @@ class ProjectServiceTest {
     @Mock
     private ProjectCacheService projectCacheService;
 
-    @InjectMocks
+    @Mock
+    private ProjectBatchLoader projectBatchLoader;
+
+    @Mock
+    private ProjectCatalogVersionService projectCatalogVersionService;
+
+    @Mock
+    private ProjectCatalogIndex projectCatalogIndex;
+
+    private SimpleMeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
     private ProjectService underTest;
 
     private ProjectEntity projectEntity1;
@@ -41,6 +63,10 @@ class ProjectServiceTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        var cassandraLimiter = new AdaptiveConcurrencyLimiter("cassandra", meterRegistry, 4, 1, 16, 16);
+        underTest = new ProjectService(projectRepository, projectCacheService, projectBatchLoader,
+                projectCatalogVersionService, projectCatalogIndex, cassandraLimiter, hedgedReadPolicy(10), circuitBreakerRegistry, meterRegistry);
         projectEntity1 = new ProjectEntity(randomUUID(), "Project 1", BigDecimal.ZERO, BigDecimal.ONE, AuditMetadata.empty(), 0L);
         projectEntity2 = new ProjectEntity(randomUUID(), "Project 2", BigDecimal.ONE, BigDecimal.TWO, AuditMetadata.empty(), 0L);
     }
@@ -50,6 +76,8 @@ class ProjectServiceTest {
         // Given
         Iterable<ProjectEntity> projects = List.of(projectEntity1, projectEntity2);
         when(projectRepository.saveAll(projects)).thenReturn(Flux.just(projectEntity1, projectEntity2));
+        when(projectCatalogVersionService.increment()).thenReturn(Mono.just(1L));
+        when(projectCatalogIndex.publish(any())).thenReturn(Mono.empty());
 
         // When
         Flux<ProjectDTO> result = underTest.addAll(projects);
@@ -61,6 +89,9 @@ class ProjectServiceTest {
                 .verifyComplete();
 
         verify(projectRepository).saveAll(projects);
+        verify(projectCatalogVersionService).increment();
+        verify(projectCatalogIndex).publish(new ProjectCatalogChange(1L,
+                List.of(ProjectDTO.fromEntity(projectEntity1), ProjectDTO.fromEntity(projectEntity2)), List.of()));
     }
 
     @Test
@@ -99,7 +130,7 @@ class ProjectServiceTest {
         String projectId = "1";
 
         when(projectCacheService.getProjectFromCache(Mockito.anyString())).thenReturn(Mono.empty());
-        when(projectRepository.findById(projectId)).thenReturn(Mono.just(projectEntity1));
+        when(projectBatchLoader.load(projectId)).thenReturn(Mono.just(ProjectDTO.fromEntity(projectEntity1)));
         when(projectCacheService.cacheProject(Mockito.anyString(), Mockito.any())).thenReturn(Mono.just(true));
 
         // When
@@ -111,7 +142,7 @@ class ProjectServiceTest {
                 .verifyComplete();
 
         Mockito.verify(projectCacheService).getProjectFromCache(projectId); // Attempt to read from cache (cache miss)
-        Mockito.verify(projectRepository).findById(projectId);
+        Mockito.verify(projectBatchLoader).load(projectId);
         Mockito.verify(projectCacheService).cacheProject(Mockito.anyString(), Mockito.any());
     }
 
@@ -121,7 +152,7 @@ class ProjectServiceTest {
         String projectId = "2";
 
         when(projectCacheService.getProjectFromCache(Mockito.anyString())).thenReturn(Mono.empty());
-        when(projectRepository.findById(projectId)).thenReturn(Mono.empty());
+        when(projectBatchLoader.load(projectId)).thenReturn(Mono.empty());
 
         // When
         Mono<ProjectDTO> result = underTest.findById(projectId);
@@ -132,7 +163,7 @@ class ProjectServiceTest {
                         && throwable.getMessage().contains("Project not found for ID: 2"))
                 .verify();
 
-        Mockito.verify(projectRepository).findById(projectId);
+        Mockito.verify(projectBatchLoader).load(projectId);
         Mockito.verify(projectCacheService, Mockito.never()).cacheProject(Mockito.anyString(), Mockito.any()); // No caching attempt was involved
     }
 
@@ -151,7 +182,7 @@ class ProjectServiceTest {
                 .expectNext(project)
                 .verifyComplete();
 
-        verify(projectRepository, never()).findById(Mockito.anyString()); // Read project from cache and call to db was never invoked
+        verify(projectBatchLoader, never()).load(Mockito.anyString()); // Read project from cache and call to db was never invoked
     }
 
     @Test
@@ -159,7 +190,7 @@ class ProjectServiceTest {
         // Given
         String projectId = "2";
         when(projectCacheService.getProjectFromCache(projectId)).thenReturn(Mono.empty());  // Cache miss
-        when(projectRepository.findById(projectId)).thenReturn(Mono.empty());  // Repository miss
+        when(projectBatchLoader.load(projectId)).thenReturn(Mono.empty());  // Repository miss
 
         // When
         Mono<ProjectDTO> result = underTest.findById(projectId);
@@ -171,14 +202,286 @@ class ProjectServiceTest {
                 .verify();
 
         verify(projectCacheService).getProjectFromCache(projectId);
-        verify(projectRepository).findById(projectId);
+        verify(projectBatchLoader).load(projectId);
         verify(projectCacheService, never()).cacheProject(Mockito.anyString(), Mockito.any()); // No caching was invoked
     }
 
+    @Test
+    void testFindById_ShouldHedgeWithRepositoryRead_WhenCacheIsSlow() {
+        // Given
+        String projectId = "1";
+        ProjectDTO project = ProjectDTO.fromEntity(projectEntity1);
+        var cacheReadCancelled = new AtomicBoolean();
+
+        when(projectCacheService.getProjectFromCache(projectId))
+                .thenReturn(Mono.<ProjectDTO>never().doOnCancel(() -> cacheReadCancelled.set(true)));
+        when(projectBatchLoader.load(projectId)).thenReturn(Mono.just(project));
+        when(projectCacheService.cacheProject(projectId, project)).thenReturn(Mono.just(true));
+
+        // When
+        Mono<ProjectDTO> result = underTest.findById(projectId);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(project)
+                .verifyComplete();
+
+        assertThat(cacheReadCancelled).isTrue();
+        assertThat(meterRegistry.get("roi.projects.hedging.hedges").tag("outcome", "fired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindById_ShouldRecordCancelledCacheReadsAtLeastAsTheHedgeDelay() {
+        // Given
+        var hedgedReadPolicy = mock(HedgedReadPolicy.class);
+        when(hedgedReadPolicy.isEnabled()).thenReturn(true);
+        when(hedgedReadPolicy.hedgeDelay()).thenReturn(Duration.ofMillis(10));
+        when(hedgedReadPolicy.tryHedge()).thenReturn(true);
+        underTest = new ProjectService(projectRepository, projectCacheService, projectBatchLoader,
+                projectCatalogVersionService, projectCatalogIndex, new AdaptiveConcurrencyLimiter("cassandra", meterRegistry, 4, 1, 16, 16),
+                hedgedReadPolicy, circuitBreakerRegistry, meterRegistry);
+        String projectId = "1";
+        ProjectDTO project = ProjectDTO.fromEntity(projectEntity1);
+
+        when(projectCacheService.getProjectFromCache(projectId)).thenReturn(Mono.never());
+        when(projectBatchLoader.load(projectId)).thenReturn(Mono.just(project));
+        when(projectCacheService.cacheProject(projectId, project)).thenReturn(Mono.just(true));
+
+        // When
+        Mono<ProjectDTO> result = underTest.findById(projectId);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(project)
+                .verifyComplete();
+
+        verify(hedgedReadPolicy).recordCacheLatency(longThat(nanos -> nanos >= Duration.ofMillis(10).toNanos()));
+    }
+
+    @Test
+    void testFindById_ShouldReadRepositoryOnce_WhenCacheMissesAfterHedge() {
+        // Given
+        String projectId = "1";
+        ProjectDTO project = ProjectDTO.fromEntity(projectEntity1);
+
+        when(projectCacheService.getProjectFromCache(projectId)).thenReturn(Mono.delay(Duration.ofMillis(50)).then(Mono.empty()));
+        when(projectBatchLoader.load(projectId)).thenReturn(Mono.delay(Duration.ofMillis(100)).thenReturn(project));
+        when(projectCacheService.cacheProject(projectId, project)).thenReturn(Mono.just(true));
+
+        // When
+        Mono<ProjectDTO> result = underTest.findById(projectId);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(project)
+                .verifyComplete();
+
+        verify(projectBatchLoader, times(1)).load(projectId);
+    }
+
+    @Test
+    void testFindById_ShouldNotHedge_WhenHedgeBudgetIsExhausted() {
+        // Given
+        underTest = new ProjectService(projectRepository, projectCacheService, projectBatchLoader,
+                projectCatalogVersionService, projectCatalogIndex, new AdaptiveConcurrencyLimiter("cassandra", meterRegistry, 4, 1, 16, 16),
+                hedgedReadPolicy(0), circuitBreakerRegistry, meterRegistry);
+        String projectId = "1";
+        ProjectDTO project = ProjectDTO.fromEntity(projectEntity1);
+
+        when(projectCacheService.getProjectFromCache(projectId)).thenReturn(Mono.delay(Duration.ofMillis(50)).thenReturn(project));
+
+        // When
+        Mono<ProjectDTO> result = underTest.findById(projectId);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(project)
+                .verifyComplete();
+
+        verify(projectBatchLoader, never()).load(Mockito.anyString());
+        assertThat(meterRegistry.get("roi.projects.hedging.hedges").tag("outcome", "throttled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindByIdTimeoutFallback_ShouldServeStaleCopyAndRevalidate() {
+        // Given
+        String projectId = "1";
+        ProjectDTO stale = ProjectDTO.fromEntity(projectEntity1);
+        ProjectDTO fresh = ProjectDTO.fromEntity(projectEntity2);
+        Instant cachedAt = Instant.parse("2025-03-01T10:00:00Z");
+        var staleResponse = new StaleResponse();
+
+        when(projectCacheService.getProjectFromCache(projectId)).thenReturn(Mono.empty());
+        when(projectCacheService.getStaleProject(projectId)).thenReturn(Mono.just(new StaleProject(stale, cachedAt)));
+        when(projectBatchLoader.load(projectId)).thenReturn(Mono.just(fresh));
+        when(projectCacheService.cacheProject(projectId, fresh)).thenReturn(Mono.just(true));
+
+        // When
+        Mono<ProjectDTO> result = underTest.findByIdTimeoutFallback(projectId, new TimeoutException("Simulated timeout"))
+                .contextWrite(context -> context.put(StaleResponse.class, staleResponse));
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(stale)
+                .verifyComplete();
+
+        assertThat(staleResponse.cachedAt()).contains(cachedAt);
+        assertThat(meterRegistry.get("roi.projects.cache.stale_served").tag("reason", "timeout").counter().count()).isEqualTo(1);
+        verify(projectCacheService, timeout(1000)).cacheProject(projectId, fresh);
+    }
+
+    @Test
+    void testFindByIdCircuitBreakerFallback_ShouldServeStaleCopyWithoutRevalidating_WhileTheCircuitIsOpen() {
+        // Given
+        String projectId = "1";
+        ProjectDTO stale = ProjectDTO.fromEntity(projectEntity1);
+        var circuitBreaker = circuitBreakerRegistry.circuitBreaker("projects");
+        circuitBreaker.transitionToOpenState();
+
+        when(projectCacheService.getProjectFromCache(projectId)).thenReturn(Mono.empty());
+        when(projectCacheService.getStaleProject(projectId))
+                .thenReturn(Mono.just(new StaleProject(stale, Instant.parse("2025-03-01T10:00:00Z"))));
+        lenient().when(projectBatchLoader.load(projectId)).thenReturn(Mono.just(stale));
+
+        // When
+        Mono<ProjectDTO> result = underTest.findByIdCircuitBreakerFallback(projectId,
+                CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(stale)
+                .verifyComplete();
+
+        verify(projectCacheService, after(200).never()).cacheProject(any(), any());
+        assertThat(circuitBreaker.getMetrics().getNumberOfNotPermittedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindByIdTimeoutFallback_ShouldCompleteEmpty_WhenNoStaleCopyExists() {
+        // Given
+        String projectId = "1";
+        var staleResponse = new StaleResponse();
+
+        when(projectCacheService.getProjectFromCache(projectId)).thenReturn(Mono.empty());
+        when(projectCacheService.getStaleProject(projectId)).thenReturn(Mono.empty());
+
+        // When
+        Mono<ProjectDTO> result = underTest.findByIdTimeoutFallback(projectId, new TimeoutException("Simulated timeout"))
+                .contextWrite(context -> context.put(StaleResponse.class, staleResponse));
+
+        // Then
+        StepVerifier.create(result).verifyComplete();
+
+        assertThat(staleResponse.cachedAt()).isEmpty();
+        verify(projectBatchLoader, never()).load(Mockito.anyString());
+    }
+
+    @Test
+    void testUpdate_ShouldApplyChangedFields_EvictCacheAndPublishChange() {
+        // Given
+        var current = ProjectDTO.fromEntity(projectEntity1);
+        String projectId = current.id().toString();
+        var request = new UpdateProjectRequest(null, new BigDecimal("50.00"), null, 0L);
+        var saved = new ProjectEntity(current.id(), "Project 1", new BigDecimal("50.00"), BigDecimal.ONE, AuditMetadata.empty(), 1L);
+
+        when(projectRepository.findAllProjectsById(List.of(current.id()))).thenReturn(Flux.just(current));
+        when(projectRepository.save(any(ProjectEntity.class))).thenReturn(Mono.just(saved));
+        when(projectCacheService.evictAllTiers(projectId)).thenReturn(Mono.empty());
+        when(projectCatalogVersionService.increment()).thenReturn(Mono.just(7L));
+        when(projectCatalogIndex.publish(any())).thenReturn(Mono.empty());
+
+        // When
+        Mono<ProjectDTO> result = underTest.update(projectId, request);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(project -> project.requiredCapital().equals(new BigDecimal("50.00")) && project.version() == 1L)
+                .verifyComplete();
+
+        verify(projectRepository).save(argThat(entity -> entity.requiredCapital().equals(new BigDecimal("50.00"))
+                && entity.name().equals("Project 1") && entity.version() == 0L));
+        verify(projectCacheService).evictAllTiers(projectId);
+        verify(projectCatalogIndex).publish(ProjectCatalogChange.upserted(7L, List.of(ProjectDTO.fromEntity(saved))));
+    }
+
+    @Test
+    void testUpdate_ShouldRejectStaleVersion() {
+        // Given
+        var current = ProjectDTO.fromEntity(projectEntity1);
+        var request = new UpdateProjectRequest("Renamed", null, null, 3L);
+        when(projectRepository.findAllProjectsById(List.of(current.id()))).thenReturn(Flux.just(current));
+
+        // When
+        Mono<ProjectDTO> result = underTest.update(current.id().toString(), request);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(ProjectVersionConflictException.class)
+                .verify();
+
+        verify(projectRepository, never()).save(any(ProjectEntity.class));
+        verifyNoInteractions(projectCatalogIndex);
+    }
+
+    @Test
+    void testUpdate_ShouldMapLostLightweightTransactionToConflict() {
+        // Given
+        var current = ProjectDTO.fromEntity(projectEntity1);
+        when(projectRepository.findAllProjectsById(List.of(current.id()))).thenReturn(Flux.just(current));
+        when(projectRepository.save(any(ProjectEntity.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Simulated concurrent update")));
+
+        // When
+        Mono<ProjectDTO> result = underTest.update(current.id().toString(), new UpdateProjectRequest("Renamed", null, null, 0L));
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(ProjectVersionConflictException.class)
+                .verify();
+
+        verifyNoInteractions(projectCatalogIndex);
+    }
+
+    @Test
+    void testDelete_ShouldEvictBothCacheTiersAndPublishChange() {
+        // Given
+        var current = ProjectDTO.fromEntity(projectEntity1);
+        String projectId = current.id().toString();
+        when(projectRepository.findAllProjectsById(List.of(current.id()))).thenReturn(Flux.just(current));
+        when(projectRepository.delete(any(ProjectEntity.class))).thenReturn(Mono.empty());
+        when(projectCacheService.evictAllTiers(projectId)).thenReturn(Mono.empty());
+        when(projectCatalogVersionService.increment()).thenReturn(Mono.just(8L));
+        when(projectCatalogIndex.publish(any())).thenReturn(Mono.empty());
+
+        // When
+        Mono<Void> result = underTest.delete(projectId, 0L);
+
+        // Then
+        StepVerifier.create(result).verifyComplete();
+
+        verify(projectRepository).delete(argThat((ProjectEntity entity) -> entity.id().equals(current.id()) && entity.version() == 0L));
+        verify(projectCacheService).evictAllTiers(projectId);
+        verify(projectCatalogIndex).publish(ProjectCatalogChange.deleted(8L, current.id()));
+    }
+
+    @Test
+    void testDelete_ShouldFailWithNotFound_WhenIdIsNotAProjectId() {
+        // When
+        Mono<Void> result = underTest.delete("not-a-uuid", 0L);
+
+        // Then
+        StepVerifier.create(result)
+                .expectError(ProjectNotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(projectRepository, projectCatalogIndex);
+    }
+
     @Test
     void testFindAll_success() {
         // Given
-        when(projectRepository.findAll()).thenReturn(Flux.just(projectEntity1, projectEntity2));
+        when(projectCatalogIndex.findAll())
+                .thenReturn(Flux.just(ProjectDTO.fromEntity(projectEntity1), ProjectDTO.fromEntity(projectEntity2)));
 
         // When
         Flux<ProjectDTO> result = underTest.findAll();
@@ -191,4 +494,26 @@ class ProjectServiceTest {
                         project.name().equals(projectEntity2.name()))
                 .verifyComplete();
     }
+
+    @Test
+    void testScanAll_ShouldReadCassandraWithoutTheCatalogIndex() {
+        // Given
+        ProjectDTO project1 = ProjectDTO.fromEntity(projectEntity1);
+        ProjectDTO project2 = ProjectDTO.fromEntity(projectEntity2);
+        when(projectRepository.findAllProjects()).thenReturn(Flux.just(project2, project1));
+
+        // When
+        Flux<ProjectDTO> result = underTest.scanAll();
+
+        // Then
+        StepVerifier.create(result)
+                .expectNext(project2, project1)
+                .verifyComplete();
+
+        verifyNoInteractions(projectCatalogIndex);
+    }
+
+    private HedgedReadPolicy hedgedReadPolicy(int budgetBurst) {
+        return new HedgedReadPolicy(meterRegistry, true, 0.95, Duration.ofMillis(10), Duration.ofMillis(10), 0.1, budgetBurst);
+    }
 }
\ No newline at end of file
@@ -1,21 +1,32 @@
 package com.github.projects.api;
 
+import com.github.projects.exception.CatalogChangesUnavailableException;
+import com.github.projects.exception.ProjectVersionConflictException;
 import com.github.projects.model.AuditMetadata;
+import com.github.projects.model.ProjectCatalogChange;
 import com.github.projects.model.ProjectDTO;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.IntStream;
 
 import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(ProjectsApiController.class)
@@ -107,6 +118,7 @@ class ProjectsApiControllerTest {
         var projectDTO1 = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
         var projectDTO2 = new ProjectDTO(randomUUID(), "Project 2", new BigDecimal("150.00"), new BigDecimal("800.00"), AuditMetadata.empty(), 0L);
 
+        when(projectService.catalogVersion()).thenReturn(Mono.just(7L));
         when(projectService.findAll()).thenReturn(Flux.just(projectDTO1, projectDTO2));
 
         // When & Then
@@ -114,6 +126,7 @@ class ProjectsApiControllerTest {
                 .uri("/api/v1/projects")
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"catalog-7\"")
                 .expectBody()
                 .jsonPath("$.statusCode").isEqualTo(200)
                 .jsonPath("$.data.length()").isEqualTo(2)
@@ -125,6 +138,76 @@ class ProjectsApiControllerTest {
                 .jsonPath("$.data[1].requiredCapital").isEqualTo(150.00);
     }
 
+    @Test
+    void testListAllProjects_ShouldReturnNotModified_WithoutReadingTheCatalog_WhenEtagMatches() {
+        // Given
+        when(projectService.catalogVersion()).thenReturn(Mono.just(7L));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1/projects")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"catalog-7\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"catalog-7\"")
+                .expectBody().isEmpty();
+
+        verify(projectService, never()).findAll();
+    }
+
+    @Test
+    void testListAllProjects_ShouldOmitEtag_WhenCatalogVersionIsUnavailable() {
+        // Given
+        var projectDTO = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
+        when(projectService.catalogVersion()).thenReturn(Mono.empty());
+        when(projectService.findAll()).thenReturn(Flux.just(projectDTO));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1/projects")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"catalog-7\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.data.length()").isEqualTo(1);
+    }
+
+    @Test
+    void testListProjectChanges_Success() {
+        // Given
+        var updated = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 1L);
+        var deletedId = randomUUID();
+        when(projectService.findChangesSince(5L))
+                .thenReturn(Mono.just(new ProjectCatalogChange(7L, List.of(updated), List.of(deletedId))));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1/projects/changes?since=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"catalog-7\"")
+                .expectBody()
+                .jsonPath("$.data.version").isEqualTo(7)
+                .jsonPath("$.data.upserted[0].name").isEqualTo("Project 1")
+                .jsonPath("$.data.deleted[0]").isEqualTo(deletedId.toString());
+    }
+
+    @Test
+    void testListProjectChanges_ShouldReturnGone_WhenChangesAreNoLongerKnown() {
+        // Given
+        when(projectService.findChangesSince(1L))
+                .thenReturn(Mono.error(new CatalogChangesUnavailableException("Changes since catalog version 1 are unavailable")));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1/projects/changes?since=1")
+                .exchange()
+                .expectStatus().isEqualTo(410)
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo(410);
+    }
+
     @Test
     void testListProjectById_Success() {
         // Given
@@ -145,6 +228,29 @@ class ProjectsApiControllerTest {
                 .jsonPath("$.data.requiredCapital").isEqualTo(100.00);
     }
 
+    @Test
+    void testListProjectById_ShouldMarkStaleResponse_WhenServedFromStaleTier() {
+        // Given
+        String projectId = randomUUID().toString();
+        var projectDTO = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("100.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 0L);
+        Instant cachedAt = Instant.now().minus(Duration.ofMinutes(30));
+
+        when(projectService.findById(projectId)).thenReturn(Mono.deferContextual(context -> {
+            context.get(StaleResponse.class).markStale(cachedAt);
+            return Mono.just(projectDTO);
+        }));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1/projects/{id}", projectId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ProjectsApiController.CACHE_STATUS_HEADER, "STALE")
+                .expectHeader().value("Age", age -> assertThat(Long.parseLong(age)).isBetween(1799L, 1801L))
+                .expectBody()
+                .jsonPath("$.data.name").isEqualTo("Project 1");
+    }
+
     @Test
     void testListProjectById_NotFound() {
         // Given
@@ -161,4 +267,62 @@ class ProjectsApiControllerTest {
                 .jsonPath("$.statusCode").isEqualTo(404)
                 .jsonPath("$.message").isEqualTo("Project not found for ID: non-existing-id");
     }
+
+    @Test
+    void testUpdateProject_Success() {
+        // Given
+        String projectId = randomUUID().toString();
+        var updated = new ProjectDTO(randomUUID(), "Project 1", new BigDecimal("50.00"), new BigDecimal("500.00"), AuditMetadata.empty(), 2L);
+        when(projectService.update(eq(projectId), any(UpdateProjectRequest.class))).thenReturn(Mono.just(updated));
+
+        // When & Then
+        webTestClient.patch()
+                .uri("/api/v1/projects/{id}", projectId)
+                .bodyValue(new UpdateProjectRequest(null, new BigDecimal("50.00"), null, 1L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.requiredCapital").isEqualTo(50.00)
+                .jsonPath("$.data.version").isEqualTo(2);
+    }
+
+    @Test
+    void testUpdateProject_ShouldReturnConflict_WhenVersionIsStale() {
+        // Given
+        String projectId = randomUUID().toString();
+        when(projectService.update(eq(projectId), any(UpdateProjectRequest.class)))
+                .thenReturn(Mono.error(new ProjectVersionConflictException("Project was modified concurrently")));
+
+        // When & Then
+        webTestClient.patch()
+                .uri("/api/v1/projects/{id}", projectId)
+                .bodyValue(new UpdateProjectRequest("Renamed", null, null, 1L))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo(409);
+    }
+
+    @Test
+    void testUpdateProject_ShouldRejectMissingVersion() {
+        // When & Then
+        webTestClient.patch()
+                .uri("/api/v1/projects/{id}", randomUUID().toString())
+                .bodyValue(new UpdateProjectRequest("Renamed", null, null, null))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testDeleteProject_Success() {
+        // Given
+        String projectId = randomUUID().toString();
+        when(projectService.delete(projectId, 3L)).thenReturn(Mono.empty());
+
+        // When & Then
+        webTestClient.delete()
+                .uri("/api/v1/projects/{id}?version=3", projectId)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
 }
\ No newline at end of file
@@ -12,6 +12,8 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
@@ -96,4 +98,54 @@ class ProjectRepositoryTest extends TestcontainersConfiguration {
                 })
                 .verifyComplete();
     }
+
+    @Test
+    void shouldStreamProjectsAsDTOs_whenReadingTheCatalogThroughTheRowMapper() {
+
+        // Given: Two persisted projects
+        var projectC = ProjectEntity.createNewProject("Project C", new BigDecimal("10.50"), new BigDecimal("20.25"));
+        var projectD = ProjectEntity.createNewProject("Project D", new BigDecimal("30"), new BigDecimal("40"));
+        underTest.saveAll(List.of(projectC, projectD)).blockLast();
+
+        // When: The catalog is read through the direct row-mapping path
+        var projects = underTest.findAllProjects().collectList();
+
+        // Then: Every row is mapped with the same values the entity mapping would produce
+        StepVerifier.create(projects)
+                .assertNext(result -> {
+                    assertThat(result).hasSize(2);
+                    assertThat(result).allSatisfy(project -> {
+                        assertThat(project.auditMetadata().createdAt()).isNotNull();
+                        assertThat(project.version()).isNotNull();
+                    });
+                    assertThat(result).extracting(ProjectDTO::id).containsExactlyInAnyOrder(projectC.id(), projectD.id());
+                    assertThat(result).filteredOn(project -> project.id().equals(projectC.id()))
+                            .singleElement()
+                            .satisfies(project -> {
+                                assertThat(project.name()).isEqualTo("Project C");
+                                assertThat(project.requiredCapital()).isEqualByComparingTo("10.50");
+                                assertThat(project.profit()).isEqualByComparingTo("20.25");
+                            });
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnOnlyExistingProjects_whenReadingByIdsInBatch() {
+
+        // Given: Two persisted projects and one unknown ID
+        var projectE = ProjectEntity.createNewProject("Project E", BigDecimal.ONE, BigDecimal.TEN);
+        var projectF = ProjectEntity.createNewProject("Project F", BigDecimal.TWO, BigDecimal.TEN);
+        underTest.saveAll(List.of(projectE, projectF)).blockLast();
+
+        // When: The projects are read with a grouped IN query
+        var projects = underTest.findAllProjectsById(List.of(projectE.id(), projectF.id(), UUID.randomUUID()))
+                .map(ProjectDTO::name)
+                .collectList();
+
+        // Then: Only the persisted projects are returned
+        StepVerifier.create(projects)
+                .assertNext(names -> assertThat(names).containsExactlyInAnyOrder("Project E", "Project F"))
+                .verifyComplete();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.github.analytics.api;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Affordability scan comparing {@link LongVector#SPECIES_PREFERRED} lanes of required capital per step, for example
+ * eight on AVX-512. Only instantiated by {@link AffordabilityScanner#vectorIfAvailable()}, since linking this class
+ * requires {@code jdk.incubator.vector}; for the same reason it is compiled in its own source set, so that the rest of
+ * the application is compiled without the incubator module.
+ */
+final class VectorAffordabilityScanner extends AffordabilityScanner {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    int nextUnaffordable(long[] scaledRequiredCapital, int from, int to, long scaledCapital) {
+        int index = from;
+        // Right after a selection the next project is often still unaffordable; skip the vector setup then
+        if (index < to && scaledRequiredCapital[index] > scaledCapital) {
+            return index;
+        }
+
+        for (; index <= to - SPECIES.length(); index += SPECIES.length()) {
+            VectorMask<Long> unaffordable = LongVector.fromArray(SPECIES, scaledRequiredCapital, index)
+                    .compare(VectorOperators.GT, scaledCapital);
+            if (unaffordable.anyTrue()) {
+                return index + unaffordable.firstTrue();
+            }
+        }
+
+        while (index < to && scaledRequiredCapital[index] <= scaledCapital) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    String name() {
+        return "vector";
+    }
+}